@@ -0,0 +1,286 @@
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// HttpLoadTest.java
+// Local load test for UniversityHttpServer: starts the server on a free port over a generated
+// university, runs concurrent clients against it (one virtual thread each, closed loop), and
+// reports throughput and the latency distribution. Exits with status 1 when p99 is over target.
+//
+//   javac -d out src/*.java bench/*.java
+//   java -cp out HttpLoadTest                       (16 clients, 3 s warmup, 10 s measured)
+//   java -cp out HttpLoadTest -c 256 -d 30 -p99 20
+//
+// The request mix is mostly single entities (courses, staff, departments) with a few paged
+// listings and relation lists. A client that already has an ETag for a URL sends it back in
+// If-None-Match for a share of its requests (-cond), so 304s are part of the mix, and a writer
+// thread changes credits and emails (-writes per second) so that some of those ETags go stale.
+//
+// Clients and server share the machine's cores. Each client waits for its response before sending
+// the next request, so once the CPU is saturated latency is just clients / throughput (queueing):
+// pick -c below that point to measure the server rather than the queue.
+//
+// Options (all optional):
+//   -c <n>        concurrent clients                 (default 16)
+//   -w <s>        warmup seconds, not measured       (default 3)
+//   -d <s>        measured seconds                   (default 10)
+//   -p99 <ms>     p99 latency target                 (default 50)
+//   -cond <f>     share of conditional requests      (default 0.3)
+//   -writes <n>   entity changes per second          (default 100)
+public class HttpLoadTest {
+    private int clients = 16;
+    private int warmupSeconds = 3;
+    private int seconds = 10;
+    private double p99TargetMillis = 50;
+    private double conditionalShare = 0.3;
+    private int writesPerSecond = 100;
+
+    private URI[] departmentUris;
+    private URI[] courseUris;
+    private URI[] staffUris;
+    private URI[] otherUris;
+
+    public static void main(String[] args) throws Exception {
+        HttpLoadTest test = new HttpLoadTest();
+        test.parse(args);
+        System.exit(test.run() ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        UniversityRegistry registry = new UniversityRegistry();
+        new UniversityGenerator(42L, 50, 5_000, 10_000).generateInto(registry);
+        UniversityHttpServer server = new UniversityHttpServer(registry, new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            buildUris(registry, server.getPort());
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(threads)
+                    .build();
+            System.out.printf(Locale.ROOT, "Server on port %d, %d clients, %d%% conditional, %d writes/s%n",
+                    server.getPort(), clients, Math.round(conditionalShare * 100), writesPerSecond);
+
+            Thread writer = Thread.ofVirtual().start(() -> write(registry));
+            phase(client, threads, warmupSeconds);
+            Stats stats = phase(client, threads, seconds);
+            writer.interrupt();
+            writer.join();
+            return stats.report(seconds, p99TargetMillis);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // Runs every client for the given time and merges what they measured.
+    private Stats phase(HttpClient client, ExecutorService threads, int durationSeconds) throws Exception {
+        long deadline = System.nanoTime() + durationSeconds * 1_000_000_000L;
+        List<Future<Stats>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            long seed = 0x9E3779B97F4A7C15L * (i + 1);
+            futures.add(threads.submit(() -> clientLoop(client, new SplittableRandom(seed), deadline)));
+        }
+        Stats total = new Stats();
+        for (Future<Stats> future : futures) {
+            total.add(future.get());
+        }
+        return total;
+    }
+
+    private Stats clientLoop(HttpClient client, SplittableRandom random, long deadline) {
+        Stats stats = new Stats();
+        Map<URI, String> etags = new HashMap<>();
+        while (System.nanoTime() < deadline) {
+            URI uri = pick(random);
+            HttpRequest.Builder request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(10)).GET();
+            String etag = etags.get(uri);
+            if (etag != null && random.nextDouble() < conditionalShare) {
+                request.header("If-None-Match", etag);
+            }
+            long start = System.nanoTime();
+            try {
+                HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+                stats.record(response.statusCode(), System.nanoTime() - start);
+                response.headers().firstValue("ETag").ifPresent(tag -> etags.put(uri, tag));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                stats.errors++;
+            }
+        }
+        return stats;
+    }
+
+    // 40% courses, 30% staff, 20% departments, 10% listings and relation lists.
+    private URI pick(SplittableRandom random) {
+        int roll = random.nextInt(10);
+        URI[] pool = roll < 4 ? courseUris : roll < 7 ? staffUris : roll < 9 ? departmentUris : otherUris;
+        return pool[random.nextInt(pool.length)];
+    }
+
+    // Changes credits and emails at a steady rate until interrupted, invalidating ETags.
+    private void write(UniversityRegistry registry) {
+        if (writesPerSecond <= 0) {
+            return;
+        }
+        Course[] courses = registry.getAllCourses().toArray(new Course[0]);
+        Staff[] staff = registry.getAllStaff().toArray(new Staff[0]);
+        SplittableRandom random = new SplittableRandom(7L);
+        long pauseNanos = 1_000_000_000L / writesPerSecond;
+        long next = System.nanoTime();
+        try {
+            for (long n = 0; !Thread.currentThread().isInterrupted(); n++) {
+                if ((n & 1) == 0) {
+                    courses[random.nextInt(courses.length)].setCredits(1 + random.nextInt(6));
+                } else {
+                    Staff member = staff[random.nextInt(staff.length)];
+                    member.setEmail("user" + n + "@uni.edu");
+                }
+                next += pauseNanos;
+                long sleep = next - System.nanoTime();
+                if (sleep > 0) {
+                    Thread.sleep(sleep / 1_000_000, (int) (sleep % 1_000_000));
+                }
+            }
+        } catch (InterruptedException e) {
+            // Done
+        }
+    }
+
+    private void buildUris(UniversityRegistry registry, int port) throws URISyntaxException {
+        List<URI> departments = new ArrayList<>();
+        List<URI> other = new ArrayList<>();
+        for (Department department : registry.getAllDepartments()) {
+            String base = "/departments/" + department.getDepartmentCode();
+            departments.add(uri(port, base, null));
+            other.add(uri(port, base + "/staff", null));
+        }
+        List<URI> courses = new ArrayList<>();
+        for (Course course : registry.getAllCourses()) {
+            courses.add(uri(port, "/courses/" + course.getCourseCode(), null));
+        }
+        List<URI> staff = new ArrayList<>();
+        for (Staff member : registry.getAllStaff()) {
+            staff.add(uri(port, "/staff/" + member.getStaffId(), null));
+            if (staff.size() % 10 == 0) {
+                other.add(uri(port, "/staff/" + member.getStaffId() + "/departments", null));
+            }
+        }
+        for (int offset = 0; offset < 1_000; offset += 50) {
+            other.add(uri(port, "/courses", "offset=" + offset + "&limit=50"));
+            other.add(uri(port, "/staff", "offset=" + offset + "&limit=50"));
+        }
+        departmentUris = departments.toArray(new URI[0]);
+        courseUris = courses.toArray(new URI[0]);
+        staffUris = staff.toArray(new URI[0]);
+        otherUris = other.toArray(new URI[0]);
+    }
+
+    // The multi-argument URI constructor percent-encodes the path.
+    private static URI uri(int port, String path, String query) throws URISyntaxException {
+        return new URI("http", null, "127.0.0.1", port, path, query, null);
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-c":
+                    clients = Integer.parseInt(args[++i]);
+                    break;
+                case "-w":
+                    warmupSeconds = Integer.parseInt(args[++i]);
+                    break;
+                case "-d":
+                    seconds = Integer.parseInt(args[++i]);
+                    break;
+                case "-p99":
+                    p99TargetMillis = Double.parseDouble(args[++i]);
+                    break;
+                case "-cond":
+                    conditionalShare = Double.parseDouble(args[++i]);
+                    break;
+                case "-writes":
+                    writesPerSecond = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (clients < 1 || seconds < 1) {
+            throw new IllegalArgumentException("-c and -d must be at least 1");
+        }
+    }
+
+    /** Latencies and status counts of one client, or of all of them once merged. */
+    private static final class Stats {
+        long[] latencies = new long[1024];
+        int count;
+        long ok;
+        long notModified;
+        long otherStatus;
+        long errors;
+
+        void record(int status, long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (status == 200) {
+                ok++;
+            } else if (status == 304) {
+                notModified++;
+            } else {
+                otherStatus++;
+            }
+        }
+
+        void add(Stats other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, count + other.count);
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            ok += other.ok;
+            notModified += other.notModified;
+            otherStatus += other.otherStatus;
+            errors += other.errors;
+        }
+
+        // Prints the summary; returns true if p99 is within the target and nothing failed.
+        boolean report(int seconds, double p99TargetMillis) {
+            Arrays.sort(latencies, 0, count);
+            System.out.printf(Locale.ROOT, "%d requests in %d s: %.0f req/s (200: %d, 304: %d, other: %d, errors: %d)%n",
+                    count, seconds, count / (double) seconds, ok, notModified, otherStatus, errors);
+            if (count == 0) {
+                System.out.println("FAIL: no requests completed");
+                return false;
+            }
+            double p99 = percentile(0.99);
+            System.out.printf(Locale.ROOT, "latency ms: p50 %.3f  p90 %.3f  p99 %.3f  p99.9 %.3f  max %.3f%n",
+                    percentile(0.50), percentile(0.90), p99, percentile(0.999), latencies[count - 1] / 1e6);
+            boolean pass = p99 <= p99TargetMillis && errors == 0 && otherStatus == 0;
+            System.out.printf(Locale.ROOT, "%s: p99 %.3f ms, target %.1f ms%n", pass ? "PASS" : "FAIL", p99, p99TargetMillis);
+            return pass;
+        }
+
+        private double percentile(double p) {
+            int index = (int) Math.ceil(p * count) - 1;
+            return latencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
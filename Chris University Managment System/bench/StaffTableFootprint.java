@@ -0,0 +1,100 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// StaffTableFootprint.java
+// Heap cost of a staff directory held as Staff objects and as a StaffTable, per staff member.
+// Generates the staff of a university, measures the live heap with the Staff objects (and their
+// department links) reachable, copies them into a StaffTable, drops the objects and measures
+// again. Exits with status 1 when the table does not save at least the given factor.
+//
+//   javac -d out src/*.java bench/*.java
+//   java -Xmx2g -cp out StaffTableFootprint             (1,000,000 staff)
+//   java -cp out StaffTableFootprint -n 100000 -min 4
+//
+// The heap is measured after repeated System.gc() calls, so the numbers are approximate; run
+// with a fixed -Xmx and nothing else in the JVM. Department objects are counted on both sides.
+//
+// Options (all optional):
+//   -n <n>        staff members                       (default 1000000)
+//   -min <f>      smallest acceptable saving factor   (default 4)
+//   -seed <n>     seed for the generated staff        (default 42)
+public class StaffTableFootprint {
+    private int staffCount = 1_000_000;
+    private double minFactor = 4;
+    private long seed = 42;
+
+    public static void main(String[] args) throws Exception {
+        StaffTableFootprint test = new StaffTableFootprint();
+        test.parse(args);
+        System.exit(test.run() ? 0 : 1);
+    }
+
+    private boolean run() throws InterruptedException {
+        long base = usedHeap();
+        List<Department> departments = new ArrayList<>();
+        List<Staff> staff = new ArrayList<>(staffCount);
+        new UniversityGenerator(seed, 200, staffCount, 0).generate(new UniversityGenerator.Sink() {
+            @Override
+            public void onDepartment(Department department) {
+                departments.add(department);
+            }
+
+            @Override
+            public void onStaff(Staff staffMember) {
+                staff.add(staffMember);
+            }
+
+            @Override
+            public void onCourse(Course course) {
+            }
+        });
+        long objectBytes = usedHeap() - base;
+
+        StaffTable table = new StaffTable(staffCount);
+        table.addAll(staff);
+        table.trimToSize();
+        staff.clear();
+        for (Department department : departments) {
+            for (Staff staffMember : department.getStaffMembers()) {
+                department.removeStaffMember(staffMember);
+            }
+        }
+        long tableBytes = usedHeap() - base;
+
+        double factor = objectBytes / (double) tableBytes;
+        System.out.printf(Locale.ROOT, "%,d staff: %d bytes per Staff object, %d bytes per table row, %.1fx%n",
+                table.size(), objectBytes / staffCount, tableBytes / staffCount, factor);
+        return factor >= minFactor;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-n":
+                    staffCount = Integer.parseInt(args[++i]);
+                    break;
+                case "-min":
+                    minFactor = Double.parseDouble(args[++i]);
+                    break;
+                case "-seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (staffCount < 1) {
+            throw new IllegalArgumentException("-n must be at least 1");
+        }
+    }
+}
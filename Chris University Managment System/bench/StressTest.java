@@ -0,0 +1,619 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// StressTest.java
+// Multi-threaded consistency checks for the model, for running after changes to the locking,
+// the journal or enrollment. Each scenario hammers shared entities from several threads and then
+// checks invariants that a lost update or a torn link would break. Exits with status 1 on failure.
+//
+//   javac -d out src/*.java bench/*.java
+//   java -cp out StressTest                     (one thread per core, at least 4)
+//   java -cp out StressTest -t 16 -n 500000
+//
+// Scenarios:
+//   symmetry    random link and unlink calls from both ends (staff/department, lecturer/course,
+//               department/course), credit, offering-department, email, specialization and role
+//               changes, on a generated university with a journal attached. Afterwards
+//               AssociationValidator must find no problem, AggregateAudit no mismatch, and every
+//               staff member must be in exactly the registry index buckets of their current values.
+//   replay      the journal written during "symmetry", replayed into an empty registry, must
+//               rebuild the same entities with the same links and values.
+//   snapshot    repeated UniversitySnapshot writes while another thread changes emails, roles,
+//               specializations, credits, office details and heads; every write must succeed and
+//               load back into a registry with the same entities and clean links.
+//   feed        the link, field, head and office changes of "symmetry" on a small university
+//               with a ChangeFeed attached, so that many threads change the same facts at once.
+//               Applying the feed's changes to the state it started from must give the state
+//               the model ends in.
+//   enrollment  enroll and drop calls on small courses; a monitor thread checks throughout that
+//               no course has more students than seats, and afterwards both sides of every
+//               enrollment and waitlist entry must agree, with no seat left free while others wait.
+//
+// Options (all optional):
+//   -t <n>      threads                        (default: cores, at least 4)
+//   -n <n>      operations per thread          (default 100000)
+//   -seed <n>   seed for the university and the operations (default 42)
+public class StressTest {
+    private static final int ENROLLMENT_COURSES = 200;
+    private static final int ENROLLMENT_STUDENTS = 2_000;
+    private static final int SEATS = 5;
+    private static final String[] SPECIALIZATIONS = {"Algebra", "Databases", "Ecology", "Optics"};
+    private static final String[] ROLES = {"Registrar", "Clerk", "Bursar"};
+
+    private int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private int operations = 100_000;
+    private long seed = 42;
+
+    public static void main(String[] args) throws Exception {
+        StressTest test = new StressTest();
+        test.parse(args);
+        System.exit(test.run() ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        System.out.printf(Locale.ROOT, "%d threads, %d operations each, seed %d%n", threads, operations, seed);
+        Path directory = Files.createTempDirectory("stress");
+        Path journalFile = directory.resolve("journal.log");
+        try {
+            UniversityRegistry registry = symmetry(journalFile);
+            boolean ok = check(registry);
+            ok &= replay(registry, journalFile);
+            ok &= snapshot(directory.resolve("snapshot.bin"));
+            ok &= feed();
+            ok &= enrollment();
+            System.out.println(ok ? "PASSED" : "FAILED");
+            return ok;
+        } finally {
+            Files.deleteIfExists(journalFile);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    // --- Scenarios ---
+
+    private UniversityRegistry symmetry(Path journalFile) throws Exception {
+        UniversityRegistry registry = new UniversityRegistry();
+        UniversityJournal journal = UniversityJournal.open(journalFile);
+        registry.attachJournal(journal);
+        new UniversityGenerator(seed, 20, 2_000, 1_000).generateInto(registry);
+        Department[] departments = registry.getAllDepartments().toArray(new Department[0]);
+        Staff[] staff = registry.getAllStaff().toArray(new Staff[0]);
+        Course[] courses = registry.getAllCourses().toArray(new Course[0]);
+        List<Lecturer> lecturerList = new ArrayList<>();
+        for (Staff staffMember : staff) {
+            if (staffMember instanceof Lecturer) {
+                lecturerList.add((Lecturer) staffMember);
+            }
+        }
+        Lecturer[] lecturers = lecturerList.toArray(new Lecturer[0]);
+
+        long nanos = inParallel(random -> {
+            Department department = departments[random.nextInt(departments.length)];
+            Staff staffMember = staff[random.nextInt(staff.length)];
+            Lecturer lecturer = lecturers[random.nextInt(lecturers.length)];
+            Course course = courses[random.nextInt(courses.length)];
+            int roll = random.nextInt(110);
+            if (roll < 15) {
+                staffMember.addDepartment(department);
+            } else if (roll < 25) {
+                department.addStaffMember(staffMember);
+            } else if (roll < 35) {
+                staffMember.removeDepartment(department);
+            } else if (roll < 40) {
+                department.removeStaffMember(staffMember);
+            } else if (roll < 55) {
+                lecturer.assignCourse(course);
+            } else if (roll < 62) {
+                course.addLecturer(lecturer);
+            } else if (roll < 72) {
+                lecturer.unassignCourse(course);
+            } else if (roll < 77) {
+                course.removeLecturer(lecturer);
+            } else if (roll < 84) {
+                department.addCourse(course);
+            } else if (roll < 90) {
+                department.removeCourse(course);
+            } else if (roll < 97) {
+                course.setCredits(1 + random.nextInt(6));
+            } else if (roll < 100) {
+                course.setOfferingDepartment(random.nextInt(4) == 0 ? null : department);
+            } else if (roll < 105) {
+                staffMember.setEmail("staff" + random.nextInt(1000) + "@dept" + random.nextInt(5) + ".example.edu");
+            } else if (roll < 108) {
+                lecturer.setSpecialization(SPECIALIZATIONS[random.nextInt(SPECIALIZATIONS.length)]);
+            } else if (staffMember instanceof AdministrativeStaff) {
+                ((AdministrativeStaff) staffMember).setRole(ROLES[random.nextInt(ROLES.length)]);
+            }
+        });
+        journal.close();
+        registry.detachJournal();
+        report("symmetry", nanos);
+        return registry;
+    }
+
+    private boolean check(UniversityRegistry registry) {
+        AssociationValidator.Report links = AssociationValidator.validate(registry);
+        List<String> aggregates = AggregateAudit.audit(registry);
+        List<String> indexes = checkIndexes(registry);
+        System.out.printf(Locale.ROOT, "  validator: %s%n  aggregate audit: %d mismatch(es)%n  indexes: %d problem(s)%n",
+                links, aggregates.size(), indexes.size());
+        print(links.getIssues());
+        print(aggregates);
+        print(indexes);
+        return links.isClean() && aggregates.isEmpty() && indexes.isEmpty();
+    }
+
+    // Every staff member must be in the bucket of their current email domain, specialization or
+    // role, and in no other bucket of those keys (a lost index update leaves a stale entry).
+    private static List<String> checkIndexes(UniversityRegistry registry) {
+        List<String> problems = new ArrayList<>();
+        Map<String, Integer> domains = new HashMap<>();
+        Map<String, Integer> specializations = new HashMap<>();
+        Map<String, Integer> roles = new HashMap<>();
+        for (Staff staffMember : registry.getAllStaff()) {
+            String domain = UniversityRegistry.emailDomain(staffMember.getEmail());
+            domains.merge(domain, 1, Integer::sum);
+            if (!registry.getStaffByEmailDomain(domain).contains(staffMember)) {
+                problems.add(staffMember.getStaffId() + " missing from email domain " + domain);
+            }
+            if (staffMember instanceof Lecturer) {
+                String specialization = ((Lecturer) staffMember).getSpecialization();
+                specializations.merge(specialization, 1, Integer::sum);
+                if (!registry.getLecturersBySpecialization(specialization).contains(staffMember)) {
+                    problems.add(staffMember.getStaffId() + " missing from specialization " + specialization);
+                }
+            } else if (staffMember instanceof AdministrativeStaff) {
+                String role = ((AdministrativeStaff) staffMember).getRole();
+                roles.merge(role, 1, Integer::sum);
+                if (!registry.getAdministrativeStaffByRole(role).contains(staffMember)) {
+                    problems.add(staffMember.getStaffId() + " missing from role " + role);
+                }
+            }
+        }
+        for (Map.Entry<String, Integer> entry : domains.entrySet()) {
+            compareSize(problems, "email domain " + entry.getKey(),
+                    registry.getStaffByEmailDomain(entry.getKey()).size(), entry.getValue());
+        }
+        for (Map.Entry<String, Integer> entry : specializations.entrySet()) {
+            compareSize(problems, "specialization " + entry.getKey(),
+                    registry.getLecturersBySpecialization(entry.getKey()).size(), entry.getValue());
+        }
+        for (Map.Entry<String, Integer> entry : roles.entrySet()) {
+            compareSize(problems, "role " + entry.getKey(),
+                    registry.getAdministrativeStaffByRole(entry.getKey()).size(), entry.getValue());
+        }
+        return problems;
+    }
+
+    private static void compareSize(List<String> problems, String bucket, int indexed, int expected) {
+        if (indexed != expected) {
+            problems.add(bucket + " holds " + indexed + " staff, expected " + expected);
+        }
+    }
+
+    private boolean replay(UniversityRegistry registry, Path journalFile) throws IOException {
+        long start = System.nanoTime();
+        UniversityRegistry replayed = new UniversityRegistry();
+        UniversityJournal.replay(journalFile, replayed, 0);
+        report("replay", System.nanoTime() - start);
+        List<String> expected = describe(registry);
+        List<String> actual = describe(replayed);
+        List<String> differences = new ArrayList<>();
+        for (int i = 0; i < Math.max(expected.size(), actual.size()); i++) {
+            String e = i < expected.size() ? expected.get(i) : "(missing)";
+            String a = i < actual.size() ? actual.get(i) : "(missing)";
+            if (!e.equals(a)) {
+                differences.add("expected " + e + "\n      but replayed " + a);
+            }
+        }
+        System.out.printf(Locale.ROOT, "  %d entities, %d difference(s)%n", expected.size(), differences.size());
+        print(differences);
+        return differences.isEmpty() && check(replayed);
+    }
+
+    private boolean snapshot(Path file) throws Exception {
+        UniversityRegistry registry = new UniversityRegistry();
+        new UniversityGenerator(seed, 50, 20_000, 10_000).generateInto(registry);
+        Department[] departments = registry.getAllDepartments().toArray(new Department[0]);
+        Staff[] staff = registry.getAllStaff().toArray(new Staff[0]);
+        Course[] courses = registry.getAllCourses().toArray(new Course[0]);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong changes = new AtomicLong();
+        Thread mutator = new Thread(() -> {
+            SplittableRandom random = new SplittableRandom(seed);
+            while (running.get()) {
+                Staff staffMember = staff[random.nextInt(staff.length)];
+                Department department = departments[random.nextInt(departments.length)];
+                switch (random.nextInt(6)) {
+                    case 0:
+                        staffMember.setEmail("s" + random.nextInt(1_000_000) + "@example.edu");
+                        break;
+                    case 1:
+                        if (staffMember instanceof Lecturer) {
+                            ((Lecturer) staffMember).setSpecialization("Topic " + random.nextInt(1_000_000));
+                        } else {
+                            ((AdministrativeStaff) staffMember).setRole("Role " + random.nextInt(1_000_000));
+                        }
+                        break;
+                    case 2:
+                        courses[random.nextInt(courses.length)].setCredits(1 + random.nextInt(6));
+                        break;
+                    case 3:
+                        department.getOffice().setRoomNumber("R" + random.nextInt(1_000_000));
+                        break;
+                    case 4:
+                        department.getOffice().setPhoneExtension("x" + random.nextInt(1_000_000));
+                        break;
+                    default:
+                        List<Staff> members = department.getStaffMembers();
+                        department.setHeadOfDepartment(members.isEmpty() ? null
+                                : members.get(random.nextInt(members.size())));
+                        break;
+                }
+                changes.incrementAndGet();
+            }
+        });
+        mutator.start();
+        List<String> problems = new ArrayList<>();
+        long start = System.nanoTime();
+        int writes = 10;
+        try {
+            for (int i = 0; i < writes; i++) {
+                try {
+                    UniversitySnapshot.write(registry, file);
+                    UniversityRegistry loaded = UniversitySnapshot.load(file);
+                    if (loaded.getAllStaff().size() != staff.length
+                            || loaded.getAllDepartments().size() != departments.length
+                            || loaded.getAllCourses().size() != courses.length) {
+                        problems.add("write " + i + ": loaded a different number of entities");
+                    }
+                    AssociationValidator.Report report = AssociationValidator.validate(loaded);
+                    if (!report.isClean()) {
+                        problems.add("write " + i + ": " + report);
+                    }
+                } catch (RuntimeException e) {
+                    problems.add("write " + i + ": " + e);
+                }
+            }
+        } finally {
+            running.set(false);
+            mutator.join();
+            Files.deleteIfExists(file);
+        }
+        report("snapshot", System.nanoTime() - start);
+        System.out.printf(Locale.ROOT, "  %d writes during %d changes, %d problem(s)%n",
+                writes, changes.get(), problems.size());
+        print(problems);
+        return problems.isEmpty();
+    }
+
+    private boolean feed() throws Exception {
+        UniversityRegistry registry = new UniversityRegistry();
+        new UniversityGenerator(seed, 4, 100, 50).generateInto(registry);
+        Department[] departments = registry.getAllDepartments().toArray(new Department[0]);
+        Staff[] staff = registry.getAllStaff().toArray(new Staff[0]);
+        Course[] courses = registry.getAllCourses().toArray(new Course[0]);
+        List<Lecturer> lecturerList = new ArrayList<>();
+        for (Staff staffMember : staff) {
+            if (staffMember instanceof Lecturer) {
+                lecturerList.add((Lecturer) staffMember);
+            }
+        }
+        Lecturer[] lecturers = lecturerList.toArray(new Lecturer[0]);
+        Map<String, String> facts = facts(registry);
+        ChangeFeed feed = new ChangeFeed(1_000_000);
+        registry.attachChangeFeed(feed);
+        long nanos;
+        try {
+            nanos = inParallel(random -> {
+                Department department = departments[random.nextInt(departments.length)];
+                Staff staffMember = staff[random.nextInt(staff.length)];
+                Lecturer lecturer = lecturers[random.nextInt(lecturers.length)];
+                Course course = courses[random.nextInt(courses.length)];
+                int roll = random.nextInt(100);
+                if (roll < 12) {
+                    staffMember.addDepartment(department);
+                } else if (roll < 24) {
+                    staffMember.removeDepartment(department);
+                } else if (roll < 34) {
+                    lecturer.assignCourse(course);
+                } else if (roll < 44) {
+                    lecturer.unassignCourse(course);
+                } else if (roll < 52) {
+                    department.addCourse(course);
+                } else if (roll < 58) {
+                    department.removeCourse(course);
+                } else if (roll < 66) {
+                    course.setCredits(1 + random.nextInt(6));
+                } else if (roll < 70) {
+                    course.setOfferingDepartment(random.nextInt(4) == 0 ? null : department);
+                } else if (roll < 76) {
+                    staffMember.setEmail("staff" + random.nextInt(1000) + "@example.edu");
+                } else if (roll < 80) {
+                    lecturer.setSpecialization(SPECIALIZATIONS[random.nextInt(SPECIALIZATIONS.length)]);
+                } else if (roll < 84) {
+                    if (staffMember instanceof AdministrativeStaff) {
+                        ((AdministrativeStaff) staffMember).setRole(ROLES[random.nextInt(ROLES.length)]);
+                    }
+                } else if (roll < 90) {
+                    department.setHeadOfDepartment(random.nextInt(4) == 0 ? null : staffMember);
+                } else if (roll < 95) {
+                    department.getOffice().setRoomNumber("R" + random.nextInt(100));
+                } else {
+                    department.getOffice().setPhoneExtension("x" + random.nextInt(100));
+                }
+            });
+        } finally {
+            registry.detachChangeFeed();
+        }
+        report("feed", nanos);
+
+        ChangeFeed.Batch batch = feed.changesSince(0, Integer.MAX_VALUE);
+        for (ChangeFeed.Change change : batch.getChanges()) {
+            String fact = change.getEntityType() + " " + change.getEntityId() + " " + change.getAttribute();
+            if (change.getOperation() == ChangeFeed.Operation.SET) {
+                facts.put(fact, String.valueOf(change.getValue()));
+            } else if (change.getOperation() == ChangeFeed.Operation.ADD) {
+                facts.put(fact + " " + change.getValue(), "linked");
+            } else if (change.getOperation() == ChangeFeed.Operation.REMOVE) {
+                facts.remove(fact + " " + change.getValue());
+            }
+        }
+        Map<String, String> expected = facts(registry);
+        List<String> differences = new ArrayList<>();
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            String applied = facts.get(entry.getKey());
+            if (!entry.getValue().equals(applied)) {
+                differences.add(entry.getKey() + ": model " + entry.getValue() + ", feed " + applied);
+            }
+        }
+        for (String fact : facts.keySet()) {
+            if (!expected.containsKey(fact)) {
+                differences.add(fact + ": not in the model, feed " + facts.get(fact));
+            }
+        }
+        if (batch.isResyncRequired()) {
+            differences.add("the feed dropped changes");
+        }
+        Collections.sort(differences);
+        System.out.printf(Locale.ROOT, "  %d changes kept, %d difference(s)%n", batch.getChanges().size(), differences.size());
+        print(differences);
+        return differences.isEmpty();
+    }
+
+    // The facts a ChangeFeed reports, keyed as "<type> <id> <attribute>" for a field and
+    // "<type> <id> <attribute> <linked id>" for a link that exists.
+    private static Map<String, String> facts(UniversityRegistry registry) {
+        Map<String, String> facts = new HashMap<>();
+        for (Department department : registry.getAllDepartments()) {
+            String prefix = "DEPARTMENT " + department.getDepartmentCode() + " ";
+            Staff head = department.getHeadOfDepartment();
+            facts.put(prefix + "head", head == null ? "null" : head.getStaffId());
+            facts.put(prefix + "officeRoom", String.valueOf(department.getOffice().getRoomNumber()));
+            facts.put(prefix + "officePhone", String.valueOf(department.getOffice().getPhoneExtension()));
+            for (Course course : department.getCoursesOffered()) {
+                facts.put(prefix + "courses " + course.getCourseCode(), "linked");
+            }
+        }
+        for (Staff staffMember : registry.getAllStaff()) {
+            String prefix = "STAFF " + staffMember.getStaffId() + " ";
+            facts.put(prefix + "email", String.valueOf(staffMember.getEmail()));
+            if (staffMember instanceof Lecturer) {
+                facts.put(prefix + "specialization", String.valueOf(((Lecturer) staffMember).getSpecialization()));
+            } else if (staffMember instanceof AdministrativeStaff) {
+                facts.put(prefix + "role", String.valueOf(((AdministrativeStaff) staffMember).getRole()));
+            }
+            for (Department department : staffMember.getAssignedDepartments()) {
+                facts.put(prefix + "departments " + department.getDepartmentCode(), "linked");
+            }
+        }
+        for (Course course : registry.getAllCourses()) {
+            String prefix = "COURSE " + course.getCourseCode() + " ";
+            Department offering = course.getOfferingDepartment();
+            facts.put(prefix + "credits", Integer.toString(course.getCredits()));
+            facts.put(prefix + "offeringDepartment", offering == null ? "null" : offering.getDepartmentCode());
+            for (Lecturer lecturer : course.getLecturers()) {
+                facts.put(prefix + "lecturers " + lecturer.getStaffId(), "linked");
+            }
+        }
+        return facts;
+    }
+
+    private boolean enrollment() throws Exception {
+        Course[] courses = new Course[ENROLLMENT_COURSES];
+        for (int i = 0; i < courses.length; i++) {
+            courses[i] = new Course("E" + i, "Seminar " + i, 3, null);
+            courses[i].setCapacity(SEATS);
+        }
+        Student[] students = new Student[ENROLLMENT_STUDENTS];
+        for (int i = 0; i < students.length; i++) {
+            students[i] = new Student("ST" + i, "Student " + i, "st" + i + "@example.edu");
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong overbooked = new AtomicLong();
+        Thread monitor = new Thread(() -> {
+            while (running.get()) {
+                for (Course course : courses) {
+                    if (course.getEnrolledCount() > SEATS) {
+                        overbooked.incrementAndGet();
+                    }
+                }
+            }
+        });
+        monitor.start();
+        long nanos;
+        try {
+            nanos = inParallel(random -> {
+                Course course = courses[random.nextInt(courses.length)];
+                Student student = students[random.nextInt(students.length)];
+                if (random.nextInt(3) < 2) {
+                    course.enroll(student);
+                } else {
+                    course.drop(student);
+                }
+            });
+        } finally {
+            running.set(false);
+            monitor.join();
+        }
+        report("enrollment", nanos);
+
+        List<String> problems = new ArrayList<>();
+        for (Course course : courses) {
+            String code = course.getCourseCode();
+            if (course.getEnrolledCount() > SEATS) {
+                problems.add(code + ": " + course.getEnrolledCount() + " students in " + SEATS + " seats");
+            }
+            if (course.getEnrolledCount() < SEATS && course.getWaitlistSize() > 0) {
+                problems.add(code + ": a seat is free while " + course.getWaitlistSize() + " wait");
+            }
+            for (Student student : course.getStudents()) {
+                if (!student.isEnrolledIn(course) || student.isWaitlistedFor(course)) {
+                    problems.add(code + ": enrolled " + student.getStudentId() + " does not list it as enrolled");
+                }
+            }
+            for (Student student : course.getWaitlist()) {
+                if (!student.isWaitlistedFor(course) || student.isEnrolledIn(course)) {
+                    problems.add(code + ": waiting " + student.getStudentId() + " does not list it as waitlisted");
+                }
+            }
+        }
+        for (Student student : students) {
+            for (Course course : student.getEnrolledCourses()) {
+                if (!course.isEnrolled(student)) {
+                    problems.add(student.getStudentId() + ": enrolled in " + course.getCourseCode()
+                            + ", which does not list them");
+                }
+            }
+            for (Course course : student.getWaitlistedCourses()) {
+                if (!course.isWaitlisted(student)) {
+                    problems.add(student.getStudentId() + ": waitlisted for " + course.getCourseCode()
+                            + ", which does not list them");
+                }
+            }
+        }
+        System.out.printf(Locale.ROOT, "  overbooked while running: %d time(s), %d problem(s) afterwards%n",
+                overbooked.get(), problems.size());
+        print(problems);
+        return overbooked.get() == 0 && problems.isEmpty();
+    }
+
+    // --- Helpers ---
+
+    // Runs the operation on every thread, each with its own random sequence; returns the wall time.
+    private long inParallel(Consumer<SplittableRandom> operation) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                SplittableRandom random = new SplittableRandom(seed * 31 + t);
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < operations; i++) {
+                        operation.accept(random);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // One sorted line per entity with its values and the IDs of everything it links to, so two
+    // registries compare equal when they hold the same graph, whatever order the lists are in.
+    private static List<String> describe(UniversityRegistry registry) {
+        List<String> lines = new ArrayList<>();
+        for (Department department : registry.getAllDepartments()) {
+            Staff head = department.getHeadOfDepartment();
+            lines.add("department " + department.getDepartmentCode()
+                    + " head=" + (head == null ? null : head.getStaffId())
+                    + " credits=" + department.getTotalCredits()
+                    + " staff=" + ids(department.getStaffMembers())
+                    + " courses=" + ids(department.getCoursesOffered()));
+        }
+        for (Staff staffMember : registry.getAllStaff()) {
+            String line = "staff " + staffMember.getStaffId() + " email=" + staffMember.getEmail()
+                    + " departments=" + ids(staffMember.getAssignedDepartments());
+            if (staffMember instanceof Lecturer) {
+                Lecturer lecturer = (Lecturer) staffMember;
+                line += " specialization=" + lecturer.getSpecialization()
+                        + " courses=" + ids(lecturer.getCoursesTeaching());
+            } else if (staffMember instanceof AdministrativeStaff) {
+                line += " role=" + ((AdministrativeStaff) staffMember).getRole();
+            }
+            lines.add(line);
+        }
+        for (Course course : registry.getAllCourses()) {
+            Department offering = course.getOfferingDepartment();
+            lines.add("course " + course.getCourseCode() + " credits=" + course.getCredits()
+                    + " offering=" + (offering == null ? null : offering.getDepartmentCode())
+                    + " lecturers=" + ids(course.getLecturers()));
+        }
+        Collections.sort(lines);
+        return lines;
+    }
+
+    private static String ids(List<?> entities) {
+        List<String> ids = new ArrayList<>(entities.size());
+        for (Object entity : entities) {
+            ids.add(entity instanceof Staff ? ((Staff) entity).getStaffId()
+                    : entity instanceof Course ? ((Course) entity).getCourseCode()
+                    : ((Department) entity).getDepartmentCode());
+        }
+        Collections.sort(ids);
+        return ids.toString();
+    }
+
+    private void report(String scenario, long nanos) {
+        System.out.printf(Locale.ROOT, "%s: %.2f s%n", scenario, nanos / 1e9);
+    }
+
+    // Prints the first few lines of a list of problems.
+    private static void print(List<?> problems) {
+        for (int i = 0; i < Math.min(10, problems.size()); i++) {
+            System.out.println("    " + problems.get(i));
+        }
+        if (problems.size() > 10) {
+            System.out.println("    ... and " + (problems.size() - 10) + " more");
+        }
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-t":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "-n":
+                    operations = Integer.parseInt(args[++i]);
+                    break;
+                case "-seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (threads < 1 || operations < 1) {
+            throw new IllegalArgumentException("-t and -n must be at least 1");
+        }
+    }
+}
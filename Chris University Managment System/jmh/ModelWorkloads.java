@@ -0,0 +1,438 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import benchmarks.Workload;
+
+// ModelWorkloads.java
+// The work measured by benchmarks.ModelBenchmarks, one class per benchmark method, named like it
+// (ModelBenchmarks.addCourse runs AddCourse). Each takes its benchmark's single @Param in the
+// constructor, which does the untimed setup.
+final class ModelWorkloads {
+    // Links added per invocation by the association workloads (ModelBenchmarks.LinkState.BATCH).
+    private static final int BATCH = 1_000;
+
+    private ModelWorkloads() {
+    }
+
+    private static Lecturer[] lecturers(String prefix, int count) {
+        Lecturer[] lecturers = new Lecturer[count];
+        for (int i = 0; i < count; i++) {
+            lecturers[i] = new Lecturer(prefix + i, "Lecturer " + i, prefix.toLowerCase() + i + "@uni.edu", "Bench");
+        }
+        return lecturers;
+    }
+
+    private static Course[] courses(String prefix, int count) {
+        Course[] courses = new Course[count];
+        for (int i = 0; i < count; i++) {
+            courses[i] = new Course(prefix + i, "Course " + i, 3, null);
+        }
+        return courses;
+    }
+
+    private static TimetableScheduler scheduler() {
+        TimetableScheduler scheduler = new TimetableScheduler(5, 10);
+        List<String> rooms = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            rooms.add("R" + i);
+        }
+        scheduler.setRooms(rooms);
+        return scheduler;
+    }
+
+    // --- Association paths ---
+    // Each adds BATCH links to a department or course that already has `size`, and takes them
+    // away again afterwards (untimed, newest first, so the list is back to the same layout).
+
+    /** Department.addStaffMember, including the bidirectional Staff.addDepartment callback. */
+    static final class AddStaffMember implements Workload {
+        private final Department department = new Department("Bench", "B", "R1", "1");
+        private final Lecturer[] batch = lecturers("N", BATCH);
+
+        AddStaffMember(int size) {
+            for (Lecturer lecturer : lecturers("L", size)) {
+                department.addStaffMember(lecturer);
+            }
+        }
+
+        @Override
+        public long invoke() {
+            for (Lecturer lecturer : batch) {
+                department.addStaffMember(lecturer);
+            }
+            return department.getStaffCount();
+        }
+
+        @Override
+        public void tearDownInvocation() {
+            for (int i = batch.length - 1; i >= 0; i--) {
+                department.removeStaffMember(batch[i]);
+            }
+        }
+    }
+
+    /** Department.addCourse for courses created without a department. */
+    static final class AddCourse implements Workload {
+        private final Department department = new Department("Bench", "B", "R1", "1");
+        private final Course[] batch = courses("N", BATCH);
+
+        AddCourse(int size) {
+            for (Course course : courses("C", size)) {
+                department.addCourse(course);
+            }
+        }
+
+        @Override
+        public long invoke() {
+            for (Course course : batch) {
+                department.addCourse(course);
+            }
+            return department.getCourseCount();
+        }
+
+        @Override
+        public void tearDownInvocation() {
+            for (int i = batch.length - 1; i >= 0; i--) {
+                department.removeCourse(batch[i]);
+            }
+        }
+    }
+
+    /** Course.addLecturer with the Lecturer.assignCourse callback. */
+    static final class AddLecturer implements Workload {
+        private final Course course = new Course("C1", "Bench Course", 3, null);
+        private final Lecturer[] batch = lecturers("N", BATCH);
+
+        AddLecturer(int size) {
+            for (Lecturer lecturer : lecturers("L", size)) {
+                course.addLecturer(lecturer);
+            }
+        }
+
+        @Override
+        public long invoke() {
+            for (Lecturer lecturer : batch) {
+                course.addLecturer(lecturer);
+            }
+            return course.getLecturerCount();
+        }
+
+        @Override
+        public void tearDownInvocation() {
+            for (int i = batch.length - 1; i >= 0; i--) {
+                course.removeLecturer(batch[i]);
+            }
+        }
+    }
+
+    /**
+     * A whole synthetic university built through the public association methods, with the
+     * skewed department sizes and lecturer loads of UniversityGenerator.
+     */
+    static final class GenerateUniversity implements Workload {
+        private long seed;
+
+        GenerateUniversity(int unused) {
+        }
+
+        @Override
+        public long invoke() {
+            long[] links = new long[1];
+            new UniversityGenerator(seed++, 20, 2_000, 4_000).generate(new UniversityGenerator.Sink() {
+                @Override
+                public void onCourse(Course course) {
+                    links[0] += course.getLecturers().size();
+                }
+            });
+            return links[0];
+        }
+    }
+
+    /**
+     * Registration week: `threads` threads send enroll and drop requests for 50,000 students and
+     * 2,000 courses of 30 seats. Each student wants one of 20 popular courses or one of 8 courses of
+     * their own, and toggles: drops a course they are in or waiting for, enrolls otherwise (so seats
+     * and waitlists reach a steady state). The total work per invocation is fixed, so ops/s should
+     * grow with the thread count up to the number of cores.
+     */
+    static final class Enrollment implements Workload {
+        private static final int OPERATIONS = 40_000;
+        private final Course[] courses = new Course[2_000];
+        private final Student[] students = new Student[50_000];
+        private final ExecutorService pool;
+        private final List<Callable<Long>> tasks = new ArrayList<>();
+        private long round;
+
+        Enrollment(int threads) {
+            for (int i = 0; i < courses.length; i++) {
+                courses[i] = new Course("C" + i, "Course " + i, 3, null);
+                courses[i].setCapacity(30);
+            }
+            for (int i = 0; i < students.length; i++) {
+                students[i] = new Student("ST" + i, "Student " + i, "st" + i + "@uni.edu");
+            }
+            pool = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "enrollment-bench");
+                t.setDaemon(true);
+                return t;
+            });
+            for (int t = 0; t < threads; t++) {
+                int worker = t;
+                tasks.add(() -> requests(new SplittableRandom(round * 31 + worker), OPERATIONS / threads));
+            }
+        }
+
+        private long requests(SplittableRandom random, int count) {
+            long enrolled = 0;
+            for (int i = 0; i < count; i++) {
+                int s = random.nextInt(students.length);
+                Student student = students[s];
+                Course course = courses[random.nextInt(10) == 0
+                        ? random.nextInt(20)
+                        : (s * 7 + random.nextInt(8) * 131) % courses.length];
+                if (course.isEnrolled(student) || student.isWaitlistedFor(course)) {
+                    course.drop(student);
+                } else if (course.enroll(student) == EnrollmentResult.ENROLLED) {
+                    enrolled++;
+                }
+            }
+            return enrolled;
+        }
+
+        @Override
+        public long invoke() {
+            round++;
+            long enrolled = 0;
+            try {
+                for (Future<Long> f : pool.invokeAll(tasks)) {
+                    enrolled += f.get();
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return enrolled;
+        }
+    }
+
+    // --- Queries ---
+
+    /** Lecturers by specialization teaching 4-credit courses of one department, on a generated catalogue. */
+    static final class NestedQuery implements Workload {
+        private final UniversityRegistry registry = new UniversityRegistry();
+        private final String head;
+
+        NestedQuery(int unused) {
+            new UniversityGenerator(42L, 200, 50_000, 100_000).generateInto(registry);
+            head = registry.getAllDepartments().iterator().next().getHeadOfDepartment().getStaffId();
+        }
+
+        @Override
+        public long invoke() {
+            return UniversityQuery.lecturers(registry)
+                    .withSpecialization("Databases")
+                    .teaching(UniversityQuery.courses(registry)
+                            .withCredits(4)
+                            .offeredBy(UniversityQuery.departments(registry).headedBy(head)))
+                    .count();
+        }
+    }
+
+    // --- Scheduling ---
+
+    /** A week (5 x 10 slots, 500 rooms) for about 20,000 sessions of a generated university. */
+    static final class ScheduleTimetable implements Workload {
+        private final UniversityRegistry registry = new UniversityRegistry();
+        private long seed;
+
+        ScheduleTimetable(int unused) {
+            new UniversityGenerator(42L, 300, 6_000, 6_000).generateInto(registry);
+        }
+
+        @Override
+        public long invoke() {
+            TimetableScheduler scheduler = scheduler();
+            scheduler.setSeed(seed++);
+            return scheduler.schedule(registry).getUnplacedCount();
+        }
+    }
+
+    /** Timetable.move: one session moved to a random slot and the timetable repaired around it. */
+    static final class MoveSession implements Workload {
+        private final Timetable timetable;
+        private final SplittableRandom random = new SplittableRandom(3);
+
+        MoveSession(int unused) {
+            UniversityRegistry registry = new UniversityRegistry();
+            new UniversityGenerator(42L, 300, 6_000, 6_000).generateInto(registry);
+            timetable = scheduler().schedule(registry);
+        }
+
+        @Override
+        public long invoke() {
+            int session = random.nextInt(timetable.getSessionCount());
+            int moved = timetable.move(session, random.nextInt(timetable.getDays() * timetable.getPeriodsPerDay()));
+            timetable.unpin(session);
+            return moved;
+        }
+    }
+
+    // --- Graph analytics ---
+
+    /** UniversityGraph.build: the CSR adjacency of a generated university (about 360k edges). */
+    static final class BuildGraph implements Workload {
+        private final UniversityRegistry registry = new UniversityRegistry();
+
+        BuildGraph(int unused) {
+            new UniversityGenerator(42L, 100, 50_000, 100_000).generateInto(registry);
+        }
+
+        @Override
+        public long invoke() {
+            return UniversityGraph.build(registry).getEdgeCount();
+        }
+    }
+
+    /** UniversityGraph.components plus one BFS, on the same generated university. */
+    static final class GraphComponents implements Workload {
+        private final UniversityGraph graph;
+        private int source;
+
+        GraphComponents(int unused) {
+            UniversityRegistry registry = new UniversityRegistry();
+            new UniversityGenerator(42L, 100, 50_000, 100_000).generateInto(registry);
+            graph = UniversityGraph.build(registry);
+        }
+
+        @Override
+        public long invoke() {
+            source = (source + 7919) % graph.getVertexCount();
+            return graph.components().getCount() + graph.distancesFrom(source)[0];
+        }
+    }
+
+    /** AssociationValidator.validate over every link of a generated university (about 410k links). */
+    static final class ValidateAssociations implements Workload {
+        private final UniversityRegistry registry = new UniversityRegistry();
+
+        ValidateAssociations(int unused) {
+            new UniversityGenerator(42L, 100, 50_000, 100_000).generateInto(registry);
+        }
+
+        @Override
+        public long invoke() {
+            return AssociationValidator.validate(registry).getLinksChecked();
+        }
+    }
+
+    // --- Rendering paths ---
+    // These render directly (as the getters do on a RenderCache miss); ProfilePages measures the cache.
+
+    /** Department.getDepartmentInfo for a department with `size` courses and `size` staff. */
+    static final class DepartmentInfo implements Workload {
+        private final Department department = new Department("Computer Science", "CS", "LAB-201", "4888");
+
+        DepartmentInfo(int size) {
+            for (int i = 0; i < size; i++) {
+                new Course("COMP" + i, "Course number " + i, 3, department);
+                department.addStaffMember(new Lecturer("L" + i, "Dr. Lecturer " + i, "l" + i + "@uni.edu", "AI"));
+            }
+            department.setHeadOfDepartment(department.getStaffMembers().get(0));
+        }
+
+        @Override
+        public long invoke() {
+            return Rendering.render(department::writeDepartmentInfo, 200).length();
+        }
+    }
+
+    /** Course.getCourseDetails for a course with `lecturers` lecturers. */
+    static final class CourseDetails implements Workload {
+        private final Course course;
+
+        CourseDetails(int lecturers) {
+            Department department = new Department("Computer Science", "CS", "LAB-201", "4888");
+            course = new Course("COMP101", "Introduction to Programming", 3, department);
+            for (int i = 0; i < lecturers; i++) {
+                course.addLecturer(new Lecturer("L" + i, "Dr. Lecturer " + i, "l" + i + "@uni.edu", "AI"));
+            }
+        }
+
+        @Override
+        public long invoke() {
+            return Rendering.render(course::writeCourseDetails, 160).length();
+        }
+    }
+
+    /** Staff.getAssignedDepartmentsInfo for a staff member in `departments` departments. */
+    static final class AssignedDepartmentsInfo implements Workload {
+        private final Staff staff = new AdministrativeStaff("A1", "Ms. Admin", "a@uni.edu", "Registrar");
+
+        AssignedDepartmentsInfo(int departments) {
+            for (int i = 0; i < departments; i++) {
+                staff.addDepartment(new Department("Department " + i, "D" + i, "R" + i, "" + i));
+            }
+        }
+
+        @Override
+        public long invoke() {
+            return staff.getAssignedDepartmentsInfo().length();
+        }
+    }
+
+    /**
+     * Profile page traffic on a generated university: a random staff member, department or course is
+     * rendered with the String getters, and one call in 20 changes an email first. cacheSize 0 turns
+     * the RenderCache off for comparison.
+     */
+    static final class ProfilePages implements Workload {
+        private final List<Staff> staff = new ArrayList<>();
+        private final List<Department> departments = new ArrayList<>();
+        private final List<Course> courses = new ArrayList<>();
+        private final SplittableRandom random = new SplittableRandom(7);
+
+        ProfilePages(int cacheSize) {
+            RenderCache.setCapacity(cacheSize); // The cache is global; each benchmark has its own JVM
+            new UniversityGenerator(42L, 50, 2_000, 4_000).generate(new UniversityGenerator.Sink() {
+                @Override
+                public void onDepartment(Department department) {
+                    departments.add(department);
+                }
+
+                @Override
+                public void onStaff(Staff staffMember) {
+                    staff.add(staffMember);
+                }
+
+                @Override
+                public void onCourse(Course course) {
+                    courses.add(course);
+                }
+            });
+        }
+
+        @Override
+        public long invoke() {
+            long length = 0;
+            for (int i = 0; i < 1_000; i++) {
+                int pick = random.nextInt(20);
+                if (pick == 0) {
+                    Staff s = staff.get(random.nextInt(staff.size()));
+                    s.setEmail(s.getStaffId().toLowerCase() + i + "@uni.edu");
+                }
+                if (pick < 10) {
+                    length += staff.get(random.nextInt(staff.size())).getDetails().length();
+                } else if (pick < 15) {
+                    length += courses.get(random.nextInt(courses.size())).getCourseDetails().length();
+                } else {
+                    length += departments.get(random.nextInt(departments.size())).getDepartmentInfo().length();
+                }
+            }
+            return length;
+        }
+    }
+}
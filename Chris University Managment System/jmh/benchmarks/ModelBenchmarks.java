@@ -0,0 +1,232 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+// ModelBenchmarks.java
+// JMH benchmarks for the domain model hot paths. The work itself is in ModelWorkloads; each
+// method here runs the workload named like it (addCourse -> ModelWorkloads.AddCourse).
+//
+//   mvn -B test-compile exec:exec                          (all benchmarks, with -prof gc)
+//   mvn -B test-compile exec:exec -Djmh.include=addCourse  (only matching benchmarks)
+//   mvn -B test-compile exec:exec -Djmh.args="-f 3 -prof gc"
+//
+// Results are ops/s with their error, plus the allocation rate and bytes per op from the gc
+// profiler; they are also written to target/jmh-result.json. Every benchmark runs in its own
+// forked JVM with a fixed heap, and the generated universities use fixed seeds, so runs on the
+// same machine are comparable.
+//
+// The association benchmarks add a batch of links to a department or course that already holds
+// `size` of them, and report links/s: a drop in ops/s as the size grows points to a per-link cost
+// that grows with list length.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ModelBenchmarks {
+
+    // --- Association paths ---
+
+    @Benchmark
+    @OperationsPerInvocation(LinkState.BATCH)
+    public long addStaffMember(LinkState state) {
+        return state.workload.invoke();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LinkState.BATCH)
+    public long addCourse(LinkState state) {
+        return state.workload.invoke();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LinkState.BATCH)
+    public long addLecturer(LinkState state) {
+        return state.workload.invoke();
+    }
+
+    /** Entities/s: 20 departments, 2,000 staff and 4,000 courses per invocation. */
+    @Benchmark
+    @OperationsPerInvocation(6_020)
+    public long generateUniversity(GeneratedState state) {
+        return state.workload.invoke();
+    }
+
+    /** Enroll and drop requests/s, 40,000 per invocation spread over `threads` threads. */
+    @Benchmark
+    @OperationsPerInvocation(40_000)
+    public long enrollment(EnrollmentState state) {
+        return state.workload.invoke();
+    }
+
+    // --- Queries, scheduling and analytics ---
+
+    @Benchmark
+    public long nestedQuery(GeneratedState state) {
+        return state.workload.invoke();
+    }
+
+    @Benchmark
+    public long scheduleTimetable(GeneratedState state) {
+        return state.workload.invoke();
+    }
+
+    @Benchmark
+    public long moveSession(GeneratedState state) {
+        return state.workload.invoke();
+    }
+
+    @Benchmark
+    public long buildGraph(GeneratedState state) {
+        return state.workload.invoke();
+    }
+
+    @Benchmark
+    public long graphComponents(GeneratedState state) {
+        return state.workload.invoke();
+    }
+
+    @Benchmark
+    public long validateAssociations(GeneratedState state) {
+        return state.workload.invoke();
+    }
+
+    // --- Rendering paths ---
+
+    @Benchmark
+    public long departmentInfo(DepartmentInfoState state) {
+        return state.workload.invoke();
+    }
+
+    @Benchmark
+    public long courseDetails(CourseDetailsState state) {
+        return state.workload.invoke();
+    }
+
+    @Benchmark
+    public long assignedDepartmentsInfo(AssignedDepartmentsState state) {
+        return state.workload.invoke();
+    }
+
+    /** Page renders/s, 1,000 per invocation. */
+    @Benchmark
+    @OperationsPerInvocation(1_000)
+    public long profilePages(ProfilePagesState state) {
+        return state.workload.invoke();
+    }
+
+    // --- State ---
+
+    /**
+     * Holds the workload of the benchmark method that uses it, made once per fork. Subclasses
+     * declare the @Param the workload's constructor takes.
+     */
+    @State(Scope.Thread)
+    public abstract static class WorkloadState {
+        Workload workload;
+
+        abstract int parameter();
+
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkParams params) {
+            String benchmark = params.getBenchmark();
+            String method = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+            workload = Workload.create(Character.toUpperCase(method.charAt(0)) + method.substring(1), parameter());
+        }
+    }
+
+    public static class LinkState extends WorkloadState {
+        static final int BATCH = 1_000;
+
+        @Param({"100", "1000", "10000", "100000"})
+        int size;
+
+        @Override
+        int parameter() {
+            return size;
+        }
+
+        @Setup(Level.Invocation)
+        public void setUpInvocation() {
+            workload.setUpInvocation();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDownInvocation() {
+            workload.tearDownInvocation();
+        }
+    }
+
+    public static class GeneratedState extends WorkloadState {
+        @Override
+        int parameter() {
+            return 0;
+        }
+    }
+
+    public static class EnrollmentState extends WorkloadState {
+        @Param({"1", "2", "4", "8"})
+        int threads;
+
+        @Override
+        int parameter() {
+            return threads;
+        }
+    }
+
+    public static class DepartmentInfoState extends WorkloadState {
+        @Param({"10", "1000"})
+        int size;
+
+        @Override
+        int parameter() {
+            return size;
+        }
+    }
+
+    public static class CourseDetailsState extends WorkloadState {
+        @Param({"1", "20"})
+        int lecturers;
+
+        @Override
+        int parameter() {
+            return lecturers;
+        }
+    }
+
+    public static class AssignedDepartmentsState extends WorkloadState {
+        @Param({"1", "10"})
+        int departments;
+
+        @Override
+        int parameter() {
+            return departments;
+        }
+    }
+
+    public static class ProfilePagesState extends WorkloadState {
+        @Param({"0", "10000"})
+        int cacheSize;
+
+        @Override
+        int parameter() {
+            return cacheSize;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.lang.reflect.Constructor;
+
+// Workload.java
+// One benchmarked operation on the model, set up and ready to run.
+//
+// JMH only accepts benchmarks in a named package, and a class in a named package cannot refer to
+// the model's classes (they are in the default package). So the @Benchmark methods in
+// ModelBenchmarks stay here and only call this interface, and the workloads that do use the
+// model live next to it in the default package (ModelWorkloads) and implement it.
+public interface Workload {
+
+    /** Untimed; runs before every invocation. */
+    default void setUpInvocation() {
+    }
+
+    /**
+     * The measured work.
+     * @return Something derived from the result, so the work cannot be optimized away.
+     */
+    long invoke();
+
+    /** Untimed; runs after every invocation. */
+    default void tearDownInvocation() {
+    }
+
+    /**
+     * Creates a workload from ModelWorkloads by name.
+     * @param name The simple name of the nested class, e.g. "AddCourse".
+     * @param parameter The value of its single int constructor parameter (size, threads, ...).
+     * @return The workload, with its untimed setup done.
+     */
+    static Workload create(String name, int parameter) {
+        try {
+            Constructor<?> constructor = Class.forName("ModelWorkloads$" + name).getDeclaredConstructor(int.class);
+            constructor.setAccessible(true);
+            return (Workload) constructor.newInstance(parameter);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create workload " + name, e);
+        }
+    }
+}
@@ -1,3 +1,5 @@
+import java.io.IOException;
+
 // AdministrativeStaff.java
 // Extends the Staff base class, inheriting its attributes and behaviors.
 public class AdministrativeStaff extends Staff {
@@ -19,18 +21,17 @@ public class AdministrativeStaff extends Staff {
     }
 
     /**
-     * Overrides the abstract getDetails() method from the Staff base class.
+     * Overrides the abstract writeDetails() method from the Staff base class.
      * This demonstrates polymorphism by providing an AdministrativeStaff-specific implementation.
-     * @return A string containing detailed information about the administrative staff, including their role.
+     * getDetails() in Staff returns the same text as a String.
+     * @param out The destination for the administrative staff's details, including their role.
+     * @throws IOException if the destination fails to accept the text.
      */
     @Override // Annotation indicating that this method overrides a method from a superclass.
-    public String getDetails() {
-        String baseDetails = "Staff ID: " + getStaffId() + "\n";
-        baseDetails += "Name: " + getName() + "\n";
-        baseDetails += "Email: " + getEmail() + "\n";
-        baseDetails += "Role: Administrative Staff (" + role + ")\n";
-        baseDetails += getAssignedDepartmentsInfo(); // Include assigned departments
-        return baseDetails;
+    public void writeDetails(Appendable out) throws IOException {
+        writeIdentity(out);
+        out.append("Role: Administrative Staff (").append(role).append(")\n");
+        writeAssignedDepartmentsInfo(out); // Include assigned departments
     }
 
     /**
@@ -43,6 +44,35 @@ public class AdministrativeStaff extends Staff {
 
     // Setter for role (if modification is needed)
     public void setRole(String role) {
-        this.role = role;
+        String oldRole = writeRole(role, true);
+        if (DomainEvents.isEnabled()) {
+            DomainEvents.publish(new DomainEvent.RoleChanged(this, oldRole, role));
+        }
+    }
+
+    // Journal replay of setRole: reindexes, but is not journaled again and publishes no event.
+    void attachRole(String role) {
+        writeRole(role, false);
+    }
+
+    // The body of setRole, under this staff member's stripe like Staff.setEmail. Returns the old role.
+    private String writeRole(String role, boolean journal) {
+        String oldRole;
+        AssociationLocks.lock(this);
+        try {
+            oldRole = this.role;
+            this.role = role;
+            fieldChanged();
+            if (registry != null) {
+                if (journal) {
+                    registry.roleChanged(this, oldRole);
+                } else {
+                    registry.reindexRole(this, oldRole);
+                }
+            }
+        } finally {
+            AssociationLocks.unlock(this);
+        }
+        return oldRole;
     }
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+// AggregateAudit.java
+// Checks the incrementally maintained aggregates (Lecturer.getTotalCreditsTaught,
+// Department.getTotalCredits / getCourseCount / getStaffCount, Course.getLecturerCount)
+// against a full recomputation from the association lists.
+//
+// Two ways to use it:
+//   - Audit mode: AggregateAudit.setEnabled(true), or run with -Duniversity.auditAggregates=true.
+//     Every aggregate getter then recomputes its value and throws IllegalStateException on a mismatch.
+//     This makes reads O(n) again, so it is meant for tests and debugging sessions.
+//   - AggregateAudit.audit(registry): one pass over every registered entity, returning a
+//     description of each mismatch instead of throwing.
+// Both should run while nobody is changing the model, or they may report a change in flight.
+public final class AggregateAudit {
+    private static volatile boolean enabled = Boolean.getBoolean("university.auditAggregates");
+
+    private AggregateAudit() {
+        // Static helpers only
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns audit mode on or off for every aggregate getter.
+     * @param enabled true to recompute and verify on every read.
+     */
+    public static void setEnabled(boolean enabled) {
+        AggregateAudit.enabled = enabled;
+    }
+
+    /**
+     * Recomputes every aggregate of every entity in the registry and compares it with the stored value.
+     * @param registry The registry to audit.
+     * @return One line per mismatch; empty if everything is consistent.
+     */
+    public static List<String> audit(UniversityRegistry registry) {
+        List<String> mismatches = new ArrayList<>();
+        for (Staff staffMember : registry.getAllStaff()) {
+            if (staffMember instanceof Lecturer) {
+                Lecturer lecturer = (Lecturer) staffMember;
+                compare(mismatches, lecturer.getStaffId(), "creditsTaught",
+                        lecturer.creditsTaught.get(), sumCredits(lecturer.getCoursesTeaching()));
+            }
+        }
+        // Which departments list each course, to check the reverse links used by Course.setCredits.
+        Map<Course, Integer> listings = new HashMap<>();
+        for (Department department : registry.getAllDepartments()) {
+            String code = department.getDepartmentCode();
+            compare(mismatches, code, "totalCredits", department.totalCredits.get(),
+                    sumCredits(department.getCoursesOffered()));
+            compare(mismatches, code, "courseCount", department.getCoursesOffered().size(),
+                    countDistinct(department.getCoursesOffered()));
+            compare(mismatches, code, "staffCount", department.getStaffMembers().size(),
+                    countDistinct(department.getStaffMembers()));
+            for (Course course : department.getCoursesOffered()) {
+                listings.merge(course, 1, Integer::sum);
+                if (!course.getListingDepartments().contains(department)) {
+                    mismatches.add(course.getCourseCode() + ": not linked back to listing department " + code);
+                }
+            }
+        }
+        for (Course course : registry.getAllCourses()) {
+            compare(mismatches, course.getCourseCode(), "lecturerCount", course.getLecturers().size(),
+                    countDistinct(course.getLecturers()));
+            compare(mismatches, course.getCourseCode(), "listingDepartments", course.getListingDepartments().size(),
+                    listings.getOrDefault(course, 0));
+        }
+        return mismatches;
+    }
+
+    // --- Helpers for the aggregate getters ---
+
+    /**
+     * Throws if a stored aggregate differs from its recomputed value.
+     */
+    static void check(Object owner, String aggregate, long stored, long recomputed) {
+        if (stored != recomputed) {
+            throw new IllegalStateException("Aggregate " + aggregate + " of " + describe(owner)
+                    + " is " + stored + " but recomputes to " + recomputed);
+        }
+    }
+
+    static long sumCredits(Iterable<Course> courses) {
+        long sum = 0;
+        for (Course course : courses) {
+            sum += course.getCredits();
+        }
+        return sum;
+    }
+
+    private static long countDistinct(List<?> values) {
+        return new HashSet<>(values).size();
+    }
+
+    /** Counts the elements by walking them, to check the size a LinkSet keeps. */
+    static long countLinks(Iterable<?> links) {
+        long count = 0;
+        for (Object ignored : links) {
+            count++;
+        }
+        return count;
+    }
+
+    private static void compare(List<String> mismatches, String owner, String aggregate, long stored, long recomputed) {
+        if (stored != recomputed) {
+            mismatches.add(owner + ": " + aggregate + " is " + stored + " but recomputes to " + recomputed);
+        }
+    }
+
+    private static String describe(Object owner) {
+        if (owner instanceof Staff) {
+            return ((Staff) owner).getStaffId();
+        } else if (owner instanceof Course) {
+            return ((Course) owner).getCourseCode();
+        } else if (owner instanceof Department) {
+            return ((Department) owner).getDepartmentCode();
+        }
+        return String.valueOf(owner);
+    }
+}
@@ -0,0 +1,129 @@
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+// AssociationLocks.java
+// Striped locks that make the two-sided links (Staff <-> Department, Course <-> Lecturer,
+// Department <-> Course) atomic when many threads change the graph at the same time.
+//
+// Every entity hashes (by its ID) onto one of a fixed number of lock stripes. Linking two entities
+// locks both of their stripes, always in stripe order so two threads can never deadlock.
+// Links between unrelated entities usually land on different stripes and run in parallel,
+// unlike a single global lock. The locks are reentrant, so a link method can call helpers that
+// take the same pair again. Domain events are published only after the stripes are released.
+final class AssociationLocks {
+    // Power of two so the stripe index is a cheap mask. Scaled with the core count.
+    private static final int STRIPES = stripeCount();
+    private static final ReentrantLock[] LOCKS = new ReentrantLock[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new ReentrantLock();
+        }
+    }
+
+    private AssociationLocks() {
+        // Static helpers only
+    }
+
+    /**
+     * Locks the stripes of both entities (in a fixed order to avoid deadlocks).
+     * Must be paired with unlock(a, b) in a finally block.
+     * @param a One side of the link.
+     * @param b The other side of the link.
+     */
+    static void lock(Object a, Object b) {
+        int i = stripe(a);
+        int j = stripe(b);
+        if (i == j) {
+            LOCKS[i].lock();
+        } else if (i < j) {
+            LOCKS[i].lock();
+            LOCKS[j].lock();
+        } else {
+            LOCKS[j].lock();
+            LOCKS[i].lock();
+        }
+    }
+
+    /**
+     * Releases the stripes taken by lock(a, b).
+     */
+    static void unlock(Object a, Object b) {
+        int i = stripe(a);
+        int j = stripe(b);
+        LOCKS[i].unlock();
+        if (i != j) {
+            LOCKS[j].unlock();
+        }
+    }
+
+    /**
+     * Locks the stripe of a single entity, e.g. to read its links consistently.
+     * Must be paired with unlock(a) in a finally block.
+     */
+    static void lock(Object a) {
+        LOCKS[stripe(a)].lock();
+    }
+
+    static void unlock(Object a) {
+        LOCKS[stripe(a)].unlock();
+    }
+
+    /**
+     * Locks the stripes of three entities, e.g. a course and the two departments it moves between.
+     * A null entity is skipped. Must be paired with unlock(a, b, c) in a finally block.
+     */
+    static void lock(Object a, Object b, Object c) {
+        int[] stripes = distinctStripes(a, b, c);
+        for (int s : stripes) {
+            LOCKS[s].lock();
+        }
+    }
+
+    /**
+     * Releases the stripes taken by lock(a, b, c).
+     */
+    static void unlock(Object a, Object b, Object c) {
+        int[] stripes = distinctStripes(a, b, c);
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            LOCKS[stripes[i]].unlock();
+        }
+    }
+
+    // The stripes of the non-null entities, ascending and without repeats.
+    private static int[] distinctStripes(Object a, Object b, Object c) {
+        int[] stripes = new int[3];
+        int n = 0;
+        for (Object o : new Object[] {a, b, c}) {
+            if (o != null) {
+                int s = stripe(o);
+                int i = n;
+                while (i > 0 && stripes[i - 1] > s) {
+                    i--;
+                }
+                if (i > 0 && stripes[i - 1] == s) {
+                    continue;
+                }
+                System.arraycopy(stripes, i, stripes, i + 1, n - i);
+                stripes[i] = s;
+                n++;
+            }
+        }
+        return Arrays.copyOf(stripes, n);
+    }
+
+    private static int stripe(Object o) {
+        int h = o.hashCode();
+        h ^= (h >>> 16); // Spread the high bits, as HashMap does
+        return h & (STRIPES - 1);
+    }
+
+    private static int stripeCount() {
+        int wanted = Runtime.getRuntime().availableProcessors() * 16;
+        int n = 64;
+        while (n < wanted && n < (1 << 12)) {
+            n <<= 1;
+        }
+        return n;
+    }
+}
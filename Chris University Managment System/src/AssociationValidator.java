@@ -0,0 +1,719 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// AssociationValidator.java
+// Checks the integrity of the association graph of a registry, and optionally repairs it.
+//
+// Each association is stored on both sides (Staff <-> Department, Lecturer <-> Course,
+// Department <-> Course, plus each course's offering department), and the two sides are kept in
+// step by paired callbacks. Bulk loaders, journal replay and subclasses writing the protected
+// Staff.assignedDepartments directly can leave them out of step. validate() looks for:
+//   ONE_SIDED_LINK      a link that only one side knows about
+//   DANGLING_REFERENCE  a link to an entity (or null) that is not registered in the registry
+//   DUPLICATE_ID        a link to another object with the ID of a registered entity; entities
+//                       compare by ID, so contains() checks cannot see the difference
+//   HEAD_NOT_MEMBER     a head of department who is not one of the department's staff
+// AggregateAudit checks the derived totals (credits, counts); this class checks the links.
+//
+// The check is one read-only pass over every entity on the common fork-join pool, like the
+// parallel streams of UniversityQuery. Each link end costs a field read and each link one hash
+// lookup (see Checker), so the five million link ends of a million-entity university take under
+// a second on a single core, less than loading its snapshot. Like AggregateAudit, it should run
+// while nobody is changing the model (for example right after UniversitySnapshot.load), or it
+// may report a change in flight.
+//
+// Repairs run afterwards, one at a time, in the order the problems were found. They keep links
+// rather than drop them: a one-sided link gets its missing side, a head becomes a member, a
+// duplicate is swapped for the registered entity. Only dangling links, which have no registered
+// end to keep, are removed. Repairs go through the one-sided attach/detach methods under both
+// entities' lock stripes. Each one journals the link as it leaves it between registered entities
+// (linked on both sides, or removed), before changing anything, like any other link change, so
+// replaying the journal rebuilds the repaired graph. Removing a dangling link writes nothing: the
+// journal only ever holds links between registered entities, so it never had that one.
+//
+// Example:
+//   AssociationValidator.Report report = AssociationValidator.validate(registry, true);
+//   if (!report.isClean()) System.out.println(report);
+public final class AssociationValidator {
+    /** The kinds of problem validate() reports. */
+    public enum Problem { ONE_SIDED_LINK, DANGLING_REFERENCE, DUPLICATE_ID, HEAD_NOT_MEMBER }
+
+    private AssociationValidator() {
+        // Static helpers only
+    }
+
+    /**
+     * One problem found in the graph.
+     */
+    public static final class Issue {
+        private final Problem problem;
+        private final String entityId;
+        private final String description;
+        private final Runnable repair;
+
+        Issue(Problem problem, String entityId, String description, Runnable repair) {
+            this.problem = problem;
+            this.entityId = entityId;
+            this.description = description;
+            this.repair = repair;
+        }
+
+        public Problem getProblem() {
+            return problem;
+        }
+
+        /**
+         * @return The ID or code of the entity whose link is wrong.
+         */
+        public String getEntityId() {
+            return entityId;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public String toString() {
+            return problem + " " + entityId + ": " + description;
+        }
+    }
+
+    /**
+     * What a validate() run found (and repaired).
+     */
+    public static final class Report {
+        private final List<Issue> issues;
+        private final int entitiesChecked;
+        private final long linksChecked;
+        private final int repaired;
+        private final long elapsedNanos;
+
+        Report(List<Issue> issues, int entitiesChecked, long linksChecked, int repaired, long elapsedNanos) {
+            this.issues = issues;
+            this.entitiesChecked = entitiesChecked;
+            this.linksChecked = linksChecked;
+            this.repaired = repaired;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * @return Every problem found, in the same order on every run over the same graph.
+         */
+        public List<Issue> getIssues() {
+            return issues;
+        }
+
+        /**
+         * @return true if no problem was found.
+         */
+        public boolean isClean() {
+            return issues.isEmpty();
+        }
+
+        /**
+         * @param problem The kind of problem.
+         * @return How many problems of that kind were found.
+         */
+        public int count(Problem problem) {
+            int count = 0;
+            for (Issue issue : issues) {
+                if (issue.problem == problem) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        public int getEntitiesChecked() {
+            return entitiesChecked;
+        }
+
+        /**
+         * @return How many link ends were checked (each link has one at each of its two entities).
+         */
+        public long getLinksChecked() {
+            return linksChecked;
+        }
+
+        /**
+         * @return How many of the issues were repaired (0 unless repair was asked for).
+         */
+        public int getRepairedCount() {
+            return repaired;
+        }
+
+        /**
+         * @return The time taken by the check and any repairs.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(issues.size()).append(" issue(s), ").append(repaired).append(" repaired; checked ")
+                    .append(entitiesChecked).append(" entities and ").append(linksChecked).append(" link ends in ")
+                    .append(elapsedNanos / 1_000_000).append(" ms");
+            for (Problem problem : Problem.values()) {
+                int count = count(problem);
+                if (count > 0) {
+                    text.append("\n  ").append(problem).append(": ").append(count);
+                }
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Checks every link of every registered department, staff member and course.
+     * @param registry The registry to check.
+     * @return The problems found; nothing is changed.
+     */
+    public static Report validate(UniversityRegistry registry) {
+        return validate(registry, false);
+    }
+
+    /**
+     * Checks every link of every registered department, staff member and course, and optionally
+     * repairs what it finds (see the class comment for how each problem is repaired).
+     * @param registry The registry to check.
+     * @param repair true to repair the problems found.
+     * @return The problems found, and how many were repaired.
+     */
+    public static Report validate(UniversityRegistry registry, boolean repair) {
+        long start = System.nanoTime();
+        Department[] departments = registry.getAllDepartments().toArray(new Department[0]);
+        Staff[] staff = registry.getAllStaff().toArray(new Staff[0]);
+        Course[] courses = registry.getAllCourses().toArray(new Course[0]);
+
+        Checker checker = new Checker(registry);
+        List<Issue> issues = new ArrayList<>();
+        issues.addAll(pass(departments, checker::check));
+        issues.addAll(pass(staff, checker::check));
+        issues.addAll(pass(courses, checker::check));
+        // Only when a count says the other side holds links its partner does not know about.
+        boolean members = checker.departmentStaff.sum() != checker.pairedStaffDepartments.sum();
+        boolean lecturers = checker.courseLecturers.sum() != checker.pairedLecturerCourses.sum();
+        boolean listings = checker.courseListings.sum() != checker.pairedDepartmentCourses.sum();
+        if (members) {
+            issues.addAll(pass(departments, checker::checkMembers));
+        }
+        if (lecturers || listings) {
+            issues.addAll(pass(courses, course -> checker.checkBackLinks(course, lecturers, listings)));
+        }
+
+        int repaired = 0;
+        if (repair) {
+            for (Issue issue : issues) {
+                issue.repair.run();
+                repaired++;
+            }
+        }
+        return new Report(Collections.unmodifiableList(issues), departments.length + staff.length + courses.length,
+                checker.links.sum(), repaired, System.nanoTime() - start);
+    }
+
+    // Runs a check over every entity on the common pool. Clean entities return null, so a healthy
+    // graph allocates nothing per entity; collect() keeps the encounter order, so the report (and
+    // the repair order) is the same every run.
+    private static <T> List<Issue> pass(T[] entities, Function<T, List<Issue>> check) {
+        return Arrays.stream(entities).parallel()
+                .map(check)
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    // The per-entity checks. Each one reads only the entity's own lists and constant-time lookups
+    // into the other ends, and returns null when it finds nothing.
+    //
+    // Every link end is checked for dangling references and copies, which only needs a field read
+    // of the other end. Checking that the other end has the link too needs a hash lookup, so that
+    // is done from one side of each association: staff check their departments, lecturers their
+    // courses, departments the courses' lists of listing departments. Those sides also count the
+    // links that were found on both ends. Both sides are sets, so each such link matches a
+    // different link on the other side; if the other side holds no more links than that count, it
+    // holds nothing else, and the second half of the lookups (checkMembers, checkBackLinks) is
+    // skipped.
+    private static final class Checker {
+        private final UniversityRegistry registry;
+        final LongAdder links = new LongAdder();
+        final LongAdder pairedStaffDepartments = new LongAdder();
+        final LongAdder departmentStaff = new LongAdder();
+        final LongAdder pairedLecturerCourses = new LongAdder();
+        final LongAdder courseLecturers = new LongAdder();
+        final LongAdder pairedDepartmentCourses = new LongAdder();
+        final LongAdder courseListings = new LongAdder();
+
+        Checker(UniversityRegistry registry) {
+            this.registry = registry;
+        }
+
+        // The registered entity with the same ID, or null. Entities are never unregistered and
+        // a registry refuses a second entity with the same ID, so one whose registry field points
+        // here is the registered one; only copies and strangers need the map lookup.
+        Staff registered(Staff staffMember) {
+            if (staffMember == null) {
+                return null;
+            }
+            return staffMember.registry == registry ? staffMember : registry.getStaff(staffMember.getStaffId());
+        }
+
+        Department registered(Department department) {
+            if (department == null) {
+                return null;
+            }
+            return department.registry == registry ? department
+                    : registry.getDepartment(department.getDepartmentCode());
+        }
+
+        Course registered(Course course) {
+            if (course == null) {
+                return null;
+            }
+            return course.registry == registry ? course : registry.getCourse(course.getCourseCode());
+        }
+
+        List<Issue> check(Department department) {
+            List<Issue> found = null;
+            String code = department.getDepartmentCode();
+            List<Staff> staffMembers = department.getStaffMembers();
+            for (Staff member : staffMembers) {
+                Staff registered = registered(member);
+                if (registered == null) {
+                    found = add(found, Problem.DANGLING_REFERENCE, code, "lists staff member "
+                            + staffId(member) + ", who is not registered",
+                            () -> locked(department, member, () -> department.detachStaffMember(member)));
+                } else if (registered != member) {
+                    found = add(found, Problem.DUPLICATE_ID, code, "lists a copy of staff member "
+                            + registered.getStaffId() + " instead of the registered one",
+                            () -> swapStaffMember(department, member, registered));
+                }
+            }
+            List<Course> coursesOffered = department.getCoursesOffered();
+            int paired = 0;
+            for (Course course : coursesOffered) {
+                Course registered = registered(course);
+                if (registered == null) {
+                    found = add(found, Problem.DANGLING_REFERENCE, code, "offers course "
+                            + courseCode(course) + ", which is not registered",
+                            () -> locked(department, course, () -> department.detachCourse(course)));
+                } else if (registered != course) {
+                    found = add(found, Problem.DUPLICATE_ID, code, "offers a copy of course "
+                            + registered.getCourseCode() + " instead of the registered one",
+                            () -> swapCourse(department, course, registered));
+                } else if (isListedBy(course, department)) {
+                    paired++;
+                } else {
+                    found = add(found, Problem.ONE_SIDED_LINK, code, "offers course "
+                            + course.getCourseCode() + ", which does not list it as an offering department",
+                            () -> locked(department, course, () -> {
+                                if (department.offersCourse(course) && !isListedBy(course, department)) {
+                                    if (department.registry != null) {
+                                        department.registry.departmentCourseLinked(department, course);
+                                    }
+                                    course.addListingDepartment(department);
+                                }
+                            }));
+                }
+            }
+            Staff head = department.getHeadOfDepartment();
+            if (head != null) {
+                Staff registered = registered(head);
+                if (registered == null) {
+                    found = add(found, Problem.DANGLING_REFERENCE, code, "has head of department "
+                            + head.getStaffId() + ", who is not registered",
+                            () -> setHead(department, null));
+                } else {
+                    if (registered != head) {
+                        found = add(found, Problem.DUPLICATE_ID, code, "has a copy of staff member "
+                                + registered.getStaffId() + " as head of department",
+                                () -> setHead(department, registered));
+                    }
+                    if (!department.hasStaffMember(registered) || !registered.isAssignedTo(department)) {
+                        found = add(found, Problem.HEAD_NOT_MEMBER, code, "has head of department "
+                                + registered.getStaffId() + ", who is not one of its staff",
+                                () -> link(registered, department));
+                    }
+                }
+            }
+            departmentStaff.add(staffMembers.size());
+            pairedDepartmentCourses.add(paired);
+            links.add(staffMembers.size() + coursesOffered.size());
+            return found;
+        }
+
+        List<Issue> check(Staff staffMember) {
+            List<Issue> found = null;
+            String id = staffMember.getStaffId();
+            List<Department> departments = staffMember.getAssignedDepartments();
+            int paired = 0;
+            for (Department department : departments) {
+                Department registered = registered(department);
+                if (registered == null) {
+                    found = add(found, Problem.DANGLING_REFERENCE, id, "is assigned to department "
+                            + departmentCode(department) + ", which is not registered",
+                            () -> locked(staffMember, department, () -> staffMember.detachDepartment(department)));
+                    continue;
+                }
+                if (registered != department) {
+                    found = add(found, Problem.DUPLICATE_ID, id, "is assigned to a copy of department "
+                            + registered.getDepartmentCode() + " instead of the registered one",
+                            () -> swapDepartment(staffMember, department, registered));
+                }
+                if (registered.hasStaffMember(staffMember)) {
+                    paired++;
+                } else {
+                    found = add(found, Problem.ONE_SIDED_LINK, id, "is assigned to department "
+                            + registered.getDepartmentCode() + ", which does not list them",
+                            () -> link(staffMember, registered));
+                }
+            }
+            pairedStaffDepartments.add(paired);
+            long count = departments.size();
+            if (staffMember instanceof Lecturer) {
+                Lecturer lecturer = (Lecturer) staffMember;
+                List<Course> teaching = lecturer.getCoursesTeaching();
+                paired = 0;
+                for (Course course : teaching) {
+                    Course registered = registered(course);
+                    if (registered == null) {
+                        found = add(found, Problem.DANGLING_REFERENCE, id, "teaches course "
+                                + courseCode(course) + ", which is not registered",
+                                () -> locked(lecturer, course, () -> lecturer.detachCourse(course)));
+                        continue;
+                    }
+                    if (registered != course) {
+                        found = add(found, Problem.DUPLICATE_ID, id, "teaches a copy of course "
+                                + registered.getCourseCode() + " instead of the registered one",
+                                () -> swapCourse(lecturer, course, registered));
+                    }
+                    if (registered.hasLecturer(lecturer)) {
+                        paired++;
+                    } else {
+                        found = add(found, Problem.ONE_SIDED_LINK, id, "teaches course "
+                                + registered.getCourseCode() + ", which does not list them as a lecturer",
+                                () -> link(lecturer, registered));
+                    }
+                }
+                pairedLecturerCourses.add(paired);
+                count += teaching.size();
+            }
+            links.add(count);
+            return found;
+        }
+
+        List<Issue> check(Course course) {
+            List<Issue> found = null;
+            String code = course.getCourseCode();
+            List<Lecturer> lecturers = course.getLecturers();
+            for (Lecturer lecturer : lecturers) {
+                Staff registered = registered(lecturer);
+                if (!(registered instanceof Lecturer)) {
+                    found = add(found, Problem.DANGLING_REFERENCE, code, "lists lecturer "
+                            + staffId(lecturer) + ", who is not a registered lecturer",
+                            () -> locked(course, lecturer, () -> course.detachLecturer(lecturer)));
+                } else if (registered != lecturer) {
+                    Lecturer registeredLecturer = (Lecturer) registered;
+                    found = add(found, Problem.DUPLICATE_ID, code, "lists a copy of lecturer "
+                            + registered.getStaffId() + " instead of the registered one",
+                            () -> swapLecturer(course, lecturer, registeredLecturer));
+                }
+            }
+            // The departments listing this course are a reverse index of Department.coursesOffered;
+            // a stale entry would send credit changes to the wrong department total.
+            // Every bad entry is repaired by removing it; the department side adds back what is missing.
+            List<Department> listedBy = course.getListingDepartments();
+            for (int i = 0; i < listedBy.size(); i++) {
+                Department department = listedBy.get(i);
+                Department registered = registered(department);
+                if (registered == null) {
+                    found = add(found, Problem.DANGLING_REFERENCE, code, "is listed by department "
+                            + departmentCode(department) + ", which is not registered",
+                            () -> locked(course, department, () -> unlist(course, department)));
+                } else if (registered != department) {
+                    found = add(found, Problem.DUPLICATE_ID, code, "is listed by a copy of department "
+                            + registered.getDepartmentCode(),
+                            () -> locked(course, registered, () -> {
+                                if (!registered.offersCourse(course)) {
+                                    removed(registered, course);
+                                }
+                                unlist(course, department);
+                            }));
+                } else if (indexOf(listedBy, department) < i) {
+                    found = add(found, Problem.ONE_SIDED_LINK, code, "is listed twice by department "
+                            + registered.getDepartmentCode(),
+                            () -> locked(course, department, () -> unlist(course, department)));
+                }
+            }
+            Department offering = course.getOfferingDepartment();
+            if (offering != null) {
+                Department registered = registered(offering);
+                if (registered == null) {
+                    found = add(found, Problem.DANGLING_REFERENCE, code, "has offering department "
+                            + offering.getDepartmentCode() + ", which is not registered",
+                            () -> setOffering(course, null));
+                } else {
+                    if (registered != offering) {
+                        found = add(found, Problem.DUPLICATE_ID, code, "has a copy of department "
+                                + registered.getDepartmentCode() + " as offering department",
+                                () -> setOffering(course, registered));
+                    }
+                    if (!registered.offersCourse(course)) {
+                        found = add(found, Problem.ONE_SIDED_LINK, code, "has offering department "
+                                + registered.getDepartmentCode() + ", which does not offer it",
+                                () -> list(registered, course));
+                    }
+                }
+            }
+            courseLecturers.add(lecturers.size());
+            courseListings.add(listedBy.size());
+            links.add(lecturers.size() + listedBy.size() + (offering != null ? 1 : 0));
+            return found;
+        }
+
+        // Second half of the Staff <-> Department lookups: members the staff member does not know about.
+        List<Issue> checkMembers(Department department) {
+            List<Issue> found = null;
+            String code = department.getDepartmentCode();
+            for (Staff member : department.getStaffMembers()) {
+                Staff registered = registered(member);
+                if (registered != null && !registered.isAssignedTo(department)) {
+                    found = add(found, Problem.ONE_SIDED_LINK, code, "lists staff member "
+                            + registered.getStaffId() + ", who is not assigned to it",
+                            () -> link(registered, department));
+                }
+            }
+            return found;
+        }
+
+        // Second half of the Lecturer <-> Course and Department <-> Course lookups.
+        List<Issue> checkBackLinks(Course course, boolean lecturers, boolean listings) {
+            List<Issue> found = null;
+            String code = course.getCourseCode();
+            if (lecturers) {
+                for (Lecturer lecturer : course.getLecturers()) {
+                    Staff registered = registered(lecturer);
+                    if (registered instanceof Lecturer && !((Lecturer) registered).isTeaching(course)) {
+                        Lecturer registeredLecturer = (Lecturer) registered;
+                        found = add(found, Problem.ONE_SIDED_LINK, code, "lists lecturer "
+                                + registered.getStaffId() + ", who is not teaching it",
+                                () -> link(registeredLecturer, course));
+                    }
+                }
+            }
+            if (listings) {
+                List<Department> listedBy = course.getListingDepartments();
+                for (int i = 0; i < listedBy.size(); i++) {
+                    Department department = listedBy.get(i);
+                    if (registered(department) == department && indexOf(listedBy, department) == i
+                            && !department.offersCourse(course)) {
+                        found = add(found, Problem.ONE_SIDED_LINK, code, "is listed by department "
+                                + department.getDepartmentCode() + ", which does not offer it",
+                                () -> locked(course, department, () -> {
+                                    if (!department.offersCourse(course)) {
+                                        removed(department, course);
+                                        unlist(course, department);
+                                    }
+                                }));
+                    }
+                }
+            }
+            return found;
+        }
+    }
+
+    private static List<Issue> add(List<Issue> found, Problem problem, String entityId, String description,
+                                   Runnable repair) {
+        if (found == null) {
+            found = new ArrayList<>(2);
+        }
+        found.add(new Issue(problem, entityId, description, repair));
+        return found;
+    }
+
+    // --- Repairs ---
+    // Repairs can be run more than once: the attach methods skip links that are already there.
+    // So a repair that overlaps one run earlier (a duplicate swapped for the registered entity,
+    // then its missing side added) just does what is left.
+
+    // Runs a repair under the lock stripes of both entities (either may be null).
+    private static void locked(Object a, Object b, Runnable action) {
+        AssociationLocks.lock(a, b, null);
+        try {
+            action.run();
+        } finally {
+            AssociationLocks.unlock(a, b, null);
+        }
+    }
+
+    private static void link(Staff staffMember, Department department) {
+        locked(staffMember, department, () -> staffMember.linkDepartment(department));
+    }
+
+    private static void link(Lecturer lecturer, Course course) {
+        locked(lecturer, course, () -> lecturer.linkCourse(course));
+    }
+
+    private static void list(Department department, Course course) {
+        locked(department, course, () -> department.listCourse(course));
+    }
+
+    // The swaps below replace a copy with the registered entity (same ID, so same lock stripe).
+    // A swap that leaves the link on both sides journals it; if the other side is still missing,
+    // its own ONE_SIDED_LINK repair adds and journals it.
+
+    private static void swapStaffMember(Department department, Staff copy, Staff registered) {
+        locked(department, registered, () -> {
+            if (registered.isAssignedTo(department) && registered.registry != null) {
+                registered.registry.staffDepartmentLinked(registered, department);
+            }
+            department.detachStaffMember(copy);
+            department.attachStaffMember(registered);
+        });
+    }
+
+    private static void swapDepartment(Staff staffMember, Department copy, Department registered) {
+        locked(staffMember, registered, () -> {
+            if (registered.hasStaffMember(staffMember) && staffMember.registry != null) {
+                staffMember.registry.staffDepartmentLinked(staffMember, registered);
+            }
+            staffMember.detachDepartment(copy);
+            staffMember.attachDepartment(registered);
+        });
+    }
+
+    // The department side carries the reverse link too, so this swap always ends up complete.
+    private static void swapCourse(Department department, Course copy, Course registered) {
+        locked(department, registered, () -> {
+            if (department.registry != null) {
+                department.registry.departmentCourseLinked(department, registered);
+            }
+            department.detachCourse(copy);
+            unlist(registered, department);
+            department.attachCourse(registered);
+        });
+    }
+
+    private static void swapCourse(Lecturer lecturer, Course copy, Course registered) {
+        locked(lecturer, registered, () -> {
+            if (registered.hasLecturer(lecturer) && lecturer.registry != null) {
+                lecturer.registry.lecturerCourseLinked(lecturer, registered);
+            }
+            lecturer.detachCourse(copy);
+            lecturer.attachCourse(registered);
+        });
+    }
+
+    private static void swapLecturer(Course course, Lecturer copy, Lecturer registered) {
+        locked(course, registered, () -> {
+            if (registered.isTeaching(course) && registered.registry != null) {
+                registered.registry.lecturerCourseLinked(registered, course);
+            }
+            course.detachLecturer(copy);
+            course.attachLecturer(registered);
+        });
+    }
+
+    // Journals that a registered department no longer lists the course, before a stale entry in
+    // the course's reverse index is dropped: the journal may still hold the old link.
+    private static void removed(Department department, Course course) {
+        if (department.registry != null) {
+            department.registry.departmentCourseRemoved(department, course);
+        }
+    }
+
+    private static void setHead(Department department, Staff head) {
+        AssociationLocks.lock(department);
+        try {
+            if (department.registry != null) {
+                department.registry.headChanged(department, head);
+            }
+            department.attachHeadOfDepartment(head);
+        } finally {
+            AssociationLocks.unlock(department);
+        }
+    }
+
+    private static void setOffering(Course course, Department offering) {
+        locked(course, offering, () -> {
+            if (course.registry != null) {
+                course.registry.offeringDepartmentChanged(course, offering);
+            }
+            course.attachOfferingDepartment(offering);
+        });
+    }
+
+    // Whether the course's reverse index holds this very department object.
+    private static boolean isListedBy(Course course, Department department) {
+        return indexOf(course.getListingDepartments(), department) >= 0;
+    }
+
+    // Position of this very object in the list (List.indexOf compares by ID), or -1.
+    private static int indexOf(List<Department> departments, Department department) {
+        for (int i = 0; i < departments.size(); i++) {
+            if (departments.get(i) == department) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Removes one entry for this very department object from the course's reverse index
+    // (Course.removeListingDepartment compares by code, so it could remove a different copy).
+    private static void unlist(Course course, Department department) {
+        List<Department> listedBy = course.getListingDepartments();
+        for (int i = listedBy.size() - 1; i >= 0; i--) {
+            if (listedBy.get(i) == department) {
+                listedBy.remove(i);
+                return;
+            }
+        }
+    }
+
+    private static String staffId(Staff staffMember) {
+        return staffMember == null ? "null" : staffMember.getStaffId();
+    }
+
+    private static String departmentCode(Department department) {
+        return department == null ? "null" : department.getDepartmentCode();
+    }
+
+    private static String courseCode(Course course) {
+        return course == null ? "null" : course.getCourseCode();
+    }
+
+    /**
+     * Validates a snapshot file, and with --repair writes the repaired graph back to it.
+     * @param args snapshot file [--repair]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: AssociationValidator <snapshot file> [--repair]");
+            return;
+        }
+        Path file = Paths.get(args[0]);
+        boolean repair = args.length > 1 && args[1].equals("--repair");
+        UniversityRegistry registry = UniversitySnapshot.load(file);
+        Report report = validate(registry, repair);
+        System.out.println(report);
+        for (Issue issue : report.getIssues().subList(0, Math.min(20, report.getIssues().size()))) {
+            System.out.println("  " + issue);
+        }
+        if (repair && report.getRepairedCount() > 0) {
+            UniversitySnapshot.write(registry, file, UniversitySnapshot.journalOffset(file));
+            System.out.println("Wrote the repaired snapshot to " + file);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// AsyncEventDispatcher.java
+// DomainEventListener that hands events to a background thread through a bounded ring buffer,
+// so the threads changing the model never wait on a slow listener (console, network, disk).
+//
+// Many producers, one consumer. A producer claims a sequence number with one atomic increment,
+// stores the event in that slot and marks the slot as published. The consumer thread delivers
+// the slots strictly in sequence order. If the buffer is full, producers wait for space
+// (back-pressure) rather than drop events.
+//
+// close() seals the sequence counter by setting its CLOSED bit in the same atomic counter the
+// producers increment, so every claim lands either before the seal (and is delivered) or after
+// it (and is rejected). Checking a closed flag first and claiming afterwards would let a producer
+// claim a slot after the consumer had drained and exited, losing its event.
+//
+// Usage:
+//   AsyncEventDispatcher async = new AsyncEventDispatcher(new ConsoleEventLogger(), 1 << 16);
+//   DomainEvents.subscribe(async);
+//   ...
+//   DomainEvents.unsubscribe(async);
+//   async.close(); // delivers everything still queued
+public class AsyncEventDispatcher implements DomainEventListener, Closeable {
+    private static final int SPINS_BEFORE_PARK = 100;
+    private static final long PARK_NANOS = 100_000; // 0.1 ms
+    private static final long CLOSED = 1L << 62; // Set in nextSequence by close()
+
+    private final DomainEventListener delegate;
+    private final DomainEvent[] ring;
+    private final int mask;
+    // published[i] holds (sequence + 1) of the last event stored in slot i; 0 = never used.
+    private final AtomicLongArray published;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private volatile long consumedSequence; // Everything below this has been delivered
+    private volatile long end = Long.MAX_VALUE; // Sequences claimed before close(); the consumer stops there
+    private volatile boolean consumerParked;
+    private final AtomicLong delivered = new AtomicLong();
+    private final Thread consumer;
+
+    /**
+     * @param delegate The listener to call on the background thread.
+     * @param capacity Ring buffer size; rounded up to a power of two.
+     */
+    public AsyncEventDispatcher(DomainEventListener delegate, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.delegate = delegate;
+        this.ring = new DomainEvent[size];
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        this.consumer = new Thread(this::consumeLoop, "domain-event-dispatcher");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Queues an event for the background thread. Waits if the ring buffer is full.
+     * @throws IllegalStateException if the dispatcher has been closed.
+     */
+    @Override
+    public void onEvent(DomainEvent event) {
+        long sequence = nextSequence.getAndIncrement();
+        if (sequence >= CLOSED) {
+            throw new IllegalStateException("Dispatcher is closed");
+        }
+        // Wait for the consumer to free this slot (only happens when the buffer is full).
+        while (sequence - consumedSequence >= ring.length) {
+            wakeConsumer();
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        int slot = (int) (sequence & mask);
+        ring[slot] = event;
+        published.set(slot, sequence + 1); // Volatile write: makes the event visible to the consumer
+        if (consumerParked) {
+            wakeConsumer();
+        }
+    }
+
+    /**
+     * @return How many events have been handed to the delegate so far.
+     */
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    /**
+     * @return How many events are queued but not yet delivered.
+     */
+    public long getBacklog() {
+        long claimed = Math.min(nextSequence.get() & (CLOSED - 1), end);
+        return Math.max(0, claimed - consumedSequence);
+    }
+
+    /**
+     * Stops accepting events, delivers everything already queued and stops the background thread.
+     */
+    @Override
+    public void close() {
+        long claimed = nextSequence.getAndUpdate(sequence -> sequence < CLOSED ? sequence + CLOSED : sequence);
+        if (claimed < CLOSED) {
+            end = claimed; // First close: producers holding a sequence below this still publish it
+        }
+        wakeConsumer();
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void wakeConsumer() {
+        LockSupport.unpark(consumer);
+    }
+
+    private void consumeLoop() {
+        long sequence = 0;
+        int idle = 0;
+        while (true) {
+            int slot = (int) (sequence & mask);
+            if (published.get(slot) == sequence + 1) {
+                DomainEvent event = ring[slot];
+                ring[slot] = null;
+                consumedSequence = sequence + 1; // Frees the slot for producers
+                sequence++;
+                idle = 0;
+                try {
+                    delegate.onEvent(event);
+                } catch (RuntimeException e) {
+                    Thread t = Thread.currentThread();
+                    t.getUncaughtExceptionHandler().uncaughtException(t, e);
+                }
+                delivered.incrementAndGet();
+            } else if (sequence >= end) {
+                return; // Closed and fully drained
+            } else if (++idle < SPINS_BEFORE_PARK) {
+                Thread.onSpinWait();
+            } else {
+                consumerParked = true;
+                if (published.get(slot) != sequence + 1 && sequence < end) {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+                consumerParked = false;
+            }
+        }
+    }
+}
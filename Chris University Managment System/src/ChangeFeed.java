@@ -0,0 +1,521 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+// ChangeFeed.java
+// Versioned log of changes to the model, so downstream systems (HR, payroll, the LMS) can sync
+// deltas instead of re-downloading every entity.
+//
+// Every change gets the next sequence number (1, 2, 3, ...). A consumer remembers the last
+// number it has seen and asks for what came after it:
+//
+//   ChangeFeed feed = new ChangeFeed(100_000);
+//   registry.attachChangeFeed(feed);
+//   ...
+//   ChangeFeed.Batch batch = feed.changesSince(lastSeen, 1000);
+//   if (batch.isResyncRequired()) {
+//       lastSeen = feed.getLatestSequence();     // read first, then
+//       ... re-download everything ...
+//   } else {
+//       for (ChangeFeed.Change change : batch.getChanges()) { ... apply ... }
+//       lastSeen = batch.getNextSequence();
+//   }
+//
+// A change is one fact about one entity: a field set to a value (SET), a link added or removed
+// (ADD / REMOVE, the value is the linked entity's ID), or a new entity (CREATE; fetch it, e.g.
+// from UniversityHttpServer). Changes come from the registry (registrations) and from the
+// DomainEvents every mutator publishes, and are recorded on the thread that made the change.
+//
+// Events are published after the mutator has released the entity's AssociationLocks stripe, so
+// two threads setting the same field can deliver their events in either order. The feed therefore
+// does not record the value an event carries: it takes the entity's stripe (both ends' for a
+// link), reads the field's current value (or whether the link exists now) and appends it before
+// letting go. The change recorded last for a fact was read after every change made to it before,
+// so it holds the fact's latest state. A change can thus repeat a value, or be a REMOVE for an
+// ADD event when the link was removed again in between.
+//
+// The log is bounded. It is compacted per entity: a new change replaces the earlier change to the
+// same field or the same link, so the log holds at most one change per (entity, field) or
+// (entity, link). Once changes stop, applying the compacted log ends in the model's state, because
+// the latest change to each fact is kept. If the log is full even after compaction, the oldest
+// changes are dropped; a consumer that had not seen them gets a batch with isResyncRequired() set.
+public final class ChangeFeed implements DomainEventListener {
+    /** What kind of entity a change is about. */
+    public enum EntityType { DEPARTMENT, STAFF, COURSE, STUDENT }
+
+    /** What a change does. */
+    public enum Operation { CREATE, SET, ADD, REMOVE }
+
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    // The log, oldest first. Superseded changes are nulled out and squeezed out by makeRoom();
+    // sequences keeps every slot's number, so it stays sorted for binary search.
+    private final Change[] log;
+    private final long[] sequences;
+    private int end;
+    private int live;
+    // Compaction key -> slot of the latest change to that fact.
+    private final Map<String, Integer> slotByKey = new HashMap<>();
+    private long lastSequence;
+    // The highest sequence number dropped while still current: consumers behind it missed a change.
+    private long horizon;
+    // The registry whose entities are recorded; null records every entity.
+    volatile UniversityRegistry registry;
+
+    /**
+     * @param capacity The most changes kept after compaction.
+     */
+    public ChangeFeed(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.log = new Change[capacity];
+        this.sequences = new long[capacity];
+    }
+
+    // --- Reading ---
+
+    /**
+     * The changes after a sequence number, oldest first.
+     * @param sequence The last sequence number the consumer has seen; 0 for everything kept.
+     * @param limit The most changes to return.
+     * @return The changes, the sequence number to ask from next, and whether some were lost.
+     */
+    public Batch changesSince(long sequence, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        lock.lock();
+        try {
+            return batch(sequence, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Like changesSince(), but waits up to the timeout for a change if there is none yet:
+     * long polling, so consumers hear of changes at once without polling in a tight loop.
+     * @param sequence The last sequence number the consumer has seen.
+     * @param limit The most changes to return.
+     * @param timeout How long to wait.
+     * @param unit The unit of timeout.
+     * @return The batch; empty if nothing changed in time.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public Batch awaitChangesSince(long sequence, int limit, long timeout, TimeUnit unit) throws InterruptedException {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (lastSequence <= sequence && nanos > 0) {
+                nanos = appended.awaitNanos(nanos);
+            }
+            return batch(sequence, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Batch batch(long sequence, int limit) {
+        int from = Arrays.binarySearch(sequences, 0, end, sequence);
+        from = from >= 0 ? from + 1 : -from - 1;
+        List<Change> changes = new ArrayList<>(Math.min(limit, end - from));
+        int i = from;
+        for (; i < end && changes.size() < limit; i++) {
+            if (log[i] != null) {
+                changes.add(log[i]);
+            }
+        }
+        // Skip superseded slots too, so a consumer does not come back for nothing.
+        while (i < end && log[i] == null) {
+            i++;
+        }
+        long next = i == end ? Math.max(sequence, lastSequence) : changes.get(changes.size() - 1).sequence;
+        return new Batch(Collections.unmodifiableList(changes), next, sequence < horizon, lastSequence);
+    }
+
+    /**
+     * @return The sequence number of the latest change, 0 if none.
+     */
+    public long getLatestSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return How many changes the log holds.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return live;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // --- Recording ---
+
+    /**
+     * Records a change made by some other means than the model's mutators.
+     * @param type The kind of entity.
+     * @param id Its code or ID.
+     * @param operation What was done.
+     * @param attribute The field or link that changed; null for CREATE.
+     * @param value The new value or the linked entity's ID; null for CREATE or a cleared field.
+     * @return The change's sequence number.
+     */
+    public long record(EntityType type, String id, Operation operation, String attribute, String value) {
+        lock.lock();
+        try {
+            Change change = new Change(++lastSequence, type, id, operation, attribute, value);
+            String key = change.key();
+            if (end == capacity) {
+                makeRoom();
+            }
+            Integer previous = slotByKey.put(key, end);
+            if (previous != null) {
+                log[previous] = null;
+                live--;
+            }
+            log[end] = change;
+            sequences[end] = change.sequence;
+            end++;
+            live++;
+            appended.signalAll();
+            return change.sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Squeezes out superseded changes; if the log is still more than 7/8 full, first drops the
+    // oldest eighth of the changes so that compaction is not needed again on the next record.
+    private void makeRoom() {
+        if (live > capacity - capacity / 8 - 1) {
+            int drop = Math.max(1, capacity / 8);
+            for (int i = 0; i < end && drop > 0; i++) {
+                Change change = log[i];
+                if (change != null) {
+                    horizon = change.sequence;
+                    slotByKey.remove(change.key());
+                    log[i] = null;
+                    live--;
+                    drop--;
+                }
+            }
+        }
+        int to = 0;
+        for (int from = 0; from < end; from++) {
+            Change change = log[from];
+            if (change != null) {
+                if (to != from) {
+                    log[to] = change;
+                    sequences[to] = change.sequence;
+                    slotByKey.put(change.key(), to);
+                }
+                to++;
+            }
+        }
+        Arrays.fill(log, to, end, null);
+        end = to;
+    }
+
+    void created(EntityType type, String id) {
+        record(type, id, Operation.CREATE, null, null);
+    }
+
+    /**
+     * Records a change from the model's mutators: the current state of the field or link the
+     * event is about. Events about entities of another registry than the one the feed is
+     * attached to are ignored.
+     */
+    @Override
+    public void onEvent(DomainEvent event) {
+        if (event instanceof DomainEvent.StaffJoinedDepartment) {
+            DomainEvent.StaffJoinedDepartment e = (DomainEvent.StaffJoinedDepartment) event;
+            departments(e.getStaff(), e.getDepartment());
+        } else if (event instanceof DomainEvent.StaffLeftDepartment) {
+            DomainEvent.StaffLeftDepartment e = (DomainEvent.StaffLeftDepartment) event;
+            departments(e.getStaff(), e.getDepartment());
+        } else if (event instanceof DomainEvent.CourseOffered) {
+            DomainEvent.CourseOffered e = (DomainEvent.CourseOffered) event;
+            courses(e.getDepartment(), e.getCourse());
+        } else if (event instanceof DomainEvent.CourseWithdrawn) {
+            DomainEvent.CourseWithdrawn e = (DomainEvent.CourseWithdrawn) event;
+            courses(e.getDepartment(), e.getCourse());
+        } else if (event instanceof DomainEvent.CourseAssigned) {
+            DomainEvent.CourseAssigned e = (DomainEvent.CourseAssigned) event;
+            lecturers(e.getCourse(), e.getLecturer());
+        } else if (event instanceof DomainEvent.CourseUnassigned) {
+            DomainEvent.CourseUnassigned e = (DomainEvent.CourseUnassigned) event;
+            lecturers(e.getCourse(), e.getLecturer());
+        } else if (event instanceof DomainEvent.HeadOfDepartmentChanged) {
+            Department d = ((DomainEvent.HeadOfDepartmentChanged) event).getDepartment();
+            field(d, "head", () -> {
+                Staff head = d.getHeadOfDepartment();
+                return head == null ? null : head.getStaffId();
+            });
+        } else if (event instanceof DomainEvent.OfficeChanged) {
+            Department d = ((DomainEvent.OfficeChanged) event).getDepartment();
+            AssociationLocks.lock(d);
+            try {
+                change(d, Operation.SET, "officeRoom", d.getOffice().getRoomNumber());
+                change(d, Operation.SET, "officePhone", d.getOffice().getPhoneExtension());
+            } finally {
+                AssociationLocks.unlock(d);
+            }
+        } else if (event instanceof DomainEvent.OfferingDepartmentChanged) {
+            Course c = ((DomainEvent.OfferingDepartmentChanged) event).getCourse();
+            field(c, "offeringDepartment", () -> {
+                Department d = c.getOfferingDepartment();
+                return d == null ? null : d.getDepartmentCode();
+            });
+        } else if (event instanceof DomainEvent.CreditsChanged) {
+            Course c = ((DomainEvent.CreditsChanged) event).getCourse();
+            field(c, "credits", () -> Integer.toString(c.getCredits()));
+        } else if (event instanceof DomainEvent.CapacityChanged) {
+            Course c = ((DomainEvent.CapacityChanged) event).getCourse();
+            field(c, "capacity", () -> Integer.toString(c.getCapacity()));
+        } else if (event instanceof DomainEvent.EmailChanged) {
+            Staff s = ((DomainEvent.EmailChanged) event).getStaff();
+            field(s, "email", s::getEmail);
+        } else if (event instanceof DomainEvent.SpecializationChanged) {
+            Lecturer l = ((DomainEvent.SpecializationChanged) event).getLecturer();
+            field(l, "specialization", l::getSpecialization);
+        } else if (event instanceof DomainEvent.RoleChanged) {
+            AdministrativeStaff a = ((DomainEvent.RoleChanged) event).getStaff();
+            field(a, "role", a::getRole);
+        } else if (event instanceof DomainEvent.StudentEnrolled) {
+            DomainEvent.StudentEnrolled e = (DomainEvent.StudentEnrolled) event;
+            enrollment(e.getCourse(), e.getStudent(), e.isFromWaitlist(), true);
+        } else if (event instanceof DomainEvent.StudentWaitlisted) {
+            DomainEvent.StudentWaitlisted e = (DomainEvent.StudentWaitlisted) event;
+            enrollment(e.getCourse(), e.getStudent(), true, false);
+        } else if (event instanceof DomainEvent.StudentDropped) {
+            DomainEvent.StudentDropped e = (DomainEvent.StudentDropped) event;
+            enrollment(e.getCourse(), e.getStudent(), !e.hadSeat(), e.hadSeat());
+        } else if (event instanceof DomainEvent.StudentEmailChanged) {
+            Student s = ((DomainEvent.StudentEmailChanged) event).getStudent();
+            field(s, "email", s::getEmail);
+        }
+    }
+
+    private void departments(Staff staff, Department department) {
+        link(staff, department, "departments", department.getDepartmentCode(), () -> staff.isAssignedTo(department));
+    }
+
+    private void courses(Department department, Course course) {
+        link(department, course, "courses", course.getCourseCode(), () -> department.offersCourse(course));
+    }
+
+    private void lecturers(Course course, Lecturer lecturer) {
+        link(course, lecturer, "lecturers", lecturer.getStaffId(), () -> course.hasLecturer(lecturer));
+    }
+
+    // Records whether the student is on the course's waitlist and/or holds a seat now, under the
+    // stripes of both (the ones Course.enroll and drop hold).
+    private void enrollment(Course course, Student student, boolean waitlist, boolean students) {
+        AssociationLocks.lock(course, student);
+        try {
+            if (waitlist) {
+                change(course, course.isWaitlisted(student) ? Operation.ADD : Operation.REMOVE, "waitlist", student.getStudentId());
+            }
+            if (students) {
+                change(course, course.isEnrolled(student) ? Operation.ADD : Operation.REMOVE, "students", student.getStudentId());
+            }
+        } finally {
+            AssociationLocks.unlock(course, student);
+        }
+    }
+
+    // Records the field's current value, read and appended under the entity's stripe.
+    private void field(Object entity, String attribute, Supplier<String> value) {
+        AssociationLocks.lock(entity);
+        try {
+            change(entity, Operation.SET, attribute, value.get());
+        } finally {
+            AssociationLocks.unlock(entity);
+        }
+    }
+
+    // Records whether the link exists now, read and appended under the stripes of both ends (the
+    // ones the mutators hold while they link or unlink).
+    private void link(Object entity, Object other, String attribute, String id, BooleanSupplier linked) {
+        AssociationLocks.lock(entity, other);
+        try {
+            change(entity, linked.getAsBoolean() ? Operation.ADD : Operation.REMOVE, attribute, id);
+        } finally {
+            AssociationLocks.unlock(entity, other);
+        }
+    }
+
+    // Records a change to entity if it belongs to the feed's registry.
+    private void change(Object entity, Operation operation, String attribute, String value) {
+        UniversityRegistry r = registry;
+        if (entity instanceof Department) {
+            Department d = (Department) entity;
+            if (r == null || d.registry == r) {
+                record(EntityType.DEPARTMENT, d.getDepartmentCode(), operation, attribute, value);
+            }
+        } else if (entity instanceof Staff) {
+            Staff s = (Staff) entity;
+            if (r == null || s.registry == r) {
+                record(EntityType.STAFF, s.getStaffId(), operation, attribute, value);
+            }
+        } else if (entity instanceof Course) {
+            Course c = (Course) entity;
+            if (r == null || c.registry == r) {
+                record(EntityType.COURSE, c.getCourseCode(), operation, attribute, value);
+            }
+        } else if (entity instanceof Student) {
+            Student s = (Student) entity;
+            if (r == null || r.getStudent(s.getStudentId()) == s) {
+                record(EntityType.STUDENT, s.getStudentId(), operation, attribute, value);
+            }
+        }
+    }
+
+    // --- Results ---
+
+    /** One change: a field set, a link added or removed, or an entity created. */
+    public static final class Change {
+        private final long sequence;
+        private final EntityType entityType;
+        private final String entityId;
+        private final Operation operation;
+        private final String attribute;
+        private final String value;
+
+        Change(long sequence, EntityType entityType, String entityId, Operation operation,
+               String attribute, String value) {
+            this.sequence = sequence;
+            this.entityType = entityType;
+            this.entityId = entityId;
+            this.operation = operation;
+            this.attribute = attribute;
+            this.value = value;
+        }
+
+        // The fact this change is about: a field of an entity, or one link. A later change with
+        // the same key supersedes this one.
+        String key() {
+            StringBuilder key = new StringBuilder(48).append(entityType.ordinal()).append('\u0000').append(entityId);
+            if (operation != Operation.CREATE) {
+                key.append('\u0000').append(attribute);
+                if (operation != Operation.SET) {
+                    key.append('\u0000').append(value);
+                }
+            }
+            return key.toString();
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public EntityType getEntityType() {
+            return entityType;
+        }
+
+        public String getEntityId() {
+            return entityId;
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        /**
+         * @return The field or link that changed (e.g. "email", "lecturers"), or null for CREATE.
+         */
+        public String getAttribute() {
+            return attribute;
+        }
+
+        /**
+         * @return The new value, the linked entity's ID, or null (CREATE, or a field cleared).
+         */
+        public String getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder().append('#').append(sequence).append(' ')
+                    .append(operation).append(' ').append(entityType).append(' ').append(entityId);
+            if (attribute != null) {
+                sb.append(' ').append(attribute).append(" = ").append(value);
+            }
+            return sb.toString();
+        }
+    }
+
+    /** The answer to changesSince(). */
+    public static final class Batch {
+        private final List<Change> changes;
+        private final long nextSequence;
+        private final boolean resyncRequired;
+        private final long latestSequence;
+
+        Batch(List<Change> changes, long nextSequence, boolean resyncRequired, long latestSequence) {
+            this.changes = changes;
+            this.nextSequence = nextSequence;
+            this.resyncRequired = resyncRequired;
+            this.latestSequence = latestSequence;
+        }
+
+        /**
+         * @return The changes, oldest first; unmodifiable.
+         */
+        public List<Change> getChanges() {
+            return changes;
+        }
+
+        /**
+         * @return The sequence number to pass to the next changesSince() call.
+         */
+        public long getNextSequence() {
+            return nextSequence;
+        }
+
+        /**
+         * @return true if changes the consumer had not seen were dropped from the log: it must
+         *         re-download the full state instead of applying this batch.
+         */
+        public boolean isResyncRequired() {
+            return resyncRequired;
+        }
+
+        /**
+         * @return The feed's latest sequence number when the batch was taken.
+         */
+        public long getLatestSequence() {
+            return latestSequence;
+        }
+
+        /**
+         * @return true if the consumer is now up to date.
+         */
+        public boolean isComplete() {
+            return nextSequence >= latestSequence;
+        }
+    }
+}
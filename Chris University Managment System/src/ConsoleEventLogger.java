@@ -0,0 +1,21 @@
+import java.io.PrintStream;
+
+// ConsoleEventLogger.java
+// DomainEventListener that prints each event's message, like the mutators used to do themselves.
+// Subscribe it (directly, or wrapped in an AsyncEventDispatcher) to get the console log back.
+public class ConsoleEventLogger implements DomainEventListener {
+    private final PrintStream out;
+
+    public ConsoleEventLogger() {
+        this(System.out);
+    }
+
+    public ConsoleEventLogger(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void onEvent(DomainEvent event) {
+        out.println(event);
+    }
+}
@@ -1,8 +1,16 @@
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 // Course.java
 public class Course {
+    /** Capacity of a course with no seat limit (the default). */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
     // Private attributes for course details.
     private String courseCode; // e.g., "COMP 101"
     private String title;      // e.g., "Introduction to Programming"
@@ -13,7 +21,21 @@ public class Course {
     // Aggregation: A Course can be taught by multiple Lecturers.
     // Lecturers exist independently of the course (aggregation, not composition).
     // If the course is deleted, the lecturers still exist.
-    private List<Lecturer> lecturers;
+    // A LinkSet keeps the order and makes add, remove and membership checks constant-time.
+    private LinkSet<Lecturer> lecturers;
+    // Every department whose coursesOffered list holds this course (usually just the offering
+    // department), so a credit change can update those departments' totals without a search.
+    private final List<Department> listedBy = new ArrayList<>(1);
+    // The registry this course belongs to (set by UniversityRegistry.registerCourse), or null.
+    UniversityRegistry registry;
+    // Field changes so far (credits, offering department); part of getVersion().
+    private final AtomicLong changes = new AtomicLong();
+    // Enrollment. All three are guarded by this course's AssociationLocks stripe, so checking for a
+    // free seat and taking it is one atomic step: no global lock, and never more students than seats.
+    private final LinkSet<Student> students = new LinkSet<>();
+    private final LinkedHashSet<Student> waitlist = new LinkedHashSet<>(); // First come, first served
+    private volatile int waitlistSize;
+    private volatile int capacity = UNLIMITED;
 
     /**
      * Constructor for the Course class.
@@ -28,7 +50,7 @@ public class Course {
         this.title = title;
         this.credits = credits;
         this.offeringDepartment = offeringDepartment;
-        this.lecturers = new ArrayList<>(); // Initialize the list to hold assigned lecturers
+        this.lecturers = new LinkSet<>(); // Initialize the set to hold assigned lecturers
 
         // Optional: Automatically add this course to the department's list of courses
         // This helps maintain bidirectional consistency in the association.
@@ -43,14 +65,221 @@ public class Course {
      * @param lecturer The Lecturer object to be added to the course.
      */
     public void addLecturer(Lecturer lecturer) {
-        if (lecturer != null && !lecturers.contains(lecturer)) {
-            lecturers.add(lecturer);
-            // Optional: Also ensure the lecturer knows they are teaching this course
-            if (!lecturer.getCoursesTeaching().contains(this)) {
-                lecturer.assignCourse(this);
+        if (lecturer == null) {
+            return;
+        }
+        long start = DomainMetrics.start();
+        // Links both sides under both lock stripes and publishes CourseAssigned after releasing them.
+        lecturer.teach(this);
+        DomainMetrics.record(DomainMetrics.Operation.ADD_LECTURER, offeringDepartment, start);
+    }
+
+    /**
+     * Removes a lecturer from this course, on both sides of the association.
+     * @param lecturer The Lecturer object to be removed from the course.
+     */
+    public void removeLecturer(Lecturer lecturer) {
+        if (lecturer != null) {
+            lecturer.stopTeaching(this);
+        }
+    }
+
+    // --- Enrollment ---
+
+    /**
+     * Enrolls a student if there is a free seat, or puts them at the end of the waitlist if the
+     * course is full (or others are already waiting). Safe to call from many threads at once.
+     * @param student The student asking for a seat.
+     * @return What happened; see EnrollmentResult.
+     */
+    public EnrollmentResult enroll(Student student) {
+        if (student == null) {
+            throw new IllegalArgumentException("student must not be null");
+        }
+        EnrollmentResult result;
+        AssociationLocks.lock(this, student);
+        try {
+            if (students.contains(student)) {
+                result = EnrollmentResult.ALREADY_ENROLLED;
+            } else if (waitlist.contains(student)) {
+                result = EnrollmentResult.ALREADY_WAITLISTED;
+            } else if (students.size() < capacity && waitlist.isEmpty()) {
+                students.add(student);
+                student.attachCourse(this);
+                result = EnrollmentResult.ENROLLED;
+            } else {
+                waitlist.add(student);
+                waitlistSize = waitlist.size();
+                student.attachWaitlist(this);
+                result = EnrollmentResult.WAITLISTED;
             }
-            System.out.println("Lecturer '" + lecturer.getName() + "' assigned to course '" + this.title + "'.");
+        } finally {
+            AssociationLocks.unlock(this, student);
         }
+        if (DomainEvents.isEnabled()) {
+            if (result == EnrollmentResult.ENROLLED) {
+                DomainEvents.publish(new DomainEvent.StudentEnrolled(this, student, false));
+            } else if (result == EnrollmentResult.WAITLISTED) {
+                DomainEvents.publish(new DomainEvent.StudentWaitlisted(this, student));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Takes a student off this course, whether they had a seat or were waiting for one.
+     * A freed seat goes to the first student on the waitlist.
+     * @param student The student to drop.
+     * @return true if the student was enrolled or waitlisted.
+     */
+    public boolean drop(Student student) {
+        if (student == null) {
+            return false;
+        }
+        boolean hadSeat;
+        boolean wasWaiting = false;
+        AssociationLocks.lock(this, student);
+        try {
+            hadSeat = students.remove(student);
+            if (hadSeat) {
+                student.detachCourse(this);
+            } else {
+                wasWaiting = waitlist.remove(student);
+                if (wasWaiting) {
+                    waitlistSize = waitlist.size();
+                    student.detachWaitlist(this);
+                }
+            }
+        } finally {
+            AssociationLocks.unlock(this, student);
+        }
+        if ((hadSeat || wasWaiting) && DomainEvents.isEnabled()) {
+            DomainEvents.publish(new DomainEvent.StudentDropped(this, student, hadSeat));
+        }
+        if (hadSeat) {
+            fillFromWaitlist();
+        }
+        return hadSeat || wasWaiting;
+    }
+
+    /**
+     * Changes the number of seats. Raising it moves waiting students in; lowering it below the
+     * current enrollment keeps everyone enrolled but takes no one new until enough have dropped.
+     * @param capacity The number of seats, or UNLIMITED.
+     */
+    public void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        int oldCapacity;
+        AssociationLocks.lock(this);
+        try {
+            oldCapacity = this.capacity;
+            this.capacity = capacity;
+        } finally {
+            AssociationLocks.unlock(this);
+        }
+        if (DomainEvents.isEnabled()) {
+            DomainEvents.publish(new DomainEvent.CapacityChanged(this, oldCapacity, capacity));
+        }
+        fillFromWaitlist();
+    }
+
+    // Moves students from the head of the waitlist into free seats. The head student's stripe is
+    // only known after looking, so look under this course's stripe, then lock both and check again.
+    private void fillFromWaitlist() {
+        while (true) {
+            Student next;
+            AssociationLocks.lock(this);
+            try {
+                if (waitlist.isEmpty() || students.size() >= capacity) {
+                    return;
+                }
+                next = waitlist.iterator().next();
+            } finally {
+                AssociationLocks.unlock(this);
+            }
+            boolean promoted = false;
+            AssociationLocks.lock(this, next);
+            try {
+                // If next is still waiting it is still the head: others only join at the end.
+                if (students.size() < capacity && waitlist.remove(next)) {
+                    waitlistSize = waitlist.size();
+                    next.detachWaitlist(this);
+                    students.add(next);
+                    next.attachCourse(this);
+                    promoted = true;
+                }
+            } finally {
+                AssociationLocks.unlock(this, next);
+            }
+            if (promoted && DomainEvents.isEnabled()) {
+                DomainEvents.publish(new DomainEvent.StudentEnrolled(this, next, true));
+            }
+        }
+    }
+
+    public boolean isEnrolled(Student student) {
+        return student != null && students.contains(student);
+    }
+
+    public boolean isWaitlisted(Student student) {
+        return student != null && student.isWaitlistedFor(this);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return The number of enrolled students (constant time, no locking).
+     */
+    public int getEnrolledCount() {
+        return students.size();
+    }
+
+    /**
+     * @return Free seats, 0 if the course is full or over capacity.
+     */
+    public int getAvailableSeats() {
+        return capacity == UNLIMITED ? UNLIMITED : Math.max(0, capacity - students.size());
+    }
+
+    public int getWaitlistSize() {
+        return waitlistSize;
+    }
+
+    /**
+     * @return An immutable snapshot of the enrolled students, in enrollment order.
+     */
+    public List<Student> getStudents() {
+        return students.snapshot(this);
+    }
+
+    // Goes up whenever a student gets or gives up a seat; getVersion() does not cover enrollment.
+    long enrollmentVersion() {
+        return students.version();
+    }
+
+    /**
+     * @return A copy of the waitlist, first in line first.
+     */
+    public List<Student> getWaitlist() {
+        AssociationLocks.lock(this);
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(waitlist));
+        } finally {
+            AssociationLocks.unlock(this);
+        }
+    }
+
+    /**
+     * Checks whether the given lecturer is assigned to this course (constant-time lookup).
+     * @param lecturer The Lecturer object to check.
+     * @return true if the lecturer is in this course's list of lecturers.
+     */
+    public boolean hasLecturer(Lecturer lecturer) {
+        return lecturer != null && lecturers.contains(lecturer);
     }
 
     /**
@@ -59,26 +288,54 @@ public class Course {
      * @return A string representation of the course's code, title, credits, department, and lecturers.
      */
     public String getCourseDetails() {
-        String info = "Course Code: " + courseCode + "\n";
-        info += "Title: " + title + "\n";
-        info += "Credits: " + credits + "\n";
+        return RenderCache.render(this, getVersion(), this::writeCourseDetails, 160 + 32 * lecturers.size());
+    }
+
+    /**
+     * Returns a number that goes up whenever something shown by getCourseDetails() changes
+     * (the credits, the offering department or the lecturers).
+     * Equal versions mean the rendered text is unchanged; RenderCache relies on this.
+     * @return The current version.
+     */
+    public long getVersion() {
+        return changes.get() + lecturers.version();
+    }
+
+    // Called when the credits or the offering department change, after the field is written.
+    void fieldChanged() {
+        changes.incrementAndGet();
+    }
+
+    /**
+     * Writes the course details into an Appendable (StringBuilder, Writer, ...).
+     * Streaming version of getCourseDetails(): nothing is concatenated into intermediate strings,
+     * so a whole catalogue can be written straight to a buffered output.
+     * @param out The destination to write to.
+     * @throws IOException if the destination fails to accept the text.
+     */
+    public void writeCourseDetails(Appendable out) throws IOException {
+        out.append("Course Code: ").append(courseCode).append('\n');
+        out.append("Title: ").append(title).append('\n');
+        out.append("Credits: ").append(Integer.toString(credits)).append('\n');
         if (offeringDepartment != null) {
-            info += "Offered by Department: " + offeringDepartment.getName() + "\n";
+            out.append("Offered by Department: ").append(offeringDepartment.getName()).append('\n');
         } else {
-            info += "Offered by Department: Not assigned\n";
+            out.append("Offered by Department: Not assigned\n");
         }
-        info += "Assigned Lecturers (" + lecturers.size() + "): ";
-        if (lecturers.isEmpty()) {
-            info += "None";
+        List<Lecturer> assigned = getLecturers();
+        out.append("Assigned Lecturers (").append(Integer.toString(assigned.size())).append("): ");
+        if (assigned.isEmpty()) {
+            out.append("None");
         } else {
-            for (int i = 0; i < lecturers.size(); i++) {
-                info += lecturers.get(i).getName();
-                if (i < lecturers.size() - 1) {
-                    info += ", ";
+            boolean first = true;
+            for (Lecturer lecturer : assigned) {
+                if (!first) {
+                    out.append(", ");
                 }
+                out.append(lecturer.getName());
+                first = false;
             }
         }
-        return info;
     }
 
     // --- Getter methods for Course attributes ---
@@ -99,17 +356,178 @@ public class Course {
         return offeringDepartment;
     }
 
+    /**
+     * @return An immutable snapshot of the lecturers; safe to iterate while other threads change them.
+     */
     public List<Lecturer> getLecturers() {
-        return lecturers;
+        return lecturers.snapshot(this);
+    }
+
+    /**
+     * @return The number of lecturers assigned to this course (constant time).
+     */
+    public int getLecturerCount() {
+        int count = lecturers.size();
+        if (AggregateAudit.isEnabled()) {
+            AggregateAudit.check(this, "lecturerCount", count, AggregateAudit.countLinks(getLecturers()));
+        }
+        return count;
     }
 
     // --- Setter methods for Course attributes (if needed) ---
+
+    /**
+     * Changes the credits, and moves the difference into the credit totals of every lecturer
+     * teaching this course and every department offering it.
+     * @param credits The new number of credits.
+     */
     public void setCredits(int credits) {
-        this.credits = credits;
+        int oldCredits = writeCredits(credits, true);
+        if (DomainEvents.isEnabled()) {
+            DomainEvents.publish(new DomainEvent.CreditsChanged(this, oldCredits, credits));
+        }
+    }
+
+    // Journal replay of setCredits: moves the totals and reindexes, but is not journaled again
+    // and publishes no event.
+    void attachCredits(int credits) {
+        writeCredits(credits, false);
+    }
+
+    // The body of setCredits. Returns the old credits.
+    private int writeCredits(int credits, boolean journal) {
+        int oldCredits;
+        // Holding this course's stripe keeps the totals exact: assignCourse and addCourse take it
+        // too, so they read either the old credits before the change or the new ones after it.
+        AssociationLocks.lock(this);
+        try {
+            oldCredits = this.credits;
+            this.credits = credits;
+            fieldChanged();
+            long delta = (long) credits - oldCredits;
+            if (delta != 0) {
+                for (Lecturer lecturer : lecturers) {
+                    lecturer.creditsTaught.addAndGet(delta);
+                }
+                for (Department department : listedBy) {
+                    department.totalCredits.addAndGet(delta);
+                }
+            }
+            if (registry != null) {
+                if (journal) {
+                    registry.creditsChanged(this, oldCredits);
+                } else {
+                    registry.reindexCredits(this, oldCredits);
+                }
+            }
+        } finally {
+            AssociationLocks.unlock(this);
+        }
+        return oldCredits;
     }
 
+    /**
+     * Moves the course to another offering department: it is taken off the old department's
+     * list of courses offered and put on the new one's, atomically and in constant time.
+     * Other departments that also list the course are not affected.
+     * @param offeringDepartment The new offering department, or null to leave the course without one.
+     */
     public void setOfferingDepartment(Department offeringDepartment) {
+        Department previousDepartment;
+        boolean unlisted = false;
+        boolean listed = false;
+        while (true) {
+            previousDepartment = this.offeringDepartment;
+            if (previousDepartment == offeringDepartment) {
+                return; // Nothing to move
+            }
+            AssociationLocks.lock(this, previousDepartment, offeringDepartment);
+            try {
+                if (this.offeringDepartment != previousDepartment) {
+                    continue; // Moved by another thread before we got the locks; look again
+                }
+                unlisted = previousDepartment != null && previousDepartment.offersCourse(this);
+                listed = offeringDepartment != null && !offeringDepartment.offersCourse(this);
+                // Journal the whole move before changing anything (write-ahead): if an append
+                // fails, the course and both departments are left as they were.
+                if (unlisted && previousDepartment.registry != null) {
+                    previousDepartment.registry.departmentCourseRemoved(previousDepartment, this);
+                }
+                if (listed && offeringDepartment.registry != null) {
+                    offeringDepartment.registry.departmentCourseLinked(offeringDepartment, this);
+                }
+                if (registry != null) {
+                    registry.offeringDepartmentChanged(this, offeringDepartment);
+                }
+                if (unlisted) {
+                    previousDepartment.detachCourse(this);
+                }
+                this.offeringDepartment = offeringDepartment;
+                fieldChanged();
+                if (listed) {
+                    offeringDepartment.attachCourse(this);
+                }
+                break;
+            } finally {
+                AssociationLocks.unlock(this, previousDepartment, offeringDepartment);
+            }
+        }
+        if (DomainEvents.isEnabled()) {
+            if (unlisted) {
+                DomainEvents.publish(new DomainEvent.CourseWithdrawn(previousDepartment, this));
+            }
+            if (listed) {
+                DomainEvents.publish(new DomainEvent.CourseOffered(offeringDepartment, this));
+            }
+            DomainEvents.publish(new DomainEvent.OfferingDepartmentChanged(this, previousDepartment, offeringDepartment));
+        }
+    }
+
+    // --- One-sided link methods for bulk loaders (UniversitySnapshot, importers) ---
+    // These only touch this course's side: no callback to the other side, no locking, no console output.
+
+    boolean attachLecturer(Lecturer lecturer) {
+        return lecturers.add(lecturer);
+    }
+
+    boolean detachLecturer(Lecturer lecturer) {
+        return lecturers.remove(lecturer);
+    }
+
+    void attachOfferingDepartment(Department offeringDepartment) {
         this.offeringDepartment = offeringDepartment;
-        // Optional: Re-add or remove from old department if changing
+        fieldChanged();
+    }
+
+    // Called by Department when it adds this course to its list or takes it off
+    // (with both stripes held, or while loading).
+    void addListingDepartment(Department department) {
+        listedBy.add(department);
+    }
+
+    void removeListingDepartment(Department department) {
+        listedBy.remove(department);
+    }
+
+    List<Department> getListingDepartments() {
+        return listedBy;
+    }
+
+    // --- Identity: courses are identified by their courseCode ---
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Course)) {
+            return false;
+        }
+        return Objects.equals(courseCode, ((Course) o).courseCode);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(courseCode);
     }
 }
\ No newline at end of file
@@ -1,5 +1,9 @@
-import java.util.ArrayList; // Import ArrayList to use dynamic arrays
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;    // Import List interface for type hinting
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 // Department.java
 public class Department {
@@ -11,11 +15,19 @@ public class Department {
     // conceptually also ceases to exist with it.
     private Office office;
     // Association: A Department can have a head, which is a Staff member.
-    private Staff headOfDepartment; // Could be null initially or set later.
+    private volatile Staff headOfDepartment; // Could be null initially or set later.
     // Association: A Department offers multiple Courses.
-    private List<Course> coursesOffered;
+    // LinkSets keep insertion order for display and make add, remove and "is it already here?"
+    // constant-time operations instead of list scans.
+    private LinkSet<Course> coursesOffered;
     // Association: A Department has multiple Staff members.
-    private List<Staff> staffMembers;
+    private LinkSet<Staff> staffMembers;
+    // Sum of getCredits() over coursesOffered, kept up to date by addCourse and Course.setCredits.
+    final AtomicLong totalCredits = new AtomicLong();
+    // The registry this department belongs to (set by UniversityRegistry.registerDepartment), or null.
+    UniversityRegistry registry;
+    // Field changes so far (head, office); part of getVersion().
+    private final AtomicLong changes = new AtomicLong();
 
     /**
      * Constructor for the Department class.
@@ -31,8 +43,9 @@ public class Department {
         this.departmentCode = departmentCode;
         // Composition in action: creating an Office object directly within the Department's constructor.
         this.office = new Office(officeRoomNumber, officePhoneExtension);
-        this.coursesOffered = new ArrayList<>(); // Initialize the list to hold courses
-        this.staffMembers = new ArrayList<>();   // Initialize the list to hold staff members
+        this.office.owner = this;
+        this.coursesOffered = new LinkSet<>(); // Initialize the set to hold courses
+        this.staffMembers = new LinkSet<>();   // Initialize the set to hold staff members
     }
 
     /**
@@ -41,10 +54,150 @@ public class Department {
      * @param course The Course object to be added.
      */
     public void addCourse(Course course) {
-        if (course != null && !coursesOffered.contains(course)) {
-            coursesOffered.add(course);
-            System.out.println("Course '" + course.getTitle() + "' added to " + this.name + " Department.");
+        if (course == null) {
+            return;
         }
+        long start = DomainMetrics.start();
+        boolean added;
+        AssociationLocks.lock(this, course); // Safe against concurrent updates to this department
+        try {
+            added = listCourse(course);
+        } finally {
+            AssociationLocks.unlock(this, course);
+        }
+        if (added && DomainEvents.isEnabled()) {
+            DomainEvents.publish(new DomainEvent.CourseOffered(this, course));
+        }
+        DomainMetrics.record(DomainMetrics.Operation.ADD_COURSE, this, start);
+    }
+
+    /**
+     * Removes a course from the list of courses offered by this department.
+     * If this department was the course's offering department, the course is left without one.
+     * @param course The Course object to be removed.
+     */
+    public void removeCourse(Course course) {
+        if (course == null) {
+            return;
+        }
+        boolean removed;
+        boolean wasOffering = false;
+        AssociationLocks.lock(this, course);
+        try {
+            removed = offersCourse(course);
+            if (removed) {
+                wasOffering = this.equals(course.getOfferingDepartment());
+                // Journal both records before changing anything (write-ahead).
+                if (wasOffering && course.registry != null) {
+                    course.registry.offeringDepartmentChanged(course, null);
+                }
+                unlistCourse(course);
+                if (wasOffering) {
+                    course.attachOfferingDepartment(null);
+                }
+            }
+        } finally {
+            AssociationLocks.unlock(this, course);
+        }
+        if (removed && DomainEvents.isEnabled()) {
+            DomainEvents.publish(new DomainEvent.CourseWithdrawn(this, course));
+            if (wasOffering) {
+                DomainEvents.publish(new DomainEvent.OfferingDepartmentChanged(course, this, null));
+            }
+        }
+    }
+
+    /**
+     * Moves courses from this department to another in one pass: each course this department
+     * offers is taken off its list and put on the target's, and courses offered by this department
+     * become offered by the target. Courses this department does not offer are skipped.
+     * Each move is O(1) and atomic; nothing is rescanned per course.
+     * @param courses The courses to move.
+     * @param target The department taking them over.
+     * @return How many courses were moved.
+     */
+    public int moveCoursesTo(Collection<Course> courses, Department target) {
+        if (target == null || target == this) {
+            return 0;
+        }
+        boolean publish = DomainEvents.isEnabled();
+        List<DomainEvent> events = publish ? new ArrayList<>() : null;
+        int moved = 0;
+        for (Course course : courses) {
+            if (course == null) {
+                continue;
+            }
+            boolean wasOffering = false;
+            boolean listed;
+            AssociationLocks.lock(course, this, target);
+            try {
+                if (!offersCourse(course)) {
+                    continue;
+                }
+                listed = !target.offersCourse(course);
+                wasOffering = this.equals(course.getOfferingDepartment());
+                // Journal the whole move before changing anything (write-ahead): if an append
+                // fails, the course stays where it was.
+                if (registry != null) {
+                    registry.departmentCourseRemoved(this, course);
+                }
+                if (listed && target.registry != null) {
+                    target.registry.departmentCourseLinked(target, course);
+                }
+                if (wasOffering && course.registry != null) {
+                    course.registry.offeringDepartmentChanged(course, target);
+                }
+                detachCourse(course);
+                if (listed) {
+                    target.attachCourse(course);
+                }
+                if (wasOffering) {
+                    course.attachOfferingDepartment(target);
+                }
+            } finally {
+                AssociationLocks.unlock(course, this, target);
+            }
+            moved++;
+            if (publish) {
+                events.add(new DomainEvent.CourseWithdrawn(this, course));
+                if (listed) {
+                    events.add(new DomainEvent.CourseOffered(target, course));
+                }
+                if (wasOffering) {
+                    events.add(new DomainEvent.OfferingDepartmentChanged(course, this, target));
+                }
+            }
+        }
+        if (publish) {
+            for (DomainEvent event : events) {
+                DomainEvents.publish(event);
+            }
+        }
+        return moved;
+    }
+
+    // Adds the course to this department's side: the journal first (write-ahead, so a failed append
+    // changes nothing), then the list, the credit total and the course's reverse link.
+    // The caller holds the stripes of this department and the course.
+    boolean listCourse(Course course) {
+        if (coursesOffered.contains(course)) {
+            return false;
+        }
+        if (registry != null) {
+            registry.departmentCourseLinked(this, course);
+        }
+        return attachCourse(course);
+    }
+
+    // Reverse of listCourse(). The caller holds the stripes of this department and the course.
+    boolean unlistCourse(Course course) {
+        if (!coursesOffered.contains(course)) {
+            return false;
+        }
+        if (registry != null) {
+            registry.departmentCourseRemoved(this, course);
+        }
+        return detachCourse(course);
     }
 
     /**
@@ -53,14 +206,43 @@ public class Department {
      * @param staffMember The Staff object to be added.
      */
     public void addStaffMember(Staff staffMember) {
-        if (staffMember != null && !staffMembers.contains(staffMember)) {
-            staffMembers.add(staffMember);
-            // Also, update the staff member's list of departments if they are not already associated
-            if (!staffMember.getAssignedDepartments().contains(this)) {
-                staffMember.addDepartment(this);
-            }
-            System.out.println("Staff member '" + staffMember.getName() + "' added to " + this.name + " Department.");
+        if (staffMember == null) {
+            return;
         }
+        long start = DomainMetrics.start();
+        // Links both sides under both lock stripes, even if other threads are linking the same
+        // objects at the same time, and publishes StaffJoinedDepartment after releasing them.
+        staffMember.joinDepartment(this);
+        DomainMetrics.record(DomainMetrics.Operation.ADD_STAFF_MEMBER, this, start);
+    }
+
+    /**
+     * Removes a staff member from this department, on both sides of the association.
+     * If they were the head of department, the department is left without a head.
+     * @param staffMember The Staff object to be removed.
+     */
+    public void removeStaffMember(Staff staffMember) {
+        if (staffMember != null) {
+            staffMember.leaveDepartment(this);
+        }
+    }
+
+    /**
+     * Checks whether this department offers the given course (constant-time lookup).
+     * @param course The Course object to check.
+     * @return true if the course is in this department's list of courses.
+     */
+    public boolean offersCourse(Course course) {
+        return course != null && coursesOffered.contains(course);
+    }
+
+    /**
+     * Checks whether the given staff member belongs to this department (constant-time lookup).
+     * @param staffMember The Staff object to check.
+     * @return true if the staff member is in this department's staff list.
+     */
+    public boolean hasStaffMember(Staff staffMember) {
+        return staffMember != null && staffMembers.contains(staffMember);
     }
 
     /**
@@ -68,8 +250,23 @@ public class Department {
      * @param headOfDepartment The Staff object who is the head of the department.
      */
     public void setHeadOfDepartment(Staff headOfDepartment) {
-        this.headOfDepartment = headOfDepartment;
-        System.out.println(headOfDepartment.getName() + " set as Head of " + this.name + " Department.");
+        Staff previousHead;
+        // Under this department's stripe, journaled before the field is written: concurrent
+        // changes reach the journal in the order they are made, so replay ends on the last head.
+        AssociationLocks.lock(this);
+        try {
+            previousHead = this.headOfDepartment;
+            if (registry != null) {
+                registry.headChanged(this, headOfDepartment);
+            }
+            this.headOfDepartment = headOfDepartment;
+            fieldChanged();
+        } finally {
+            AssociationLocks.unlock(this);
+        }
+        if (DomainEvents.isEnabled()) {
+            DomainEvents.publish(new DomainEvent.HeadOfDepartmentChanged(this, previousHead, headOfDepartment));
+        }
     }
 
     /**
@@ -78,29 +275,61 @@ public class Department {
      * @return A string representation of the department's name, code, and office details.
      */
     public String getDepartmentInfo() {
-        String info = "Department Name: " + name + "\n";
-        info += "Department Code: " + departmentCode + "\n";
-        info += "Office Details: " + office.getOfficeDetails(); // Accessing composed Office object
+        long start = DomainMetrics.start();
+        String info = RenderCache.render(this, getVersion(), this::writeDepartmentInfo,
+                200 + 48 * (coursesOffered.size() + staffMembers.size()));
+        DomainMetrics.record(DomainMetrics.Operation.GET_DEPARTMENT_INFO, this, start);
+        return info;
+    }
+
+    /**
+     * Returns a number that goes up whenever something shown by getDepartmentInfo() changes
+     * (the head, the office, or the courses and staff lists).
+     * Equal versions mean the rendered text is unchanged; RenderCache relies on this.
+     * @return The current version.
+     */
+    public long getVersion() {
+        return changes.get() + coursesOffered.version() + staffMembers.version();
+    }
+
+    // Called when the head or the Office changes, after the field is written.
+    void fieldChanged() {
+        changes.incrementAndGet();
+    }
+
+    /**
+     * Writes the department's information into an Appendable (StringBuilder, Writer, ...).
+     * Streaming version of getDepartmentInfo(): each piece is appended directly, so large
+     * departments do not build up (and throw away) a new String per course or staff member.
+     * @param out The destination to write to.
+     * @throws IOException if the destination fails to accept the text.
+     */
+    public void writeDepartmentInfo(Appendable out) throws IOException {
+        out.append("Department Name: ").append(name).append('\n');
+        out.append("Department Code: ").append(departmentCode).append('\n');
+        out.append("Office Details: ");
+        office.writeOfficeDetails(out); // Accessing composed Office object
         if (headOfDepartment != null) {
-            info += "\nHead of Department: " + headOfDepartment.getName();
+            out.append("\nHead of Department: ").append(headOfDepartment.getName());
         }
-        info += "\nCourses Offered (" + coursesOffered.size() + "): ";
-        if (coursesOffered.isEmpty()) {
-            info += "None";
+        List<Course> courses = getCoursesOffered();
+        out.append("\nCourses Offered (").append(Integer.toString(courses.size())).append("): ");
+        if (courses.isEmpty()) {
+            out.append("None");
         } else {
-            for (Course course : coursesOffered) {
-                info += "\n  - " + course.getTitle() + " (" + course.getCourseCode() + ")";
+            for (Course course : courses) {
+                out.append("\n  - ").append(course.getTitle()).append(" (").append(course.getCourseCode()).append(')');
             }
         }
-        info += "\nStaff Members (" + staffMembers.size() + "): ";
-        if (staffMembers.isEmpty()) {
-            info += "None";
+        List<Staff> staff = getStaffMembers();
+        out.append("\nStaff Members (").append(Integer.toString(staff.size())).append("): ");
+        if (staff.isEmpty()) {
+            out.append("None");
         } else {
-            for (Staff staff : staffMembers) {
-                info += "\n  - " + staff.getName() + " (" + staff.getStaffId() + ")";
+            for (Staff member : staff) {
+                out.append("\n  - ").append(member.getName()).append(" (").append(member.getStaffId()).append(')');
             }
         }
-        return info;
     }
 
     // --- Getter methods for Department attributes ---
@@ -120,11 +349,106 @@ public class Department {
         return headOfDepartment;
     }
 
+    /**
+     * @return An immutable snapshot of the courses offered; safe to iterate while other threads change them.
+     */
     public List<Course> getCoursesOffered() {
-        return coursesOffered;
+        return coursesOffered.snapshot(this);
     }
 
+    /**
+     * @return An immutable snapshot of the staff members; safe to iterate while other threads change them.
+     */
     public List<Staff> getStaffMembers() {
-        return staffMembers;
+        return staffMembers.snapshot(this);
+    }
+
+    // --- Aggregates (maintained incrementally, so every read is constant time) ---
+
+    /**
+     * @return The number of courses this department offers.
+     */
+    public int getCourseCount() {
+        int count = coursesOffered.size();
+        if (AggregateAudit.isEnabled()) {
+            AggregateAudit.check(this, "courseCount", count, AggregateAudit.countLinks(getCoursesOffered()));
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of staff members in this department.
+     */
+    public int getStaffCount() {
+        int count = staffMembers.size();
+        if (AggregateAudit.isEnabled()) {
+            AggregateAudit.check(this, "staffCount", count, AggregateAudit.countLinks(getStaffMembers()));
+        }
+        return count;
+    }
+
+    /**
+     * @return The total credits of all courses this department offers.
+     */
+    public long getTotalCredits() {
+        long total = totalCredits.get();
+        if (AggregateAudit.isEnabled()) {
+            AggregateAudit.check(this, "totalCredits", total, AggregateAudit.sumCredits(getCoursesOffered()));
+        }
+        return total;
+    }
+
+    // --- One-sided link methods for bulk loaders (UniversitySnapshot, importers) ---
+    // These only touch this department's side: no callback to the other side, no locking, no console output.
+    // The caller is responsible for adding the matching link on the other side, and for not sharing
+    // the objects with other threads until loading has finished.
+
+    boolean attachCourse(Course course) {
+        if (coursesOffered.add(course)) {
+            course.addListingDepartment(this);
+            totalCredits.addAndGet(course.getCredits());
+            return true;
+        }
+        return false;
+    }
+
+    boolean attachStaffMember(Staff staffMember) {
+        return staffMembers.add(staffMember);
+    }
+
+    boolean detachCourse(Course course) {
+        if (coursesOffered.remove(course)) {
+            course.removeListingDepartment(this);
+            totalCredits.addAndGet(-course.getCredits());
+            return true;
+        }
+        return false;
+    }
+
+    boolean detachStaffMember(Staff staffMember) {
+        return staffMembers.remove(staffMember);
+    }
+
+    void attachHeadOfDepartment(Staff headOfDepartment) {
+        this.headOfDepartment = headOfDepartment;
+        fieldChanged();
+    }
+
+    // --- Identity: departments are identified by their departmentCode ---
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Department)) {
+            return false;
+        }
+        return Objects.equals(departmentCode, ((Department) o).departmentCode);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(departmentCode);
     }
 }
\ No newline at end of file
@@ -0,0 +1,564 @@
+// DomainEvent.java
+// Base class for the events the model publishes when it changes (see DomainEvents).
+// Each concrete event is an immutable snapshot of one change; toString() gives a
+// human-readable message, which is what ConsoleEventLogger prints.
+public abstract class DomainEvent {
+
+    DomainEvent() {
+        // Only the nested event types below extend this class
+    }
+
+    /**
+     * A course was added to a department's list of courses offered (Department.addCourse).
+     */
+    public static final class CourseOffered extends DomainEvent {
+        private final Department department;
+        private final Course course;
+
+        CourseOffered(Department department, Course course) {
+            this.department = department;
+            this.course = course;
+        }
+
+        public Department getDepartment() {
+            return department;
+        }
+
+        public Course getCourse() {
+            return course;
+        }
+
+        @Override
+        public String toString() {
+            return "Course '" + course.getTitle() + "' added to " + department.getName() + " Department.";
+        }
+    }
+
+    /**
+     * A staff member and a department were linked (Staff.addDepartment / Department.addStaffMember).
+     * Published once per link, whichever side started it.
+     */
+    public static final class StaffJoinedDepartment extends DomainEvent {
+        private final Staff staff;
+        private final Department department;
+
+        StaffJoinedDepartment(Staff staff, Department department) {
+            this.staff = staff;
+            this.department = department;
+        }
+
+        public Staff getStaff() {
+            return staff;
+        }
+
+        public Department getDepartment() {
+            return department;
+        }
+
+        @Override
+        public String toString() {
+            return "Staff member '" + staff.getName() + "' added to " + department.getName() + " Department.";
+        }
+    }
+
+    /**
+     * A lecturer and a course were linked (Course.addLecturer / Lecturer.assignCourse).
+     * Published once per link, whichever side started it.
+     */
+    public static final class CourseAssigned extends DomainEvent {
+        private final Course course;
+        private final Lecturer lecturer;
+
+        CourseAssigned(Course course, Lecturer lecturer) {
+            this.course = course;
+            this.lecturer = lecturer;
+        }
+
+        public Course getCourse() {
+            return course;
+        }
+
+        public Lecturer getLecturer() {
+            return lecturer;
+        }
+
+        @Override
+        public String toString() {
+            return "Lecturer '" + lecturer.getName() + "' assigned to course '" + course.getTitle() + "'.";
+        }
+    }
+
+    /**
+     * A course was removed from a department's list of courses offered
+     * (Department.removeCourse, or a move to another department).
+     */
+    public static final class CourseWithdrawn extends DomainEvent {
+        private final Department department;
+        private final Course course;
+
+        CourseWithdrawn(Department department, Course course) {
+            this.department = department;
+            this.course = course;
+        }
+
+        public Department getDepartment() {
+            return department;
+        }
+
+        public Course getCourse() {
+            return course;
+        }
+
+        @Override
+        public String toString() {
+            return "Course '" + course.getTitle() + "' removed from " + department.getName() + " Department.";
+        }
+    }
+
+    /**
+     * A staff member and a department were unlinked (Staff.removeDepartment / Department.removeStaffMember).
+     * Published once per unlink, whichever side started it.
+     */
+    public static final class StaffLeftDepartment extends DomainEvent {
+        private final Staff staff;
+        private final Department department;
+
+        StaffLeftDepartment(Staff staff, Department department) {
+            this.staff = staff;
+            this.department = department;
+        }
+
+        public Staff getStaff() {
+            return staff;
+        }
+
+        public Department getDepartment() {
+            return department;
+        }
+
+        @Override
+        public String toString() {
+            return "Staff member '" + staff.getName() + "' removed from " + department.getName() + " Department.";
+        }
+    }
+
+    /**
+     * A lecturer and a course were unlinked (Course.removeLecturer / Lecturer.unassignCourse).
+     * Published once per unlink, whichever side started it.
+     */
+    public static final class CourseUnassigned extends DomainEvent {
+        private final Course course;
+        private final Lecturer lecturer;
+
+        CourseUnassigned(Course course, Lecturer lecturer) {
+            this.course = course;
+            this.lecturer = lecturer;
+        }
+
+        public Course getCourse() {
+            return course;
+        }
+
+        public Lecturer getLecturer() {
+            return lecturer;
+        }
+
+        @Override
+        public String toString() {
+            return "Lecturer '" + lecturer.getName() + "' unassigned from course '" + course.getTitle() + "'.";
+        }
+    }
+
+    /**
+     * A department's head changed (Department.setHeadOfDepartment).
+     */
+    public static final class HeadOfDepartmentChanged extends DomainEvent {
+        private final Department department;
+        private final Staff previousHead;
+        private final Staff newHead;
+
+        HeadOfDepartmentChanged(Department department, Staff previousHead, Staff newHead) {
+            this.department = department;
+            this.previousHead = previousHead;
+            this.newHead = newHead;
+        }
+
+        public Department getDepartment() {
+            return department;
+        }
+
+        public Staff getPreviousHead() {
+            return previousHead;
+        }
+
+        public Staff getNewHead() {
+            return newHead;
+        }
+
+        @Override
+        public String toString() {
+            if (newHead == null) {
+                return department.getName() + " Department no longer has a Head.";
+            }
+            return newHead.getName() + " set as Head of " + department.getName() + " Department.";
+        }
+    }
+
+    /**
+     * A course moved to a different offering department (Course.setOfferingDepartment).
+     */
+    public static final class OfferingDepartmentChanged extends DomainEvent {
+        private final Course course;
+        private final Department previousDepartment;
+        private final Department newDepartment;
+
+        OfferingDepartmentChanged(Course course, Department previousDepartment, Department newDepartment) {
+            this.course = course;
+            this.previousDepartment = previousDepartment;
+            this.newDepartment = newDepartment;
+        }
+
+        public Course getCourse() {
+            return course;
+        }
+
+        public Department getPreviousDepartment() {
+            return previousDepartment;
+        }
+
+        public Department getNewDepartment() {
+            return newDepartment;
+        }
+
+        @Override
+        public String toString() {
+            return "Course '" + course.getTitle() + "' is now offered by "
+                    + (newDepartment == null ? "no department" : newDepartment.getName() + " Department") + ".";
+        }
+    }
+
+    /**
+     * A course's credits changed (Course.setCredits).
+     */
+    public static final class CreditsChanged extends DomainEvent {
+        private final Course course;
+        private final int previousCredits;
+        private final int newCredits;
+
+        CreditsChanged(Course course, int previousCredits, int newCredits) {
+            this.course = course;
+            this.previousCredits = previousCredits;
+            this.newCredits = newCredits;
+        }
+
+        public Course getCourse() {
+            return course;
+        }
+
+        public int getPreviousCredits() {
+            return previousCredits;
+        }
+
+        public int getNewCredits() {
+            return newCredits;
+        }
+
+        @Override
+        public String toString() {
+            return "Course '" + course.getTitle() + "' credits changed from " + previousCredits + " to " + newCredits + ".";
+        }
+    }
+
+    /**
+     * A course's number of seats changed (Course.setCapacity).
+     */
+    public static final class CapacityChanged extends DomainEvent {
+        private final Course course;
+        private final int previousCapacity;
+        private final int newCapacity;
+
+        CapacityChanged(Course course, int previousCapacity, int newCapacity) {
+            this.course = course;
+            this.previousCapacity = previousCapacity;
+            this.newCapacity = newCapacity;
+        }
+
+        public Course getCourse() {
+            return course;
+        }
+
+        public int getPreviousCapacity() {
+            return previousCapacity;
+        }
+
+        /**
+         * @return The new number of seats, or Course.UNLIMITED.
+         */
+        public int getNewCapacity() {
+            return newCapacity;
+        }
+
+        @Override
+        public String toString() {
+            return "Course '" + course.getTitle() + "' capacity changed to "
+                    + (newCapacity == Course.UNLIMITED ? "unlimited" : Integer.toString(newCapacity)) + ".";
+        }
+    }
+
+    /**
+     * A staff member's email changed (Staff.setEmail).
+     */
+    public static final class EmailChanged extends DomainEvent {
+        private final Staff staff;
+        private final String previousEmail;
+        private final String newEmail;
+
+        EmailChanged(Staff staff, String previousEmail, String newEmail) {
+            this.staff = staff;
+            this.previousEmail = previousEmail;
+            this.newEmail = newEmail;
+        }
+
+        public Staff getStaff() {
+            return staff;
+        }
+
+        public String getPreviousEmail() {
+            return previousEmail;
+        }
+
+        public String getNewEmail() {
+            return newEmail;
+        }
+
+        @Override
+        public String toString() {
+            return staff.getName() + "'s email changed to " + newEmail + ".";
+        }
+    }
+
+    /**
+     * A lecturer's specialization changed (Lecturer.setSpecialization).
+     */
+    public static final class SpecializationChanged extends DomainEvent {
+        private final Lecturer lecturer;
+        private final String previousSpecialization;
+        private final String newSpecialization;
+
+        SpecializationChanged(Lecturer lecturer, String previousSpecialization, String newSpecialization) {
+            this.lecturer = lecturer;
+            this.previousSpecialization = previousSpecialization;
+            this.newSpecialization = newSpecialization;
+        }
+
+        public Lecturer getLecturer() {
+            return lecturer;
+        }
+
+        public String getPreviousSpecialization() {
+            return previousSpecialization;
+        }
+
+        public String getNewSpecialization() {
+            return newSpecialization;
+        }
+
+        @Override
+        public String toString() {
+            return lecturer.getName() + "'s specialization changed to " + newSpecialization + ".";
+        }
+    }
+
+    /**
+     * An administrative staff member's role changed (AdministrativeStaff.setRole).
+     */
+    public static final class RoleChanged extends DomainEvent {
+        private final AdministrativeStaff staff;
+        private final String previousRole;
+        private final String newRole;
+
+        RoleChanged(AdministrativeStaff staff, String previousRole, String newRole) {
+            this.staff = staff;
+            this.previousRole = previousRole;
+            this.newRole = newRole;
+        }
+
+        public AdministrativeStaff getStaff() {
+            return staff;
+        }
+
+        public String getPreviousRole() {
+            return previousRole;
+        }
+
+        public String getNewRole() {
+            return newRole;
+        }
+
+        @Override
+        public String toString() {
+            return staff.getName() + "'s role changed to " + newRole + ".";
+        }
+    }
+
+    /**
+     * A department office's room number or phone extension changed (Office setters).
+     */
+    public static final class OfficeChanged extends DomainEvent {
+        private final Department department;
+        private final String roomNumber;
+        private final String phoneExtension;
+
+        OfficeChanged(Department department, String roomNumber, String phoneExtension) {
+            this.department = department;
+            this.roomNumber = roomNumber;
+            this.phoneExtension = phoneExtension;
+        }
+
+        public Department getDepartment() {
+            return department;
+        }
+
+        public String getRoomNumber() {
+            return roomNumber;
+        }
+
+        public String getPhoneExtension() {
+            return phoneExtension;
+        }
+
+        @Override
+        public String toString() {
+            return department.getName() + " Department office is now Room: " + roomNumber
+                    + ", Extension: " + phoneExtension + ".";
+        }
+    }
+
+    /**
+     * A student got a seat in a course (Course.enroll), either straight away or by moving up
+     * from the waitlist when a seat was freed.
+     */
+    public static final class StudentEnrolled extends DomainEvent {
+        private final Course course;
+        private final Student student;
+        private final boolean fromWaitlist;
+
+        StudentEnrolled(Course course, Student student, boolean fromWaitlist) {
+            this.course = course;
+            this.student = student;
+            this.fromWaitlist = fromWaitlist;
+        }
+
+        public Course getCourse() {
+            return course;
+        }
+
+        public Student getStudent() {
+            return student;
+        }
+
+        public boolean isFromWaitlist() {
+            return fromWaitlist;
+        }
+
+        @Override
+        public String toString() {
+            return "Student '" + student.getName() + "' enrolled in course '" + course.getTitle() + "'"
+                    + (fromWaitlist ? " from the waitlist." : ".");
+        }
+    }
+
+    /**
+     * A student asked for a seat in a full course and joined its waitlist (Course.enroll).
+     */
+    public static final class StudentWaitlisted extends DomainEvent {
+        private final Course course;
+        private final Student student;
+
+        StudentWaitlisted(Course course, Student student) {
+            this.course = course;
+            this.student = student;
+        }
+
+        public Course getCourse() {
+            return course;
+        }
+
+        public Student getStudent() {
+            return student;
+        }
+
+        @Override
+        public String toString() {
+            return "Student '" + student.getName() + "' waitlisted for course '" + course.getTitle() + "'.";
+        }
+    }
+
+    /**
+     * A student gave up a seat or a waitlist place (Course.drop).
+     */
+    public static final class StudentDropped extends DomainEvent {
+        private final Course course;
+        private final Student student;
+        private final boolean hadSeat;
+
+        StudentDropped(Course course, Student student, boolean hadSeat) {
+            this.course = course;
+            this.student = student;
+            this.hadSeat = hadSeat;
+        }
+
+        public Course getCourse() {
+            return course;
+        }
+
+        public Student getStudent() {
+            return student;
+        }
+
+        /**
+         * @return true if the student gave up a seat, false if they left the waitlist.
+         */
+        public boolean hadSeat() {
+            return hadSeat;
+        }
+
+        @Override
+        public String toString() {
+            return "Student '" + student.getName() + "' dropped course '" + course.getTitle() + "'"
+                    + (hadSeat ? "." : " (left the waitlist).");
+        }
+    }
+
+    /**
+     * A student's email changed (Student.setEmail).
+     */
+    public static final class StudentEmailChanged extends DomainEvent {
+        private final Student student;
+        private final String previousEmail;
+        private final String newEmail;
+
+        StudentEmailChanged(Student student, String previousEmail, String newEmail) {
+            this.student = student;
+            this.previousEmail = previousEmail;
+            this.newEmail = newEmail;
+        }
+
+        public Student getStudent() {
+            return student;
+        }
+
+        public String getPreviousEmail() {
+            return previousEmail;
+        }
+
+        public String getNewEmail() {
+            return newEmail;
+        }
+
+        @Override
+        public String toString() {
+            return student.getName() + "'s email changed to " + newEmail + ".";
+        }
+    }
+}
@@ -0,0 +1,8 @@
+// DomainEventListener.java
+// Receives the events published through DomainEvents.
+// Listeners are called on the thread that made the change, so they should be quick;
+// wrap slow listeners in an AsyncEventDispatcher.
+@FunctionalInterface
+public interface DomainEventListener {
+    void onEvent(DomainEvent event);
+}
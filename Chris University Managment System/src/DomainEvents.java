@@ -0,0 +1,82 @@
+import java.util.Arrays;
+
+// DomainEvents.java
+// Publish/subscribe hub for DomainEvents, replacing the System.out.println calls
+// that used to sit in every mutator.
+//
+// With no listeners (the default) the model is silent: mutators check isEnabled() before
+// creating an event, so bulk operations pay nothing for events nobody listens to.
+// The listener array is copy-on-write, so publishing never takes a lock.
+public final class DomainEvents {
+    private static final DomainEventListener[] NONE = new DomainEventListener[0];
+    private static volatile DomainEventListener[] listeners = NONE;
+
+    private DomainEvents() {
+        // Static hub only
+    }
+
+    /**
+     * Registers a listener for every event published from now on.
+     * @param listener The listener to add.
+     */
+    public static synchronized void subscribe(DomainEventListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        DomainEventListener[] current = listeners;
+        DomainEventListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    /**
+     * Removes a listener added with subscribe().
+     * @param listener The listener to remove.
+     * @return true if the listener was subscribed.
+     */
+    public static synchronized boolean unsubscribe(DomainEventListener listener) {
+        DomainEventListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                DomainEventListener[] updated = new DomainEventListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated.length == 0 ? NONE : updated;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes every listener, returning to the silent no-op mode.
+     */
+    public static synchronized void unsubscribeAll() {
+        listeners = NONE;
+    }
+
+    /**
+     * @return true if at least one listener is subscribed. Mutators check this before
+     *         allocating an event object.
+     */
+    public static boolean isEnabled() {
+        return listeners.length != 0;
+    }
+
+    /**
+     * Delivers an event to every listener, in subscription order, on the calling thread.
+     * A listener that throws does not stop delivery to the others or undo the change;
+     * the exception goes to the thread's uncaught-exception handler.
+     * @param event The event to publish.
+     */
+    static void publish(DomainEvent event) {
+        for (DomainEventListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                Thread t = Thread.currentThread();
+                t.getUncaughtExceptionHandler().uncaughtException(t, e);
+            }
+        }
+    }
+}
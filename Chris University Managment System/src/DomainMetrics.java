@@ -0,0 +1,290 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// DomainMetrics.java
+// Call counts and latency histograms of the association mutators and the renderers, per
+// operation and per department, so slow operations can be found in a running system.
+//
+// Off by default. Turn it on with DomainMetrics.setEnabled(true), -Duniversity.metrics=true,
+// or the Enabled attribute of the MBean. Instrumented methods look like:
+//
+//   long start = DomainMetrics.start();          // 0 when disabled: one volatile read
+//   ... the operation ...
+//   DomainMetrics.record(Operation.ADD_COURSE, this, start);
+//
+// so with metrics off an operation pays one volatile read and one branch. With metrics on,
+// recording is two nanoTime() calls, one map lookup and LatencyHistogram.record(), none of
+// which allocate once the (operation, department) histogram exists.
+//
+// Each operation is tagged with the department it concerns: the department itself, a course's
+// offering department, or a staff member's first department ("-" when there is none).
+// Read the numbers with getStats() or dump(), or over JMX after registerMBean().
+public final class DomainMetrics {
+    private static final String NO_DEPARTMENT = "-";
+    private static final String OBJECT_NAME = "university:type=DomainMetrics";
+    private static final Function<String, LatencyHistogram> NEW_HISTOGRAM = code -> new LatencyHistogram();
+
+    /** The instrumented operations. */
+    public enum Operation {
+        ADD_STAFF_MEMBER("addStaffMember"),
+        ADD_COURSE("addCourse"),
+        ADD_LECTURER("addLecturer"),
+        ASSIGN_COURSE("assignCourse"),
+        ADD_DEPARTMENT("addDepartment"),
+        GET_DEPARTMENT_INFO("getDepartmentInfo"),
+        GET_DETAILS("getDetails");
+
+        private final String methodName;
+
+        Operation(String methodName) {
+            this.methodName = methodName;
+        }
+
+        public String getMethodName() {
+            return methodName;
+        }
+    }
+
+    private static volatile boolean enabled = Boolean.getBoolean("university.metrics");
+    // Per operation (by ordinal): department code -> histogram.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final ConcurrentHashMap<String, LatencyHistogram>[] histograms =
+            new ConcurrentHashMap[Operation.values().length];
+
+    static {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    private DomainMetrics() {
+        // Static registry only
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns recording on or off. What was recorded so far is kept.
+     * @param enabled true to record every instrumented operation.
+     */
+    public static void setEnabled(boolean enabled) {
+        DomainMetrics.enabled = enabled;
+    }
+
+    /**
+     * Starts timing an operation.
+     * @return The start time to pass to record(), or 0 if metrics are off.
+     */
+    static long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Records an operation on a department.
+     * @param operation What was done.
+     * @param department The department it concerns, or null.
+     * @param start The value start() returned; nothing is recorded if it was 0.
+     */
+    static void record(Operation operation, Department department, long start) {
+        if (start != 0L) {
+            record(operation, department == null ? NO_DEPARTMENT : department.getDepartmentCode(), start);
+        }
+    }
+
+    /**
+     * Records an operation tagged with a department code.
+     * @param operation What was done.
+     * @param departmentCode The department it concerns.
+     * @param start The value start() returned; nothing is recorded if it was 0.
+     */
+    static void record(Operation operation, String departmentCode, long start) {
+        if (start == 0L) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        ConcurrentHashMap<String, LatencyHistogram> byDepartment = histograms[operation.ordinal()];
+        LatencyHistogram histogram = byDepartment.get(departmentCode);
+        if (histogram == null) {
+            histogram = byDepartment.computeIfAbsent(departmentCode, NEW_HISTOGRAM);
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * Drops everything recorded so far. Operations in flight may still land in the old histograms.
+     */
+    public static void reset() {
+        for (ConcurrentHashMap<String, LatencyHistogram> byDepartment : histograms) {
+            byDepartment.clear();
+        }
+    }
+
+    /**
+     * @return One row per operation and department with recordings, by operation then department code.
+     */
+    public static List<Stats> getStats() {
+        List<Stats> stats = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            Map<String, LatencyHistogram> sorted = new TreeMap<>(histograms[operation.ordinal()]);
+            for (Map.Entry<String, LatencyHistogram> entry : sorted.entrySet()) {
+                stats.add(new Stats(operation, entry.getKey(), entry.getValue().snapshot()));
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * @return The current stats as a text table (see dump(Appendable)).
+     */
+    public static String dump() {
+        StringBuilder sb = new StringBuilder(4096);
+        try {
+            dump(sb);
+        } catch (IOException e) {
+            throw new AssertionError(e); // StringBuilder does not throw
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the current stats as a text table, one row per operation and department, with
+     * times in microseconds.
+     * @param out The destination to write to.
+     * @throws IOException if the destination fails to accept the text.
+     */
+    public static void dump(Appendable out) throws IOException {
+        out.append(String.format(Locale.ROOT, "%-18s %-12s %10s %10s %10s %10s %10s %10s%n",
+                "operation", "department", "count", "mean_us", "p50_us", "p90_us", "p99_us", "max_us"));
+        for (Stats s : getStats()) {
+            out.append(String.format(Locale.ROOT, "%-18s %-12s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    s.getOperation(), s.getDepartment(), s.getCount(), s.getMeanNanos() / 1e3,
+                    s.getP50Nanos() / 1e3, s.getP90Nanos() / 1e3, s.getP99Nanos() / 1e3, s.getMaxNanos() / 1e3));
+        }
+    }
+
+    // --- JMX ---
+
+    /**
+     * Registers the DomainMetricsMXBean with the platform MBean server. Calling it again does nothing.
+     */
+    public static void registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(new MXBean(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Already registered
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Removes the MBean registered by registerMBean(), if any.
+     */
+    public static void unregisterMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(new ObjectName(OBJECT_NAME));
+        } catch (InstanceNotFoundException e) {
+            // Not registered
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister " + OBJECT_NAME, e);
+        }
+    }
+
+    private static final class MXBean implements DomainMetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return DomainMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            DomainMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public List<Stats> getStats() {
+            return DomainMetrics.getStats();
+        }
+
+        @Override
+        public String dump() {
+            return DomainMetrics.dump();
+        }
+
+        @Override
+        public void reset() {
+            DomainMetrics.reset();
+        }
+    }
+
+    /** The numbers of one operation in one department. Times are in nanoseconds. */
+    public static final class Stats {
+        private final String operation;
+        private final String department;
+        private final long count;
+        private final long meanNanos;
+        private final long p50Nanos;
+        private final long p90Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+
+        Stats(Operation operation, String department, LatencyHistogram.Snapshot snapshot) {
+            this.operation = operation.getMethodName();
+            this.department = department;
+            this.count = snapshot.getCount();
+            this.meanNanos = snapshot.getMeanNanos();
+            this.p50Nanos = snapshot.getPercentileNanos(50);
+            this.p90Nanos = snapshot.getPercentileNanos(90);
+            this.p99Nanos = snapshot.getPercentileNanos(99);
+            this.maxNanos = snapshot.getMaxNanos();
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public String getDepartment() {
+            return department;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMeanNanos() {
+            return meanNanos;
+        }
+
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public long getP90Nanos() {
+            return p90Nanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+    }
+}
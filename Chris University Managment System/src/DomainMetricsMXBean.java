@@ -0,0 +1,23 @@
+import java.util.List;
+
+// DomainMetricsMXBean.java
+// JMX view of DomainMetrics, registered as "university:type=DomainMetrics" by
+// DomainMetrics.registerMBean(). The Stats list shows up in JConsole / VisualVM as a table.
+public interface DomainMetricsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    /**
+     * @return One row per operation and department that has recorded something.
+     */
+    List<DomainMetrics.Stats> getStats();
+
+    /**
+     * @return The same rows as getStats(), as the text table of DomainMetrics.dump().
+     */
+    String dump();
+
+    /** Drops everything recorded so far. */
+    void reset();
+}
@@ -0,0 +1,12 @@
+// EnrollmentResult.java
+// What happened to an enrollment request (Course.enroll / Student.enroll).
+public enum EnrollmentResult {
+    /** The student got a seat. */
+    ENROLLED,
+    /** The course was full; the student joined the end of its waitlist. */
+    WAITLISTED,
+    /** The student already had a seat; nothing changed. */
+    ALREADY_ENROLLED,
+    /** The student was already on the waitlist; nothing changed. */
+    ALREADY_WAITLISTED
+}
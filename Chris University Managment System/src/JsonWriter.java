@@ -0,0 +1,141 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+// JsonWriter.java
+// Minimal streaming JSON writer used by UniversityHttpServer.
+// Values are written straight into an Appendable (the response stream), so an entity is turned
+// into JSON without first building a String or a tree of maps. The writer only tracks where
+// commas go; it does not check that the calls form valid JSON.
+//
+//   json.beginObject().name("code").value("CS").name("courses").beginArray() ... .endArray().endObject();
+final class JsonWriter {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Appendable out;
+    // Per nesting level: true until the first element has been written (so no comma before it).
+    private boolean[] first = new boolean[16];
+    private int depth;
+    private boolean afterName;
+
+    JsonWriter(Appendable out) {
+        this.out = out;
+    }
+
+    JsonWriter beginObject() throws IOException {
+        beforeValue();
+        out.append('{');
+        push();
+        return this;
+    }
+
+    JsonWriter endObject() throws IOException {
+        depth--;
+        out.append('}');
+        return this;
+    }
+
+    JsonWriter beginArray() throws IOException {
+        beforeValue();
+        out.append('[');
+        push();
+        return this;
+    }
+
+    JsonWriter endArray() throws IOException {
+        depth--;
+        out.append(']');
+        return this;
+    }
+
+    JsonWriter name(String name) throws IOException {
+        beforeValue();
+        string(name);
+        out.append(':');
+        afterName = true;
+        return this;
+    }
+
+    JsonWriter value(String value) throws IOException {
+        beforeValue();
+        if (value == null) {
+            out.append("null");
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    JsonWriter value(long value) throws IOException {
+        beforeValue();
+        out.append(Long.toString(value));
+        return this;
+    }
+
+    JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        out.append(value ? "true" : "false");
+        return this;
+    }
+
+    JsonWriter nullValue() throws IOException {
+        beforeValue();
+        out.append("null");
+        return this;
+    }
+
+    private void push() {
+        if (depth == first.length) {
+            first = Arrays.copyOf(first, depth * 2);
+        }
+        first[depth++] = true;
+    }
+
+    // Writes the comma between elements, except right after a name or for the first element.
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (first[depth - 1]) {
+                first[depth - 1] = false;
+            } else {
+                out.append(',');
+            }
+        }
+    }
+
+    private void string(String s) throws IOException {
+        out.append('"');
+        int start = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.append(s, start, i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            }
+            start = i + 1;
+        }
+        out.append(s, start, s.length());
+        out.append('"');
+    }
+}
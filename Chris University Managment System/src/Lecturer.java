@@ -1,5 +1,6 @@
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 // Lecturer.java
 // Extends the Staff base class, inheriting its attributes and behaviors.
@@ -8,7 +9,10 @@ public class Lecturer extends Staff {
     private String specialization;
     // Aggregation: A Lecturer can teach multiple Courses. Courses are "given" to the lecturer,
     // and lecturers exist independently of courses.
-    private List<Course> coursesTeaching;
+    // A LinkSet keeps the order and makes add, remove and membership checks constant-time.
+    private LinkSet<Course> coursesTeaching;
+    // Sum of getCredits() over coursesTeaching, kept up to date by assignCourse and Course.setCredits.
+    final AtomicLong creditsTaught = new AtomicLong();
 
     /**
      * Constructor for the Lecturer class.
@@ -22,23 +26,22 @@ public class Lecturer extends Staff {
     public Lecturer(String staffId, String name, String email, String specialization) {
         super(staffId, name, email); // Call to the constructor of the base class (Staff)
         this.specialization = specialization;
-        this.coursesTeaching = new ArrayList<>(); // Initialize the list of courses this lecturer teaches
+        this.coursesTeaching = new LinkSet<>(); // Initialize the set of courses this lecturer teaches
     }
 
     /**
-     * Overrides the abstract getDetails() method from the Staff base class.
+     * Overrides the abstract writeDetails() method from the Staff base class.
      * This demonstrates polymorphism by providing a Lecturer-specific implementation.
-     * @return A string containing detailed information about the lecturer, including specialization.
+     * getDetails() in Staff returns the same text as a String.
+     * @param out The destination for the lecturer's details, including specialization.
+     * @throws IOException if the destination fails to accept the text.
      */
     @Override // Annotation indicating that this method overrides a method from a superclass.
-    public String getDetails() {
-        String baseDetails = "Staff ID: " + getStaffId() + "\n";
-        baseDetails += "Name: " + getName() + "\n";
-        baseDetails += "Email: " + getEmail() + "\n";
-        baseDetails += "Role: Lecturer\n";
-        baseDetails += "Specialization: " + specialization + "\n";
-        baseDetails += getAssignedDepartmentsInfo(); // Include assigned departments
-        return baseDetails;
+    public void writeDetails(Appendable out) throws IOException {
+        writeIdentity(out);
+        out.append("Role: Lecturer\n");
+        out.append("Specialization: ").append(specialization).append('\n');
+        writeAssignedDepartmentsInfo(out); // Include assigned departments
     }
 
     /**
@@ -47,14 +50,88 @@ public class Lecturer extends Staff {
      * @param course The Course object to be assigned to this lecturer.
      */
     public void assignCourse(Course course) {
-        if (course != null && !coursesTeaching.contains(course)) {
-            coursesTeaching.add(course);
-            // Optional: Also ensure the course knows about this lecturer if not already added
-            if (!course.getLecturers().contains(this)) {
-                course.addLecturer(this);
-            }
-            System.out.println(this.getName() + " is now assigned to teach '" + course.getTitle() + "'.");
+        if (course == null) {
+            return;
+        }
+        long start = DomainMetrics.start();
+        teach(course);
+        DomainMetrics.record(DomainMetrics.Operation.ASSIGN_COURSE, course.getOfferingDepartment(), start);
+    }
+
+    /**
+     * Stops this lecturer teaching a course, on both sides of the association.
+     * @param course The Course object to be unassigned from this lecturer.
+     */
+    public void unassignCourse(Course course) {
+        if (course != null) {
+            stopTeaching(course);
+        }
+    }
+
+    // Links this lecturer and the course on both sides, atomically, then publishes CourseAssigned
+    // once the stripes are released. Shared by assignCourse and Course.addLecturer.
+    void teach(Course course) {
+        boolean added;
+        AssociationLocks.lock(this, course);
+        try {
+            added = linkCourse(course);
+        } finally {
+            AssociationLocks.unlock(this, course);
+        }
+        if (added && DomainEvents.isEnabled()) {
+            DomainEvents.publish(new DomainEvent.CourseAssigned(course, this));
+        }
+    }
+
+    // Reverse of teach(), shared by unassignCourse and Course.removeLecturer.
+    void stopTeaching(Course course) {
+        boolean removed;
+        AssociationLocks.lock(this, course);
+        try {
+            removed = unlinkCourse(course);
+        } finally {
+            AssociationLocks.unlock(this, course);
+        }
+        if (removed && DomainEvents.isEnabled()) {
+            DomainEvents.publish(new DomainEvent.CourseUnassigned(course, this));
+        }
+    }
+
+    // Adds whichever side of the link is missing (keeping creditsTaught in step). The link is
+    // journaled first (write-ahead), so a failed append leaves both sides untouched.
+    // The caller holds the stripes of this lecturer and the course.
+    boolean linkCourse(Course course) {
+        if (coursesTeaching.contains(course) && course.hasLecturer(this)) {
+            return false;
+        }
+        if (registry != null) {
+            registry.lecturerCourseLinked(this, course);
         }
+        attachCourse(course);
+        course.attachLecturer(this);
+        return true;
+    }
+
+    // Removes whichever side of the link is present, journaling first. Same locking as linkCourse().
+    boolean unlinkCourse(Course course) {
+        if (!coursesTeaching.contains(course) && !course.hasLecturer(this)) {
+            return false;
+        }
+        if (registry != null) {
+            registry.lecturerCourseUnlinked(this, course);
+        }
+        detachCourse(course);
+        course.detachLecturer(this);
+        return true;
+    }
+
+    /**
+     * Checks whether this lecturer is teaching the given course (constant-time lookup).
+     * @param course The Course object to check.
+     * @return true if the course is in this lecturer's teaching list.
+     */
+    public boolean isTeaching(Course course) {
+        return course != null && coursesTeaching.contains(course);
     }
 
     /**
@@ -67,14 +144,81 @@ public class Lecturer extends Staff {
 
     /**
      * Retrieves the list of courses this lecturer is currently teaching.
-     * @return A List of Course objects.
+     * @return An immutable snapshot of the courses; safe to iterate while other threads change them.
      */
     public List<Course> getCoursesTeaching() {
-        return coursesTeaching;
+        return coursesTeaching.snapshot(this);
+    }
+
+    // Goes up whenever a course is assigned or unassigned; getVersion() does not cover the courses.
+    long coursesVersion() {
+        return coursesTeaching.version();
+    }
+
+    /**
+     * Retrieves the teaching load: the total credits of all courses this lecturer teaches.
+     * Maintained incrementally, so this is a constant-time read.
+     * @return The sum of the credits of getCoursesTeaching().
+     */
+    public long getTotalCreditsTaught() {
+        long total = creditsTaught.get();
+        if (AggregateAudit.isEnabled()) {
+            AggregateAudit.check(this, "creditsTaught", total, AggregateAudit.sumCredits(getCoursesTeaching()));
+        }
+        return total;
+    }
+
+    // One-sided link for bulk loaders: adds the course to this lecturer only
+    // (no callback to Course.addLecturer, no locking, no console output).
+    boolean attachCourse(Course course) {
+        if (coursesTeaching.add(course)) {
+            creditsTaught.addAndGet(course.getCredits());
+            return true;
+        }
+        return false;
+    }
+
+    // One-sided unlink, the reverse of attachCourse (used by journal replay).
+    boolean detachCourse(Course course) {
+        if (coursesTeaching.remove(course)) {
+            creditsTaught.addAndGet(-course.getCredits());
+            return true;
+        }
+        return false;
     }
 
     // Setter for specialization (if modification is needed)
     public void setSpecialization(String specialization) {
-        this.specialization = specialization;
+        String oldSpecialization = writeSpecialization(specialization, true);
+        if (DomainEvents.isEnabled()) {
+            DomainEvents.publish(new DomainEvent.SpecializationChanged(this, oldSpecialization, specialization));
+        }
+    }
+
+    // Journal replay of setSpecialization: reindexes, but is not journaled again and publishes no event.
+    void attachSpecialization(String specialization) {
+        writeSpecialization(specialization, false);
+    }
+
+    // The body of setSpecialization, under this lecturer's stripe like Staff.setEmail, so the
+    // specialization index follows the changes in the order they were made. Returns the old value.
+    private String writeSpecialization(String specialization, boolean journal) {
+        String oldSpecialization;
+        AssociationLocks.lock(this);
+        try {
+            oldSpecialization = this.specialization;
+            this.specialization = specialization;
+            fieldChanged();
+            if (registry != null) {
+                if (journal) {
+                    registry.specializationChanged(this, oldSpecialization);
+                } else {
+                    registry.reindexSpecialization(this, oldSpecialization);
+                }
+            }
+        } finally {
+            AssociationLocks.unlock(this);
+        }
+        return oldSpecialization;
     }
 }
\ No newline at end of file
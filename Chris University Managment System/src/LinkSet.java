@@ -0,0 +1,229 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+// LinkSet.java
+// Insertion-ordered set behind each side of the two-sided associations
+// (Department's courses and staff, Staff's departments, Course's lecturers, Lecturer's courses).
+//
+// add, remove and contains are all O(1): every element's slot in the backing array is kept in a
+// hash map, so removing one just clears its slot (a "hole") instead of shifting the rest of the
+// array. Holes are squeezed out in one pass once they make up half of the array, so a long run
+// of removals still costs O(1) each on average, and the remaining elements keep their order.
+//
+// Writers must hold the owning entity's AssociationLocks stripe (the entities always do).
+// Readers without a lock use snapshot(): an immutable copy that is rebuilt at most once per change,
+// so read-mostly traffic iterates plain arrays without locking or ConcurrentModificationException.
+final class LinkSet<E> implements Iterable<E> {
+    private static final Object[] EMPTY = new Object[0];
+    private static final int MIN_HOLES_TO_COMPACT = 8;
+
+    private Object[] elements = EMPTY;
+    private int end;   // Slots in use, holes included
+    private int holes;
+    private int modCount;
+    // Concurrent so contains() is safe without the lock; it is only changed under the lock.
+    private final Map<E, Integer> positions = new ConcurrentHashMap<>();
+    // Published for readers that do not hold the lock.
+    private volatile int size;
+    private volatile long version;
+    private volatile List<E> snapshot = Collections.emptyList(); // null when stale
+
+    /**
+     * Appends an element unless it is already present.
+     * @return true if the element was added.
+     */
+    boolean add(E element) {
+        if (positions.putIfAbsent(element, end) != null) {
+            return false;
+        }
+        if (end == elements.length) {
+            // Reuse the space taken by holes before growing the array.
+            if (holes > 0) {
+                compact();
+                positions.put(element, end);
+            }
+            if (end == elements.length) {
+                elements = Arrays.copyOf(elements, Math.max(4, end + (end >> 1)));
+            }
+        }
+        elements[end++] = element;
+        changed();
+        return true;
+    }
+
+    /**
+     * Removes an element in constant time; the others keep their order.
+     * @return true if the element was present.
+     */
+    boolean remove(Object element) {
+        Integer slot = positions.remove(element);
+        if (slot == null) {
+            return false;
+        }
+        int i = slot;
+        elements[i] = null;
+        if (i == end - 1) {
+            // Removing the last element leaves no hole; drop any holes it uncovers too.
+            end--;
+            while (end > 0 && elements[end - 1] == null) {
+                end--;
+                holes--;
+            }
+        } else {
+            holes++;
+            if (holes >= MIN_HOLES_TO_COMPACT && holes * 2 >= end) {
+                compact();
+            }
+        }
+        changed();
+        return true;
+    }
+
+    private void changed() {
+        modCount++;
+        size = end - holes;
+        // Drop the snapshot before publishing the new version: a reader that sees the new version
+        // then finds no snapshot and rebuilds it under the lock, so it never pairs the new version
+        // with the old contents (RenderCache and the HTTP ETags rely on that).
+        snapshot = null;
+        version++; // Only written under the owner's stripe, so the increment cannot be lost
+    }
+
+    boolean contains(Object element) {
+        return positions.containsKey(element);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Iterates over the live set. Only for code holding the owner's lock stripe (or loading
+     * objects not yet shared); everyone else should iterate over snapshot().
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private final int expectedModCount = modCount;
+            private int next = skipHoles(0);
+
+            private int skipHoles(int i) {
+                while (i < end && elements[i] == null) {
+                    i++;
+                }
+                return i;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next >= end) {
+                    throw new NoSuchElementException();
+                }
+                E e = (E) elements[next];
+                next = skipHoles(next + 1);
+                return e;
+            }
+        };
+    }
+
+    /**
+     * Returns an immutable copy of the elements, in order, that later changes do not affect.
+     * The copy is cached until the next change, so reads between changes share one copy and
+     * take no lock. The first read after a change builds the new copy while holding the owner's
+     * lock stripe, which every writer of this set also holds, so the copy is always consistent.
+     * @param owner The entity this set belongs to (its stripe guards the set).
+     * @return The current snapshot.
+     */
+    List<E> snapshot(Object owner) {
+        List<E> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        AssociationLocks.lock(owner);
+        try {
+            current = snapshot;
+            if (current == null) {
+                Object[] copy = new Object[size];
+                int n = 0;
+                for (int i = 0; i < end; i++) {
+                    if (elements[i] != null) {
+                        copy[n++] = elements[i];
+                    }
+                }
+                current = new Snapshot<>(copy);
+                snapshot = current;
+            }
+            return current;
+        } finally {
+            AssociationLocks.unlock(owner);
+        }
+    }
+
+    /**
+     * @return How many times this set has changed; a cheap way to tell whether it changed since last time.
+     */
+    long version() {
+        return version;
+    }
+
+    // Moves every element down over the holes and records the new slots.
+    private void compact() {
+        int to = 0;
+        for (int from = 0; from < end; from++) {
+            Object e = elements[from];
+            if (e != null) {
+                if (to != from) {
+                    elements[to] = e;
+                    @SuppressWarnings("unchecked")
+                    E element = (E) e;
+                    positions.put(element, to);
+                }
+                to++;
+            }
+        }
+        Arrays.fill(elements, to, end, null);
+        end = to;
+        holes = 0;
+    }
+
+    // Immutable list over a private array; RandomAccess, so get(i) and iteration are plain array reads.
+    private static final class Snapshot<E> extends AbstractList<E> implements RandomAccess {
+        private final Object[] elements;
+
+        Snapshot(Object[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(int index) {
+            return (E) elements[index];
+        }
+
+        @Override
+        public int size() {
+            return elements.length;
+        }
+    }
+}
@@ -6,6 +6,10 @@ public class Main {
         System.out.println("--- Demonstrating University Department, Course, and Staff System ---");
         System.out.println("\n");
 
+        // The model publishes DomainEvents instead of printing; log them to the console for this demo.
+        ConsoleEventLogger consoleLogger = new ConsoleEventLogger();
+        DomainEvents.subscribe(consoleLogger);
+
         // 1. Create Departments (demonstrates Composition with Office)
         System.out.println("--- Creating Departments (with Office Composition) ---");
         Department compSciDept = new Department("Computer Science", "CS", "LAB-201", "4888");
@@ -112,5 +116,36 @@ public class Main {
         System.out.println("--- Final Department Info Check ---");
         System.out.println(compSciDept.getDepartmentInfo());
         System.out.println("\n" + electricalEngDept.getDepartmentInfo());
+        System.out.println("\n");
+
+        // 6. Register everything in the UniversityRegistry for O(1) lookups by ID
+        System.out.println("--- Registry Lookups ---");
+        UniversityRegistry registry = new UniversityRegistry();
+        registry.registerDepartment(compSciDept);
+        registry.registerDepartment(electricalEngDept);
+        registry.registerDepartment(humanitiesDept);
+        registry.registerStaff(profGachiri);
+        registry.registerStaff(drMbuki);
+        registry.registerStaff(profWangari);
+        registry.registerStaff(adminClerk);
+        registry.registerStaff(registrar);
+        registry.registerCourse(programming101);
+        registry.registerCourse(circuits);
+        registry.registerCourse(algorithms);
+        registry.registerCourse(literature);
+
+        System.out.println("Staff L002: " + registry.getStaff("L002").getName());
+        System.out.println("Course EE205: " + registry.getCourse("EE205").getTitle());
+        System.out.println("Department HUM: " + registry.getDepartment("HUM").getName());
+        System.out.println("4-credit courses:");
+        for (Course c : registry.getCoursesByCredits(4)) {
+            System.out.println(" - " + c.getTitle() + " (" + c.getCourseCode() + ")");
+        }
+        System.out.println("Registrars:");
+        for (AdministrativeStaff a : registry.getAdministrativeStaffByRole("Registrar")) {
+            System.out.println(" - " + a.getName() + " (" + a.getStaffId() + ")");
+        }
+
+        DomainEvents.unsubscribe(consoleLogger);
     }
 }
\ No newline at end of file
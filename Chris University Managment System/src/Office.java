@@ -1,10 +1,15 @@
 
+import java.io.IOException;
+
 public class Office {
     // Private attributes to store the room number and phone extension.
     /* Making them private enforces encapsulation, meaning they can only be accessed
      or modified through the class's methods.*/
-    private String roomNumber;
-    private String phoneExtension;
+    private volatile String roomNumber;
+    private volatile String phoneExtension;
+    // The department this office belongs to (set by the Department constructor), used to
+    // report changes to the department's registry journal. Null for a standalone Office.
+    Department owner;
 
     /**
      * Constructor for the Office class.
@@ -23,7 +28,17 @@ public class Office {
      * @return A string representation of the office's room number and phone extension.
      */
     public String getOfficeDetails() {
-        return "Room: " + roomNumber + ", Extension: " + phoneExtension;
+        return Rendering.render(this::writeOfficeDetails, 40);
+    }
+
+    /**
+     * Writes the office details into an Appendable (StringBuilder, Writer, ...) without
+     * building an intermediate String. getOfficeDetails() is a thin wrapper over this.
+     * @param out The destination to write to.
+     * @throws IOException if the destination fails to accept the text.
+     */
+    public void writeOfficeDetails(Appendable out) throws IOException {
+        out.append("Room: ").append(roomNumber).append(", Extension: ").append(phoneExtension);
     }
 
     // --- Getter methods for attributes (optional but good practice for access) ---
@@ -51,7 +66,24 @@ public class Office {
      * @param roomNumber The new room number to set.
      */
     public void setRoomNumber(String roomNumber) {
-        this.roomNumber = roomNumber;
+        String phoneExtension;
+        // Under the owning department's stripe (the office's own for a standalone Office), journaled
+        // before the field is written, so concurrent changes reach the journal in the order made.
+        Object stripe = owner != null ? owner : this;
+        AssociationLocks.lock(stripe);
+        try {
+            if (owner != null && owner.registry != null) {
+                owner.registry.officeRoomChanged(owner, roomNumber);
+            }
+            this.roomNumber = roomNumber;
+            if (owner != null) {
+                owner.fieldChanged();
+            }
+            phoneExtension = this.phoneExtension;
+        } finally {
+            AssociationLocks.unlock(stripe);
+        }
+        publishChange(roomNumber, phoneExtension);
     }
 
     /**
@@ -59,6 +91,43 @@ public class Office {
      * @param phoneExtension The new phone extension to set.
      */
     public void setPhoneExtension(String phoneExtension) {
+        String roomNumber;
+        Object stripe = owner != null ? owner : this;
+        AssociationLocks.lock(stripe);
+        try {
+            if (owner != null && owner.registry != null) {
+                owner.registry.officeExtensionChanged(owner, phoneExtension);
+            }
+            this.phoneExtension = phoneExtension;
+            if (owner != null) {
+                owner.fieldChanged();
+            }
+            roomNumber = this.roomNumber;
+        } finally {
+            AssociationLocks.unlock(stripe);
+        }
+        publishChange(roomNumber, phoneExtension);
+    }
+
+    // Journal replay of the setters: no journal record and no event.
+    void attachRoomNumber(String roomNumber) {
+        this.roomNumber = roomNumber;
+        if (owner != null) {
+            owner.fieldChanged();
+        }
+    }
+
+    void attachPhoneExtension(String phoneExtension) {
         this.phoneExtension = phoneExtension;
+        if (owner != null) {
+            owner.fieldChanged();
+        }
+    }
+
+    // Publishes an OfficeChanged event for the owning department (standalone offices have none).
+    private void publishChange(String roomNumber, String phoneExtension) {
+        if (owner != null && DomainEvents.isEnabled()) {
+            DomainEvents.publish(new DomainEvent.OfficeChanged(owner, roomNumber, phoneExtension));
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,224 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// RenderCache.java
+// Bounded LRU cache of the rendered detail strings (Staff.getDetails, Department.getDepartmentInfo,
+// Course.getCourseDetails), which profile pages ask for far more often than the data changes.
+//
+// Invalidation is by version, not by callbacks: every entity has a getVersion() that goes up
+// whenever something its rendering shows changes (its own fields, its Office, or one of its
+// association lists). The names, titles and codes it shows of related entities never change, so
+// this covers every dependency. A cached string is returned only if it was rendered at the
+// entity's current version; otherwise it is rendered again and replaces the stale one. Checking
+// costs a few volatile reads, and nothing has to find and drop cache entries on every mutation.
+//
+// The cache is split into segments, each a small access-ordered LinkedHashMap with its own lock,
+// so concurrent readers of different entities rarely wait on each other. Eviction is LRU within
+// a segment. The capacity defaults to 10,000 entries (-Duniversity.renderCacheSize=N); 0 disables
+// caching, so every call renders afresh.
+public final class RenderCache {
+    private static final int SEGMENTS = 16; // Power of two
+    private static final int DEFAULT_CAPACITY = 10_000;
+
+    private static final Segment[] segments = new Segment[SEGMENTS];
+    private static volatile int capacity;
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder stale = new LongAdder();
+    private static final LongAdder evictions = new LongAdder();
+
+    static {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+        setCapacity(Integer.getInteger("university.renderCacheSize", DEFAULT_CAPACITY));
+    }
+
+    private RenderCache() {
+        // Static cache only
+    }
+
+    /**
+     * Returns the cached rendering of an entity if it is still current, or renders and caches it.
+     * The version must be read before rendering, so a change made while rendering leaves the
+     * entry one version behind and the next call renders again.
+     * @param owner The entity being rendered (the cache key, compared by identity).
+     * @param version The entity's getVersion() before rendering.
+     * @param renderer Writes the entity's text.
+     * @param expectedLength A capacity hint for the builder, to avoid regrowing it.
+     * @return The rendered text.
+     */
+    static String render(Object owner, long version, Rendering.Renderer renderer, int expectedLength) {
+        if (capacity == 0) {
+            return Rendering.render(renderer, expectedLength);
+        }
+        Segment segment = segmentFor(owner);
+        Entry entry;
+        synchronized (segment) {
+            entry = segment.get(owner);
+        }
+        if (entry != null && entry.owner == owner && entry.version == version) {
+            hits.increment();
+            return entry.text;
+        }
+        misses.increment();
+        if (entry != null) {
+            stale.increment();
+        }
+        String text = Rendering.render(renderer, expectedLength);
+        synchronized (segment) {
+            Entry current = segment.get(owner);
+            // Keep a newer rendering another thread may have stored meanwhile.
+            if (current == null || current.owner != owner || current.version <= version) {
+                segment.put(owner, new Entry(owner, version, text));
+            }
+        }
+        return text;
+    }
+
+    private static Segment segmentFor(Object owner) {
+        int h = System.identityHashCode(owner);
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    // --- Configuration ---
+
+    /**
+     * Sets the maximum number of cached renderings and drops everything cached so far.
+     * @param capacity The new capacity; 0 turns caching off.
+     */
+    public static void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        // Rounded up so that every segment holds at least one entry when caching is on.
+        int perSegment = (capacity + SEGMENTS - 1) / SEGMENTS;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.limit = perSegment;
+                segment.clear();
+            }
+        }
+        RenderCache.capacity = capacity;
+    }
+
+    public static int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Drops every cached rendering (the metrics are kept).
+     */
+    public static void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    // --- Metrics ---
+
+    /**
+     * @return The number of renderings currently cached.
+     */
+    public static int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return Calls answered from the cache.
+     */
+    public static long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Calls that had to render, including those that found a stale entry.
+     */
+    public static long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Misses caused by an entry rendered at an older version (the entity had changed).
+     */
+    public static long getStaleCount() {
+        return stale.sum();
+    }
+
+    /**
+     * @return Entries dropped to stay within the capacity.
+     */
+    public static long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return Hits divided by all lookups, or 0 before the first lookup.
+     */
+    public static double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * Resets the hit, miss, stale and eviction counters to zero.
+     */
+    public static void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        stale.reset();
+        evictions.reset();
+    }
+
+    /**
+     * @return The metrics on one line, for logs.
+     */
+    public static String describe() {
+        return String.format("RenderCache: size=%d/%d hits=%d misses=%d stale=%d evictions=%d hitRate=%.1f%%",
+                size(), capacity, getHitCount(), getMissCount(), getStaleCount(), getEvictionCount(),
+                100 * getHitRate());
+    }
+
+    private static final class Entry {
+        final Object owner;
+        final long version;
+        final String text;
+
+        Entry(Object owner, long version, String text) {
+            this.owner = owner;
+            this.version = version;
+            this.text = text;
+        }
+    }
+
+    // One LRU segment. Keys use the entities' own equals (their IDs); Entry.owner tells apart
+    // two objects with the same ID, e.g. after a registry is reloaded from a snapshot.
+    private static final class Segment extends LinkedHashMap<Object, Entry> {
+        private static final long serialVersionUID = 1L;
+        int limit;
+
+        Segment() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, RenderCache.Entry> eldest) {
+            if (size() > limit) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Rendering.java
+// Small helper shared by the streaming report methods (writeDetails, writeDepartmentInfo, ...).
+// The entities write their text straight into any Appendable (StringBuilder, Writer, ...);
+// the old String-returning methods use this helper to render into a StringBuilder.
+final class Rendering {
+
+    /**
+     * Something that can write itself into an Appendable.
+     */
+    interface Renderer {
+        void render(Appendable out) throws IOException;
+    }
+
+    private Rendering() {
+        // Static helpers only
+    }
+
+    /**
+     * Renders into a fresh StringBuilder and returns the result as a String.
+     * @param renderer The rendering callback.
+     * @param expectedLength A capacity hint for the builder, to avoid regrowing it.
+     * @return The rendered text.
+     */
+    static String render(Renderer renderer, int expectedLength) {
+        StringBuilder sb = new StringBuilder(expectedLength);
+        try {
+            renderer.render(sb);
+        } catch (IOException e) {
+            // StringBuilder never throws IOException, so this cannot happen in practice.
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+}
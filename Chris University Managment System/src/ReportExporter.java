@@ -0,0 +1,450 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// ReportExporter.java
+// Term-end bulk export of the department reports (getDepartmentInfo) and staff reports
+// (getDetails) to disk, as plain text, CSV or JSON.
+//
+// The entities are cut into chunks and the chunks are rendered in parallel on a fork-join pool,
+// each into a StringBuilder that is then encoded as UTF-8 into pooled 64 KiB direct buffers, as many
+// as the chunk needs (so a small chunk does not pin a large buffer). The calling
+// thread is the only writer: it keeps a bounded window of chunks in flight, waits for the oldest,
+// and hands every finished chunk in a row to one gather write (FileChannel.write(ByteBuffer[])),
+// so the file is in entity order, the disk sees large sequential writes, and rendering and I/O
+// overlap. Memory stays at about window x chunk size however large the export: nothing buffers a
+// whole report. The buffer pool is emptied when an export finishes, so an idle exporter holds no
+// direct memory.
+//
+// Reports are rendered with writeDepartmentInfo / writeDetails, the streaming forms of
+// getDepartmentInfo / getDetails: same text, but a bulk export neither fills the RenderCache with
+// a million one-off strings nor evicts what the profile pages cached.
+//
+// Each file is written to "<name>.tmp" and moved into place when complete, like UniversitySnapshot,
+// so readers never see half a report.
+//
+// Usage:
+//   ReportExporter exporter = new ReportExporter();              // common fork-join pool
+//   exporter.exportAll(registry, Paths.get("reports"), ReportExporter.Format.CSV);
+// or from the command line: java ReportExporter [directory] [text|csv|json] [snapshot-file]
+public final class ReportExporter {
+    /** Output formats; each names its file extension. */
+    public enum Format {
+        /** The reports as they are, separated by blank lines. */
+        TEXT("txt"),
+        /** One row per entity: its key fields, then the report text as a quoted column. */
+        CSV("csv"),
+        /** An array with one object per entity: its key fields and the report text. */
+        JSON("json");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16; // A chunk wastes less than one buffer at its end
+    private static final int MAX_CHUNK = 1024; // Entities per chunk
+    private static final int CHUNKS_PER_THREAD = 8; // Chunks per worker, so no worker idles at the end
+    private static final int MAX_GATHER = 256; // Buffers per write call (the OS caps iovecs, often at 1024)
+
+    private final ForkJoinPool pool;
+    private final int window;
+    private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * An exporter rendering on the common fork-join pool.
+     */
+    public ReportExporter() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool The pool to render on; its parallelism sets how many chunks are in flight.
+     */
+    public ReportExporter(ForkJoinPool pool) {
+        this.pool = pool;
+        this.window = Math.max(2, pool.getParallelism() * 4);
+    }
+
+    // --- Exports ---
+
+    /**
+     * Exports every department and every staff member of the registry into
+     * "departments.&lt;ext&gt;" and "staff.&lt;ext&gt;" in the directory.
+     * @param registry The registry to export.
+     * @param directory Where to write; created if missing.
+     * @param format The file format.
+     * @return What was written, departments first.
+     * @throws IOException if a file cannot be written.
+     */
+    public List<Result> exportAll(UniversityRegistry registry, Path directory, Format format) throws IOException {
+        Files.createDirectories(directory);
+        List<Result> results = new ArrayList<>(2);
+        results.add(exportDepartments(registry.getAllDepartments(),
+                directory.resolve("departments." + format.getExtension()), format));
+        results.add(exportStaff(registry.getAllStaff(), directory.resolve("staff." + format.getExtension()), format));
+        return results;
+    }
+
+    /**
+     * Writes the getDepartmentInfo() report of every department.
+     * @param departments The departments, in file order.
+     * @param file The file to write; replaced if it exists.
+     * @param format The file format.
+     * @return What was written.
+     * @throws IOException if the file cannot be written.
+     */
+    public Result exportDepartments(Collection<Department> departments, Path file, Format format) throws IOException {
+        return export(new ArrayList<>(departments), file, format, DEPARTMENTS);
+    }
+
+    /**
+     * Writes the getDetails() report of every staff member.
+     * @param staff The staff, in file order.
+     * @param file The file to write; replaced if it exists.
+     * @param format The file format.
+     * @return What was written.
+     * @throws IOException if the file cannot be written.
+     */
+    public Result exportStaff(Collection<Staff> staff, Path file, Format format) throws IOException {
+        return export(new ArrayList<>(staff), file, format, STAFF);
+    }
+
+    private <T> Result export(List<T> items, Path file, Format format, Layout<T> layout) throws IOException {
+        long start = System.nanoTime();
+        int chunkSize = Math.max(1, Math.min(MAX_CHUNK,
+                items.size() / Math.max(1, pool.getParallelism() * CHUNKS_PER_THREAD)));
+        int chunks = (items.size() + chunkSize - 1) / chunkSize;
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        ArrayDeque<ForkJoinTask<List<ByteBuffer>>> inFlight = new ArrayDeque<>();
+        long bytes = 0;
+        boolean done = false;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            List<ByteBuffer> batch = new ArrayList<>();
+            StringBuilder header = new StringBuilder();
+            layout.header(format, header);
+            encode(header, batch);
+            int next = 0;
+            while (next < chunks || !inFlight.isEmpty()) {
+                while (next < chunks && inFlight.size() < window) {
+                    int from = next++ * chunkSize;
+                    List<T> chunk = items.subList(from, Math.min(items.size(), from + chunkSize));
+                    boolean first = from == 0;
+                    inFlight.add(pool.submit(() -> render(chunk, first, format, layout)));
+                }
+                // Wait for the oldest chunk, then take every chunk already finished after it.
+                batch.addAll(inFlight.poll().join());
+                while (!inFlight.isEmpty() && inFlight.peek().isDone() && batch.size() < MAX_GATHER) {
+                    batch.addAll(inFlight.poll().join());
+                }
+                bytes += write(channel, batch);
+            }
+            StringBuilder footer = new StringBuilder();
+            layout.footer(format, footer);
+            encode(footer, batch);
+            bytes += write(channel, batch);
+            done = true;
+        } finally {
+            if (!done) {
+                for (ForkJoinTask<List<ByteBuffer>> task : inFlight) {
+                    task.cancel(false);
+                }
+                Files.deleteIfExists(tmp);
+            }
+            // Let the direct buffers be collected rather than holding them between exports.
+            buffers.clear();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new Result(file, items.size(), bytes, System.nanoTime() - start);
+    }
+
+    // Runs on the pool: renders a chunk and encodes it into direct buffers.
+    private <T> List<ByteBuffer> render(List<T> chunk, boolean first, Format format, Layout<T> layout) {
+        StringBuilder text = new StringBuilder(chunk.size() * 256);
+        StringBuilder report = new StringBuilder(256);
+        try {
+            for (int i = 0; i < chunk.size(); i++) {
+                if (!first || i > 0) {
+                    text.append(format == Format.JSON ? ",\n" : format == Format.TEXT ? "\n" : "");
+                }
+                T item = chunk.get(i);
+                if (format == Format.TEXT) {
+                    layout.report(item, text);
+                    text.append('\n');
+                } else {
+                    report.setLength(0);
+                    layout.report(item, report);
+                    layout.record(item, report, format, text);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder does not throw
+        }
+        List<ByteBuffer> out = new ArrayList<>(text.length() / BUFFER_SIZE + 1);
+        encode(text, out);
+        return out;
+    }
+
+    // Encodes text as UTF-8 into pooled direct buffers, appended to out ready for writing.
+    private void encode(CharSequence text, List<ByteBuffer> out) {
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        CharBuffer chars = CharBuffer.wrap(text);
+        while (true) {
+            ByteBuffer buffer = buffer();
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isUnderflow()) {
+                result = encoder.flush(buffer);
+            }
+            buffer.flip();
+            out.add(buffer);
+            if (result.isUnderflow()) {
+                return;
+            }
+            if (!result.isOverflow()) {
+                throw new IllegalStateException("Cannot encode report text: " + result);
+            }
+        }
+    }
+
+    private ByteBuffer buffer() {
+        ByteBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    // Writes every buffer (a gather write may take several calls), then returns them to the pool.
+    private long write(FileChannel channel, List<ByteBuffer> batch) throws IOException {
+        ByteBuffer[] array = batch.toArray(new ByteBuffer[0]);
+        long total = 0;
+        int offset = 0;
+        while (offset < array.length) {
+            total += channel.write(array, offset, array.length - offset);
+            while (offset < array.length && !array[offset].hasRemaining()) {
+                offset++;
+            }
+        }
+        // Keep about one window of buffers for the next chunks; let the rest be collected.
+        for (ByteBuffer buffer : array) {
+            if (buffers.size() < window * 2) {
+                buffer.clear();
+                buffers.offer(buffer);
+            }
+        }
+        batch.clear();
+        return total;
+    }
+
+    // --- Layouts ---
+
+    /** How one kind of entity is laid out in each format. */
+    private interface Layout<T> {
+        void header(Format format, StringBuilder out);
+
+        void report(T item, Appendable out) throws IOException;
+
+        /** A CSV row or JSON object (without separators), from the item and its rendered report. */
+        void record(T item, CharSequence report, Format format, StringBuilder out) throws IOException;
+
+        void footer(Format format, StringBuilder out);
+    }
+
+    private abstract static class BaseLayout<T> implements Layout<T> {
+        private final String csvHeader;
+
+        BaseLayout(String csvHeader) {
+            this.csvHeader = csvHeader;
+        }
+
+        @Override
+        public void header(Format format, StringBuilder out) {
+            if (format == Format.CSV) {
+                out.append(csvHeader).append("\r\n");
+            } else if (format == Format.JSON) {
+                out.append("[\n");
+            }
+        }
+
+        @Override
+        public void footer(Format format, StringBuilder out) {
+            if (format == Format.JSON) {
+                out.append("\n]\n");
+            }
+        }
+    }
+
+    private static final Layout<Department> DEPARTMENTS = new BaseLayout<Department>(
+            "code,name,head,courses,staff,report") {
+        @Override
+        public void report(Department department, Appendable out) throws IOException {
+            department.writeDepartmentInfo(out);
+        }
+
+        @Override
+        public void record(Department department, CharSequence report, Format format, StringBuilder out)
+                throws IOException {
+            Staff head = department.getHeadOfDepartment();
+            String headId = head == null ? null : head.getStaffId();
+            if (format == Format.CSV) {
+                csv(out, department.getDepartmentCode()).append(',');
+                csv(out, department.getName()).append(',');
+                csv(out, headId).append(',');
+                out.append(department.getCourseCount()).append(',').append(department.getStaffCount()).append(',');
+                csv(out, report).append("\r\n");
+            } else {
+                new JsonWriter(out).beginObject()
+                        .name("code").value(department.getDepartmentCode())
+                        .name("name").value(department.getName())
+                        .name("head").value(headId)
+                        .name("courses").value(department.getCourseCount())
+                        .name("staff").value(department.getStaffCount())
+                        .name("report").value(report.toString())
+                        .endObject();
+            }
+        }
+    };
+
+    private static final Layout<Staff> STAFF = new BaseLayout<Staff>("id,name,email,type,departments,report") {
+        @Override
+        public void report(Staff staffMember, Appendable out) throws IOException {
+            staffMember.writeDetails(out);
+        }
+
+        @Override
+        public void record(Staff staffMember, CharSequence report, Format format, StringBuilder out)
+                throws IOException {
+            List<Department> departments = staffMember.getAssignedDepartments();
+            String type = staffMember instanceof Lecturer ? "lecturer"
+                    : staffMember instanceof AdministrativeStaff ? "administrative" : "staff";
+            if (format == Format.CSV) {
+                csv(out, staffMember.getStaffId()).append(',');
+                csv(out, staffMember.getName()).append(',');
+                csv(out, staffMember.getEmail()).append(',');
+                out.append(type).append(',');
+                StringBuilder codes = new StringBuilder();
+                for (Department department : departments) {
+                    codes.append(codes.length() == 0 ? "" : ";").append(department.getDepartmentCode());
+                }
+                csv(out, codes).append(',');
+                csv(out, report).append("\r\n");
+            } else {
+                JsonWriter json = new JsonWriter(out).beginObject()
+                        .name("id").value(staffMember.getStaffId())
+                        .name("name").value(staffMember.getName())
+                        .name("email").value(staffMember.getEmail())
+                        .name("type").value(type)
+                        .name("departments").beginArray();
+                for (Department department : departments) {
+                    json.value(department.getDepartmentCode());
+                }
+                json.endArray().name("report").value(report.toString()).endObject();
+            }
+        }
+    };
+
+    // RFC 4180: quote a field holding a comma, quote or line break, doubling its quotes.
+    static StringBuilder csv(StringBuilder out, CharSequence field) {
+        if (field == null) {
+            return out;
+        }
+        boolean quote = false;
+        for (int i = 0; i < field.length() && !quote; i++) {
+            char c = field.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return out.append(field);
+        }
+        out.append('"');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            out.append(c);
+            if (c == '"') {
+                out.append('"');
+            }
+        }
+        return out.append('"');
+    }
+
+    // --- Results ---
+
+    /** One exported file. */
+    public static final class Result {
+        private final Path file;
+        private final int entities;
+        private final long bytes;
+        private final long nanos;
+
+        Result(Path file, int entities, long bytes, long nanos) {
+            this.file = file;
+            this.entities = entities;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public int getEntities() {
+            return entities;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = nanos / 1e9;
+            return String.format(Locale.ROOT, "%s: %d reports, %.1f MB in %.2f s (%.0f MB/s)",
+                    file, entities, bytes / 1e6, seconds, seconds == 0 ? 0 : bytes / 1e6 / seconds);
+        }
+    }
+
+    /**
+     * Exports a snapshot file, or a generated university when no file is given.
+     * @param args [directory (default "reports")] [text|csv|json (default text)] [snapshot file]
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "reports");
+        Format format = Format.valueOf((args.length > 1 ? args[1] : "text").toUpperCase(Locale.ROOT));
+        UniversityRegistry registry;
+        if (args.length > 2) {
+            registry = UniversitySnapshot.load(Paths.get(args[2]));
+        } else {
+            registry = new UniversityRegistry();
+            new UniversityGenerator(42L, 200, 100_000, 200_000).generateInto(registry);
+        }
+        for (Result result : new ReportExporter().exportAll(registry, directory, format)) {
+            System.out.println(result);
+        }
+    }
+}
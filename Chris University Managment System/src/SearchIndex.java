@@ -0,0 +1,659 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// SearchIndex.java
+// In-memory search over staff and courses, for directory autocomplete and full-text search.
+//
+// Indexed fields: staff name, email and specialization (lecturers); course title and code.
+// Each field is split into lower-case tokens (runs of letters and digits), so
+// "ada.lovelace@uni.edu" gives ada, lovelace, uni and edu.
+//
+// Two structures share one term dictionary:
+//   - a trie of the terms, for autocomplete. Every trie node caches the best CACHE_SIZE entities
+//     under it, so suggest("lov") is a walk down three nodes plus a copy of the cached list,
+//     whatever the number of entries. Caches are dropped along the path of a changed term and
+//     rebuilt on the next query from the children's caches.
+//   - an inverted index: per term, a posting list of (entity, impact) sorted by impact, for
+//     ranked full-text search. search() intersects the query terms starting from the rarest one
+//     and stops as soon as no remaining entity can beat the current top results (the
+//     threshold algorithm), so a common term rarely needs its whole posting list.
+// The impact of a term in an entity is its field weight (name and title highest, then code,
+// specialization and email), more for the field's first token and less for long fields.
+//
+// Updates are incremental: add() or update() re-tokenizes one entity and touches only the terms
+// that appeared or whose impact changed. Attached to a UniversityRegistry (attachSearchIndex),
+// the index follows new staff and courses and every setEmail / setSpecialization by itself.
+//
+// Queries run concurrently; updates are serialized with a read-write lock.
+//
+// Usage:
+//   SearchIndex index = new SearchIndex();
+//   registry.attachSearchIndex(index);           // indexes everything registered so far
+//   index.suggest("ada lov", 10);                // autocomplete: last token is a prefix
+//   index.search("machine learning", 10);        // ranked, every term must match
+public final class SearchIndex {
+    /** How many entities each trie node caches; suggest() with a larger limit walks the subtree. */
+    public static final int CACHE_SIZE = 16;
+
+    private static final int NAME_WEIGHT = 100;
+    private static final int CODE_WEIGHT = 80;
+    private static final int SPECIALIZATION_WEIGHT = 50;
+    private static final int EMAIL_WEIGHT = 40;
+    private static final long[] NO_KEYS = new long[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    private final Map<Object, Doc> docsByEntity = new HashMap<>();
+    private Doc[] docs = new Doc[1024];
+    private int docCount;
+    // During addAll(): postings appended to out of order, sorted once at the end.
+    private List<Postings> unsorted;
+
+    // --- Updates ---
+
+    /**
+     * Indexes a staff member or course, or re-indexes it if it is already in the index.
+     * @param entity A Staff or Course; anything else is ignored.
+     */
+    public void add(Object entity) {
+        if (!(entity instanceof Staff) && !(entity instanceof Course)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            index(entity);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes (or re-indexes) every entity in the collection. Much faster than add() one by one:
+     * postings are appended and each list is sorted once at the end.
+     * @param entities Staff and courses; anything else is ignored.
+     */
+    public void addAll(Collection<?> entities) {
+        lock.writeLock().lock();
+        try {
+            unsorted = new ArrayList<>();
+            for (Object entity : entities) {
+                if (entity instanceof Staff || entity instanceof Course) {
+                    index(entity);
+                }
+            }
+        } finally {
+            for (Postings postings : unsorted) {
+                postings.sort();
+            }
+            unsorted = null;
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-indexes an entity after one of its fields changed. Same as add().
+     */
+    public void update(Object entity) {
+        add(entity);
+    }
+
+    /**
+     * Removes an entity from the index.
+     * @return true if it was indexed.
+     */
+    public boolean remove(Object entity) {
+        lock.writeLock().lock();
+        try {
+            Doc doc = docsByEntity.remove(entity);
+            if (doc == null) {
+                return false;
+            }
+            for (int i = 0; i < doc.terms.length; i++) {
+                unpost(doc.terms[i], doc.id, doc.impacts[i]);
+            }
+            docs[doc.id] = null;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of indexed entities.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docsByEntity.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(Object entity) {
+        Map<String, Integer> impacts = new HashMap<>();
+        if (entity instanceof Staff) {
+            Staff staffMember = (Staff) entity;
+            tokenize(staffMember.getName(), NAME_WEIGHT, impacts);
+            tokenize(staffMember.getEmail(), EMAIL_WEIGHT, impacts);
+            if (staffMember instanceof Lecturer) {
+                tokenize(((Lecturer) staffMember).getSpecialization(), SPECIALIZATION_WEIGHT, impacts);
+            }
+        } else {
+            Course course = (Course) entity;
+            tokenize(course.getTitle(), NAME_WEIGHT, impacts);
+            tokenize(course.getCourseCode(), CODE_WEIGHT, impacts);
+        }
+
+        Doc doc = docsByEntity.get(entity);
+        List<Node> terms = new ArrayList<>(impacts.size());
+        List<Integer> termImpacts = new ArrayList<>(impacts.size());
+        if (doc == null) {
+            if (docCount == docs.length) {
+                docs = Arrays.copyOf(docs, docCount * 2);
+            }
+            doc = new Doc(docCount, entity);
+            docs[docCount++] = doc;
+            docsByEntity.put(entity, doc);
+        } else {
+            // Keep the terms whose impact is unchanged; drop the others.
+            for (int i = 0; i < doc.terms.length; i++) {
+                Integer impact = impacts.get(doc.terms[i].text);
+                if (impact != null && impact == doc.impacts[i]) {
+                    impacts.remove(doc.terms[i].text);
+                    terms.add(doc.terms[i]);
+                    termImpacts.add(impact);
+                } else {
+                    unpost(doc.terms[i], doc.id, doc.impacts[i]);
+                }
+            }
+        }
+        for (Map.Entry<String, Integer> entry : impacts.entrySet()) {
+            terms.add(post(entry.getKey(), doc.id, entry.getValue()));
+            termImpacts.add(entry.getValue());
+        }
+        doc.terms = terms.toArray(new Node[0]);
+        doc.impacts = new int[doc.terms.length];
+        for (int i = 0; i < doc.impacts.length; i++) {
+            doc.impacts[i] = termImpacts.get(i);
+        }
+    }
+
+    // Splits a field into tokens and keeps, per token, its highest impact in the entity.
+    static void tokenize(String text, int weight, Map<String, Integer> impacts) {
+        if (text == null) {
+            return;
+        }
+        List<String> tokens = tokens(text);
+        for (int i = 0; i < tokens.size(); i++) {
+            int impact = weight * 4 / (3 + tokens.size()) + (i == 0 ? weight / 4 : 0);
+            impacts.merge(tokens.get(i), impact, Math::max);
+        }
+    }
+
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private Node post(String term, int doc, int impact) {
+        Node node = root;
+        node.touch(1);
+        for (int i = 0; i < term.length(); i++) {
+            node = node.childOrCreate(term.charAt(i));
+            node.touch(1);
+        }
+        if (node.postings == null) {
+            node.postings = new Postings();
+            node.text = term;
+        }
+        if (unsorted != null) {
+            if (node.postings.sorted) {
+                unsorted.add(node.postings);
+            }
+            node.postings.append(key(impact, doc));
+        } else {
+            node.postings.insert(key(impact, doc));
+        }
+        return node;
+    }
+
+    private void unpost(Node term, int doc, int impact) {
+        term.postings.sort(); // No-op unless addAll() is re-indexing an entity it already appended
+        term.postings.remove(key(impact, doc));
+        Node node = root;
+        node.touch(-1);
+        for (int i = 0; i < term.text.length(); i++) {
+            node = node.child(term.text.charAt(i));
+            node.touch(-1);
+        }
+    }
+
+    // --- Queries ---
+
+    /**
+     * Autocomplete: the best entities matching what has been typed so far. The last token is a
+     * prefix (unless the query ends with a space or punctuation); earlier tokens must match whole.
+     * @param query The text typed so far.
+     * @param limit The maximum number of results.
+     * @return The results, best first.
+     */
+    public List<Hit> suggest(String query, int limit) {
+        List<String> tokens = tokens(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        if (!Character.isLetterOrDigit(query.charAt(query.length() - 1))) {
+            return search(query, limit);
+        }
+        String prefix = tokens.remove(tokens.size() - 1);
+        lock.readLock().lock();
+        try {
+            Node node = find(prefix);
+            if (node == null) {
+                return Collections.emptyList();
+            }
+            if (tokens.isEmpty() && limit <= CACHE_SIZE) {
+                return hits(node.top(), limit);
+            }
+            Node[] terms = tokens.isEmpty() ? new Node[0] : lookup(tokens);
+            if (terms == null) {
+                return Collections.emptyList();
+            }
+            // Walking the rarest whole token's postings finds a prefix match every
+            // df / subtreeSize postings or so, and needs about limit of them; scanning the
+            // prefix subtree costs subtreeSize. Take the cheaper one.
+            long subtree = node.subtreeSize;
+            if (terms.length == 0 || subtree * subtree <= (long) limit * terms[0].postings.size) {
+                return scanPrefix(node, prefix, terms, limit);
+            }
+            long[] top = node.top();
+            return intersect(terms, prefix, top.length == 0 ? 0 : impact(top[0]), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Full-text search: entities containing every query token, ranked by the tokens' rarity
+     * (idf) times their impact in the entity.
+     * @param query The search text.
+     * @param limit The maximum number of results.
+     * @return The results, best first.
+     */
+    public List<Hit> search(String query, int limit) {
+        List<String> tokens = tokens(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Node[] terms = lookup(tokens);
+            return terms == null ? Collections.emptyList() : intersect(terms, null, 0, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Node find(String text) {
+        Node node = root;
+        for (int i = 0; i < text.length() && node != null; i++) {
+            node = node.child(text.charAt(i));
+        }
+        return node;
+    }
+
+    // The distinct query terms, rarest first, or null if one of them is not indexed.
+    private Node[] lookup(List<String> tokens) {
+        List<Node> terms = new ArrayList<>();
+        for (String token : tokens) {
+            Node term = find(token);
+            if (term == null || term.postings == null || term.postings.size == 0) {
+                return null;
+            }
+            if (!terms.contains(term)) {
+                terms.add(term);
+            }
+        }
+        terms.sort(Comparator.comparingInt(term -> term.postings.size));
+        return terms.toArray(new Node[0]);
+    }
+
+    // Threshold algorithm: walk the rarest term's postings in impact order, score each entity on
+    // every term, and stop once the best score any later entity could reach is below the k-th best.
+    // With a prefix (suggest), every term counts once (no idf) and the entity must also have a
+    // term starting with the prefix, worth at most prefixBound.
+    private List<Hit> intersect(Node[] terms, String prefix, int prefixBound, int limit) {
+        int n = docsByEntity.size();
+        double[] idf = new double[terms.length];
+        double othersBound = prefixBound;
+        for (int t = 0; t < terms.length; t++) {
+            idf[t] = prefix != null ? 1.0 : Math.log(1.0 + (double) n / terms[t].postings.size);
+            if (t > 0) {
+                othersBound += idf[t] * impact(terms[t].postings.keys[0]);
+            }
+        }
+        Postings driver = terms[0].postings;
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, Hit.WORST_FIRST);
+        for (int p = 0; p < driver.size; p++) {
+            double driverScore = idf[0] * impact(driver.keys[p]);
+            if (best.size() == limit && best.peek().score >= driverScore + othersBound) {
+                break;
+            }
+            Doc doc = docs[doc(driver.keys[p])];
+            double score = score(doc, terms, idf, 1, driverScore);
+            if (score >= 0 && prefix != null) {
+                Node term = doc.bestPrefixTerm(prefix);
+                score = term == null ? -1 : score + doc.impactOf(term);
+            }
+            offer(best, doc, score, limit);
+        }
+        return sorted(best);
+    }
+
+    // Scores every entity under the prefix node (each once, at its best prefix term) on the
+    // whole terms too. Used when the prefix is rarer than every whole term.
+    private List<Hit> scanPrefix(Node node, String prefix, Node[] terms, int limit) {
+        double[] idf = new double[terms.length];
+        Arrays.fill(idf, 1.0);
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, Hit.WORST_FIRST);
+        List<Node> stack = new ArrayList<>();
+        stack.add(node);
+        while (!stack.isEmpty()) {
+            Node current = stack.remove(stack.size() - 1);
+            Postings postings = current.postings;
+            for (int p = 0; postings != null && p < postings.size; p++) {
+                Doc doc = docs[doc(postings.keys[p])];
+                double score = score(doc, terms, idf, 0, impact(postings.keys[p]));
+                if (score >= 0 && doc.bestPrefixTerm(prefix) == current) {
+                    offer(best, doc, score, limit);
+                }
+            }
+            for (int c = 0; c < current.childCount; c++) {
+                stack.add(current.children[c]);
+            }
+        }
+        return sorted(best);
+    }
+
+    // Adds each term's weighted impact to score; -1 if the entity lacks one of the terms.
+    private static double score(Doc doc, Node[] terms, double[] idf, int from, double score) {
+        for (int t = from; t < terms.length; t++) {
+            int impact = doc.impactOf(terms[t]);
+            if (impact < 0) {
+                return -1;
+            }
+            score += idf[t] * impact;
+        }
+        return score;
+    }
+
+    private static void offer(PriorityQueue<Hit> best, Doc doc, double score, int limit) {
+        if (score < 0) {
+            return;
+        }
+        best.add(new Hit(doc.entity, score, doc.id));
+        if (best.size() > limit) {
+            best.poll();
+        }
+    }
+
+    private static List<Hit> sorted(PriorityQueue<Hit> best) {
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(Hit.BEST_FIRST);
+        return hits;
+    }
+
+    private List<Hit> hits(long[] top, int limit) {
+        int n = Math.min(limit, top.length);
+        List<Hit> hits = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Doc doc = docs[doc(top[i])];
+            hits.add(new Hit(doc.entity, impact(top[i]), doc.id));
+        }
+        return hits;
+    }
+
+    // A posting as one long that sorts best first: higher impact, then lower doc id.
+    private static long key(int impact, int doc) {
+        return ((long) (Integer.MAX_VALUE - impact) << 32) | doc;
+    }
+
+    private static int impact(long key) {
+        return Integer.MAX_VALUE - (int) (key >>> 32);
+    }
+
+    private static int doc(long key) {
+        return (int) key;
+    }
+
+    // --- Results ---
+
+    /** One search result: the entity (a Staff or Course) and its score. */
+    public static final class Hit {
+        static final Comparator<Hit> BEST_FIRST = (a, b) -> a.score != b.score
+                ? Double.compare(b.score, a.score) : Integer.compare(a.doc, b.doc);
+        static final Comparator<Hit> WORST_FIRST = BEST_FIRST.reversed();
+
+        private final Object entity;
+        private final double score;
+        private final int doc;
+
+        Hit(Object entity, double score, int doc) {
+            this.entity = entity;
+            this.score = score;
+            this.doc = doc;
+        }
+
+        /**
+         * @return The matching Staff or Course.
+         */
+        public Object getEntity() {
+            return entity;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            if (entity instanceof Staff) {
+                return ((Staff) entity).getName() + " (" + ((Staff) entity).getStaffId() + ")";
+            }
+            return ((Course) entity).getTitle() + " (" + ((Course) entity).getCourseCode() + ")";
+        }
+    }
+
+    // --- Internal structures ---
+
+    /** An indexed entity and its terms with their impacts. */
+    private static final class Doc {
+        final int id;
+        final Object entity;
+        Node[] terms = new Node[0];
+        int[] impacts = new int[0];
+
+        Doc(int id, Object entity) {
+            this.id = id;
+            this.entity = entity;
+        }
+
+        int impactOf(Node term) {
+            for (int i = 0; i < terms.length; i++) {
+                if (terms[i] == term) {
+                    return impacts[i];
+                }
+            }
+            return -1;
+        }
+
+        // The highest-impact term starting with the prefix (the first one on a tie), or null.
+        Node bestPrefixTerm(String prefix) {
+            Node best = null;
+            int bestImpact = -1;
+            for (int i = 0; i < terms.length; i++) {
+                if (impacts[i] > bestImpact && terms[i].text.startsWith(prefix)) {
+                    best = terms[i];
+                    bestImpact = impacts[i];
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * A trie node. Nodes where a term ends hold that term's postings. top caches the best
+     * entities in the subtree (posting keys, one per entity, best first); it is null when invalid
+     * and rebuilt by readers, who may race to do so harmlessly (they compute the same array).
+     */
+    private static final class Node {
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+        int childCount;
+        String text;
+        Postings postings;
+        int subtreeSize; // Postings in this node and below
+        volatile long[] top;
+
+        // Called on every node along the path of a changed term.
+        void touch(int delta) {
+            subtreeSize += delta;
+            top = null;
+        }
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, 0, childCount, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(keys, 0, childCount, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            i = -i - 1;
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, i, keys, i + 1, childCount - i);
+            System.arraycopy(children, i, children, i + 1, childCount - i);
+            Node child = new Node();
+            keys[i] = c;
+            children[i] = child;
+            childCount++;
+            return child;
+        }
+
+        // Merges this node's own best postings with the children's caches. Exact, because an
+        // entity missing from a child's cache has CACHE_SIZE better entities in that child alone.
+        long[] top() {
+            long[] cached = top;
+            if (cached != null) {
+                return cached;
+            }
+            int own = postings == null ? 0 : Math.min(postings.size, CACHE_SIZE);
+            int total = own;
+            long[][] tops = new long[childCount][];
+            for (int c = 0; c < childCount; c++) {
+                tops[c] = children[c].top();
+                total += tops[c].length;
+            }
+            long[] keys = new long[total];
+            if (own > 0) {
+                System.arraycopy(postings.keys, 0, keys, 0, own);
+            }
+            int k = own;
+            for (long[] t : tops) {
+                System.arraycopy(t, 0, keys, k, t.length);
+                k += t.length;
+            }
+            Arrays.sort(keys);
+            // Keep the first (best) key of each entity, up to CACHE_SIZE entities.
+            long[] best = new long[Math.min(k, CACHE_SIZE)];
+            int size = 0;
+            for (int i = 0; i < k && size < best.length; i++) {
+                boolean seen = false;
+                for (int j = 0; j < size && !seen; j++) {
+                    seen = doc(best[j]) == doc(keys[i]);
+                }
+                if (!seen) {
+                    best[size++] = keys[i];
+                }
+            }
+            cached = size == 0 ? NO_KEYS : Arrays.copyOf(best, size);
+            top = cached;
+            return cached;
+        }
+    }
+
+    /** A term's postings as key(impact, doc) values in ascending order: best first. */
+    private static final class Postings {
+        long[] keys = new long[2];
+        int size;
+        boolean sorted = true;
+
+        void insert(long key) {
+            int i = Arrays.binarySearch(keys, 0, size, key);
+            if (i >= 0) {
+                return;
+            }
+            i = -i - 1;
+            grow();
+            System.arraycopy(keys, i, keys, i + 1, size - i);
+            keys[i] = key;
+            size++;
+        }
+
+        void append(long key) {
+            grow();
+            keys[size++] = key;
+            sorted = false;
+        }
+
+        void remove(long key) {
+            int i = Arrays.binarySearch(keys, 0, size, key);
+            if (i >= 0) {
+                System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+                size--;
+            }
+        }
+
+        void sort() {
+            if (!sorted) {
+                Arrays.sort(keys, 0, size);
+                sorted = true;
+            }
+        }
+
+        private void grow() {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 // Staff.java
 // This is an abstract base class. It cannot be instantiated directly.
@@ -10,8 +12,14 @@ public abstract class Staff {
     private String name;
     private String email;
     // Association: A staff member can be assigned to multiple departments.
-    // This is a List of Department objects.
-    protected List<Department> assignedDepartments; // Protected to allow subclasses direct access if needed, though public methods are better practice.
+    // A LinkSet keeps insertion order and makes add, remove and "is this department already
+    // assigned?" constant-time instead of list scans.
+    protected LinkSet<Department> assignedDepartments; // Protected to allow subclasses direct access if needed, though public methods are better practice.
+    // The registry this staff member belongs to (set by UniversityRegistry.registerStaff), or null.
+    // Used to keep the registry's secondary indexes in sync when a setter changes an indexed field.
+    UniversityRegistry registry;
+    // Field changes so far; part of getVersion().
+    private final AtomicLong changes = new AtomicLong();
 
     /**
      * Constructor for the Staff base class.
@@ -24,16 +32,64 @@ public abstract class Staff {
         this.staffId = staffId;
         this.name = name;
         this.email = email;
-        this.assignedDepartments = new ArrayList<>(); // Initialize the list of departments
+        this.assignedDepartments = new LinkSet<>(); // Initialize the set of departments
     }
 
     /**
-     * Abstract method to return role-specific details.
+     * Abstract method to write role-specific details into an Appendable (StringBuilder, Writer, ...).
      * This method must be implemented (overridden) by every concrete subclass of Staff.
      * This is the core of polymorphism requirement: "Override one method in each subclass to return role-specific details."
+     * Writing straight into the target avoids building intermediate strings for large reports.
+     * @param out The destination to write the details to.
+     * @throws IOException if the destination fails to accept the text.
+     */
+    public abstract void writeDetails(Appendable out) throws IOException; // No body here, implemented by subclasses
+
+    /**
+     * Returns role-specific details as a String.
+     * Thin wrapper over writeDetails(), which each subclass overrides.
      * @return A string containing details specific to the staff member's role.
      */
-    public abstract String getDetails(); // No body here, implemented by subclasses
+    public String getDetails() {
+        long start = DomainMetrics.start();
+        String details = RenderCache.render(this, getVersion(), this::writeDetails, 160);
+        if (start != 0L) {
+            List<Department> departments = getAssignedDepartments();
+            DomainMetrics.record(DomainMetrics.Operation.GET_DETAILS,
+                    departments.isEmpty() ? null : departments.get(0), start);
+        }
+        return details;
+    }
+
+    /**
+     * Returns a number that goes up whenever something shown by getDetails() changes
+     * (including subclass fields and the assigned departments).
+     * Equal versions mean the rendered text is unchanged; RenderCache relies on this.
+     * @return The current version.
+     */
+    public long getVersion() {
+        return changes.get() + assignedDepartments.version();
+    }
+
+    /**
+     * Must be called by every setter of a field that getDetails() shows, after the field is written,
+     * so that cached renderings of this staff member are replaced. Subclasses call it from their setters.
+     */
+    protected void fieldChanged() {
+        changes.incrementAndGet();
+    }
+
+    /**
+     * Writes the ID, name and email lines shared by every staff type.
+     * Subclasses call this at the start of their writeDetails().
+     * @param out The destination to write to.
+     * @throws IOException if the destination fails to accept the text.
+     */
+    protected void writeIdentity(Appendable out) throws IOException {
+        out.append("Staff ID: ").append(staffId).append('\n');
+        out.append("Name: ").append(name).append('\n');
+        out.append("Email: ").append(email).append('\n');
+    }
 
     /**
      * Adds a department to the list of departments this staff member is assigned to.
@@ -41,33 +97,139 @@ public abstract class Staff {
      * @param department The Department object to associate with this staff member.
      */
     public void addDepartment(Department department) {
-        if (department != null && !assignedDepartments.contains(department)) {
-            assignedDepartments.add(department);
-            // Optional: Also add the staff member to the department's staff list if not already there
-            if (!department.getStaffMembers().contains(this)) {
-                department.addStaffMember(this);
+        if (department == null) {
+            return;
+        }
+        long start = DomainMetrics.start();
+        joinDepartment(department);
+        DomainMetrics.record(DomainMetrics.Operation.ADD_DEPARTMENT, department, start);
+    }
+
+    /**
+     * Removes a department from the list of departments this staff member is assigned to,
+     * on both sides of the association. If this staff member was its head, the department
+     * is left without a head.
+     * @param department The Department object to unlink from this staff member.
+     */
+    public void removeDepartment(Department department) {
+        if (department != null) {
+            leaveDepartment(department);
+        }
+    }
+
+    // Links this staff member and the department on both sides, atomically, then publishes
+    // StaffJoinedDepartment. Shared by addDepartment and Department.addStaffMember, so the event
+    // is published once per link and never while a lock stripe is held (a listener may read the
+    // model, which needs the stripes).
+    void joinDepartment(Department department) {
+        boolean added;
+        AssociationLocks.lock(this, department);
+        try {
+            added = linkDepartment(department);
+        } finally {
+            AssociationLocks.unlock(this, department);
+        }
+        if (added && DomainEvents.isEnabled()) {
+            DomainEvents.publish(new DomainEvent.StaffJoinedDepartment(this, department));
+        }
+    }
+
+    // Reverse of joinDepartment(), shared by removeDepartment and Department.removeStaffMember.
+    void leaveDepartment(Department department) {
+        boolean removed;
+        AssociationLocks.lock(this, department);
+        try {
+            removed = unlinkDepartment(department);
+        } finally {
+            AssociationLocks.unlock(this, department);
+        }
+        if (removed) {
+            if (this.equals(department.getHeadOfDepartment())) {
+                department.setHeadOfDepartment(null);
+            }
+            if (DomainEvents.isEnabled()) {
+                DomainEvents.publish(new DomainEvent.StaffLeftDepartment(this, department));
             }
-            System.out.println(this.name + " assigned to " + department.getName() + " Department.");
         }
     }
 
+    // Adds whichever side of the link is missing. The link is journaled first (write-ahead), so a
+    // failed append leaves both sides untouched instead of half-linked.
+    // The caller holds the stripes of this staff member and the department.
+    boolean linkDepartment(Department department) {
+        if (assignedDepartments.contains(department) && department.hasStaffMember(this)) {
+            return false;
+        }
+        if (registry != null) {
+            registry.staffDepartmentLinked(this, department);
+        }
+        attachDepartment(department);
+        department.attachStaffMember(this);
+        return true;
+    }
+
+    // Removes whichever side of the link is present, journaling first. Same locking as linkDepartment().
+    boolean unlinkDepartment(Department department) {
+        if (!assignedDepartments.contains(department) && !department.hasStaffMember(this)) {
+            return false;
+        }
+        if (registry != null) {
+            registry.staffDepartmentUnlinked(this, department);
+        }
+        detachDepartment(department);
+        department.detachStaffMember(this);
+        return true;
+    }
+
+    /**
+     * Checks whether this staff member is assigned to the given department.
+     * Backed by a hash index, so this is a constant-time lookup.
+     * @param department The Department object to check.
+     * @return true if the department is in this staff member's assigned departments.
+     */
+    public boolean isAssignedTo(Department department) {
+        return department != null && assignedDepartments.contains(department);
+    }
+
     /**
      * Retrieves the names of departments this staff member is assigned to.
      * @return A formatted string listing the assigned departments.
      */
     public String getAssignedDepartmentsInfo() {
-        if (assignedDepartments.isEmpty()) {
-            return "No departments assigned.";
-        }
-        StringBuilder sb = new StringBuilder();
-        sb.append("Assigned Departments: ");
-        for (int i = 0; i < assignedDepartments.size(); i++) {
-            sb.append(assignedDepartments.get(i).getName());
-            if (i < assignedDepartments.size() - 1) {
-                sb.append(", ");
+        return Rendering.render(this::writeAssignedDepartmentsInfo, 64);
+    }
+
+    /**
+     * Writes the names of departments this staff member is assigned to into an Appendable.
+     * @param out The destination to write to.
+     * @throws IOException if the destination fails to accept the text.
+     */
+    public void writeAssignedDepartmentsInfo(Appendable out) throws IOException {
+        List<Department> departments = getAssignedDepartments();
+        if (departments.isEmpty()) {
+            out.append("No departments assigned.");
+            return;
+        }
+        out.append("Assigned Departments: ");
+        boolean first = true;
+        for (Department department : departments) {
+            if (!first) {
+                out.append(", ");
             }
+            out.append(department.getName());
+            first = false;
         }
-        return sb.toString();
+    }
+
+    // One-sided link for bulk loaders: adds the department to this staff member only
+    // (no callback to Department.addStaffMember, no locking, no console output).
+    boolean attachDepartment(Department department) {
+        return assignedDepartments.add(department);
+    }
+
+    // One-sided unlink, the reverse of attachDepartment (used by journal replay).
+    boolean detachDepartment(Department department) {
+        return assignedDepartments.remove(department);
     }
 
     // --- Getter methods for Staff attributes ---
@@ -84,12 +246,66 @@ public abstract class Staff {
         return email;
     }
 
+    /**
+     * @return An immutable snapshot of the assigned departments; safe to iterate while other threads change them.
+     */
     public List<Department> getAssignedDepartments() {
-        return assignedDepartments;
+        return assignedDepartments.snapshot(this);
     }
 
     // --- Setter methods for Staff attributes (if needed) ---
     public void setEmail(String email) {
-        this.email = email;
+        String oldEmail = writeEmail(email, true);
+        if (DomainEvents.isEnabled()) {
+            DomainEvents.publish(new DomainEvent.EmailChanged(this, oldEmail, email));
+        }
+    }
+
+    // Journal replay of setEmail: keeps the registry's indexes in step, but is not journaled
+    // again and publishes no event.
+    void attachEmail(String email) {
+        writeEmail(email, false);
+    }
+
+    // The body of setEmail. Returns the old email.
+    private String writeEmail(String email, boolean journal) {
+        String oldEmail;
+        // Under this staff member's stripe, so concurrent changes move the email-domain index
+        // (and reach the journal) in the same order as they set the field: an index entry is never
+        // removed by a change that did not add it, and the last email written is the one indexed.
+        AssociationLocks.lock(this);
+        try {
+            oldEmail = this.email;
+            this.email = email;
+            fieldChanged();
+            if (registry != null) {
+                if (journal) {
+                    registry.emailChanged(this, oldEmail);
+                } else {
+                    registry.reindexEmail(this, oldEmail);
+                }
+            }
+        } finally {
+            AssociationLocks.unlock(this);
+        }
+        return oldEmail;
+    }
+
+    // --- Identity: two Staff objects are the same staff member if they share a staffId ---
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Staff)) {
+            return false;
+        }
+        return Objects.equals(staffId, ((Staff) o).staffId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(staffId);
     }
 }
\ No newline at end of file
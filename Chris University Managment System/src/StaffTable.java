@@ -0,0 +1,827 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// StaffTable.java
+// Compact columnar store for very large staff directories (millions of records), as an
+// alternative to one Staff object per person.
+//
+// A Staff object costs several hundred bytes before any data: the object itself, three String
+// objects with their byte arrays, a LinkSet (with its hash map) for the departments, and for a
+// Lecturer a second LinkSet and counters. Here every attribute is a column instead (struct of
+// arrays), and a staff member is just a row number:
+//   - staff ID, name and email are UTF-8 bytes packed into one byte array per column, with an
+//     offset and a length per row; no String exists until a getter asks for one;
+//   - specializations and roles are dictionary-encoded: one int per row, each distinct string
+//     is kept once;
+//   - department memberships and taught courses are int adjacency lists (row -> department or
+//     course numbers) in one shared int array per relation;
+//   - lookups by staff ID use an open-addressing hash index of row numbers.
+// This brings a directory record down to roughly a hundred bytes.
+//
+// Rows are read through flyweight views (LecturerView, AdministrativeView): two-field objects
+// made on demand that read and write the columns, with the same getters, setters and details
+// text as Lecturer and AdministrativeStaff.
+//
+// Links are one-sided: the table records which departments a row belongs to, but the Department
+// objects are not told (their staff lists would otherwise hold an object per row again).
+// getStaffInDepartment() answers the reverse question by scanning the membership column.
+//
+// Reads may run concurrently; writes are serialized with a read-write lock.
+//
+// Usage:
+//   StaffTable table = new StaffTable();
+//   table.addLecturer("L001", "Dr. Ada", "ada@uni.edu", "Computer Science");
+//   table.addAll(registry.getAllStaff());                 // or copy existing Staff objects
+//   StaffTable.LecturerView ada = (StaffTable.LecturerView) table.get("L001");
+//   ada.addDepartment(cs);
+public final class StaffTable {
+    private static final byte LECTURER = 0;
+    private static final byte ADMINISTRATIVE = 1;
+    private static final int NONE = -1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int size;
+    private byte[] kind;
+    private int[] detail; // Specialization (lecturers) or role (administrative staff), as a dictionary code
+    private final TextColumn ids;
+    private final TextColumn names;
+    private final TextColumn emails;
+    private final Dictionary details = new Dictionary();
+    private final IntAdjacency departmentLinks;
+    private final IntAdjacency courseLinks;
+    private final List<Department> departments = new ArrayList<>();
+    private final Map<Department, Integer> departmentNumbers = new HashMap<>();
+    private final List<Course> courses = new ArrayList<>();
+    private final Map<Course, Integer> courseNumbers = new HashMap<>();
+    // Open addressing over ids: row + 1, or 0 for an empty slot. Length is a power of two.
+    private int[] index;
+
+    public StaffTable() {
+        this(1024);
+    }
+
+    /**
+     * @param expectedRows How many rows to size the columns for; they grow as needed.
+     */
+    public StaffTable(int expectedRows) {
+        int capacity = Math.max(16, expectedRows);
+        kind = new byte[capacity];
+        detail = new int[capacity];
+        ids = new TextColumn(capacity, 10);
+        names = new TextColumn(capacity, 16);
+        emails = new TextColumn(capacity, 20);
+        departmentLinks = new IntAdjacency(capacity);
+        courseLinks = new IntAdjacency(capacity);
+        index = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+    }
+
+    // --- Adding rows ---
+
+    /**
+     * Adds a lecturer with no departments or courses yet.
+     * @return The lecturer's view.
+     * @throws IllegalArgumentException if the staff ID is already in the table.
+     */
+    public LecturerView addLecturer(String staffId, String name, String email, String specialization) {
+        lock.writeLock().lock();
+        try {
+            return new LecturerView(this, insert(LECTURER, staffId, name, email, specialization));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an administrative staff member with no departments yet.
+     * @return The staff member's view.
+     * @throws IllegalArgumentException if the staff ID is already in the table.
+     */
+    public AdministrativeView addAdministrativeStaff(String staffId, String name, String email, String role) {
+        lock.writeLock().lock();
+        try {
+            return new AdministrativeView(this, insert(ADMINISTRATIVE, staffId, name, email, role));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copies a staff member into the table, with their departments and (for a lecturer) courses.
+     * The Staff object is not changed or referenced afterwards, so it can be dropped.
+     * @param staffMember A Lecturer or AdministrativeStaff.
+     * @return The new row's view.
+     * @throws IllegalArgumentException if the staff ID is already in the table.
+     */
+    public StaffView add(Staff staffMember) {
+        lock.writeLock().lock();
+        try {
+            return add0(staffMember);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copies every staff member into the table (see add(Staff)).
+     * @param staff The staff to copy.
+     */
+    public void addAll(Collection<? extends Staff> staff) {
+        lock.writeLock().lock();
+        try {
+            for (Staff staffMember : staff) {
+                add0(staffMember);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private StaffView add0(Staff staffMember) {
+        int row;
+        if (staffMember instanceof Lecturer) {
+            Lecturer lecturer = (Lecturer) staffMember;
+            row = insert(LECTURER, lecturer.getStaffId(), lecturer.getName(), lecturer.getEmail(),
+                    lecturer.getSpecialization());
+            for (Course course : lecturer.getCoursesTeaching()) {
+                courseLinks.add(row, courseNumber(course));
+            }
+        } else if (staffMember instanceof AdministrativeStaff) {
+            AdministrativeStaff admin = (AdministrativeStaff) staffMember;
+            row = insert(ADMINISTRATIVE, admin.getStaffId(), admin.getName(), admin.getEmail(), admin.getRole());
+        } else {
+            throw new IllegalArgumentException("Unsupported staff type: " + staffMember.getClass().getName());
+        }
+        for (Department department : staffMember.getAssignedDepartments()) {
+            departmentLinks.add(row, departmentNumber(department));
+        }
+        return view(row);
+    }
+
+    private int insert(byte type, String staffId, String name, String email, String detailValue) {
+        Objects.requireNonNull(staffId, "staffId");
+        byte[] key = staffId.getBytes(StandardCharsets.UTF_8);
+        int slot = findSlot(key);
+        if (index[slot] != 0) {
+            throw new IllegalArgumentException("Duplicate staff ID: " + staffId);
+        }
+        int row = size;
+        if (row == kind.length) {
+            int capacity = Math.max(row + 1, row + (row >> 1));
+            kind = Arrays.copyOf(kind, capacity);
+            detail = Arrays.copyOf(detail, capacity);
+        }
+        kind[row] = type;
+        detail[row] = details.code(detailValue);
+        ids.set(row, key);
+        names.set(row, name);
+        emails.set(row, email);
+        departmentLinks.ensureRows(row + 1);
+        courseLinks.ensureRows(row + 1);
+        size = row + 1;
+        index[slot] = row + 1;
+        if (size * 2 > index.length) {
+            rehash(index.length * 2);
+        }
+        return row;
+    }
+
+    // --- Lookup ---
+
+    /**
+     * @return The number of rows.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds a staff member by ID.
+     * @param staffId The staff ID.
+     * @return Their view, or null if the ID is not in the table.
+     */
+    public StaffView get(String staffId) {
+        if (staffId == null) {
+            return null;
+        }
+        byte[] key = staffId.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            int entry = index[findSlot(key)];
+            return entry == 0 ? null : view(entry - 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param row A row number from 0 to size() - 1.
+     * @return The view of that row.
+     */
+    public StaffView get(int row) {
+        lock.readLock().lock();
+        try {
+            Objects.checkIndex(row, size);
+            return view(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds every row assigned to a department, by scanning the membership column.
+     * @param department The department.
+     * @return Views of the rows, in row order.
+     */
+    public List<StaffView> getStaffInDepartment(Department department) {
+        lock.readLock().lock();
+        try {
+            Integer number = departmentNumbers.get(department);
+            if (number == null) {
+                return Collections.emptyList();
+            }
+            List<StaffView> result = new ArrayList<>();
+            for (int row = 0; row < size; row++) {
+                if (departmentLinks.contains(row, number)) {
+                    result.add(view(row));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compacts the columns after many email changes and link removals, and trims spare capacity.
+     */
+    public void trimToSize() {
+        lock.writeLock().lock();
+        try {
+            kind = Arrays.copyOf(kind, Math.max(size, 1));
+            detail = Arrays.copyOf(detail, Math.max(size, 1));
+            ids.compact(size);
+            names.compact(size);
+            emails.compact(size);
+            departmentLinks.compact(size);
+            courseLinks.compact(size);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private StaffView view(int row) {
+        return kind[row] == LECTURER ? new LecturerView(this, row) : new AdministrativeView(this, row);
+    }
+
+    private int findSlot(byte[] key) {
+        int mask = index.length - 1;
+        int slot = TextColumn.hash(key, 0, key.length) & mask;
+        while (true) {
+            int entry = index[slot];
+            if (entry == 0 || ids.equals(entry - 1, key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] table = new int[capacity];
+        int mask = capacity - 1;
+        for (int row = 0; row < size; row++) {
+            int slot = ids.hash(row) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = row + 1;
+        }
+        index = table;
+    }
+
+    private int departmentNumber(Department department) {
+        Integer number = departmentNumbers.get(department);
+        if (number == null) {
+            number = departments.size();
+            departments.add(department);
+            departmentNumbers.put(department, number);
+        }
+        return number;
+    }
+
+    private int courseNumber(Course course) {
+        Integer number = courseNumbers.get(course);
+        if (number == null) {
+            number = courses.size();
+            courses.add(course);
+            courseNumbers.put(course, number);
+        }
+        return number;
+    }
+
+    // --- Column access for the views ---
+
+    private String text(TextColumn column, int row) {
+        lock.readLock().lock();
+        try {
+            return column.get(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private String detail(int row) {
+        lock.readLock().lock();
+        try {
+            return details.value(detail[row]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void setEmail(int row, String email) {
+        lock.writeLock().lock();
+        try {
+            emails.set(row, email);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setDetail(int row, String value) {
+        lock.writeLock().lock();
+        try {
+            detail[row] = details.code(value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> List<T> linked(IntAdjacency links, List<T> targets, int row) {
+        lock.readLock().lock();
+        try {
+            int count = links.count(row);
+            List<T> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(targets.get(links.get(row, i)));
+            }
+            return Collections.unmodifiableList(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean isLinked(IntAdjacency links, Map<?, Integer> numbers, int row, Object target) {
+        lock.readLock().lock();
+        try {
+            Integer number = numbers.get(target);
+            return number != null && links.contains(row, number);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean linkDepartment(int row, Department department, boolean add) {
+        lock.writeLock().lock();
+        try {
+            if (add) {
+                int number = departmentNumber(department);
+                return !departmentLinks.contains(row, number) && departmentLinks.add(row, number);
+            }
+            Integer number = departmentNumbers.get(department);
+            return number != null && departmentLinks.remove(row, number);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean linkCourse(int row, Course course, boolean add) {
+        lock.writeLock().lock();
+        try {
+            if (add) {
+                int number = courseNumber(course);
+                return !courseLinks.contains(row, number) && courseLinks.add(row, number);
+            }
+            Integer number = courseNumbers.get(course);
+            return number != null && courseLinks.remove(row, number);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- Flyweight views ---
+
+    /**
+     * A row of the table, seen as a staff member. Views hold only the table and the row number,
+     * so they are cheap to create and discard; two views of the same row are equal.
+     */
+    public abstract static class StaffView {
+        final StaffTable table;
+        final int row;
+
+        StaffView(StaffTable table, int row) {
+            this.table = table;
+            this.row = row;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public String getStaffId() {
+            return table.text(table.ids, row);
+        }
+
+        public String getName() {
+            return table.text(table.names, row);
+        }
+
+        public String getEmail() {
+            return table.text(table.emails, row);
+        }
+
+        public void setEmail(String email) {
+            table.setEmail(row, email);
+        }
+
+        /**
+         * @return The departments this row is assigned to, in assignment order.
+         */
+        public List<Department> getAssignedDepartments() {
+            return table.linked(table.departmentLinks, table.departments, row);
+        }
+
+        public boolean isAssignedTo(Department department) {
+            return department != null && table.isLinked(table.departmentLinks, table.departmentNumbers, row, department);
+        }
+
+        /**
+         * Assigns this row to a department (on the table's side only; see the class comment).
+         * @return true if it was not assigned already.
+         */
+        public boolean addDepartment(Department department) {
+            return department != null && table.linkDepartment(row, department, true);
+        }
+
+        /**
+         * @return true if the row was assigned to the department.
+         */
+        public boolean removeDepartment(Department department) {
+            return department != null && table.linkDepartment(row, department, false);
+        }
+
+        /**
+         * Returns the same text as Staff.getDetails() for an equivalent Staff object.
+         */
+        public String getDetails() {
+            return Rendering.render(this::writeDetails, 160);
+        }
+
+        public abstract void writeDetails(Appendable out) throws IOException;
+
+        void writeIdentity(Appendable out) throws IOException {
+            out.append("Staff ID: ").append(getStaffId()).append('\n');
+            out.append("Name: ").append(getName()).append('\n');
+            out.append("Email: ").append(getEmail()).append('\n');
+        }
+
+        void writeAssignedDepartmentsInfo(Appendable out) throws IOException {
+            List<Department> assigned = getAssignedDepartments();
+            if (assigned.isEmpty()) {
+                out.append("No departments assigned.");
+                return;
+            }
+            out.append("Assigned Departments: ");
+            for (int i = 0; i < assigned.size(); i++) {
+                if (i > 0) {
+                    out.append(", ");
+                }
+                out.append(assigned.get(i).getName());
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StaffView && ((StaffView) o).table == table && ((StaffView) o).row == row;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(table) * 31 + row;
+        }
+    }
+
+    /** A lecturer row: the StaffTable counterpart of Lecturer. */
+    public static final class LecturerView extends StaffView {
+        LecturerView(StaffTable table, int row) {
+            super(table, row);
+        }
+
+        public String getSpecialization() {
+            return table.detail(row);
+        }
+
+        public void setSpecialization(String specialization) {
+            table.setDetail(row, specialization);
+        }
+
+        /**
+         * @return The courses this lecturer teaches, in assignment order.
+         */
+        public List<Course> getCoursesTeaching() {
+            return table.linked(table.courseLinks, table.courses, row);
+        }
+
+        public boolean isTeaching(Course course) {
+            return course != null && table.isLinked(table.courseLinks, table.courseNumbers, row, course);
+        }
+
+        /**
+         * Records that this lecturer teaches a course (on the table's side only).
+         * @return true if it was not recorded already.
+         */
+        public boolean assignCourse(Course course) {
+            return course != null && table.linkCourse(row, course, true);
+        }
+
+        /**
+         * @return true if the lecturer was teaching the course.
+         */
+        public boolean unassignCourse(Course course) {
+            return course != null && table.linkCourse(row, course, false);
+        }
+
+        /**
+         * @return The sum of the current credits of getCoursesTeaching().
+         */
+        public long getTotalCreditsTaught() {
+            long total = 0;
+            for (Course course : getCoursesTeaching()) {
+                total += course.getCredits();
+            }
+            return total;
+        }
+
+        @Override
+        public void writeDetails(Appendable out) throws IOException {
+            writeIdentity(out);
+            out.append("Role: Lecturer\n");
+            out.append("Specialization: ").append(getSpecialization()).append('\n');
+            writeAssignedDepartmentsInfo(out);
+        }
+    }
+
+    /** An administrative staff row: the StaffTable counterpart of AdministrativeStaff. */
+    public static final class AdministrativeView extends StaffView {
+        AdministrativeView(StaffTable table, int row) {
+            super(table, row);
+        }
+
+        public String getRole() {
+            return table.detail(row);
+        }
+
+        public void setRole(String role) {
+            table.setDetail(row, role);
+        }
+
+        @Override
+        public void writeDetails(Appendable out) throws IOException {
+            writeIdentity(out);
+            out.append("Role: Administrative Staff (").append(getRole()).append(")\n");
+            writeAssignedDepartmentsInfo(out);
+        }
+    }
+
+    // --- Column types ---
+
+    /**
+     * Strings stored as UTF-8 in one shared byte array, with an offset and length per row.
+     * A changed value is appended and the old bytes are left behind until compact().
+     */
+    private static final class TextColumn {
+        private byte[] data;
+        private int used;
+        private int[] offset;
+        private int[] length; // -1 for null
+
+        TextColumn(int rows, int averageLength) {
+            data = new byte[rows * averageLength];
+            offset = new int[rows];
+            length = new int[rows];
+        }
+
+        void set(int row, String value) {
+            set(row, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void set(int row, byte[] bytes) {
+            if (row >= offset.length) {
+                int capacity = Math.max(row + 1, offset.length + (offset.length >> 1));
+                offset = Arrays.copyOf(offset, capacity);
+                length = Arrays.copyOf(length, capacity);
+            }
+            if (bytes == null) {
+                offset[row] = 0;
+                length[row] = -1;
+                return;
+            }
+            if (used + bytes.length > data.length) {
+                long capacity = Math.max((long) used + bytes.length, (long) data.length + (data.length >> 1));
+                if (capacity > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("Text column is full");
+                }
+                data = Arrays.copyOf(data, (int) capacity);
+            }
+            System.arraycopy(bytes, 0, data, used, bytes.length);
+            offset[row] = used;
+            length[row] = bytes.length;
+            used += bytes.length;
+        }
+
+        String get(int row) {
+            int n = length[row];
+            return n < 0 ? null : new String(data, offset[row], n, StandardCharsets.UTF_8);
+        }
+
+        boolean equals(int row, byte[] key) {
+            int n = length[row];
+            return n == key.length && Arrays.equals(data, offset[row], offset[row] + n, key, 0, n);
+        }
+
+        int hash(int row) {
+            return hash(data, offset[row], Math.max(length[row], 0));
+        }
+
+        static int hash(byte[] bytes, int from, int n) {
+            int h = 0;
+            for (int i = from; i < from + n; i++) {
+                h = 31 * h + bytes[i];
+            }
+            return h ^ (h >>> 16);
+        }
+
+        // Rewrites the values of rows 0..rows-1 back to back, dropping replaced values.
+        void compact(int rows) {
+            int total = 0;
+            for (int row = 0; row < rows; row++) {
+                total += Math.max(length[row], 0);
+            }
+            byte[] packed = new byte[Math.max(total, 1)];
+            int at = 0;
+            for (int row = 0; row < rows; row++) {
+                if (length[row] > 0) {
+                    System.arraycopy(data, offset[row], packed, at, length[row]);
+                    offset[row] = at;
+                    at += length[row];
+                }
+            }
+            data = packed;
+            used = at;
+            offset = Arrays.copyOf(offset, Math.max(rows, 1));
+            length = Arrays.copyOf(length, Math.max(rows, 1));
+        }
+    }
+
+    /** Distinct strings, each stored once and referred to by an int code. */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int code(String value) {
+            if (value == null) {
+                return NONE;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        String value(int code) {
+            return code == NONE ? null : values.get(code);
+        }
+    }
+
+    /**
+     * Per-row lists of ints in one shared array. A row's list sits in a block whose size is the
+     * next power of two of its length; when the block is full the list moves to a block twice the
+     * size at the end of the array, and the old block is left behind until compact().
+     */
+    private static final class IntAdjacency {
+        private int[] data = new int[64];
+        private int used;
+        private int[] start;
+        private int[] count;
+
+        IntAdjacency(int rows) {
+            start = new int[rows];
+            count = new int[rows];
+        }
+
+        void ensureRows(int rows) {
+            if (rows > start.length) {
+                int capacity = Math.max(rows, start.length + (start.length >> 1));
+                start = Arrays.copyOf(start, capacity);
+                count = Arrays.copyOf(count, capacity);
+            }
+        }
+
+        int count(int row) {
+            return count[row];
+        }
+
+        int get(int row, int i) {
+            return data[start[row] + i];
+        }
+
+        boolean contains(int row, int value) {
+            for (int i = start[row], end = i + count[row]; i < end; i++) {
+                if (data[i] == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean add(int row, int value) {
+            int n = count[row];
+            if (n == blockSize(n)) {
+                int block = allocate(n == 0 ? 1 : n * 2);
+                System.arraycopy(data, start[row], data, block, n);
+                start[row] = block;
+            }
+            data[start[row] + n] = value;
+            count[row] = n + 1;
+            return true;
+        }
+
+        boolean remove(int row, int value) {
+            int from = start[row];
+            int n = count[row];
+            for (int i = 0; i < n; i++) {
+                if (data[from + i] == value) {
+                    System.arraycopy(data, from + i + 1, data, from + i, n - i - 1);
+                    count[row] = n - 1;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // The block size for a list of n ints; a list of exactly that length has no room left.
+        // (After removals a block can be larger; the list then just moves a little early.)
+        private static int blockSize(int n) {
+            return n <= 1 ? n : Integer.highestOneBit(n - 1) << 1;
+        }
+
+        private int allocate(int n) {
+            if (used + n > data.length) {
+                long capacity = Math.max((long) used + n, (long) data.length * 2);
+                if (capacity > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("Adjacency column is full");
+                }
+                data = Arrays.copyOf(data, (int) capacity);
+            }
+            int block = used;
+            used += n;
+            return block;
+        }
+
+        // Rewrites every list into a block of its own block size, back to back.
+        void compact(int rows) {
+            int total = 0;
+            for (int row = 0; row < rows; row++) {
+                total += blockSize(count[row]);
+            }
+            int[] packed = new int[Math.max(total, 1)];
+            int at = 0;
+            for (int row = 0; row < rows; row++) {
+                System.arraycopy(data, start[row], packed, at, count[row]);
+                start[row] = at;
+                at += blockSize(count[row]);
+            }
+            data = packed;
+            used = at;
+            start = Arrays.copyOf(start, Math.max(rows, 1));
+            count = Arrays.copyOf(count, Math.max(rows, 1));
+        }
+    }
+}
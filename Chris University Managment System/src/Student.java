@@ -0,0 +1,199 @@
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Student.java
+// A student and the courses they are enrolled in or waiting for.
+// Enrollment is decided by the Course (it owns the seats and the waitlist), so enroll() and drop()
+// here just forward to it; the student's own lists are updated by the course in the same step.
+public class Student {
+    private final String studentId;
+    private final String name;
+    private volatile String email;
+    // Both sets are guarded by this student's AssociationLocks stripe and only changed by Course,
+    // which holds the course's stripe at the same time.
+    private final LinkSet<Course> enrolledCourses = new LinkSet<>();
+    private final LinkSet<Course> waitlistedCourses = new LinkSet<>();
+    // Field changes so far (email); part of getVersion().
+    private final AtomicLong changes = new AtomicLong();
+
+    /**
+     * Constructor for the Student class.
+     * @param studentId The unique identification number for the student.
+     * @param name The full name of the student.
+     * @param email The email address of the student.
+     */
+    public Student(String studentId, String name, String email) {
+        this.studentId = studentId;
+        this.name = name;
+        this.email = email;
+    }
+
+    /**
+     * Asks for a seat in the course. Same as course.enroll(this).
+     * @param course The course to enroll in.
+     * @return ENROLLED, WAITLISTED if the course is full, or ALREADY_* if nothing changed.
+     */
+    public EnrollmentResult enroll(Course course) {
+        return course.enroll(this);
+    }
+
+    /**
+     * Gives up a seat or a waitlist place in the course. Same as course.drop(this).
+     * @param course The course to drop.
+     * @return true if the student was enrolled or waiting.
+     */
+    public boolean drop(Course course) {
+        return course.drop(this);
+    }
+
+    public boolean isEnrolledIn(Course course) {
+        return course != null && enrolledCourses.contains(course);
+    }
+
+    public boolean isWaitlistedFor(Course course) {
+        return course != null && waitlistedCourses.contains(course);
+    }
+
+    /**
+     * @return An immutable snapshot of the courses this student has a seat in.
+     */
+    public List<Course> getEnrolledCourses() {
+        return enrolledCourses.snapshot(this);
+    }
+
+    /**
+     * @return An immutable snapshot of the courses this student is waiting for.
+     */
+    public List<Course> getWaitlistedCourses() {
+        return waitlistedCourses.snapshot(this);
+    }
+
+    /**
+     * @return The total credits of the courses this student is enrolled in.
+     */
+    public int getEnrolledCredits() {
+        int total = 0;
+        for (Course course : getEnrolledCourses()) {
+            total += course.getCredits();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the student's ID, name, email and courses as a String.
+     * @return A string containing the student's details.
+     */
+    public String getDetails() {
+        return Rendering.render(this::writeDetails, 160);
+    }
+
+    /**
+     * Returns a number that goes up whenever something shown by getDetails() changes
+     * (the email, the enrolled courses or the waitlisted courses).
+     * @return The current version.
+     */
+    public long getVersion() {
+        return changes.get() + enrolledCourses.version() + waitlistedCourses.version();
+    }
+
+    /**
+     * Writes the student's details into an Appendable (StringBuilder, Writer, ...).
+     * @param out The destination to write to.
+     * @throws IOException if the destination fails to accept the text.
+     */
+    public void writeDetails(Appendable out) throws IOException {
+        out.append("Student ID: ").append(studentId).append('\n');
+        out.append("Name: ").append(name).append('\n');
+        out.append("Email: ").append(email).append('\n');
+        writeCourseList(out, "Enrolled Courses", getEnrolledCourses());
+        List<Course> waiting = getWaitlistedCourses();
+        if (!waiting.isEmpty()) {
+            out.append('\n');
+            writeCourseList(out, "Waitlisted Courses", waiting);
+        }
+    }
+
+    private static void writeCourseList(Appendable out, String heading, List<Course> courses) throws IOException {
+        out.append(heading).append(" (").append(Integer.toString(courses.size())).append("): ");
+        if (courses.isEmpty()) {
+            out.append("None");
+            return;
+        }
+        boolean first = true;
+        for (Course course : courses) {
+            if (!first) {
+                out.append(", ");
+            }
+            out.append(course.getCourseCode());
+            first = false;
+        }
+    }
+
+    // --- Called by Course with both stripes held ---
+
+    boolean attachCourse(Course course) {
+        return enrolledCourses.add(course);
+    }
+
+    boolean detachCourse(Course course) {
+        return enrolledCourses.remove(course);
+    }
+
+    boolean attachWaitlist(Course course) {
+        return waitlistedCourses.add(course);
+    }
+
+    boolean detachWaitlist(Course course) {
+        return waitlistedCourses.remove(course);
+    }
+
+    // --- Getter and setter methods for Student attributes ---
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        String oldEmail;
+        // Under this student's stripe, where the ChangeFeed reads it.
+        AssociationLocks.lock(this);
+        try {
+            oldEmail = this.email;
+            this.email = email;
+            changes.incrementAndGet();
+        } finally {
+            AssociationLocks.unlock(this);
+        }
+        if (DomainEvents.isEnabled()) {
+            DomainEvents.publish(new DomainEvent.StudentEmailChanged(this, oldEmail, email));
+        }
+    }
+
+    // --- Identity: students are identified by their studentId ---
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Student)) {
+            return false;
+        }
+        return Objects.equals(studentId, ((Student) o).studentId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(studentId);
+    }
+}
@@ -0,0 +1,632 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Timetable.java
+// A weekly timetable built by TimetableScheduler, together with the local search that builds
+// and repairs it.
+//
+// Sessions are numbered 0..getSessionCount()-1; the sessions of one course are consecutive.
+// Slot s is day s / periodsPerDay, period s % periodsPerDay.
+//
+// The timetable never breaks a hard constraint: every session is either placed without conflicts
+// or left unplaced. The search takes an unplaced session and puts it into a free slot if it has
+// one (preferring days its course has no session on yet). Otherwise it picks the slot where it
+// clashes with the fewest placed sessions and unplaces those. They go to the front of the queue,
+// and for a few steps they may not go straight back into the slot they lost, so the clash moves
+// outwards until free slots absorb it. A little random noise stops it from cycling.
+//
+// move() pins a session to a chosen slot and repairs only the sessions that clash with it, so
+// changing one assignment touches a handful of sessions instead of re-solving the week.
+//
+// Not thread-safe: every parallel search in TimetableScheduler works on its own Timetable.
+public final class Timetable {
+    private static final int NONE = -1;
+    private static final int TABU_TENURE = 12;
+    private static final int NOISE_PERCENT = 2;
+    // Search steps move() may spend repairing around the moved session.
+    private static final long MOVE_ITERATIONS = 1_000_000L;
+    // Steps without fewer unplaced sessions before a search gives up.
+    private static final long MIN_STALL_ITERATIONS = 100_000L;
+    private static final long STALL_ITERATIONS_PER_SESSION = 20L;
+
+    private final TimetableScheduler.Problem problem;
+    private final int slots;
+    private final int words;
+    private final int roomCount;
+    private final long lastWordMask;
+    private final int[] slotOf;        // session -> slot, or NONE while unplaced
+    private final int[] occupant;      // resource * slots + slot -> the session using it, or NONE
+    private final long[] busy;         // resource * words + word: bit set where occupant != NONE
+    private final long[] fullSlots;    // bit set where every room is taken
+    private final int[] slotLoad;      // sessions per slot
+    private final int[] pinnedLoad;    // pinned sessions per slot
+    private final int[] members;       // slot * roomCount + i -> the i-th session in the slot
+    private final int[] memberIndex;   // session -> its i in members
+    private final int[] courseDayLoad; // course * days + day -> sessions of the course that day
+    private final boolean[] pinned;
+    private final int[] tabuSlot;
+    private final long[] tabuUntil;
+    private final int[] clashes;       // scratch for the sessions a placement would unplace
+    private final SplittableRandom random;
+    // Unplaced sessions waiting to be placed, first in first out (a ring buffer). Unplaced sessions
+    // queue behind the others, so a lecturer with more hours than the week has cannot keep the
+    // search busy bouncing their own sessions around.
+    private final int[] queue;
+    private final boolean[] queued;
+    private int head;
+    private int queueSize;
+    private int unplaced;
+    private long iterations;
+    private int displaced;
+    private int[] roomOf;              // session -> room index; null until getRoom() needs it
+
+    Timetable(TimetableScheduler.Problem problem, long seed) {
+        this.problem = problem;
+        this.slots = problem.slots;
+        this.words = problem.words;
+        this.roomCount = problem.rooms.length;
+        this.lastWordMask = (slots & 63) == 0 ? -1L : (1L << slots) - 1;
+        int sessions = problem.sessionCourse.length;
+        slotOf = new int[sessions];
+        Arrays.fill(slotOf, NONE);
+        occupant = new int[problem.resourceCount() * slots];
+        Arrays.fill(occupant, NONE);
+        busy = new long[problem.resourceCount() * words];
+        fullSlots = new long[words];
+        slotLoad = new int[slots];
+        pinnedLoad = new int[slots];
+        members = new int[slots * roomCount];
+        memberIndex = new int[sessions];
+        courseDayLoad = new int[problem.courses.length * problem.days];
+        pinned = new boolean[sessions];
+        tabuSlot = new int[sessions];
+        Arrays.fill(tabuSlot, NONE);
+        tabuUntil = new long[sessions];
+        int maxResources = 0;
+        for (int[] resources : problem.resources) {
+            maxResources = Math.max(maxResources, resources.length);
+        }
+        clashes = new int[maxResources];
+        random = new SplittableRandom(seed);
+        queue = new int[Math.max(1, sessions)];
+        queued = new boolean[sessions];
+        for (int session : problem.order) {
+            enqueue(session);
+        }
+        unplaced = sessions;
+    }
+
+    // --- Search ---
+
+    /**
+     * Places unplaced sessions until at most `target` are left unplaced or a limit is reached.
+     * Also gives up once the number of unplaced sessions has not improved for a long while,
+     * which is what an over-full week (more hours than slots for some lecturer) looks like.
+     * @return true if the target was reached.
+     */
+    boolean search(int target, long maxIterations, long deadlineNanos, AtomicBoolean stop) {
+        long limit = iterations + maxIterations;
+        long stallLimit = Math.max(MIN_STALL_ITERATIONS, STALL_ITERATIONS_PER_SESSION * slotOf.length);
+        int best = unplaced;
+        long lastImprovement = iterations;
+        while (unplaced > target && queueSize > 0 && iterations < limit) {
+            if ((iterations & 1023) == 0
+                    && ((stop != null && stop.get()) || System.nanoTime() - deadlineNanos > 0)) {
+                break;
+            }
+            if (unplaced < best) {
+                best = unplaced;
+                lastImprovement = iterations;
+            } else if (iterations - lastImprovement > stallLimit) {
+                break;
+            }
+            iterations++;
+            int session = dequeue();
+            if (slotOf[session] == NONE) {
+                place(session);
+            }
+        }
+        return unplaced <= target;
+    }
+
+    private void place(int session) {
+        int course = problem.sessionCourse[session];
+        int[] resources = problem.resources[course];
+        int dayBase = course * problem.days;
+        // A free slot: no resource of the session busy there and a room left.
+        int best = NONE;
+        int bestCost = Integer.MAX_VALUE;
+        int ties = 0;
+        for (int w = 0; w < words; w++) {
+            long free = ~fullSlots[w];
+            for (int r : resources) {
+                free &= ~busy[r * words + w];
+            }
+            if (w == words - 1) {
+                free &= lastWordMask;
+            }
+            while (free != 0) {
+                int slot = (w << 6) + Long.numberOfTrailingZeros(free);
+                free &= free - 1;
+                if (isTabu(session, slot)) {
+                    continue;
+                }
+                int cost = courseDayLoad[dayBase + slot / problem.periodsPerDay];
+                if (cost < bestCost) {
+                    best = slot;
+                    bestCost = cost;
+                    ties = 1;
+                } else if (cost == bestCost && random.nextInt(++ties) == 0) {
+                    best = slot;
+                }
+            }
+        }
+        if (best != NONE) {
+            assign(session, best);
+            return;
+        }
+        // No free slot: take the one that unplaces the fewest sessions.
+        if (random.nextInt(100) < NOISE_PERCENT) {
+            int slot = random.nextInt(slots);
+            if (clashCount(session, slot) >= 0) {
+                best = slot;
+            }
+        }
+        if (best == NONE) {
+            best = leastClashingSlot(session, true);
+        }
+        if (best == NONE) {
+            best = leastClashingSlot(session, false);
+        }
+        if (best == NONE) {
+            // Every slot is blocked by pinned sessions; try again after the rest.
+            enqueue(session);
+            return;
+        }
+        unplaceClashes(session, best);
+        assign(session, best);
+    }
+
+    private int leastClashingSlot(int session, boolean honourTabu) {
+        int best = NONE;
+        int bestCost = Integer.MAX_VALUE;
+        int ties = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (honourTabu && isTabu(session, slot)) {
+                continue;
+            }
+            int cost = clashCount(session, slot);
+            if (cost < 0) {
+                continue;
+            }
+            if (cost < bestCost) {
+                best = slot;
+                bestCost = cost;
+                ties = 1;
+            } else if (cost == bestCost && random.nextInt(++ties) == 0) {
+                best = slot;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Counts the sessions that would have to be unplaced to put the session into the slot,
+     * or returns -1 if one of them is pinned. Leaves them in clashes[0..count).
+     */
+    private int clashCount(int session, int slot) {
+        int count = 0;
+        for (int r : problem.resources[problem.sessionCourse[session]]) {
+            int other = occupant[r * slots + slot];
+            if (other == NONE || other == session) {
+                continue;
+            }
+            if (pinned[other]) {
+                return -1;
+            }
+            if (!contains(clashes, count, other)) {
+                clashes[count++] = other;
+            }
+        }
+        if (count == 0 && slotLoad[slot] >= roomCount) {
+            // No clash, but no room either: someone has to give up theirs.
+            if (slotLoad[slot] == pinnedLoad[slot]) {
+                return -1;
+            }
+            count = 1;
+        }
+        return count;
+    }
+
+    private void unplaceClashes(int session, int slot) {
+        for (int r : problem.resources[problem.sessionCourse[session]]) {
+            int other = occupant[r * slots + slot];
+            if (other != NONE && other != session) {
+                unplace(other, slot);
+            }
+        }
+        if (slotLoad[slot] >= roomCount) {
+            int base = slot * roomCount;
+            int other;
+            do {
+                other = members[base + random.nextInt(slotLoad[slot])];
+            } while (pinned[other]);
+            unplace(other, slot);
+        }
+    }
+
+    private void unplace(int session, int slot) {
+        unassign(session);
+        tabuSlot[session] = slot;
+        tabuUntil[session] = iterations + TABU_TENURE + random.nextInt(TABU_TENURE);
+        enqueue(session);
+        displaced++;
+    }
+
+    private boolean isTabu(int session, int slot) {
+        return tabuSlot[session] == slot && tabuUntil[session] > iterations;
+    }
+
+    private void assign(int session, int slot) {
+        int course = problem.sessionCourse[session];
+        slotOf[session] = slot;
+        for (int r : problem.resources[course]) {
+            occupant[r * slots + slot] = session;
+            busy[r * words + (slot >>> 6)] |= 1L << slot;
+        }
+        int i = slotLoad[slot]++;
+        members[slot * roomCount + i] = session;
+        memberIndex[session] = i;
+        if (slotLoad[slot] == roomCount) {
+            fullSlots[slot >>> 6] |= 1L << slot;
+        }
+        if (pinned[session]) {
+            pinnedLoad[slot]++;
+        }
+        courseDayLoad[course * problem.days + slot / problem.periodsPerDay]++;
+        unplaced--;
+        roomOf = null;
+    }
+
+    private void unassign(int session) {
+        int course = problem.sessionCourse[session];
+        int slot = slotOf[session];
+        slotOf[session] = NONE;
+        for (int r : problem.resources[course]) {
+            occupant[r * slots + slot] = NONE;
+            busy[r * words + (slot >>> 6)] &= ~(1L << slot);
+        }
+        int base = slot * roomCount;
+        int last = members[base + --slotLoad[slot]];
+        members[base + memberIndex[session]] = last;
+        memberIndex[last] = memberIndex[session];
+        fullSlots[slot >>> 6] &= ~(1L << slot);
+        if (pinned[session]) {
+            pinnedLoad[slot]--;
+        }
+        courseDayLoad[course * problem.days + slot / problem.periodsPerDay]--;
+        unplaced++;
+        roomOf = null;
+    }
+
+    private void enqueue(int session) {
+        if (queued[session]) {
+            return;
+        }
+        queued[session] = true;
+        queue[(head + queueSize) % queue.length] = session;
+        queueSize++;
+    }
+
+    private int dequeue() {
+        int session = queue[head];
+        head = head + 1 == queue.length ? 0 : head + 1;
+        queueSize--;
+        queued[session] = false;
+        return session;
+    }
+
+    /**
+     * Moves sessions that share a day with another session of their course to a free slot on a
+     * day their course does not use yet. Never unplaces anything.
+     */
+    void spreadOverDays() {
+        for (int session = 0; session < slotOf.length; session++) {
+            int slot = slotOf[session];
+            if (slot == NONE || pinned[session]) {
+                continue;
+            }
+            int course = problem.sessionCourse[session];
+            int dayBase = course * problem.days;
+            if (courseDayLoad[dayBase + slot / problem.periodsPerDay] <= 1) {
+                continue;
+            }
+            int[] resources = problem.resources[course];
+            search:
+            for (int w = 0; w < words; w++) {
+                long free = ~fullSlots[w];
+                for (int r : resources) {
+                    free &= ~busy[r * words + w];
+                }
+                if (w == words - 1) {
+                    free &= lastWordMask;
+                }
+                while (free != 0) {
+                    int target = (w << 6) + Long.numberOfTrailingZeros(free);
+                    free &= free - 1;
+                    if (courseDayLoad[dayBase + target / problem.periodsPerDay] == 0) {
+                        unassign(session);
+                        assign(session, target);
+                        break search;
+                    }
+                }
+            }
+        }
+    }
+
+    // --- Incremental changes ---
+
+    /**
+     * Moves one session to the given slot and pins it there, then repairs the timetable around it:
+     * sessions that clash with it are unplaced and placed again elsewhere, and nothing else moves.
+     * @param session The session to move.
+     * @param slot The slot to move it to.
+     * @return How many other sessions had to move.
+     * @throws IllegalArgumentException if the slot clashes with another pinned session.
+     */
+    public int move(int session, int slot) {
+        checkSession(session);
+        if (slot < 0 || slot >= slots) {
+            throw new IllegalArgumentException("No slot " + slot + " in a week of " + slots);
+        }
+        if (roomCount == 0) {
+            throw new IllegalStateException("No rooms to schedule into");
+        }
+        int before = displaced;
+        // Sessions that did not fit before the move are not this move's business.
+        int target = unplaced - (slotOf[session] == NONE ? 1 : 0);
+        if (slotOf[session] != slot) {
+            if (clashCount(session, slot) < 0) {
+                throw new IllegalArgumentException("Slot " + slot + " clashes with a pinned session");
+            }
+            if (slotOf[session] != NONE) {
+                unassign(session);
+            }
+            unplaceClashes(session, slot);
+        }
+        unpin(session);
+        pinned[session] = true;
+        if (slotOf[session] == NONE) {
+            assign(session, slot);
+        } else {
+            pinnedLoad[slot]++;
+        }
+        search(target, MOVE_ITERATIONS, Long.MAX_VALUE, null);
+        return displaced - before;
+    }
+
+    /**
+     * Lets the search move a session again after move() pinned it.
+     */
+    public void unpin(int session) {
+        checkSession(session);
+        if (pinned[session]) {
+            pinned[session] = false;
+            if (slotOf[session] != NONE) {
+                pinnedLoad[slotOf[session]]--;
+            }
+        }
+    }
+
+    public boolean isPinned(int session) {
+        checkSession(session);
+        return pinned[session];
+    }
+
+    // --- Results ---
+
+    public int getSessionCount() {
+        return slotOf.length;
+    }
+
+    public int getDays() {
+        return problem.days;
+    }
+
+    public int getPeriodsPerDay() {
+        return problem.periodsPerDay;
+    }
+
+    /**
+     * @return The course the session belongs to.
+     */
+    public Course getCourse(int session) {
+        checkSession(session);
+        return problem.courses[problem.sessionCourse[session]];
+    }
+
+    /**
+     * @return The session's slot (day * periodsPerDay + period), or -1 if it could not be placed.
+     */
+    public int getSlot(int session) {
+        checkSession(session);
+        return slotOf[session];
+    }
+
+    /**
+     * @return The room the session is held in, or null if it could not be placed.
+     */
+    public String getRoom(int session) {
+        checkSession(session);
+        if (slotOf[session] == NONE) {
+            return null;
+        }
+        if (roomOf == null) {
+            assignRooms();
+        }
+        return problem.rooms[roomOf[session]];
+    }
+
+    /**
+     * @return The course's sessions in order (empty if the course was not scheduled).
+     */
+    public int[] getSessions(Course course) {
+        Integer c = problem.courseIndex.get(course);
+        if (c == null) {
+            return new int[0];
+        }
+        int first = problem.firstSession[c];
+        int[] sessions = new int[problem.courses[c].getCredits()];
+        for (int k = 0; k < sessions.length; k++) {
+            sessions[k] = first + k;
+        }
+        return sessions;
+    }
+
+    /**
+     * @return The placed sessions the lecturer teaches, in slot order.
+     */
+    public int[] getSessions(Lecturer lecturer) {
+        Integer l = problem.lecturerIndex.get(lecturer);
+        if (l == null) {
+            return new int[0];
+        }
+        int[] sessions = new int[slots];
+        int count = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            int session = occupant[l * slots + slot];
+            if (session != NONE) {
+                sessions[count++] = session;
+            }
+        }
+        return Arrays.copyOf(sessions, count);
+    }
+
+    /**
+     * @return Sessions that could not be placed (0 for a complete timetable).
+     */
+    public int getUnplacedCount() {
+        return unplaced;
+    }
+
+    /**
+     * @return How many sessions share a day with an earlier session of the same course.
+     */
+    public int getSoftCost() {
+        int cost = 0;
+        for (int load : courseDayLoad) {
+            if (load > 1) {
+                cost += load - 1;
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Recounts every hard constraint from the assignments alone, without trusting the search's
+     * own bookkeeping: double-booked lecturers, courses twice in a slot, overfull slots and rooms
+     * used twice. Meant for tests and checks; a correct timetable always returns 0.
+     * @return The number of violations.
+     */
+    public int countConflicts() {
+        int violations = 0;
+        int[] uses = new int[problem.resourceCount() * slots];
+        int[] load = new int[slots];
+        for (int session = 0; session < slotOf.length; session++) {
+            int slot = slotOf[session];
+            if (slot == NONE) {
+                continue;
+            }
+            load[slot]++;
+            for (int r : problem.resources[problem.sessionCourse[session]]) {
+                if (++uses[r * slots + slot] > 1) {
+                    violations++;
+                }
+            }
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            violations += Math.max(0, load[slot] - roomCount);
+        }
+        if (roomOf == null) {
+            assignRooms();
+        }
+        boolean[] taken = new boolean[slots * Math.max(1, roomCount)];
+        for (int session = 0; session < slotOf.length; session++) {
+            if (slotOf[session] != NONE) {
+                int key = slotOf[session] * roomCount + roomOf[session];
+                if (taken[key]) {
+                    violations++;
+                }
+                taken[key] = true;
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Writes the lecturer's week, one line per session, e.g. "Day 1, period 3: COMP101 (LAB-201)".
+     * @param lecturer The lecturer.
+     * @param out The destination to write to.
+     * @throws IOException if the destination fails to accept the text.
+     */
+    public void writeSchedule(Lecturer lecturer, Appendable out) throws IOException {
+        int[] sessions = getSessions(lecturer);
+        out.append("Timetable of ").append(lecturer.getName()).append(" (")
+                .append(Integer.toString(sessions.length)).append(" sessions)");
+        for (int session : sessions) {
+            int slot = slotOf[session];
+            out.append("\n  Day ").append(Integer.toString(slot / problem.periodsPerDay + 1))
+                    .append(", period ").append(Integer.toString(slot % problem.periodsPerDay + 1))
+                    .append(": ").append(getCourse(session).getCourseCode())
+                    .append(" (").append(getRoom(session)).append(')');
+        }
+    }
+
+    // Gives every placed session a room: its department's office room if free, else any free room.
+    private void assignRooms() {
+        int[] rooms = new int[slotOf.length];
+        Arrays.fill(rooms, NONE);
+        boolean[] taken = new boolean[roomCount];
+        for (int slot = 0; slot < slots; slot++) {
+            int base = slot * roomCount;
+            Arrays.fill(taken, false);
+            for (int i = 0; i < slotLoad[slot]; i++) {
+                int session = members[base + i];
+                int preferred = problem.preferredRoom[problem.sessionCourse[session]];
+                if (preferred != NONE && !taken[preferred]) {
+                    rooms[session] = preferred;
+                    taken[preferred] = true;
+                }
+            }
+            int next = 0;
+            for (int i = 0; i < slotLoad[slot]; i++) {
+                int session = members[base + i];
+                if (rooms[session] == NONE) {
+                    while (taken[next]) {
+                        next++;
+                    }
+                    rooms[session] = next;
+                    taken[next] = true;
+                }
+            }
+        }
+        roomOf = rooms;
+    }
+
+    private void checkSession(int session) {
+        if (session < 0 || session >= slotOf.length) {
+            throw new IllegalArgumentException("No session " + session);
+        }
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
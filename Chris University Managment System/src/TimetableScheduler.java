@@ -0,0 +1,273 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+// TimetableScheduler.java
+// Builds a weekly timetable: every course gets one one-hour session per credit, and every
+// session gets a time slot (day and period) and a room.
+//
+// Hard constraints:
+//   - a lecturer never has two sessions in the same slot (all lecturers of a course attend each
+//     of its sessions), and two sessions of the same course never share a slot;
+//   - a slot holds at most as many sessions as there are rooms, and a room one session per slot.
+// Soft preferences:
+//   - the sessions of a course are spread over different days;
+//   - a session is held in its offering department's office room when that room is free.
+//
+// Rooms are the distinct office room numbers of the courses' offering departments unless
+// setRooms() gives a list. Lecturers and courses are turned into int "resources", and which slots
+// each resource has taken is kept as a row of bits (a resource x slot bit matrix), so the slots
+// free for a session are found by OR-ing a few words. The search itself is in Timetable.
+//
+// schedule() runs one independent local search per thread from different random seeds and keeps
+// the best result; the first search to place every session stops the others. Solve once, then
+// use Timetable.move() to change single assignments incrementally.
+//
+// Usage:
+//   TimetableScheduler scheduler = new TimetableScheduler(5, 10); // Mon-Fri, 10 periods a day
+//   Timetable timetable = scheduler.schedule(registry.getAllCourses());
+//   timetable.getUnplacedCount();  // 0 if every session was placed
+public final class TimetableScheduler {
+    private final int days;
+    private final int periodsPerDay;
+    private List<String> rooms;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long timeLimitMillis = 10_000;
+    private long maxIterations = 50_000_000L;
+    private long seed = 1L;
+
+    /**
+     * @param days School days per week.
+     * @param periodsPerDay One-hour periods per day.
+     */
+    public TimetableScheduler(int days, int periodsPerDay) {
+        if (days < 1 || periodsPerDay < 1) {
+            throw new IllegalArgumentException("Need at least one day and one period per day");
+        }
+        this.days = days;
+        this.periodsPerDay = periodsPerDay;
+    }
+
+    /**
+     * Sets the rooms to schedule into, instead of the departments' office rooms.
+     * @param rooms Room numbers; duplicates are ignored.
+     */
+    public void setRooms(Collection<String> rooms) {
+        this.rooms = new ArrayList<>(new LinkedHashSet<>(rooms));
+    }
+
+    /**
+     * Sets how many searches run in parallel (default: one per processor).
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Sets the wall-clock limit of schedule() (default 10 seconds). When it runs out, the best
+     * timetable so far is returned with some sessions unplaced.
+     */
+    public void setTimeLimitMillis(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * Sets the maximum number of search steps per search (default 50 million).
+     */
+    public void setMaxIterations(long maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Sets the random seed; with one thread, the same seed and input give the same timetable.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Schedules every session of the given courses.
+     * @param courses The courses to schedule; courses with no credits get no sessions.
+     * @return The best timetable found. Check getUnplacedCount() for sessions that did not fit.
+     */
+    public Timetable schedule(Collection<Course> courses) {
+        Problem problem = buildProblem(courses);
+        long deadline = System.nanoTime() + timeLimitMillis * 1_000_000L;
+        AtomicBoolean solved = new AtomicBoolean();
+        return IntStream.range(0, threads).parallel()
+                .mapToObj(i -> {
+                    Timetable timetable = new Timetable(problem, seed + 0x9E3779B97F4A7C15L * i);
+                    if (timetable.search(0, maxIterations, deadline, solved)) {
+                        solved.set(true);
+                    }
+                    timetable.spreadOverDays();
+                    return timetable;
+                })
+                .min(Comparator.comparingInt(Timetable::getUnplacedCount).thenComparingInt(Timetable::getSoftCost))
+                .orElseThrow(IllegalStateException::new);
+    }
+
+    /**
+     * Schedules every course in the registry.
+     */
+    public Timetable schedule(UniversityRegistry registry) {
+        return schedule(registry.getAllCourses());
+    }
+
+    // Turns the courses into int arrays once; the searches share it read-only.
+    private Problem buildProblem(Collection<Course> input) {
+        List<Course> courses = new ArrayList<>();
+        Map<Course, Integer> courseIndex = new HashMap<>();
+        Map<Lecturer, Integer> lecturerIndex = new HashMap<>();
+        List<Lecturer> lecturers = new ArrayList<>();
+        List<int[]> lecturerIds = new ArrayList<>();
+        for (Course course : input) {
+            if (course == null || course.getCredits() <= 0 || courseIndex.containsKey(course)) {
+                continue;
+            }
+            courseIndex.put(course, courses.size());
+            courses.add(course);
+            List<Lecturer> teaching = course.getLecturers();
+            int[] ids = new int[teaching.size()];
+            for (int i = 0; i < ids.length; i++) {
+                Lecturer lecturer = teaching.get(i);
+                Integer id = lecturerIndex.get(lecturer);
+                if (id == null) {
+                    id = lecturers.size();
+                    lecturerIndex.put(lecturer, id);
+                    lecturers.add(lecturer);
+                }
+                ids[i] = id;
+            }
+            lecturerIds.add(ids);
+        }
+
+        Map<String, Integer> roomIndex = new LinkedHashMap<>();
+        if (rooms != null) {
+            for (String room : rooms) {
+                roomIndex.put(room, roomIndex.size());
+            }
+        } else {
+            for (Course course : courses) {
+                String room = officeRoom(course);
+                if (room != null) {
+                    roomIndex.putIfAbsent(room, roomIndex.size());
+                }
+            }
+        }
+        if (roomIndex.isEmpty() && !courses.isEmpty()) {
+            throw new IllegalStateException("No rooms to schedule into; call setRooms()");
+        }
+
+        int n = courses.size();
+        int lecturerCount = lecturers.size();
+        int[][] resources = new int[n][];
+        int[] hours = new int[lecturerCount];
+        int[] preferredRoom = new int[n];
+        int sessionCount = 0;
+        for (int c = 0; c < n; c++) {
+            int[] ids = lecturerIds.get(c);
+            // The course itself is a resource too, so two of its sessions never share a slot.
+            resources[c] = Arrays.copyOf(ids, ids.length + 1);
+            resources[c][ids.length] = lecturerCount + c;
+            int credits = courses.get(c).getCredits();
+            for (int id : ids) {
+                hours[id] += credits;
+            }
+            Integer room = roomIndex.get(officeRoom(courses.get(c)));
+            preferredRoom[c] = room == null ? -1 : room;
+            sessionCount += credits;
+        }
+
+        // Hardest courses first: those whose busiest lecturer teaches the most hours.
+        long[] keys = new long[n];
+        for (int c = 0; c < n; c++) {
+            int busiest = courses.get(c).getCredits();
+            for (int id : lecturerIds.get(c)) {
+                busiest = Math.max(busiest, hours[id]);
+            }
+            keys[c] = ((long) busiest << 32) | c;
+        }
+        Arrays.sort(keys);
+        int[] sessionCourse = new int[sessionCount];
+        int[] firstSession = new int[n];
+        int[] order = new int[sessionCount];
+        int s = 0;
+        for (int c = 0; c < n; c++) {
+            firstSession[c] = s;
+            for (int k = courses.get(c).getCredits(); k > 0; k--) {
+                sessionCourse[s++] = c;
+            }
+        }
+        int o = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            int c = (int) keys[i];
+            for (int k = 0; k < courses.get(c).getCredits(); k++) {
+                order[o++] = firstSession[c] + k;
+            }
+        }
+        return new Problem(days, periodsPerDay, roomIndex.keySet().toArray(new String[0]),
+                courses.toArray(new Course[0]), courseIndex, lecturers.toArray(new Lecturer[0]), lecturerIndex,
+                resources, preferredRoom, sessionCourse, firstSession, order);
+    }
+
+    private static String officeRoom(Course course) {
+        Department department = course.getOfferingDepartment();
+        return department == null ? null : department.getOffice().getRoomNumber();
+    }
+
+    /**
+     * The scheduling input as plain arrays. Resources 0..lecturers.length-1 are lecturers,
+     * the rest are courses (resource lecturers.length + c for course c).
+     */
+    static final class Problem {
+        final int days;
+        final int periodsPerDay;
+        final int slots;
+        final int words;           // longs per row of the resource x slot bit matrix
+        final String[] rooms;
+        final Course[] courses;
+        final Map<Course, Integer> courseIndex;
+        final Lecturer[] lecturers;
+        final Map<Lecturer, Integer> lecturerIndex;
+        final int[][] resources;   // course -> its lecturers' resources, then its own
+        final int[] preferredRoom; // course -> room index, or -1
+        final int[] sessionCourse; // session -> course
+        final int[] firstSession;  // course -> its first session; a course's sessions are consecutive
+        final int[] order;         // sessions, hardest first
+
+        Problem(int days, int periodsPerDay, String[] rooms, Course[] courses, Map<Course, Integer> courseIndex,
+                Lecturer[] lecturers, Map<Lecturer, Integer> lecturerIndex, int[][] resources, int[] preferredRoom,
+                int[] sessionCourse, int[] firstSession, int[] order) {
+            this.days = days;
+            this.periodsPerDay = periodsPerDay;
+            this.slots = days * periodsPerDay;
+            this.words = (slots + 63) >>> 6;
+            this.rooms = rooms;
+            this.courses = courses;
+            this.courseIndex = courseIndex;
+            this.lecturers = lecturers;
+            this.lecturerIndex = lecturerIndex;
+            this.resources = resources;
+            this.preferredRoom = preferredRoom;
+            this.sessionCourse = sessionCourse;
+            this.firstSession = firstSession;
+            this.order = order;
+        }
+
+        int resourceCount() {
+            return lecturers.length + courses.length;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// UniversityGenerator.java
+// Deterministic generator of synthetic universities for load tests and benchmarks.
+//
+// The same seed and settings always produce the same university: same codes, same names,
+// same links, in the same order. Entities are built with the normal constructors and
+// association methods (addStaffMember, addLecturer, ...) and handed to a Sink one at a time
+// as soon as they are fully linked, so nothing is collected into lists for the caller.
+// Apart from the departments, the generator keeps only an array of lecturer references
+// (the link targets for courses), one int per department assignment and one per lecturer.
+//
+// Distributions are skewed the way real universities are: a few large departments hold most
+// of the staff and courses (Zipf over departments), most staff belong to one department and a
+// few to several, most courses have one or two lecturers, and a few lecturers in each
+// department teach a large share of its courses (up to a workload cap).
+//
+// Usage:
+//   UniversityGenerator generator = new UniversityGenerator(42L, 200, 50_000, 100_000);
+//   generator.generateInto(registry);                 // register everything, or
+//   generator.generate(new UniversityGenerator.Sink() { ... });
+public final class UniversityGenerator {
+    private static final String[] SPECIALIZATIONS = {
+            "Artificial Intelligence", "Software Engineering", "Databases", "Networks", "Security",
+            "Theory", "Graphics", "Human-Computer Interaction", "Statistics", "Numerical Analysis"};
+    private static final String[] ROLES = {
+            "Department Secretary", "Administrator", "Finance Officer", "Student Advisor",
+            "Technician", "Registrar", "Lab Manager"};
+    private static final String[] SUBJECTS = {
+            "Introduction to", "Advanced", "Topics in", "Foundations of", "Applied", "Seminar in"};
+    // Lecturers per course 1..5 and departments per staff member 1..4 (cumulative weights).
+    private static final double[] LECTURERS_PER_COURSE = {0.45, 0.75, 0.90, 0.97, 1.0};
+    private static final double[] DEPARTMENTS_PER_STAFF = {0.75, 0.93, 0.98, 1.0};
+    // Credit values and their cumulative weights.
+    private static final int[] CREDITS = {3, 4, 2, 5, 6, 1};
+    private static final double[] CREDIT_WEIGHTS = {0.50, 0.75, 0.87, 0.95, 0.98, 1.0};
+    // Re-draws of a lecturer at the workload cap before the cap is ignored for that pick.
+    private static final int MAX_ATTEMPTS = 64;
+
+    private final long seed;
+    private final int departmentCount;
+    private final int staffCount;
+    private final int courseCount;
+    private double administrativeFraction = 0.2;
+    private double zipfExponent = 1.1;
+    private double localLecturerShare = 0.85;
+    private int maxCoursesPerLecturer = 12;
+
+    /**
+     * Receives the generated entities. Departments come first (before any staff are linked to them),
+     * then every staff member once its departments are linked, then every course once its
+     * department and lecturers are linked. Department heads are set after the last staff member.
+     */
+    public interface Sink {
+        default void onDepartment(Department department) {
+        }
+
+        default void onStaff(Staff staffMember) {
+        }
+
+        default void onCourse(Course course) {
+        }
+    }
+
+    /**
+     * @param seed Random seed; the same seed gives the same university.
+     * @param departmentCount Number of departments (at least 1).
+     * @param staffCount Number of lecturers and administrative staff together.
+     * @param courseCount Number of courses. Needs at least one lecturer if positive.
+     */
+    public UniversityGenerator(long seed, int departmentCount, int staffCount, int courseCount) {
+        if (departmentCount < 1 || staffCount < 0 || courseCount < 0) {
+            throw new IllegalArgumentException("Need at least one department and non-negative staff and course counts");
+        }
+        this.seed = seed;
+        this.departmentCount = departmentCount;
+        this.staffCount = staffCount;
+        this.courseCount = courseCount;
+    }
+
+    /**
+     * Sets the share of staff generated as AdministrativeStaff instead of Lecturer (default 0.2).
+     */
+    public void setAdministrativeFraction(double administrativeFraction) {
+        if (administrativeFraction < 0 || administrativeFraction > 1) {
+            throw new IllegalArgumentException("administrativeFraction must be between 0 and 1");
+        }
+        this.administrativeFraction = administrativeFraction;
+    }
+
+    /**
+     * Sets the skew of department sizes and lecturer workloads (default 1.1).
+     * 0 is uniform; larger values concentrate more entities on the first ranks.
+     */
+    public void setZipfExponent(double zipfExponent) {
+        if (zipfExponent < 0) {
+            throw new IllegalArgumentException("zipfExponent must not be negative");
+        }
+        this.zipfExponent = zipfExponent;
+    }
+
+    /**
+     * Sets the chance that a course lecturer comes from the course's own department
+     * rather than from anywhere in the university (default 0.85).
+     */
+    public void setLocalLecturerShare(double localLecturerShare) {
+        if (localLecturerShare < 0 || localLecturerShare > 1) {
+            throw new IllegalArgumentException("localLecturerShare must be between 0 and 1");
+        }
+        this.localLecturerShare = localLecturerShare;
+    }
+
+    /**
+     * Sets the teaching load at which a lecturer stops being picked for new courses (default 12).
+     * If every candidate is at the cap, the cap is ignored rather than leaving a course short.
+     */
+    public void setMaxCoursesPerLecturer(int maxCoursesPerLecturer) {
+        if (maxCoursesPerLecturer < 1) {
+            throw new IllegalArgumentException("maxCoursesPerLecturer must be at least 1");
+        }
+        this.maxCoursesPerLecturer = maxCoursesPerLecturer;
+    }
+
+    /**
+     * Generates the university and registers every entity in the given registry.
+     * @param registry The registry to fill.
+     */
+    public void generateInto(UniversityRegistry registry) {
+        generate(new Sink() {
+            @Override
+            public void onDepartment(Department department) {
+                registry.registerDepartment(department);
+            }
+
+            @Override
+            public void onStaff(Staff staffMember) {
+                registry.registerStaff(staffMember);
+            }
+
+            @Override
+            public void onCourse(Course course) {
+                registry.registerCourse(course);
+            }
+        });
+    }
+
+    /**
+     * Generates the university, handing each entity to the sink as soon as it is fully linked.
+     * @param sink Receives the entities.
+     */
+    public void generate(Sink sink) {
+        SplittableRandom random = new SplittableRandom(seed);
+
+        // Departments. Rank 0 is the largest; the order of codes is shuffled so that size
+        // does not follow the code order.
+        Department[] departments = new Department[departmentCount];
+        int[] codeOrder = shuffledRange(departmentCount, random);
+        for (int i = 0; i < departmentCount; i++) {
+            int n = codeOrder[i];
+            departments[i] = new Department("Department " + n, "D" + pad(n, 4),
+                    "B" + (n % 20) + "-" + pad(n, 3), Integer.toString(4000 + n));
+            sink.onDepartment(departments[i]);
+        }
+
+        // Staff. Lecturers are remembered, per department too, as link targets for the courses.
+        Lecturer[] lecturers = new Lecturer[staffCount];
+        int lecturerCount = 0;
+        IntList[] departmentLecturers = new IntList[departmentCount];
+        for (int d = 0; d < departmentCount; d++) {
+            departmentLecturers[d] = new IntList();
+        }
+        int[] chosen = new int[DEPARTMENTS_PER_STAFF.length];
+        for (int i = 0; i < staffCount; i++) {
+            String id = "S" + pad(i, 7);
+            Staff staffMember;
+            if (random.nextDouble() < administrativeFraction) {
+                staffMember = new AdministrativeStaff(id, "Staff Member " + i, id.toLowerCase() + "@uni.edu",
+                        ROLES[skewed(ROLES.length, random)]);
+            } else {
+                Lecturer lecturer = new Lecturer(id, "Dr. Lecturer " + i, id.toLowerCase() + "@uni.edu",
+                        SPECIALIZATIONS[skewed(SPECIALIZATIONS.length, random)]);
+                lecturers[lecturerCount] = lecturer;
+                staffMember = lecturer;
+            }
+            int memberships = Math.min(pick(DEPARTMENTS_PER_STAFF, random) + 1, departmentCount);
+            for (int k = 0; k < memberships; k++) {
+                int d;
+                do {
+                    d = skewed(departmentCount, random);
+                } while (contains(chosen, k, d));
+                chosen[k] = d;
+                departments[d].addStaffMember(staffMember);
+                if (staffMember instanceof Lecturer) {
+                    departmentLecturers[d].add(lecturerCount);
+                }
+            }
+            if (staffMember instanceof Lecturer) {
+                lecturerCount++;
+            }
+            sink.onStaff(staffMember);
+        }
+
+        // Heads: the longest-serving lecturer of each department, or its first staff member.
+        for (int d = 0; d < departmentCount; d++) {
+            if (departmentLecturers[d].size > 0) {
+                departments[d].setHeadOfDepartment(lecturers[departmentLecturers[d].get(0)]);
+            } else if (!departments[d].getStaffMembers().isEmpty()) {
+                departments[d].setHeadOfDepartment(departments[d].getStaffMembers().get(0));
+            }
+        }
+
+        if (courseCount > 0 && lecturerCount == 0) {
+            throw new IllegalStateException("Cannot generate courses without any lecturers");
+        }
+        // Courses. The department is skewed by size; each lecturer is usually a busy member
+        // of that department, sometimes anyone in the university.
+        int[] picked = new int[LECTURERS_PER_COURSE.length];
+        int[] load = new int[lecturerCount];
+        for (int i = 0; i < courseCount; i++) {
+            int d = skewed(departmentCount, random);
+            Department department = departments[d];
+            Course course = new Course(department.getDepartmentCode() + "-" + pad(i, 6),
+                    SUBJECTS[random.nextInt(SUBJECTS.length)] + " Topic " + i,
+                    CREDITS[pick(CREDIT_WEIGHTS, random)], department);
+            IntList local = departmentLecturers[d];
+            // Each lecturer is picked once per course, so no more are wanted than the pool they
+            // are drawn from: only the department's own when localLecturerShare is 1.
+            int pool = local.size > 0 && localLecturerShare >= 1 ? local.size : lecturerCount;
+            int wanted = Math.min(pick(LECTURERS_PER_COURSE, random) + 1, pool);
+            for (int k = 0; k < wanted; k++) {
+                int l;
+                int attempts = 0;
+                do {
+                    l = local.size > 0 && random.nextDouble() < localLecturerShare
+                            ? local.get(skewed(local.size, random))
+                            : random.nextInt(lecturerCount);
+                } while (contains(picked, k, l) || (load[l] >= maxCoursesPerLecturer && ++attempts < MAX_ATTEMPTS));
+                picked[k] = l;
+                load[l]++;
+                course.addLecturer(lecturers[l]);
+            }
+            sink.onCourse(course);
+        }
+    }
+
+    // --- Sampling ---
+
+    /**
+     * Zipf-like rank in [0, n): rank r is chosen with probability roughly proportional to
+     * 1 / (r + 1)^s. Uses the inverse of the continuous power law, so it needs no tables
+     * and costs the same for 10 or 10 million ranks.
+     */
+    private int skewed(int n, SplittableRandom random) {
+        double s = zipfExponent;
+        if (s == 0) {
+            return random.nextInt(n);
+        }
+        double u = random.nextDouble();
+        double x;
+        if (Math.abs(s - 1) < 1e-9) {
+            x = Math.pow(n + 1.0, u);
+        } else {
+            double a = Math.pow(n + 1.0, 1 - s);
+            x = Math.pow(1 + u * (a - 1), 1 / (1 - s));
+        }
+        return Math.min(n - 1, Math.max(0, (int) x - 1));
+    }
+
+    /** Index into a table of cumulative weights. */
+    private static int pick(double[] cumulativeWeights, SplittableRandom random) {
+        double u = random.nextDouble();
+        for (int i = 0; i < cumulativeWeights.length - 1; i++) {
+            if (u < cumulativeWeights[i]) {
+                return i;
+            }
+        }
+        return cumulativeWeights.length - 1;
+    }
+
+    private static int[] shuffledRange(int n, SplittableRandom random) {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+        return values;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String pad(int value, int width) {
+        String digits = Integer.toString(value);
+        if (digits.length() >= width) {
+            return digits;
+        }
+        char[] zeros = new char[width - digits.length()];
+        Arrays.fill(zeros, '0');
+        return new String(zeros) + digits;
+    }
+
+    /** Growable int array; avoids boxing one Integer per department assignment. */
+    private static final class IntList {
+        int[] values = new int[8];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+    }
+}
@@ -0,0 +1,763 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// UniversityGraph.java
+// Read-only graph analytics over the staff-department-course network.
+//
+// Every department, staff member and course is a vertex; the edges are the associations:
+// staff - department (Staff.assignedDepartments), lecturer - course (Course.lecturers) and
+// course - offering department. build() copies them once into a CSR (compressed sparse row)
+// adjacency: the neighbours of vertex v are targets[offsets[v] .. offsets[v + 1]), sorted. Two
+// int arrays instead of a million objects, so traversals read memory sequentially and the graph
+// takes 8 bytes per edge and 4 per vertex.
+//
+// Vertex numbers are dense: departments first, then staff, then courses; vertexOf() and
+// entityAt() translate. The graph is a snapshot: later changes to the model are not seen, build
+// a new one for them. Built while the model changes, it may hold some links and not others of
+// an update in flight, but it is always symmetric (every edge is read from one side only).
+//
+// Algorithms (all run on the common fork-join pool, like the parallel streams of UniversityQuery):
+//   distancesFrom()      parallel BFS, level by level; switches to "bottom-up" steps (unvisited
+//                        vertices look for a parent) while the frontier is large, as in Beamer's
+//                        direction-optimizing BFS.
+//   reachByHop()         how many entities are 1, 2, 3 ... links away: how far a change ripples.
+//   components()         connected components, with a lock-free concurrent union-find.
+//   departmentLinks()    departments connected through shared staff, and how many they share.
+//   betweenness()        betweenness centrality, estimated from a sample of BFS sources (Brandes).
+//   articulationPoints() vertices whose removal disconnects their component: bridge lecturers.
+//   degree(), topByDegree() degree centrality.
+//
+// Example:
+//   UniversityGraph graph = UniversityGraph.build(registry);
+//   int[] ripple = graph.reachByHop(registry.getCourse("CS101"));
+//   List<Object> hubs = graph.topByDegree(UniversityGraph.Kind.STAFF, 10);
+public final class UniversityGraph {
+    /** What a vertex stands for. */
+    public enum Kind { DEPARTMENT, STAFF, COURSE }
+
+    // Frontier chunk handed to one fork-join task.
+    private static final int CHUNK = 1024;
+    // Beamer's switch points: go bottom-up when the frontier's edges exceed the unexplored
+    // edges / ALPHA, back to top-down when the frontier shrinks below vertices / BETA.
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    private final Department[] departments;
+    private final Staff[] staff;
+    private final Course[] courses;
+    private final int staffStart;
+    private final int courseStart;
+    private final int[] offsets;
+    private final int[] targets;
+    private final Map<Department, Integer> departmentIds;
+    private final Map<Staff, Integer> staffIds;
+    private final Map<Course, Integer> courseIds;
+
+    private UniversityGraph(Department[] departments, Staff[] staff, Course[] courses,
+                            int[] offsets, int[] targets, Map<Department, Integer> departmentIds,
+                            Map<Staff, Integer> staffIds, Map<Course, Integer> courseIds) {
+        this.departments = departments;
+        this.staff = staff;
+        this.courses = courses;
+        this.staffStart = departments.length;
+        this.courseStart = departments.length + staff.length;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.departmentIds = departmentIds;
+        this.staffIds = staffIds;
+        this.courseIds = courseIds;
+    }
+
+    // --- Building ---
+
+    /**
+     * Builds the graph of every department, staff member and course in the registry. Links to
+     * entities that are not registered are left out.
+     * @param registry The registry to read.
+     * @return The graph.
+     */
+    public static UniversityGraph build(UniversityRegistry registry) {
+        Department[] departments = registry.getAllDepartments().toArray(new Department[0]);
+        Staff[] staff = registry.getAllStaff().toArray(new Staff[0]);
+        Course[] courses = registry.getAllCourses().toArray(new Course[0]);
+        int staffStart = departments.length;
+        int courseStart = staffStart + staff.length;
+        int n = courseStart + courses.length;
+        Map<Department, Integer> departmentIds = ids(departments, 0);
+        Map<Staff, Integer> staffIds = ids(staff, staffStart);
+        Map<Course, Integer> courseIds = ids(courses, courseStart);
+
+        // Each edge is read from one side only: staff give their departments and (lecturers)
+        // courses, courses give their offering department. far[v] holds the other ends.
+        int[][] far = new int[n][];
+        IntStream.range(staffStart, n).parallel().forEach(v -> {
+            IntArray ends = new IntArray();
+            if (v < courseStart) {
+                Staff s = staff[v - staffStart];
+                addAll(ends, s.getAssignedDepartments(), departmentIds);
+                if (s instanceof Lecturer) {
+                    addAll(ends, ((Lecturer) s).getCoursesTeaching(), courseIds);
+                }
+            } else {
+                Department offering = courses[v - courseStart].getOfferingDepartment();
+                Integer d = offering == null ? null : departmentIds.get(offering);
+                if (d != null) {
+                    ends.add(d);
+                }
+            }
+            far[v] = ends.toArray();
+        });
+
+        int[] offsets = new int[n + 1];
+        for (int v = staffStart; v < n; v++) {
+            offsets[v + 1] += far[v].length;
+            for (int w : far[v]) {
+                offsets[w + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] targets = new int[offsets[n]];
+        int[] cursor = Arrays.copyOf(offsets, n);
+        for (int v = staffStart; v < n; v++) {
+            for (int w : far[v]) {
+                targets[cursor[v]++] = w;
+                targets[cursor[w]++] = v;
+            }
+            far[v] = null;
+        }
+        IntStream.range(0, n).parallel().forEach(v -> Arrays.sort(targets, offsets[v], offsets[v + 1]));
+        return new UniversityGraph(departments, staff, courses, offsets, targets,
+                departmentIds, staffIds, courseIds);
+    }
+
+    private static <T> Map<T, Integer> ids(T[] entities, int first) {
+        Map<T, Integer> ids = new HashMap<>(entities.length * 4 / 3 + 1);
+        for (int i = 0; i < entities.length; i++) {
+            ids.put(entities[i], first + i);
+        }
+        return ids;
+    }
+
+    private static <T> void addAll(IntArray ends, Collection<T> linked, Map<T, Integer> ids) {
+        for (T entity : linked) {
+            Integer w = ids.get(entity);
+            if (w != null) {
+                ends.add(w);
+            }
+        }
+    }
+
+    // --- Vertices and edges ---
+
+    /**
+     * @return The number of vertices: departments, staff and courses.
+     */
+    public int getVertexCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return The number of (undirected) edges.
+     */
+    public int getEdgeCount() {
+        return targets.length / 2;
+    }
+
+    /**
+     * @param entity A Department, Staff or Course.
+     * @return Its vertex, or -1 if it is not in the graph.
+     */
+    public int vertexOf(Object entity) {
+        Integer v = null;
+        if (entity instanceof Department) {
+            v = departmentIds.get(entity);
+        } else if (entity instanceof Staff) {
+            v = staffIds.get(entity);
+        } else if (entity instanceof Course) {
+            v = courseIds.get(entity);
+        }
+        return v == null ? -1 : v;
+    }
+
+    /**
+     * @param vertex A vertex number.
+     * @return The Department, Staff or Course it stands for.
+     */
+    public Object entityAt(int vertex) {
+        checkVertex(vertex);
+        if (vertex < staffStart) {
+            return departments[vertex];
+        }
+        return vertex < courseStart ? staff[vertex - staffStart] : courses[vertex - courseStart];
+    }
+
+    public Kind kindOf(int vertex) {
+        checkVertex(vertex);
+        return vertex < staffStart ? Kind.DEPARTMENT : vertex < courseStart ? Kind.STAFF : Kind.COURSE;
+    }
+
+    public int degree(int vertex) {
+        checkVertex(vertex);
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    /**
+     * @return The neighbours of the vertex, in ascending order.
+     */
+    public int[] neighbours(int vertex) {
+        checkVertex(vertex);
+        return Arrays.copyOfRange(targets, offsets[vertex], offsets[vertex + 1]);
+    }
+
+    private void checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= getVertexCount()) {
+            throw new IndexOutOfBoundsException("No vertex " + vertex + " in a graph of " + getVertexCount());
+        }
+    }
+
+    private int vertexOrThrow(Object entity) {
+        int v = vertexOf(entity);
+        if (v < 0) {
+            throw new IllegalArgumentException("Not in the graph: " + entity);
+        }
+        return v;
+    }
+
+    // --- Degree centrality ---
+
+    /**
+     * The entities of one kind with the most links: staff with the most departments and
+     * courses, courses with the most lecturers, departments with the most staff and courses.
+     * @param kind Which entities to rank.
+     * @param limit How many to return.
+     * @return The entities, highest degree first (ties in vertex order).
+     */
+    public List<Object> topByDegree(Kind kind, int limit) {
+        int from = kind == Kind.DEPARTMENT ? 0 : kind == Kind.STAFF ? staffStart : courseStart;
+        int to = kind == Kind.DEPARTMENT ? staffStart : kind == Kind.STAFF ? courseStart : getVertexCount();
+        return IntStream.range(from, to).boxed()
+                .sorted(Comparator.comparingInt((Integer v) -> -degree(v)).thenComparingInt(v -> v))
+                .limit(limit)
+                .map(this::entityAt)
+                .collect(Collectors.toList());
+    }
+
+    // --- BFS ---
+
+    /**
+     * Parallel breadth-first search.
+     * @param entity The Department, Staff or Course to start from.
+     * @return The distance (in links) of every vertex from it, -1 where it cannot be reached.
+     */
+    public int[] distancesFrom(Object entity) {
+        return distancesFrom(vertexOrThrow(entity));
+    }
+
+    /**
+     * Parallel breadth-first search.
+     * @param source The vertex to start from.
+     * @return The distance (in links) of every vertex from source, -1 where it cannot be reached.
+     */
+    public int[] distancesFrom(int source) {
+        checkVertex(source);
+        int n = getVertexCount();
+        AtomicIntegerArray distance = new AtomicIntegerArray(n);
+        IntStream.range(0, n).parallel().forEach(v -> distance.lazySet(v, -1));
+        distance.set(source, 0);
+        int[] frontier = {source};
+        long frontierEdges = degree(source);
+        long unexploredEdges = targets.length - frontierEdges;
+        boolean bottomUp = false;
+        for (int level = 0; frontier.length > 0; level++) {
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontier.length < n / BETA) {
+                bottomUp = false;
+            }
+            frontier = bottomUp ? bottomUpStep(distance, level) : topDownStep(distance, frontier, level);
+            int[] next = frontier;
+            frontierEdges = next.length < CHUNK ? sumDegrees(next, 0, next.length)
+                    : IntStream.range(0, chunks(next.length)).parallel()
+                            .mapToLong(c -> sumDegrees(next, c * CHUNK, Math.min(next.length, (c + 1) * CHUNK)))
+                            .sum();
+            unexploredEdges -= frontierEdges;
+        }
+        int[] result = new int[n];
+        IntStream.range(0, n).parallel().forEach(v -> result[v] = distance.get(v));
+        return result;
+    }
+
+    // Every frontier vertex claims its unvisited neighbours; the claim (a CAS) decides which
+    // task adds a vertex reached from two frontier vertices to the next frontier.
+    private int[] topDownStep(AtomicIntegerArray distance, int[] frontier, int level) {
+        if (frontier.length < CHUNK) {
+            return expand(distance, frontier, 0, frontier.length, level);
+        }
+        return concat(IntStream.range(0, chunks(frontier.length)).parallel()
+                .mapToObj(c -> expand(distance, frontier, c * CHUNK,
+                        Math.min(frontier.length, (c + 1) * CHUNK), level))
+                .toArray(int[][]::new));
+    }
+
+    private int[] expand(AtomicIntegerArray distance, int[] frontier, int from, int to, int level) {
+        IntArray next = new IntArray();
+        for (int i = from; i < to; i++) {
+            int u = frontier[i];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int w = targets[e];
+                if (distance.get(w) < 0 && distance.compareAndSet(w, -1, level + 1)) {
+                    next.add(w);
+                }
+            }
+        }
+        return next.toArray();
+    }
+
+    // Every unvisited vertex looks for a neighbour on the current level and stops at the first:
+    // cheaper than top-down when most edges leave the frontier. Only v writes distance[v].
+    private int[] bottomUpStep(AtomicIntegerArray distance, int level) {
+        int n = getVertexCount();
+        return concat(IntStream.range(0, chunks(n)).parallel().mapToObj(c -> {
+            IntArray next = new IntArray();
+            for (int v = c * CHUNK, to = Math.min(n, (c + 1) * CHUNK); v < to; v++) {
+                if (distance.get(v) >= 0) {
+                    continue;
+                }
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    if (distance.get(targets[e]) == level) {
+                        distance.set(v, level + 1);
+                        next.add(v);
+                        break;
+                    }
+                }
+            }
+            return next.toArray();
+        }).toArray(int[][]::new));
+    }
+
+    private long sumDegrees(int[] vertices, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += offsets[vertices[i] + 1] - offsets[vertices[i]];
+        }
+        return sum;
+    }
+
+    /**
+     * How far a change to an entity can ripple through the associations.
+     * @param entity The Department, Staff or Course that changes.
+     * @return At index h, how many entities are exactly h links away (index 0 is the entity itself).
+     */
+    public int[] reachByHop(Object entity) {
+        int[] distance = distancesFrom(entity);
+        int max = 0;
+        for (int d : distance) {
+            max = Math.max(max, d);
+        }
+        int[] counts = new int[max + 1];
+        for (int d : distance) {
+            if (d >= 0) {
+                counts[d]++;
+            }
+        }
+        return counts;
+    }
+
+    // --- Components ---
+
+    /**
+     * Connected components: groups of entities linked to each other directly or through others.
+     * Computed with a concurrent union-find over all edges (roots are linked by CAS, the larger
+     * vertex under the smaller, with path halving), so every component is labelled with its
+     * smallest vertex.
+     * @return The components.
+     */
+    public Components components() {
+        int n = getVertexCount();
+        AtomicIntegerArray parent = new AtomicIntegerArray(n);
+        IntStream.range(0, n).parallel().forEach(v -> parent.lazySet(v, v));
+        // Each edge is unioned once, from its larger end: rows are sorted, so stop at the first
+        // neighbour that is not smaller.
+        IntStream.range(0, chunks(n)).parallel().forEach(c -> {
+            for (int u = c * CHUNK, to = Math.min(n, (c + 1) * CHUNK); u < to; u++) {
+                for (int e = offsets[u]; e < offsets[u + 1] && targets[e] < u; e++) {
+                    union(parent, u, targets[e]);
+                }
+            }
+        });
+        int[] label = new int[n];
+        IntStream.range(0, n).parallel().forEach(v -> label[v] = find(parent, v));
+        return new Components(label);
+    }
+
+    private static int find(AtomicIntegerArray parent, int v) {
+        int p = parent.get(v);
+        while (p != v) {
+            int grandparent = parent.get(p);
+            if (grandparent != p) {
+                parent.compareAndSet(v, p, grandparent); // Path halving; losing the race is fine
+            }
+            v = p;
+            p = parent.get(v);
+        }
+        return v;
+    }
+
+    private static void union(AtomicIntegerArray parent, int a, int b) {
+        while (true) {
+            a = find(parent, a);
+            b = find(parent, b);
+            if (a == b) {
+                return;
+            }
+            if (a < b) {
+                int t = a;
+                a = b;
+                b = t;
+            }
+            if (parent.compareAndSet(a, a, b)) {
+                return;
+            }
+        }
+    }
+
+    /** The connected components of a graph; each is labelled with its smallest vertex. */
+    public static final class Components {
+        private final int[] label;
+        private final int[] size;
+        private final int count;
+
+        Components(int[] label) {
+            this.label = label;
+            this.size = new int[label.length];
+            int roots = 0;
+            for (int v = 0; v < label.length; v++) {
+                size[label[v]]++;
+                if (label[v] == v) {
+                    roots++;
+                }
+            }
+            this.count = roots;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * @return The component of the vertex: the smallest vertex in it.
+         */
+        public int componentOf(int vertex) {
+            return label[vertex];
+        }
+
+        /**
+         * @return How many vertices are in the vertex's component.
+         */
+        public int sizeOf(int vertex) {
+            return size[label[vertex]];
+        }
+
+        public int getLargestSize() {
+            int largest = 0;
+            for (int s : size) {
+                largest = Math.max(largest, s);
+            }
+            return largest;
+        }
+
+        public boolean connected(int a, int b) {
+            return label[a] == label[b];
+        }
+    }
+
+    // --- Department links ---
+
+    /**
+     * Departments connected through shared staff: one link per pair of departments with at least
+     * one staff member assigned to both.
+     * @return The links, most shared staff first (ties by department order).
+     */
+    public List<DepartmentLink> departmentLinks() {
+        List<DepartmentLink> links = IntStream.range(0, staffStart).parallel().mapToObj(d -> {
+            // shared[d2] counts the staff of d also in d2 > d; touched lists the d2 seen.
+            int[] shared = new int[staffStart];
+            IntArray touched = new IntArray();
+            for (int e = offsets[d]; e < offsets[d + 1]; e++) {
+                int s = targets[e];
+                if (s < staffStart || s >= courseStart) {
+                    continue;
+                }
+                // Departments come first in a staff member's sorted neighbours.
+                for (int f = offsets[s]; f < offsets[s + 1] && targets[f] < staffStart; f++) {
+                    int other = targets[f];
+                    if (other > d && shared[other]++ == 0) {
+                        touched.add(other);
+                    }
+                }
+            }
+            List<DepartmentLink> own = new ArrayList<>(touched.size);
+            for (int i = 0; i < touched.size; i++) {
+                int other = touched.values[i];
+                own.add(new DepartmentLink(departments[d], departments[other], shared[other], d, other));
+            }
+            return own;
+        }).flatMap(List::stream).collect(Collectors.toList());
+        links.sort(Comparator.comparingInt((DepartmentLink l) -> -l.sharedStaff)
+                .thenComparingInt(l -> l.firstVertex).thenComparingInt(l -> l.secondVertex));
+        return links;
+    }
+
+    /** Two departments and the number of staff members assigned to both. */
+    public static final class DepartmentLink {
+        private final Department first;
+        private final Department second;
+        private final int sharedStaff;
+        private final int firstVertex;
+        private final int secondVertex;
+
+        DepartmentLink(Department first, Department second, int sharedStaff, int firstVertex, int secondVertex) {
+            this.first = first;
+            this.second = second;
+            this.sharedStaff = sharedStaff;
+            this.firstVertex = firstVertex;
+            this.secondVertex = secondVertex;
+        }
+
+        public Department getFirst() {
+            return first;
+        }
+
+        public Department getSecond() {
+            return second;
+        }
+
+        public int getSharedStaff() {
+            return sharedStaff;
+        }
+
+        @Override
+        public String toString() {
+            return first.getDepartmentCode() + " - " + second.getDepartmentCode() + ": " + sharedStaff;
+        }
+    }
+
+    // --- Betweenness ---
+
+    /**
+     * Estimates betweenness centrality: how many shortest paths between other entities run
+     * through each vertex. Exact betweenness needs a BFS from every vertex; this runs Brandes'
+     * algorithm from a random sample of sources in parallel and scales the sums up, which ranks
+     * the central vertices well with a few hundred sources.
+     * @param samples How many sources to use; at least the vertex count means exact.
+     * @param seed Seed for choosing the sources.
+     * @return Per vertex, the estimated number of shortest paths between pairs of other
+     *         vertices that pass through it (each unordered pair counted once).
+     */
+    public double[] betweenness(int samples, long seed) {
+        int n = getVertexCount();
+        int[] sources;
+        if (samples >= n) {
+            sources = IntStream.range(0, n).toArray();
+        } else {
+            SplittableRandom random = new SplittableRandom(seed);
+            sources = random.ints(samples, 0, n).toArray();
+        }
+        double scale = (double) n / Math.max(1, sources.length) / 2; // Each pair is seen from both ends
+        double[] total = IntStream.of(sources).parallel().collect(
+                () -> new Brandes(n),
+                Brandes::accumulate,
+                Brandes::combine).centrality;
+        for (int v = 0; v < n; v++) {
+            total[v] *= scale;
+        }
+        return total;
+    }
+
+    /**
+     * The sampled betweenness of the entities of one kind, highest first: for staff, the bridge
+     * lecturers through whom most department and course connections run.
+     * @param kind Which entities to rank.
+     * @param limit How many to return.
+     * @param samples How many BFS sources to sample (see betweenness()).
+     * @return The entities, most central first.
+     */
+    public List<Object> topByBetweenness(Kind kind, int limit, int samples) {
+        double[] centrality = betweenness(samples, 42L);
+        return IntStream.range(0, getVertexCount()).filter(v -> kindOf(v) == kind).boxed()
+                .sorted(Comparator.comparingDouble((Integer v) -> -centrality[v]).thenComparingInt(v -> v))
+                .limit(limit)
+                .map(this::entityAt)
+                .collect(Collectors.toList());
+    }
+
+    // Per-task workspace of Brandes' algorithm; the arrays are reused for every source.
+    private final class Brandes {
+        final double[] centrality;
+        final int[] distance;
+        final double[] paths; // Shortest-path counts overflow a long on dense graphs
+        final double[] dependency;
+        final int[] order;
+
+        Brandes(int n) {
+            centrality = new double[n];
+            distance = new int[n];
+            paths = new double[n];
+            dependency = new double[n];
+            order = new int[n];
+            Arrays.fill(distance, -1);
+        }
+
+        void accumulate(int source) {
+            int head = 0;
+            int tail = 0;
+            order[tail++] = source;
+            distance[source] = 0;
+            paths[source] = 1;
+            while (head < tail) {
+                int u = order[head++];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int w = targets[e];
+                    if (distance[w] < 0) {
+                        distance[w] = distance[u] + 1;
+                        order[tail++] = w;
+                    }
+                    if (distance[w] == distance[u] + 1) {
+                        paths[w] += paths[u];
+                    }
+                }
+            }
+            // Back from the farthest vertex: each predecessor gets its share of the dependency.
+            for (int i = tail - 1; i >= 0; i--) {
+                int w = order[i];
+                for (int e = offsets[w]; e < offsets[w + 1]; e++) {
+                    int u = targets[e];
+                    if (distance[u] == distance[w] - 1) {
+                        dependency[u] += paths[u] / paths[w] * (1 + dependency[w]);
+                    }
+                }
+                if (w != source) {
+                    centrality[w] += dependency[w];
+                }
+            }
+            for (int i = 0; i < tail; i++) {
+                int v = order[i];
+                distance[v] = -1;
+                paths[v] = 0;
+                dependency[v] = 0;
+            }
+        }
+
+        void combine(Brandes other) {
+            for (int v = 0; v < centrality.length; v++) {
+                centrality[v] += other.centrality[v];
+            }
+        }
+    }
+
+    // --- Articulation points ---
+
+    /**
+     * Articulation points: vertices whose removal splits their component. A lecturer that is one
+     * is the only link between some courses or departments and the rest. Tarjan's low-link
+     * algorithm with an explicit stack (a recursive DFS would overflow on long paths).
+     * @return The articulation points, in ascending order.
+     */
+    public int[] articulationPoints() {
+        int n = getVertexCount();
+        int[] discovered = new int[n];
+        int[] low = new int[n];
+        int[] parent = new int[n];
+        int[] edge = new int[n]; // Next edge to look at, per vertex on the stack
+        boolean[] cut = new boolean[n];
+        int[] stack = new int[n];
+        int time = 0;
+        for (int root = 0; root < n; root++) {
+            if (discovered[root] != 0) {
+                continue;
+            }
+            int rootChildren = 0;
+            int top = 0;
+            stack[top++] = root;
+            parent[root] = -1;
+            discovered[root] = low[root] = ++time;
+            edge[root] = offsets[root];
+            while (top > 0) {
+                int u = stack[top - 1];
+                if (edge[u] < offsets[u + 1]) {
+                    int w = targets[edge[u]++];
+                    if (discovered[w] == 0) {
+                        parent[w] = u;
+                        discovered[w] = low[w] = ++time;
+                        edge[w] = offsets[w];
+                        stack[top++] = w;
+                        if (u == root) {
+                            rootChildren++;
+                        }
+                    } else if (w != parent[u]) {
+                        low[u] = Math.min(low[u], discovered[w]);
+                    }
+                } else {
+                    top--;
+                    int p = parent[u];
+                    if (p >= 0) {
+                        low[p] = Math.min(low[p], low[u]);
+                        if (p != root && low[u] >= discovered[p]) {
+                            cut[p] = true;
+                        }
+                    }
+                }
+            }
+            cut[root] = rootChildren > 1;
+        }
+        return IntStream.range(0, n).filter(v -> cut[v]).toArray();
+    }
+
+    // --- Helpers ---
+
+    private static int chunks(int length) {
+        return (length + CHUNK - 1) / CHUNK;
+    }
+
+    private static int[] concat(int[][] parts) {
+        int length = 0;
+        for (int[] part : parts) {
+            length += part.length;
+        }
+        int[] all = new int[length];
+        int at = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, all, at, part.length);
+            at += part.length;
+        }
+        return all;
+    }
+
+    /** A growable int list, to collect vertices without boxing them. */
+    private static final class IntArray {
+        int[] values = new int[8];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,596 @@
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// UniversityHttpServer.java
+// Read-only JSON API over a UniversityRegistry, on the JDK's built-in HttpServer.
+//
+//   GET /departments                 GET /courses                    GET /staff
+//   GET /departments/{code}          GET /courses/{code}             GET /staff/{id}
+//   GET /departments/{code}/courses  GET /courses/{code}/lecturers   GET /staff/{id}/departments
+//   GET /departments/{code}/staff    GET /courses/{code}/students    GET /staff/{id}/courses
+//   GET /students/{id}
+//   GET /changes?since=N[&limit=][&wait=seconds]
+//
+// Listings take ?offset=&limit= and return references ({code, title}, {id, name, type}, ...),
+// which only hold fields that never change. Single entities return their own fields plus
+// references to the entities they are linked to.
+//
+// Every request runs on its own virtual thread, so a slow client ties up a cheap thread and
+// not a pool slot. Virtual threads need JDK 21; on an older runtime requests fall back to a
+// cached pool of platform threads, so long polls still never wait for a free slot. Entities are
+// written as JSON straight into the (chunked) response stream.
+//
+// The JDK server leaves Nagle's algorithm on. A chunked response goes out as several small
+// writes, and Nagle holding the last one back until the client's delayed ACK adds ~40 ms to every
+// request. The first server created in a JVM therefore sets the JVM-wide system property
+// sun.net.httpserver.nodelay=true, unless it is already set (an explicit -D setting wins). The
+// JDK reads it once, when its first HttpServer is created: other HttpServers in the same JVM get
+// TCP_NODELAY too, and setting the property after that has no effect.
+//
+// Every 200 response carries an ETag built from the entity's version (getVersion(), which goes up
+// on every change to what is shown). A client that sends it back in If-None-Match gets an empty
+// 304 Not Modified while the entity is unchanged, without the body being written at all.
+// The version is read before the body is written, so an ETag is never newer than its body.
+//
+// /changes serves the registry's ChangeFeed (404 if none is attached): the changes after sequence
+// number N, the number to ask from next, and whether the consumer must resync. With wait=, it
+// holds the request until there is a change or the wait is over (long polling).
+//
+// Usage:
+//   UniversityHttpServer server = new UniversityHttpServer(registry, new InetSocketAddress(8080));
+//   server.start();
+//   ...
+//   server.stop(1);
+// or from the command line: java UniversityHttpServer [port] [snapshot-file]
+public final class UniversityHttpServer {
+    // Pending connections the OS queues before accept(); the JDK default (50) is low for bursts.
+    private static final int BACKLOG = 1024;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int DEFAULT_CHANGES_LIMIT = 1000;
+    private static final int MAX_WAIT_SECONDS = 60;
+
+    private final UniversityRegistry registry;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    // Distinguishes ETags of this server instance from those of an earlier one over other data.
+    private final String instanceTag = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+
+    /**
+     * Creates the server; call start() to accept requests.
+     * @param registry The registry to serve. It may be changed while the server runs.
+     * @param address The address to listen on; port 0 picks a free port (see getPort()).
+     * @throws IOException if the address cannot be bound.
+     */
+    public UniversityHttpServer(UniversityRegistry registry, InetSocketAddress address) throws IOException {
+        this.registry = registry;
+        enableNoDelay();
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits for the running ones to finish.
+     * @param delaySeconds The longest time to wait for open exchanges before closing them.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        // Same as ExecutorService.close() (JDK 19+): wait for every task, cancelling them if interrupted.
+        executor.shutdown();
+        boolean interrupted = false;
+        boolean terminated = false;
+        while (!terminated) {
+            try {
+                terminated = executor.awaitTermination(1, TimeUnit.DAYS);
+            } catch (InterruptedException e) {
+                if (!interrupted) {
+                    executor.shutdownNow();
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Turns off Nagle's algorithm for the JDK server (see the class comment). Must run before the
+    // first HttpServer.create() in the JVM, which is when the property is read.
+    private static void enableNoDelay() {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    // Looked up reflectively so the server still compiles and runs before JDK 21.
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * @return The port the server listens on.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // --- Request handling ---
+
+    /** What a request resolved to: its ETag and how to write its body. */
+    private static final class Resource {
+        final String etag;
+        final BodyWriter body;
+
+        Resource(String etag, BodyWriter body) {
+            this.etag = etag;
+            this.body = body;
+        }
+    }
+
+    private interface BodyWriter {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    private interface RefWriter<T> {
+        void write(JsonWriter json, T item) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            boolean head = method.equals("HEAD");
+            if (!head && !method.equals("GET")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+            Resource resource = resolve(segments(exchange.getRequestURI().getPath()),
+                    exchange.getRequestURI().getRawQuery());
+            if (resource == null) {
+                sendError(exchange, 404, "Not found");
+                return;
+            }
+            String etag = resource.etag;
+            Headers headers = exchange.getResponseHeaders();
+            headers.set("ETag", etag);
+            headers.set("Cache-Control", "no-cache");
+            if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            headers.set("Content-Type", "application/json; charset=utf-8");
+            if (head) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, 0); // Length unknown: chunked
+            try (Writer out = new BufferedWriter(
+                    new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                resource.body.write(new JsonWriter(out));
+            }
+        } catch (IllegalArgumentException e) {
+            // A malformed offset or limit; nothing has been sent yet.
+            sendError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            if (exchange.getResponseCode() == -1) {
+                sendError(exchange, 500, "Internal error");
+            }
+            throw e;
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Resource resolve(String[] path, String query) {
+        if (path.length == 0 || path.length > 3) {
+            return null;
+        }
+        String sub = path.length == 3 ? path[2] : null;
+        switch (path[0]) {
+            case "departments":
+                if (path.length == 1) {
+                    return listing(registry.getAllDepartments(), query, UniversityHttpServer::writeRef);
+                }
+                return department(registry.getDepartment(path[1]), sub);
+            case "courses":
+                if (path.length == 1) {
+                    return listing(registry.getAllCourses(), query, UniversityHttpServer::writeRef);
+                }
+                return course(registry.getCourse(path[1]), sub);
+            case "staff":
+                if (path.length == 1) {
+                    return listing(registry.getAllStaff(), query, UniversityHttpServer::writeRef);
+                }
+                return staff(registry.getStaff(path[1]), sub);
+            case "students":
+                if (path.length == 1) {
+                    return listing(registry.getAllStudents(), query, UniversityHttpServer::writeRef);
+                }
+                return sub == null ? student(registry.getStudent(path[1])) : null;
+            case "changes":
+                return path.length == 1 ? changes(registry.getChangeFeed(), query) : null;
+            default:
+                return null;
+        }
+    }
+
+    private Resource department(Department department, String sub) {
+        if (department == null) {
+            return null;
+        }
+        String etag = etag(department, department.getVersion());
+        if (sub == null) {
+            return new Resource(etag, json -> writeDepartment(json, department));
+        }
+        switch (sub) {
+            case "courses":
+                return new Resource(etag, json -> writeRefs(json, department.getCoursesOffered(), UniversityHttpServer::writeRef));
+            case "staff":
+                return new Resource(etag, json -> writeRefs(json, department.getStaffMembers(), UniversityHttpServer::writeRef));
+            default:
+                return null;
+        }
+    }
+
+    private Resource course(Course course, String sub) {
+        if (course == null) {
+            return null;
+        }
+        if (sub == null) {
+            return new Resource(etag(course, course.getVersion()), json -> writeCourse(json, course));
+        }
+        switch (sub) {
+            case "lecturers":
+                return new Resource(etag(course, course.getVersion()),
+                        json -> writeRefs(json, course.getLecturers(), UniversityHttpServer::writeRef));
+            case "students":
+                return new Resource(etag(course, course.enrollmentVersion()),
+                        json -> writeRefs(json, course.getStudents(), UniversityHttpServer::writeRef));
+            default:
+                return null;
+        }
+    }
+
+    private Resource staff(Staff member, String sub) {
+        if (member == null) {
+            return null;
+        }
+        Lecturer lecturer = member instanceof Lecturer ? (Lecturer) member : null;
+        if (sub == null) {
+            // The taught courses are listed too, and the staff version does not cover them.
+            long version = member.getVersion() + (lecturer == null ? 0 : lecturer.coursesVersion());
+            return new Resource(etag(member, version), json -> writeStaff(json, member));
+        }
+        switch (sub) {
+            case "departments":
+                return new Resource(etag(member, member.getVersion()),
+                        json -> writeRefs(json, member.getAssignedDepartments(), UniversityHttpServer::writeRef));
+            case "courses":
+                if (lecturer == null) {
+                    return null;
+                }
+                return new Resource(etag(lecturer, lecturer.coursesVersion()),
+                        json -> writeRefs(json, lecturer.getCoursesTeaching(), UniversityHttpServer::writeRef));
+            default:
+                return null;
+        }
+    }
+
+    private Resource student(Student student) {
+        if (student == null) {
+            return null;
+        }
+        return new Resource(etag(student, student.getVersion()), json -> writeStudent(json, student));
+    }
+
+    // The latest sequence number fixes the whole answer for a given since and limit: compaction
+    // and eviction only happen when a change is recorded.
+    private Resource changes(ChangeFeed feed, String query) {
+        if (feed == null) {
+            return null;
+        }
+        long since = queryLong(query, "since", 0);
+        int limit = Math.max(1, queryInt(query, "limit", DEFAULT_CHANGES_LIMIT));
+        int wait = Math.min(queryInt(query, "wait", 0), MAX_WAIT_SECONDS);
+        ChangeFeed.Batch batch;
+        try {
+            batch = wait == 0 ? feed.changesSince(since, limit)
+                    : feed.awaitChangesSince(since, limit, wait, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // The server is stopping
+            batch = feed.changesSince(since, limit);
+        }
+        ChangeFeed.Batch result = batch;
+        return new Resource('"' + instanceTag + ".c" + result.getLatestSequence() + '"', json -> writeChanges(json, result));
+    }
+
+    // Listings only show fields that never change, and the registry only grows, so the count
+    // is enough to tell whether a listing changed.
+    private <T> Resource listing(Collection<T> all, String query, RefWriter<T> writer) {
+        int offset = queryInt(query, "offset", 0);
+        int limit = queryInt(query, "limit", Integer.MAX_VALUE);
+        String etag = '"' + instanceTag + ".n" + all.size() + '"';
+        return new Resource(etag, json -> {
+            json.beginArray();
+            int index = 0;
+            int written = 0;
+            for (T item : all) {
+                if (written == limit) {
+                    break;
+                }
+                if (index++ >= offset) {
+                    writer.write(json, item);
+                    written++;
+                }
+            }
+            json.endArray();
+        });
+    }
+
+    // --- JSON shapes ---
+
+    private static void writeDepartment(JsonWriter json, Department department) throws IOException {
+        Office office = department.getOffice();
+        json.beginObject()
+                .name("code").value(department.getDepartmentCode())
+                .name("name").value(department.getName())
+                .name("office").beginObject()
+                .name("room").value(office.getRoomNumber())
+                .name("phone").value(office.getPhoneExtension())
+                .endObject();
+        json.name("head");
+        Staff head = department.getHeadOfDepartment();
+        if (head == null) {
+            json.nullValue();
+        } else {
+            writeRef(json, head);
+        }
+        json.name("courses");
+        writeRefs(json, department.getCoursesOffered(), UniversityHttpServer::writeRef);
+        json.name("staff");
+        writeRefs(json, department.getStaffMembers(), UniversityHttpServer::writeRef);
+        json.endObject();
+    }
+
+    private static void writeCourse(JsonWriter json, Course course) throws IOException {
+        json.beginObject()
+                .name("code").value(course.getCourseCode())
+                .name("title").value(course.getTitle())
+                .name("credits").value(course.getCredits());
+        json.name("department");
+        Department department = course.getOfferingDepartment();
+        if (department == null) {
+            json.nullValue();
+        } else {
+            writeRef(json, department);
+        }
+        json.name("lecturers");
+        writeRefs(json, course.getLecturers(), UniversityHttpServer::writeRef);
+        json.endObject();
+    }
+
+    private static void writeStaff(JsonWriter json, Staff member) throws IOException {
+        json.beginObject()
+                .name("id").value(member.getStaffId())
+                .name("name").value(member.getName())
+                .name("email").value(member.getEmail())
+                .name("type").value(type(member));
+        if (member instanceof Lecturer) {
+            Lecturer lecturer = (Lecturer) member;
+            json.name("specialization").value(lecturer.getSpecialization());
+            json.name("courses");
+            writeRefs(json, lecturer.getCoursesTeaching(), UniversityHttpServer::writeRef);
+        } else if (member instanceof AdministrativeStaff) {
+            json.name("role").value(((AdministrativeStaff) member).getRole());
+        }
+        json.name("departments");
+        writeRefs(json, member.getAssignedDepartments(), UniversityHttpServer::writeRef);
+        json.endObject();
+    }
+
+    private static void writeStudent(JsonWriter json, Student student) throws IOException {
+        json.beginObject()
+                .name("id").value(student.getStudentId())
+                .name("name").value(student.getName())
+                .name("email").value(student.getEmail());
+        json.name("enrolled");
+        writeRefs(json, student.getEnrolledCourses(), UniversityHttpServer::writeRef);
+        json.name("waitlisted");
+        writeRefs(json, student.getWaitlistedCourses(), UniversityHttpServer::writeRef);
+        json.endObject();
+    }
+
+    private static <T> void writeRefs(JsonWriter json, List<T> items, RefWriter<T> writer) throws IOException {
+        json.beginArray();
+        for (T item : items) {
+            writer.write(json, item);
+        }
+        json.endArray();
+    }
+
+    private static void writeRef(JsonWriter json, Department department) throws IOException {
+        json.beginObject()
+                .name("code").value(department.getDepartmentCode())
+                .name("name").value(department.getName())
+                .endObject();
+    }
+
+    private static void writeRef(JsonWriter json, Course course) throws IOException {
+        json.beginObject()
+                .name("code").value(course.getCourseCode())
+                .name("title").value(course.getTitle())
+                .endObject();
+    }
+
+    private static void writeRef(JsonWriter json, Staff member) throws IOException {
+        json.beginObject()
+                .name("id").value(member.getStaffId())
+                .name("name").value(member.getName())
+                .name("type").value(type(member))
+                .endObject();
+    }
+
+    private static void writeRef(JsonWriter json, Student student) throws IOException {
+        json.beginObject()
+                .name("id").value(student.getStudentId())
+                .name("name").value(student.getName())
+                .endObject();
+    }
+
+    private static void writeChanges(JsonWriter json, ChangeFeed.Batch batch) throws IOException {
+        json.beginObject()
+                .name("latest").value(batch.getLatestSequence())
+                .name("next").value(batch.getNextSequence())
+                .name("resync").value(batch.isResyncRequired())
+                .name("changes").beginArray();
+        for (ChangeFeed.Change change : batch.getChanges()) {
+            json.beginObject()
+                    .name("seq").value(change.getSequence())
+                    .name("type").value(change.getEntityType().name().toLowerCase(Locale.ROOT))
+                    .name("id").value(change.getEntityId())
+                    .name("op").value(change.getOperation().name().toLowerCase(Locale.ROOT));
+            if (change.getAttribute() != null) {
+                json.name("attribute").value(change.getAttribute())
+                        .name("value").value(change.getValue());
+            }
+            json.endObject();
+        }
+        json.endArray().endObject();
+    }
+
+    private static String type(Staff member) {
+        if (member instanceof Lecturer) {
+            return "lecturer";
+        }
+        return member instanceof AdministrativeStaff ? "administrative" : "staff";
+    }
+
+    // --- HTTP helpers ---
+
+    // Identity hash as well as version, so a replaced entity with the same code never shares an ETag.
+    private String etag(Object entity, long version) {
+        return '"' + instanceTag + '.' + Integer.toHexString(System.identityHashCode(entity)) + '.' + version + '"';
+    }
+
+    // If-None-Match holds "*" or a comma-separated list of (possibly weak) ETags.
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[] segments(String path) {
+        int start = 0;
+        int end = path.length();
+        while (start < end && path.charAt(start) == '/') {
+            start++;
+        }
+        while (end > start && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        return start == end ? new String[0] : path.substring(start, end).split("/");
+    }
+
+    static int queryInt(String query, String name, int defaultValue) {
+        long value = queryLong(query, name, defaultValue);
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bad " + name + ": " + value);
+        }
+        return (int) value;
+    }
+
+    static long queryLong(String query, String name, long defaultValue) {
+        if (query == null) {
+            return defaultValue;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.length() > name.length() && pair.startsWith(name) && pair.charAt(name.length()) == '=') {
+                String text = pair.substring(name.length() + 1);
+                long value;
+                try {
+                    value = Long.parseLong(text);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Bad " + name + ": " + text);
+                }
+                if (value < 0) {
+                    throw new IllegalArgumentException("Negative " + name + ": " + value);
+                }
+                return value;
+            }
+        }
+        return defaultValue;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body;
+        try {
+            StringBuilder text = new StringBuilder(64);
+            new JsonWriter(text).beginObject().name("error").value(message).endObject();
+            body = text.toString().getBytes(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new AssertionError(e); // StringBuilder does not throw
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    /**
+     * Serves a snapshot file, or a generated university when no file is given.
+     * @param args [port (default 8080)] [snapshot file]
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        UniversityRegistry registry;
+        if (args.length > 1) {
+            registry = UniversitySnapshot.load(Paths.get(args[1]));
+            AssociationValidator.Report report = AssociationValidator.validate(registry, true);
+            if (!report.isClean()) {
+                System.out.println("Repaired the snapshot's associations: " + report);
+            }
+        } else {
+            registry = new UniversityRegistry();
+            new UniversityGenerator(42L, 50, 5_000, 10_000).generateInto(registry);
+        }
+        UniversityHttpServer server = new UniversityHttpServer(registry, new InetSocketAddress(port));
+        server.start();
+        System.out.println("Serving " + registry.getAllDepartments().size() + " departments, "
+                + registry.getAllStaff().size() + " staff and " + registry.getAllCourses().size()
+                + " courses on http://localhost:" + server.getPort() + "/");
+    }
+}
@@ -0,0 +1,847 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+// UniversityImporter.java
+// Bulk importer for onboarding a whole campus from a CSV or JSON file into a UniversityRegistry.
+//
+// The file is streamed in batches. While one batch is being linked into the registry, the next
+// batch is already being parsed in parallel on the common fork-join pool. Linking goes through the
+// one-sided attach methods, so it skips the per-call duplicate checks and console output of
+// addCourse/addStaffMember. Entities are registered after they are linked, so an attached
+// journal still records every entity and link exactly once.
+//
+// CSV format (one record per line, no header; '#' starts a comment line; fields may be "quoted"):
+//   department,<code>,<name>,<room>,<extension>[,<head staffId>]
+//   lecturer,<staffId>,<name>,<email>,<specialization>[,<departmentCode;departmentCode;...>]
+//   admin,<staffId>,<name>,<email>,<role>[,<departmentCode;...>]
+//   course,<code>,<title>,<credits>,<departmentCode>[,<lecturer staffId;...>]
+//
+// JSON format: either one object per line (JSON Lines) or a top-level array of objects, e.g.
+//   {"type":"lecturer","staffId":"L001","name":"...","email":"...","specialization":"...","departments":["CS"]}
+//   {"type":"course","code":"COMP101","title":"...","credits":3,"department":"CS","lecturers":["L001"]}
+// with the same fields as the CSV columns ("head" for the department head, "role" for admins).
+//
+// References to entities that appear later in the file are resolved once the whole file is read.
+public final class UniversityImporter {
+    private static final int DEFAULT_BATCH_SIZE = 8192;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final UniversityRegistry registry;
+    private final int batchSize;
+
+    public UniversityImporter(UniversityRegistry registry) {
+        this(registry, DEFAULT_BATCH_SIZE);
+    }
+
+    public UniversityImporter(UniversityRegistry registry, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.registry = registry;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports a file, choosing CSV or JSON from its extension (.csv, .json, .jsonl, .ndjson).
+     * @param file The file to import.
+     * @return Counts, errors and throughput of the import.
+     * @throws IOException if the file cannot be read.
+     */
+    public ImportResult importFile(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean json = name.endsWith(".json") || name.endsWith(".jsonl") || name.endsWith(".ndjson");
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return json ? importJson(reader) : importCsv(reader);
+        }
+    }
+
+    /**
+     * Imports CSV records from a reader (see the class comment for the format).
+     */
+    public ImportResult importCsv(Reader reader) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        return run(() -> {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                String trimmed = line.trim();
+                if (!trimmed.isEmpty() && trimmed.charAt(0) != '#') {
+                    return line;
+                }
+            }
+            return null;
+        }, UniversityImporter::parseCsv);
+    }
+
+    /**
+     * Imports JSON records (JSON Lines or a top-level array of objects) from a reader.
+     */
+    public ImportResult importJson(Reader reader) throws IOException {
+        JsonObjectSplitter splitter = new JsonObjectSplitter(reader);
+        return run(splitter::next, UniversityImporter::parseJson);
+    }
+
+    // --- Pipeline ---
+
+    private interface RawSource {
+        String next() throws IOException;
+    }
+
+    private interface Parser {
+        ImportRecord parse(String raw);
+    }
+
+    private ImportResult run(RawSource source, Parser parser) throws IOException {
+        ImportResult result = new ImportResult();
+        long start = System.nanoTime();
+        List<ImportRecord> deferred = new ArrayList<>();
+
+        List<String> batch = readBatch(source);
+        CompletableFuture<List<ImportRecord>> parsing = parseAsync(batch, parser);
+        while (!batch.isEmpty()) {
+            List<ImportRecord> parsed = parsing.join();
+            // Start reading and parsing the next batch before linking this one.
+            batch = readBatch(source);
+            parsing = parseAsync(batch, parser);
+            link(parsed, result, deferred);
+        }
+        resolveDeferred(deferred, result);
+
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private List<String> readBatch(RawSource source) throws IOException {
+        List<String> batch = new ArrayList<>(batchSize);
+        String raw;
+        while (batch.size() < batchSize && (raw = source.next()) != null) {
+            batch.add(raw);
+        }
+        return batch;
+    }
+
+    private static CompletableFuture<List<ImportRecord>> parseAsync(List<String> batch, Parser parser) {
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        // parallelStream() keeps the input order in the collected list.
+        return CompletableFuture.supplyAsync(() -> batch.parallelStream()
+                .map(raw -> {
+                    try {
+                        return parser.parse(raw);
+                    } catch (RuntimeException e) {
+                        return ImportRecord.error(e.getMessage() + ": " + abbreviate(raw));
+                    }
+                })
+                .collect(Collectors.toList()));
+    }
+
+    // --- Batched linking (runs on the calling thread) ---
+
+    private void link(List<ImportRecord> records, ImportResult result, List<ImportRecord> deferred) {
+        // Departments first, then staff, then courses, so references inside a batch resolve.
+        for (ImportRecord r : records) {
+            result.records++;
+            if (r.kind == ImportRecord.Kind.ERROR) {
+                result.error(r.error);
+            } else if (r.kind == ImportRecord.Kind.DEPARTMENT) {
+                createDepartment(r, result, deferred);
+            }
+        }
+        for (ImportRecord r : records) {
+            if (r.kind == ImportRecord.Kind.LECTURER || r.kind == ImportRecord.Kind.ADMINISTRATIVE) {
+                createStaff(r, result, deferred);
+            }
+        }
+        for (ImportRecord r : records) {
+            if (r.kind == ImportRecord.Kind.COURSE) {
+                createCourse(r, result, deferred);
+            }
+        }
+    }
+
+    private void createDepartment(ImportRecord r, ImportResult result, List<ImportRecord> deferred) {
+        if (registry.getDepartment(r.id) != null) {
+            result.error("Duplicate department code: " + r.id);
+            return;
+        }
+        Department d = new Department(r.name, r.id, r.field1, r.field2);
+        registry.registerDepartment(d);
+        result.departments++;
+        if (r.head != null) {
+            deferred.add(r); // The head is usually listed after the department
+        }
+    }
+
+    private void createStaff(ImportRecord r, ImportResult result, List<ImportRecord> deferred) {
+        if (registry.getStaff(r.id) != null) {
+            result.error("Duplicate staff ID: " + r.id);
+            return;
+        }
+        Staff s = r.kind == ImportRecord.Kind.LECTURER
+                ? new Lecturer(r.id, r.name, r.field1, r.field2)
+                : new AdministrativeStaff(r.id, r.name, r.field1, r.field2);
+        List<String> missing = null;
+        for (String code : r.refs) {
+            Department d = registry.getDepartment(code);
+            if (d == null) {
+                missing = addMissing(missing, code);
+            } else if (linkStaffDepartment(s, d)) {
+                result.links++;
+            }
+        }
+        // Registering after linking journals the staff member together with these links.
+        registry.registerStaff(s);
+        result.staff++;
+        if (missing != null) {
+            deferred.add(r.withRefs(missing));
+        }
+    }
+
+    private void createCourse(ImportRecord r, ImportResult result, List<ImportRecord> deferred) {
+        if (registry.getCourse(r.id) != null) {
+            result.error("Duplicate course code: " + r.id);
+            return;
+        }
+        Course c = new Course(r.id, r.name, r.credits, null);
+        boolean departmentMissing = false;
+        if (r.field1 != null) {
+            Department d = registry.getDepartment(r.field1);
+            if (d == null) {
+                departmentMissing = true;
+            } else {
+                linkOffering(c, d);
+            }
+        }
+        List<String> missing = null;
+        for (String staffId : r.refs) {
+            Lecturer l = registry.getLecturer(staffId);
+            if (l == null) {
+                missing = addMissing(missing, staffId);
+            } else if (linkLecturerCourse(l, c)) {
+                result.links++;
+            }
+        }
+        registry.registerCourse(c);
+        result.courses++;
+        if (missing != null || departmentMissing) {
+            deferred.add(r.withRefs(missing == null ? Collections.emptyList() : missing)
+                    .withDepartment(departmentMissing ? r.field1 : null));
+        }
+    }
+
+    /**
+     * Second chance for references to entities that appeared later in the file.
+     * Both ends are registered by now, so the registry is told about each link for its journal.
+     */
+    private void resolveDeferred(List<ImportRecord> deferred, ImportResult result) {
+        for (ImportRecord r : deferred) {
+            switch (r.kind) {
+                case DEPARTMENT: {
+                    Department d = registry.getDepartment(r.id);
+                    Staff head = registry.getStaff(r.head);
+                    if (head == null) {
+                        result.error("Unknown head of department " + r.head + " for " + r.id);
+                    } else {
+                        registry.headChanged(d, head);
+                        d.attachHeadOfDepartment(head);
+                    }
+                    break;
+                }
+                case LECTURER:
+                case ADMINISTRATIVE: {
+                    Staff s = registry.getStaff(r.id);
+                    for (String code : r.refs) {
+                        Department d = registry.getDepartment(code);
+                        if (d == null) {
+                            result.error("Unknown department " + code + " for staff " + r.id);
+                        } else if (linkStaffDepartment(s, d)) {
+                            registry.staffDepartmentLinked(s, d);
+                            result.links++;
+                        }
+                    }
+                    break;
+                }
+                case COURSE: {
+                    Course c = registry.getCourse(r.id);
+                    if (r.field1 != null) {
+                        Department d = registry.getDepartment(r.field1);
+                        if (d == null) {
+                            result.error("Unknown department " + r.field1 + " for course " + r.id);
+                        } else {
+                            linkOffering(c, d);
+                            registry.offeringDepartmentChanged(c, d);
+                            registry.departmentCourseLinked(d, c);
+                        }
+                    }
+                    for (String staffId : r.refs) {
+                        Lecturer l = registry.getLecturer(staffId);
+                        if (l == null) {
+                            result.error("Unknown lecturer " + staffId + " for course " + r.id);
+                        } else if (linkLecturerCourse(l, c)) {
+                            registry.lecturerCourseLinked(l, c);
+                            result.links++;
+                        }
+                    }
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+    }
+
+    // Both sides of a link in one step, under the same striped locks the public add methods use.
+
+    private static boolean linkStaffDepartment(Staff s, Department d) {
+        AssociationLocks.lock(s, d);
+        try {
+            boolean added = s.attachDepartment(d);
+            d.attachStaffMember(s);
+            return added;
+        } finally {
+            AssociationLocks.unlock(s, d);
+        }
+    }
+
+    private static boolean linkLecturerCourse(Lecturer l, Course c) {
+        AssociationLocks.lock(l, c);
+        try {
+            boolean added = l.attachCourse(c);
+            c.attachLecturer(l);
+            return added;
+        } finally {
+            AssociationLocks.unlock(l, c);
+        }
+    }
+
+    private static void linkOffering(Course c, Department d) {
+        AssociationLocks.lock(c, d);
+        try {
+            c.attachOfferingDepartment(d);
+            d.attachCourse(c);
+        } finally {
+            AssociationLocks.unlock(c, d);
+        }
+    }
+
+    private static List<String> addMissing(List<String> missing, String ref) {
+        if (missing == null) {
+            missing = new ArrayList<>(2);
+        }
+        missing.add(ref);
+        return missing;
+    }
+
+    private static String abbreviate(String raw) {
+        return raw.length() <= 80 ? raw : raw.substring(0, 77) + "...";
+    }
+
+    // --- Parsing (runs in parallel, must not touch the registry) ---
+
+    static ImportRecord parseCsv(String line) {
+        List<String> f = splitCsv(line);
+        String type = f.get(0).trim().toLowerCase(Locale.ROOT);
+        switch (type) {
+            case "department":
+                require(f, 5);
+                return ImportRecord.department(f.get(1), f.get(2), f.get(3), f.get(4), optional(f, 5));
+            case "lecturer":
+                require(f, 5);
+                return ImportRecord.staff(ImportRecord.Kind.LECTURER, f.get(1), f.get(2), f.get(3), f.get(4),
+                        splitList(optional(f, 5)));
+            case "admin":
+                require(f, 5);
+                return ImportRecord.staff(ImportRecord.Kind.ADMINISTRATIVE, f.get(1), f.get(2), f.get(3), f.get(4),
+                        splitList(optional(f, 5)));
+            case "course":
+                require(f, 5);
+                return ImportRecord.course(f.get(1), f.get(2), parseCredits(f.get(3)), emptyToNull(f.get(4)),
+                        splitList(optional(f, 5)));
+            default:
+                throw new IllegalArgumentException("Unknown record type '" + type + "'");
+        }
+    }
+
+    static ImportRecord parseJson(String text) {
+        Map<String, Object> o = MiniJson.parseObject(text);
+        String type = string(o, "type");
+        if (type == null) {
+            throw new IllegalArgumentException("Missing \"type\"");
+        }
+        switch (type.toLowerCase(Locale.ROOT)) {
+            case "department":
+                return ImportRecord.department(required(o, "code"), string(o, "name"), string(o, "room"),
+                        string(o, "extension"), string(o, "head"));
+            case "lecturer":
+                return ImportRecord.staff(ImportRecord.Kind.LECTURER, required(o, "staffId"), string(o, "name"),
+                        string(o, "email"), string(o, "specialization"), list(o, "departments"));
+            case "admin":
+                return ImportRecord.staff(ImportRecord.Kind.ADMINISTRATIVE, required(o, "staffId"), string(o, "name"),
+                        string(o, "email"), string(o, "role"), list(o, "departments"));
+            case "course": {
+                Object credits = o.get("credits");
+                return ImportRecord.course(required(o, "code"), string(o, "title"),
+                        credits == null ? 0 : parseCredits(credits.toString()), string(o, "department"),
+                        list(o, "lecturers"));
+            }
+            default:
+                throw new IllegalArgumentException("Unknown record type '" + type + "'");
+        }
+    }
+
+    /**
+     * Splits one CSV line into fields. Supports "quoted" fields with "" as an escaped quote.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(8);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(ch);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private static List<String> splitList(String value) {
+        if (value == null || value.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> items = new ArrayList<>(4);
+        for (String item : value.split(";")) {
+            String trimmed = item.trim();
+            if (!trimmed.isEmpty()) {
+                items.add(trimmed);
+            }
+        }
+        return items;
+    }
+
+    private static void require(List<String> fields, int count) {
+        if (fields.size() < count) {
+            throw new IllegalArgumentException("Expected at least " + count + " fields");
+        }
+    }
+
+    private static String optional(List<String> fields, int index) {
+        return index < fields.size() ? emptyToNull(fields.get(index)) : null;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    // Credits are whole numbers. "3.0" (or 3e0 from a JSON writer) is accepted, but "3.7" is a
+    // row error rather than silently becoming 3.
+    private static int parseCredits(String value) {
+        double credits;
+        try {
+            credits = Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid credits '" + value + "'");
+        }
+        if (credits != Math.rint(credits)) {
+            throw new IllegalArgumentException("Invalid credits '" + value + "': not a whole number");
+        }
+        if (credits < Integer.MIN_VALUE || credits > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid credits '" + value + "': out of range");
+        }
+        return (int) credits;
+    }
+
+    private static String string(Map<String, Object> o, String key) {
+        Object value = o.get(key);
+        return value == null ? null : value.toString();
+    }
+
+    private static String required(Map<String, Object> o, String key) {
+        String value = string(o, key);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing \"" + key + "\"");
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> list(Map<String, Object> o, String key) {
+        Object value = o.get(key);
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        if (value instanceof List) {
+            List<String> items = new ArrayList<>();
+            for (Object item : (List<Object>) value) {
+                if (item != null) {
+                    items.add(item.toString());
+                }
+            }
+            return items;
+        }
+        return splitList(value.toString());
+    }
+
+    // --- Parsed record ---
+
+    /**
+     * One parsed input record. Which fields are used depends on the kind:
+     * field1/field2 are room/extension, email/specialization (or role), or department/unused.
+     */
+    static final class ImportRecord {
+        enum Kind { DEPARTMENT, LECTURER, ADMINISTRATIVE, COURSE, ERROR }
+
+        final Kind kind;
+        final String id;
+        final String name;
+        final String field1;
+        final String field2;
+        final String head;
+        final int credits;
+        final List<String> refs;
+        final String error;
+
+        private ImportRecord(Kind kind, String id, String name, String field1, String field2,
+                             String head, int credits, List<String> refs, String error) {
+            this.kind = kind;
+            this.id = id;
+            this.name = name;
+            this.field1 = field1;
+            this.field2 = field2;
+            this.head = head;
+            this.credits = credits;
+            this.refs = refs;
+            this.error = error;
+        }
+
+        static ImportRecord department(String code, String name, String room, String extension, String head) {
+            return new ImportRecord(Kind.DEPARTMENT, code, name, room, extension, head, 0, Collections.emptyList(), null);
+        }
+
+        static ImportRecord staff(Kind kind, String staffId, String name, String email, String extra,
+                                  List<String> departments) {
+            return new ImportRecord(kind, staffId, name, email, extra, null, 0, departments, null);
+        }
+
+        static ImportRecord course(String code, String title, int credits, String department, List<String> lecturers) {
+            return new ImportRecord(Kind.COURSE, code, title, department, null, null, credits, lecturers, null);
+        }
+
+        static ImportRecord error(String message) {
+            return new ImportRecord(Kind.ERROR, null, null, null, null, null, 0, Collections.emptyList(), message);
+        }
+
+        ImportRecord withRefs(List<String> newRefs) {
+            return new ImportRecord(kind, id, name, field1, field2, head, credits, newRefs, error);
+        }
+
+        ImportRecord withDepartment(String department) {
+            return new ImportRecord(kind, id, name, department, field2, head, credits, refs, error);
+        }
+    }
+
+    // --- Result ---
+
+    /**
+     * Summary of one import run.
+     */
+    public static final class ImportResult {
+        private long records;
+        private long departments;
+        private long staff;
+        private long courses;
+        private long links;
+        private long errorCount;
+        private final List<String> errors = new ArrayList<>();
+        private long elapsedNanos;
+
+        private void error(String message) {
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(message);
+            }
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        public long getDepartments() {
+            return departments;
+        }
+
+        public long getStaff() {
+            return staff;
+        }
+
+        public long getCourses() {
+            return courses;
+        }
+
+        public long getLinks() {
+            return links;
+        }
+
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        /**
+         * The first error messages (at most 100), in file order.
+         */
+        public List<String> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getRecordsPerSecond() {
+            return elapsedNanos == 0 ? 0 : records * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "Imported %d records (%d departments, %d staff, %d courses, %d links, %d errors) in %.1f ms: %.0f records/sec",
+                    records, departments, staff, courses, links, errorCount, elapsedNanos / 1e6, getRecordsPerSecond());
+        }
+    }
+
+    // --- Minimal JSON support ---
+
+    /**
+     * Cuts a JSON Lines stream or a top-level JSON array into the raw text of each object,
+     * so that the objects themselves can be parsed in parallel.
+     */
+    static final class JsonObjectSplitter {
+        private final Reader reader;
+        private final StringBuilder object = new StringBuilder(256);
+
+        JsonObjectSplitter(Reader reader) {
+            this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+        }
+
+        String next() throws IOException {
+            int ch;
+            // Skip whitespace, commas and array brackets between objects.
+            do {
+                ch = reader.read();
+                if (ch < 0) {
+                    return null;
+                }
+            } while (ch != '{');
+            object.setLength(0);
+            object.append('{');
+            int depth = 1;
+            boolean inString = false;
+            boolean escaped = false;
+            while (depth > 0) {
+                ch = reader.read();
+                if (ch < 0) {
+                    throw new IOException("Unexpected end of JSON input");
+                }
+                char c = (char) ch;
+                object.append(c);
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (c == '\\') {
+                        escaped = true;
+                    } else if (c == '"') {
+                        inString = false;
+                    }
+                } else if (c == '"') {
+                    inString = true;
+                } else if (c == '{') {
+                    depth++;
+                } else if (c == '}') {
+                    depth--;
+                }
+            }
+            return object.toString();
+        }
+    }
+
+    /**
+     * Parser for one flat JSON object whose values are strings, numbers, booleans, null
+     * or arrays of those.
+     */
+    static final class MiniJson {
+        private final String s;
+        private int pos;
+
+        private MiniJson(String s) {
+            this.s = s;
+        }
+
+        static Map<String, Object> parseObject(String text) {
+            MiniJson p = new MiniJson(text);
+            p.skipWhitespace();
+            Map<String, Object> o = p.object();
+            p.skipWhitespace();
+            if (p.pos != p.s.length()) {
+                throw new IllegalArgumentException("Trailing characters after JSON object");
+            }
+            return o;
+        }
+
+        private Map<String, Object> object() {
+            expect('{');
+            Map<String, Object> o = new HashMap<>();
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return o;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                o.put(key, value());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    return o;
+                }
+                if (c != ',') {
+                    throw new IllegalArgumentException("Expected ',' or '}' at " + (pos - 1));
+                }
+            }
+        }
+
+        private Object value() {
+            char c = peek();
+            if (c == '"') {
+                return string();
+            }
+            if (c == '[') {
+                pos++;
+                List<Object> items = new ArrayList<>();
+                skipWhitespace();
+                if (peek() == ']') {
+                    pos++;
+                    return items;
+                }
+                while (true) {
+                    skipWhitespace();
+                    items.add(value());
+                    skipWhitespace();
+                    char d = next();
+                    if (d == ']') {
+                        return items;
+                    }
+                    if (d != ',') {
+                        throw new IllegalArgumentException("Expected ',' or ']' at " + (pos - 1));
+                    }
+                }
+            }
+            if (c == '{') {
+                return object();
+            }
+            int start = pos;
+            while (pos < s.length() && ",}] \t\r\n".indexOf(s.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = s.substring(start, pos);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.isEmpty()) {
+                throw new IllegalArgumentException("Expected a value at " + start);
+            }
+            return literal; // Numbers and booleans are kept as text; callers convert them
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = next();
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > s.length()) {
+                            throw new IllegalArgumentException("Bad unicode escape");
+                        }
+                        sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default: sb.append(e); break; // \" \\ \/
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() {
+            if (pos >= s.length()) {
+                throw new IllegalArgumentException("Unexpected end of JSON object");
+            }
+            return s.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char c) {
+            if (next() != c) {
+                throw new IllegalArgumentException("Expected '" + c + "' at " + (pos - 1));
+            }
+        }
+    }
+}
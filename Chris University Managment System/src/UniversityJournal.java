@@ -0,0 +1,530 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// UniversityJournal.java
+// Append-only write-ahead journal of every change made to a UniversityRegistry between snapshots.
+//
+// Each record is: payload length (int), CRC32 of the payload (int), payload.
+// The payload is an operation code followed by its fields (Strings as length + UTF-8 bytes, -1 for null).
+//
+// Group commit: mutators only copy their record into an in-memory buffer. A background flusher
+// thread writes whatever has accumulated and calls force() once for the whole batch, either
+// when the flush interval has passed or when the buffer is large. A burst of thousands of changes
+// therefore costs a handful of disk syncs instead of one per call. sync() waits until everything
+// appended so far is on disk and returns the durable journal length, which can be stored with a
+// snapshot as the offset to resume replay from.
+//
+// Typical use:
+//   UniversityRegistry registry = UniversitySnapshot.load(snapshotFile);
+//   UniversityJournal.replay(journalFile, registry, UniversitySnapshot.journalOffset(snapshotFile));
+//   registry.attachJournal(UniversityJournal.open(journalFile));
+//   AssociationValidator.validate(registry, true); // Optional: repair the links (repairs are journaled)
+public final class UniversityJournal implements Closeable {
+    // --- Operation codes ---
+    static final byte NEW_DEPARTMENT = 1;
+    static final byte NEW_LECTURER = 2;
+    static final byte NEW_ADMINISTRATIVE_STAFF = 3;
+    static final byte NEW_COURSE = 4;
+    static final byte LINK_STAFF_DEPARTMENT = 5;
+    static final byte LINK_LECTURER_COURSE = 6;
+    static final byte DEPARTMENT_COURSE = 7;
+    static final byte SET_HEAD_OF_DEPARTMENT = 8;
+    static final byte SET_CREDITS = 9;
+    static final byte SET_EMAIL = 10;
+    static final byte SET_ROLE = 11;
+    static final byte SET_SPECIALIZATION = 12;
+    static final byte SET_OFFICE_ROOM = 13;
+    static final byte SET_OFFICE_EXTENSION = 14;
+    static final byte SET_OFFERING_DEPARTMENT = 15;
+    static final byte UNLINK_STAFF_DEPARTMENT = 16;
+    static final byte UNLINK_LECTURER_COURSE = 17;
+    static final byte REMOVE_DEPARTMENT_COURSE = 18;
+
+    private static final int HEADER_BYTES = 8;             // length + CRC
+    private static final int FLUSH_THRESHOLD = 1 << 20;    // Flush early once 1 MB is waiting
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 5;
+
+    private final FileChannel channel;
+    private final long flushIntervalMillis;
+    private final Object lock = new Object();
+    private final Thread flusher;
+
+    // Guarded by lock.
+    private ByteBuffer pending = ByteBuffer.allocate(1 << 16);
+    private ByteBuffer spare = ByteBuffer.allocate(1 << 16);
+    private long appendedLength;   // Journal length including records not yet on disk
+    private long durableLength;    // Journal length known to be forced to disk
+    private long firstPendingNanos;
+    private boolean syncRequested;
+    private boolean closed;
+    private IOException failure;
+
+    private UniversityJournal(FileChannel channel, long length, long flushIntervalMillis) {
+        this.channel = channel;
+        this.appendedLength = length;
+        this.durableLength = length;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flusher = new Thread(this::flushLoop, "university-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Opens (or creates) a journal file for appending, with the default group-commit interval.
+     * A torn record at the end of the file (from a crash mid-write) is cut off first.
+     * @param file The journal file.
+     * @return The open journal.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static UniversityJournal open(Path file) throws IOException {
+        return open(file, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Opens (or creates) a journal file for appending.
+     * @param file The journal file.
+     * @param flushIntervalMillis How long a record may wait for more records to share its disk sync.
+     * @return The open journal.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static UniversityJournal open(Path file, long flushIntervalMillis) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long validLength = scan(channel, 0, null);
+            channel.truncate(validLength);
+            channel.position(validLength);
+            return new UniversityJournal(channel, validLength, flushIntervalMillis);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Replays a journal into a registry, streaming record by record.
+     * Call this before attaching a journal to the registry, otherwise the replayed
+     * changes would be journaled a second time.
+     * @param file The journal file (a missing file counts as empty).
+     * @param registry The registry to apply the changes to, e.g. one loaded from a snapshot.
+     * @param fromOffset The journal length covered by that snapshot (0 to replay everything).
+     * @return The journal offset after the last complete record.
+     * @throws IOException if the journal cannot be read or refers to unknown entities.
+     */
+    public static long replay(Path file, UniversityRegistry registry, long fromOffset) throws IOException {
+        if (!Files.exists(file)) {
+            return fromOffset;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return scan(channel, fromOffset, registry);
+        }
+    }
+
+    /**
+     * Waits until every record appended so far has been forced to disk.
+     * @return The durable journal length (an offset to store with a snapshot).
+     * @throws IOException if writing the journal failed.
+     */
+    public long sync() throws IOException {
+        synchronized (lock) {
+            long target = appendedLength;
+            syncRequested = true;
+            lock.notifyAll();
+            try {
+                while (durableLength < target && failure == null) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for journal sync");
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return durableLength;
+        }
+    }
+
+    /**
+     * Flushes everything still pending and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        synchronized (lock) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    // --- Recording, called by UniversityRegistry ---
+
+    void newDepartment(Department d) {
+        record(NEW_DEPARTMENT, d.getName(), d.getDepartmentCode(),
+                d.getOffice().getRoomNumber(), d.getOffice().getPhoneExtension());
+    }
+
+    void newStaff(Staff s) {
+        if (s instanceof Lecturer) {
+            record(NEW_LECTURER, s.getStaffId(), s.getName(), s.getEmail(),
+                    ((Lecturer) s).getSpecialization());
+        } else {
+            record(NEW_ADMINISTRATIVE_STAFF, s.getStaffId(), s.getName(), s.getEmail(),
+                    ((AdministrativeStaff) s).getRole());
+        }
+    }
+
+    void newCourse(Course c, Department offering) {
+        record(NEW_COURSE, c.getCourseCode(), c.getTitle(), c.getCredits(),
+                offering == null ? null : offering.getDepartmentCode());
+    }
+
+    /**
+     * Appends one record. Fields are Strings (or null) and Integers, in the order apply() reads them.
+     */
+    void record(byte op, Object... fields) {
+        append(encode(op, fields));
+    }
+
+    // --- Internals ---
+
+    private static byte[] encode(byte op, Object... fields) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0); // Length and CRC are filled in below
+            out.writeInt(0);
+            out.writeByte(op);
+            for (Object field : fields) {
+                if (field instanceof Integer) {
+                    out.writeInt((Integer) field);
+                } else if (field == null) {
+                    out.writeInt(-1);
+                } else {
+                    byte[] utf8 = ((String) field).getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(utf8.length);
+                    out.write(utf8);
+                }
+            }
+            byte[] record = bytes.toByteArray();
+            int payloadLength = record.length - HEADER_BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(record, HEADER_BYTES, payloadLength);
+            ByteBuffer.wrap(record).putInt(payloadLength).putInt((int) crc.getValue());
+            return record;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // ByteArrayOutputStream does not throw
+        }
+    }
+
+    private void append(byte[] record) {
+        synchronized (lock) {
+            if (failure != null) {
+                throw new UncheckedIOException("Journal is no longer writable", failure);
+            }
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            if (pending.remaining() < record.length) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + record.length));
+                pending.flip();
+                bigger.put(pending);
+                pending = bigger;
+            }
+            if (pending.position() == 0) {
+                firstPendingNanos = System.nanoTime();
+            }
+            pending.put(record);
+            appendedLength += record.length;
+            if (pending.position() >= FLUSH_THRESHOLD) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            ByteBuffer batch;
+            long batchEnd;
+            synchronized (lock) {
+                try {
+                    // Wait for work, then give other writers up to flushIntervalMillis to join the batch.
+                    while (!closed) {
+                        if (pending.position() > 0) {
+                            long waited = (System.nanoTime() - firstPendingNanos) / 1_000_000;
+                            if (syncRequested || pending.position() >= FLUSH_THRESHOLD || waited >= flushIntervalMillis) {
+                                break;
+                            }
+                            lock.wait(flushIntervalMillis - waited);
+                        } else {
+                            syncRequested = false;
+                            lock.wait();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    closed = true;
+                }
+                if (pending.position() == 0) {
+                    if (closed) {
+                        lock.notifyAll();
+                        return;
+                    }
+                    continue;
+                }
+                batch = pending;
+                pending = spare != null ? spare : ByteBuffer.allocate(batch.capacity());
+                spare = null;
+                batchEnd = appendedLength;
+                syncRequested = false;
+            }
+
+            IOException error = null;
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false); // One disk sync for the whole batch
+            } catch (IOException e) {
+                error = e;
+            }
+
+            synchronized (lock) {
+                batch.clear();
+                spare = batch;
+                if (error != null) {
+                    failure = error;
+                    lock.notifyAll();
+                    return;
+                }
+                durableLength = batchEnd;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Reads records from the given offset. With a registry, each record is applied to it;
+     * without one, the records are only checked. Stops at the end of the file or at the first
+     * torn/corrupt record.
+     * @return The offset just past the last complete, valid record.
+     */
+    private static long scan(FileChannel channel, long fromOffset, UniversityRegistry registry) throws IOException {
+        channel.position(fromOffset);
+        InputStream raw = Channels.newInputStream(channel);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 1 << 16));
+        long offset = fromOffset;
+        byte[] payload = new byte[256];
+        CRC32 crc = new CRC32();
+        while (true) {
+            int length;
+            int expectedCrc;
+            try {
+                length = in.readInt();
+                expectedCrc = in.readInt();
+                if (length <= 0 || length > channel.size() - offset - HEADER_BYTES) {
+                    return offset; // Garbage header: treat as the end of the journal
+                }
+                if (payload.length < length) {
+                    payload = new byte[Math.max(length, payload.length * 2)];
+                }
+                in.readFully(payload, 0, length);
+            } catch (EOFException e) {
+                return offset; // Clean end of file, or a record torn by a crash
+            }
+            crc.reset();
+            crc.update(payload, 0, length);
+            if ((int) crc.getValue() != expectedCrc) {
+                return offset;
+            }
+            if (registry != null) {
+                apply(registry, new DataInputStream(new ByteArrayInputStream(payload, 0, length)));
+            }
+            offset += HEADER_BYTES + length;
+        }
+    }
+
+    private static void apply(UniversityRegistry registry, DataInputStream in) throws IOException {
+        byte op = in.readByte();
+        switch (op) {
+            case NEW_DEPARTMENT: {
+                Department d = new Department(readString(in), readString(in), readString(in), readString(in));
+                if (registry.getDepartment(d.getDepartmentCode()) == null) {
+                    registry.registerDepartment(d);
+                }
+                break;
+            }
+            case NEW_LECTURER: {
+                Lecturer l = new Lecturer(readString(in), readString(in), readString(in), readString(in));
+                if (registry.getStaff(l.getStaffId()) == null) {
+                    registry.registerStaff(l);
+                }
+                break;
+            }
+            case NEW_ADMINISTRATIVE_STAFF: {
+                AdministrativeStaff a = new AdministrativeStaff(readString(in), readString(in), readString(in), readString(in));
+                if (registry.getStaff(a.getStaffId()) == null) {
+                    registry.registerStaff(a);
+                }
+                break;
+            }
+            case NEW_COURSE: {
+                Course c = new Course(readString(in), readString(in), in.readInt(), null);
+                String departmentCode = readString(in);
+                if (registry.getCourse(c.getCourseCode()) == null) {
+                    if (departmentCode != null) {
+                        Department d = department(registry, departmentCode);
+                        c.attachOfferingDepartment(d);
+                        d.attachCourse(c);
+                    }
+                    registry.registerCourse(c);
+                }
+                break;
+            }
+            case LINK_STAFF_DEPARTMENT: {
+                Staff s = staff(registry, readString(in));
+                Department d = department(registry, readString(in));
+                s.attachDepartment(d);
+                d.attachStaffMember(s);
+                break;
+            }
+            case LINK_LECTURER_COURSE: {
+                Staff s = staff(registry, readString(in));
+                Course c = course(registry, readString(in));
+                if (!(s instanceof Lecturer)) {
+                    throw new IOException("Journal assigns a course to non-lecturer " + s.getStaffId());
+                }
+                ((Lecturer) s).attachCourse(c);
+                c.attachLecturer((Lecturer) s);
+                break;
+            }
+            case DEPARTMENT_COURSE:
+                department(registry, readString(in)).attachCourse(course(registry, readString(in)));
+                break;
+            case UNLINK_STAFF_DEPARTMENT: {
+                Staff s = staff(registry, readString(in));
+                Department d = department(registry, readString(in));
+                s.detachDepartment(d);
+                d.detachStaffMember(s);
+                break;
+            }
+            case UNLINK_LECTURER_COURSE: {
+                Staff s = staff(registry, readString(in));
+                Course c = course(registry, readString(in));
+                if (!(s instanceof Lecturer)) {
+                    throw new IOException("Journal unassigns a course from non-lecturer " + s.getStaffId());
+                }
+                ((Lecturer) s).detachCourse(c);
+                c.detachLecturer((Lecturer) s);
+                break;
+            }
+            case REMOVE_DEPARTMENT_COURSE:
+                department(registry, readString(in)).detachCourse(course(registry, readString(in)));
+                break;
+            case SET_HEAD_OF_DEPARTMENT: {
+                Department d = department(registry, readString(in));
+                String staffId = readString(in);
+                d.attachHeadOfDepartment(staffId == null ? null : staff(registry, staffId));
+                break;
+            }
+            case SET_CREDITS:
+                course(registry, readString(in)).attachCredits(in.readInt());
+                break;
+            case SET_EMAIL:
+                staff(registry, readString(in)).attachEmail(readString(in));
+                break;
+            case SET_ROLE: {
+                Staff s = staff(registry, readString(in));
+                if (s instanceof AdministrativeStaff) {
+                    ((AdministrativeStaff) s).attachRole(readString(in));
+                }
+                break;
+            }
+            case SET_SPECIALIZATION: {
+                Staff s = staff(registry, readString(in));
+                if (s instanceof Lecturer) {
+                    ((Lecturer) s).attachSpecialization(readString(in));
+                }
+                break;
+            }
+            case SET_OFFICE_ROOM:
+                department(registry, readString(in)).getOffice().attachRoomNumber(readString(in));
+                break;
+            case SET_OFFICE_EXTENSION:
+                department(registry, readString(in)).getOffice().attachPhoneExtension(readString(in));
+                break;
+            case SET_OFFERING_DEPARTMENT: {
+                Course c = course(registry, readString(in));
+                String departmentCode = readString(in);
+                c.attachOfferingDepartment(departmentCode == null ? null : department(registry, departmentCode));
+                break;
+            }
+            default:
+                throw new IOException("Unknown journal operation: " + op);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static Department department(UniversityRegistry registry, String code) throws IOException {
+        Department d = registry.getDepartment(code);
+        if (d == null) {
+            throw new IOException("Journal references unknown department " + code);
+        }
+        return d;
+    }
+
+    private static Staff staff(UniversityRegistry registry, String staffId) throws IOException {
+        Staff s = registry.getStaff(staffId);
+        if (s == null) {
+            throw new IOException("Journal references unknown staff member " + staffId);
+        }
+        return s;
+    }
+
+    private static Course course(UniversityRegistry registry, String courseCode) throws IOException {
+        Course c = registry.getCourse(courseCode);
+        if (c == null) {
+            throw new IOException("Journal references unknown course " + courseCode);
+        }
+        return c;
+    }
+}
@@ -0,0 +1,505 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// UniversityQuery.java
+// Small query API over the entities of a UniversityRegistry, replacing hand-written nested loops
+// over getCoursesOffered(), getLecturers() and getCoursesTeaching().
+//
+// A query is a list of conditions that must all hold. Some conditions can also produce their own
+// candidates (an "access path"): a registry index (specialization, role, credits, email domain,
+// ID) or the links of the entities matched by a nested query. When the results are requested,
+// the condition with the smallest estimated candidate set drives the query and the others are
+// checked as filters; if no access path is smaller, the full entity list is scanned. Filters on
+// linked entities are checked after the cheap field filters.
+//
+// Example: all AI lecturers teaching a 4-credit course in a department headed by L001:
+//   List<Lecturer> result = UniversityQuery.lecturers(registry)
+//           .withSpecialization("Artificial Intelligence")
+//           .teaching(UniversityQuery.courses(registry)
+//                   .withCredits(4)
+//                   .offeredBy(UniversityQuery.departments(registry).headedBy("L001")))
+//           .list();
+//
+// Results are computed lazily: nothing is read until stream(), list(), count() or findAny() is
+// called, and every call re-reads the registry. Large candidate sets are processed as parallel
+// streams. Candidates from an index are always re-checked against every condition, so an entity
+// changed while the query runs is never returned if it no longer matches.
+public abstract class UniversityQuery<T, Q extends UniversityQuery<T, Q>> {
+    // Candidate sets at least this large are filtered in parallel.
+    static final long PARALLEL_THRESHOLD = 10_000;
+    // Assumed links per entity when estimating how many candidates a nested query yields.
+    private static final long LINK_FANOUT = 2;
+    // Nested queries estimated at or below this size are run during planning to count their
+    // links exactly, instead of guessing with an average fanout.
+    private static final long EXACT_ESTIMATE_LIMIT = 1_000;
+
+    final UniversityRegistry registry;
+    private final Class<T> type;
+    private final String entityName;
+    private final List<Condition<T>> conditions = new ArrayList<>();
+    // The conditions in the order matches() checks them: plain field conditions first.
+    private List<Condition<T>> filters = List.of();
+
+    UniversityQuery(UniversityRegistry registry, Class<T> type, String entityName) {
+        this.registry = Objects.requireNonNull(registry, "registry");
+        this.type = type;
+        this.entityName = entityName;
+    }
+
+    // --- Entry points ---
+
+    public static StaffQuery staff(UniversityRegistry registry) {
+        return new StaffQuery(registry);
+    }
+
+    public static LecturerQuery lecturers(UniversityRegistry registry) {
+        return new LecturerQuery(registry);
+    }
+
+    public static AdministrativeStaffQuery administrativeStaff(UniversityRegistry registry) {
+        return new AdministrativeStaffQuery(registry);
+    }
+
+    public static CourseQuery courses(UniversityRegistry registry) {
+        return new CourseQuery(registry);
+    }
+
+    public static DepartmentQuery departments(UniversityRegistry registry) {
+        return new DepartmentQuery(registry);
+    }
+
+    // --- Conditions common to every query ---
+
+    /**
+     * Adds an arbitrary condition. It has no access path, so it is only ever used as a filter.
+     * @param predicate The condition the results must satisfy.
+     * @return This query, for chaining.
+     */
+    public Q where(Predicate<? super T> predicate) {
+        return add(new Condition<>("where(...)", predicate, true, null));
+    }
+
+    // --- Results ---
+
+    /**
+     * @return A lazy stream of the matching entities, parallel if the candidate set is large.
+     */
+    public Stream<T> stream() {
+        Condition<T> driver = chooseDriver();
+        Stream<?> candidates;
+        long size;
+        if (driver == null) {
+            Collection<?> all = all();
+            candidates = all.stream();
+            size = all.size();
+        } else {
+            candidates = driver.path.candidates.get();
+            size = driver.path.estimate.getAsLong();
+        }
+        if (size >= PARALLEL_THRESHOLD) {
+            candidates = candidates.parallel();
+        }
+        Stream<T> typed = candidates.filter(type::isInstance).map(type::cast);
+        if (driver != null && driver.path.mayRepeat) {
+            typed = typed.distinct();
+        }
+        return typed.filter(this::matches);
+    }
+
+    /**
+     * @return The matching entities, in no particular order.
+     */
+    public List<T> list() {
+        return stream().collect(Collectors.toList());
+    }
+
+    /**
+     * @return The number of matching entities.
+     */
+    public long count() {
+        return stream().count();
+    }
+
+    /**
+     * @return Any one matching entity, or empty if nothing matches.
+     */
+    public Optional<T> findAny() {
+        return stream().findAny();
+    }
+
+    /**
+     * Checks one entity against every condition of this query (cheap conditions first).
+     * @param candidate The entity to check.
+     * @return true if it satisfies all conditions.
+     */
+    public boolean matches(T candidate) {
+        for (Condition<T> c : filters) {
+            if (!c.predicate.test(candidate)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Describes how the query would run now, e.g.
+     * "lecturers via index specialization=Databases (~812), filter [teaching(...)]".
+     */
+    public String explain() {
+        Condition<T> driver = chooseDriver();
+        StringBuilder sb = new StringBuilder(entityName);
+        if (driver == null) {
+            sb.append(" via full scan (").append(all().size()).append(')');
+        } else {
+            sb.append(" via ").append(driver.description).append(" (~").append(driver.path.estimate.getAsLong()).append(')');
+        }
+        if (!conditions.isEmpty()) {
+            sb.append(", filter ").append(filters.stream().map(c -> c.description).collect(Collectors.toList()));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return entityName + conditions.stream().map(c -> c.description).collect(Collectors.toList());
+    }
+
+    // --- Planning ---
+
+    /**
+     * Estimated number of results: the size of the cheapest way to find the candidates.
+     */
+    long estimatedSize() {
+        Condition<T> driver = chooseDriver();
+        return driver == null ? all().size() : driver.path.estimate.getAsLong();
+    }
+
+    /** The entities scanned when no access path is cheaper. */
+    abstract Collection<?> all();
+
+    Class<T> type() {
+        return type;
+    }
+
+    @SuppressWarnings("unchecked")
+    final Q add(Condition<T> condition) {
+        conditions.add(condition);
+        List<Condition<T>> ordered = new ArrayList<>(conditions);
+        ordered.sort(Comparator.comparing(c -> c.followsLinks)); // Stable: keeps the order they were added in
+        filters = ordered;
+        return (Q) this;
+    }
+
+    private Condition<T> chooseDriver() {
+        Condition<T> best = null;
+        long bestEstimate = all().size();
+        for (Condition<T> c : conditions) {
+            if (c.path != null) {
+                long estimate = c.path.estimate.getAsLong();
+                if (estimate < bestEstimate) {
+                    best = c;
+                    bestEstimate = estimate;
+                }
+            }
+        }
+        return best;
+    }
+
+    // --- Condition helpers for the subclasses ---
+
+    /** A condition answered by a registry index. */
+    Condition<T> indexed(String description, Predicate<? super T> predicate, Supplier<Collection<?>> index) {
+        return new Condition<>("index " + description, predicate, false,
+                new AccessPath(() -> index.get().size(), () -> index.get().stream(), false));
+    }
+
+    /** A condition answered by following links from the results of a nested query. */
+    <S> Condition<T> linked(String description, Predicate<? super T> predicate, UniversityQuery<S, ?> nested,
+                            long fanout, Function<S, Collection<?>> links) {
+        return new Condition<>(description + "(" + nested + ")", predicate, true,
+                new AccessPath(() -> {
+                    long nestedSize = nested.estimatedSize();
+                    if (nestedSize > EXACT_ESTIMATE_LIMIT) {
+                        return nestedSize * fanout;
+                    }
+                    return nested.stream().mapToLong(s -> links.apply(s).size()).sum();
+                }, () -> nested.stream().flatMap(s -> links.apply(s).stream()), true));
+    }
+
+    /** A condition with no access path. */
+    Condition<T> filter(String description, Predicate<? super T> predicate) {
+        return new Condition<>(description, predicate, false, null);
+    }
+
+    /** A condition on linked entities with no access path. */
+    <S> Condition<T> linkedFilter(String description, Predicate<? super T> predicate, UniversityQuery<S, ?> nested) {
+        return new Condition<>(description + "(" + nested + ")", predicate, true, null);
+    }
+
+    static long fanout(long children, long parents) {
+        return parents == 0 ? LINK_FANOUT : Math.max(1, (children + parents - 1) / parents);
+    }
+
+    static final class Condition<T> {
+        final String description;
+        final Predicate<? super T> predicate;
+        final boolean followsLinks; // Checked after the plain field conditions
+        final AccessPath path;      // null if the condition can only filter
+
+        Condition(String description, Predicate<? super T> predicate, boolean followsLinks, AccessPath path) {
+            this.description = description;
+            this.predicate = predicate;
+            this.followsLinks = followsLinks;
+            this.path = path;
+        }
+    }
+
+    static final class AccessPath {
+        final LongSupplier estimate;
+        final Supplier<Stream<?>> candidates;
+        final boolean mayRepeat; // The same entity can be reached more than once
+
+        AccessPath(LongSupplier estimate, Supplier<Stream<?>> candidates, boolean mayRepeat) {
+            this.estimate = estimate;
+            this.candidates = candidates;
+            this.mayRepeat = mayRepeat;
+        }
+    }
+
+    // --- Staff ---
+
+    /** Conditions shared by every kind of staff query. */
+    public abstract static class AbstractStaffQuery<T extends Staff, Q extends AbstractStaffQuery<T, Q>>
+            extends UniversityQuery<T, Q> {
+
+        AbstractStaffQuery(UniversityRegistry registry, Class<T> type, String entityName) {
+            super(registry, type, entityName);
+        }
+
+        @Override
+        Collection<?> all() {
+            return registry.getAllStaff();
+        }
+
+        public Q withId(String staffId) {
+            return add(indexed("staffId=" + staffId, s -> s.getStaffId().equals(staffId), () -> {
+                Staff s = registry.getStaff(staffId);
+                return s == null ? List.of() : List.of(s);
+            }));
+        }
+
+        public Q withName(String name) {
+            return add(filter("name=" + name, s -> Objects.equals(s.getName(), name)));
+        }
+
+        /** Email at the given domain, case-insensitive (e.g. "uni.edu"). */
+        public Q withEmailDomain(String domain) {
+            String lower = UniversityRegistry.emailDomain("@" + domain);
+            return add(indexed("emailDomain=" + lower, s -> UniversityRegistry.emailDomain(s.getEmail()).equals(lower),
+                    () -> registry.getStaffByEmailDomain(lower)));
+        }
+
+        /** Assigned to at least one department matching the nested query. */
+        public Q inDepartment(DepartmentQuery departments) {
+            return add(linked("inDepartment", s -> anyMatch(s.getAssignedDepartments(), departments), departments,
+                    fanout(registry.getAllStaff().size(), registry.getAllDepartments().size()),
+                    Department::getStaffMembers));
+        }
+
+        public Q inDepartment(String departmentCode) {
+            return inDepartment(departments(registry).withCode(departmentCode));
+        }
+    }
+
+    public static final class StaffQuery extends AbstractStaffQuery<Staff, StaffQuery> {
+        StaffQuery(UniversityRegistry registry) {
+            super(registry, Staff.class, "staff");
+        }
+    }
+
+    public static final class LecturerQuery extends AbstractStaffQuery<Lecturer, LecturerQuery> {
+        LecturerQuery(UniversityRegistry registry) {
+            super(registry, Lecturer.class, "lecturers");
+        }
+
+        public LecturerQuery withSpecialization(String specialization) {
+            return add(indexed("specialization=" + specialization,
+                    l -> Objects.equals(l.getSpecialization(), specialization),
+                    () -> registry.getLecturersBySpecialization(specialization)));
+        }
+
+        /** Teaches at least one course matching the nested query. */
+        public LecturerQuery teaching(CourseQuery courses) {
+            return add(linked("teaching", l -> anyMatch(l.getCoursesTeaching(), courses), courses,
+                    LINK_FANOUT, Course::getLecturers));
+        }
+    }
+
+    public static final class AdministrativeStaffQuery
+            extends AbstractStaffQuery<AdministrativeStaff, AdministrativeStaffQuery> {
+        AdministrativeStaffQuery(UniversityRegistry registry) {
+            super(registry, AdministrativeStaff.class, "administrativeStaff");
+        }
+
+        public AdministrativeStaffQuery withRole(String role) {
+            return add(indexed("role=" + role, a -> Objects.equals(a.getRole(), role),
+                    () -> registry.getAdministrativeStaffByRole(role)));
+        }
+    }
+
+    // --- Courses ---
+
+    public static final class CourseQuery extends UniversityQuery<Course, CourseQuery> {
+        // Credit ranges up to this wide are answered by combining the per-value index buckets.
+        private static final int MAX_INDEXED_CREDIT_RANGE = 16;
+
+        CourseQuery(UniversityRegistry registry) {
+            super(registry, Course.class, "courses");
+        }
+
+        @Override
+        Collection<?> all() {
+            return registry.getAllCourses();
+        }
+
+        public CourseQuery withCode(String courseCode) {
+            return add(indexed("courseCode=" + courseCode, c -> c.getCourseCode().equals(courseCode), () -> {
+                Course c = registry.getCourse(courseCode);
+                return c == null ? List.of() : List.of(c);
+            }));
+        }
+
+        public CourseQuery withCredits(int credits) {
+            return add(indexed("credits=" + credits, c -> c.getCredits() == credits,
+                    () -> registry.getCoursesByCredits(credits)));
+        }
+
+        /** Credits between min and max, inclusive. */
+        public CourseQuery withCreditsBetween(int min, int max) {
+            Predicate<Course> predicate = c -> c.getCredits() >= min && c.getCredits() <= max;
+            String description = "credits=" + min + ".." + max;
+            if ((long) max - min >= MAX_INDEXED_CREDIT_RANGE) {
+                return add(filter(description, predicate));
+            }
+            return add(indexed(description, predicate, () -> {
+                List<Course> union = new ArrayList<>();
+                for (int credits = min; credits <= max; credits++) {
+                    union.addAll(registry.getCoursesByCredits(credits));
+                }
+                return union;
+            }));
+        }
+
+        /** Title contains the given text, ignoring case. */
+        public CourseQuery withTitleContaining(String text) {
+            return add(filter("titleContains=" + text, c -> containsIgnoreCase(c.getTitle(), text)));
+        }
+
+        /** Offering department matches the nested query. */
+        public CourseQuery offeredBy(DepartmentQuery departments) {
+            return add(linked("offeredBy",
+                    c -> c.getOfferingDepartment() != null && departments.matches(c.getOfferingDepartment()), departments,
+                    fanout(registry.getAllCourses().size(), registry.getAllDepartments().size()),
+                    Department::getCoursesOffered));
+        }
+
+        public CourseQuery offeredBy(String departmentCode) {
+            return offeredBy(departments(registry).withCode(departmentCode));
+        }
+
+        /** Taught by at least one lecturer matching the nested query. */
+        public CourseQuery taughtBy(LecturerQuery lecturers) {
+            return add(linked("taughtBy", c -> anyMatch(c.getLecturers(), lecturers), lecturers,
+                    LINK_FANOUT, Lecturer::getCoursesTeaching));
+        }
+    }
+
+    // --- Departments ---
+
+    public static final class DepartmentQuery extends UniversityQuery<Department, DepartmentQuery> {
+        DepartmentQuery(UniversityRegistry registry) {
+            super(registry, Department.class, "departments");
+        }
+
+        @Override
+        Collection<?> all() {
+            return registry.getAllDepartments();
+        }
+
+        public DepartmentQuery withCode(String departmentCode) {
+            return add(indexed("departmentCode=" + departmentCode, d -> d.getDepartmentCode().equals(departmentCode), () -> {
+                Department d = registry.getDepartment(departmentCode);
+                return d == null ? List.of() : List.of(d);
+            }));
+        }
+
+        public DepartmentQuery withName(String name) {
+            return add(filter("name=" + name, d -> Objects.equals(d.getName(), name)));
+        }
+
+        /** The head of department has the given staff ID. */
+        public DepartmentQuery headedBy(String staffId) {
+            return add(filter("headedBy=" + staffId,
+                    d -> d.getHeadOfDepartment() != null && d.getHeadOfDepartment().getStaffId().equals(staffId)));
+        }
+
+        /** Offers at least one course matching the nested query. Departments are few, so this only filters. */
+        public DepartmentQuery offering(CourseQuery courses) {
+            return add(linkedFilter("offering", d -> anyMatch(d.getCoursesOffered(), courses), courses));
+        }
+
+        /** Has at least one staff member matching the nested query. */
+        public DepartmentQuery employing(AbstractStaffQuery<?, ?> staff) {
+            return add(linked("employing", d -> anyStaffMatch(d.getStaffMembers(), staff), staff,
+                    LINK_FANOUT, Staff::getAssignedDepartments));
+        }
+
+        private static <S extends Staff> boolean anyStaffMatch(List<Staff> members, AbstractStaffQuery<S, ?> staff) {
+            Class<S> type = staff.type();
+            for (Staff s : members) {
+                if (type.isInstance(s) && staff.matches(type.cast(s))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Case-insensitive contains() without lower-casing (and copying) every title.
+    private static boolean containsIgnoreCase(String value, String part) {
+        if (value == null) {
+            return false;
+        }
+        if (part.isEmpty()) {
+            return true;
+        }
+        char lower = Character.toLowerCase(part.charAt(0));
+        char upper = Character.toUpperCase(part.charAt(0));
+        for (int i = 0; i <= value.length() - part.length(); i++) {
+            char c = value.charAt(i);
+            if ((c == lower || c == upper) && value.regionMatches(true, i, part, 0, part.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <S> boolean anyMatch(List<? extends S> values, UniversityQuery<S, ?> query) {
+        for (S value : values) {
+            if (query.matches(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
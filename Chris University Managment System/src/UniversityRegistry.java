@@ -0,0 +1,555 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// UniversityRegistry.java
+// Central owner of every Department, Staff member, Course and Student in the system.
+// Instead of walking the object graph to find something, callers look it up here by its ID.
+public class UniversityRegistry {
+    // Primary indexes: one entry per entity, keyed by its unique code/ID.
+    // Concurrent maps so many reader threads can look things up while the registry is being filled.
+    private final Map<String, Department> departmentsByCode = new ConcurrentHashMap<>();
+    private final Map<String, Staff> staffById = new ConcurrentHashMap<>();
+    private final Map<String, Course> coursesByCode = new ConcurrentHashMap<>();
+    private final Map<String, Student> studentsById = new ConcurrentHashMap<>();
+
+    // Secondary indexes: many entities per key. Kept up to date by the setters on the entities
+    // (setSpecialization, setRole, setCredits, setEmail) through the callbacks at the bottom of this class.
+    private final Map<String, Set<Lecturer>> lecturersBySpecialization = new ConcurrentHashMap<>();
+    private final Map<String, Set<AdministrativeStaff>> adminStaffByRole = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Course>> coursesByCredits = new ConcurrentHashMap<>();
+    private final Map<String, Set<Staff>> staffByEmailDomain = new ConcurrentHashMap<>();
+
+    // Optional write-ahead journal. When attached, every registration and every change to a
+    // registered entity is appended to it (see UniversityJournal).
+    private volatile UniversityJournal journal;
+    // Departments whose head was not registered yet when it was set: the head is journaled by
+    // registerStaff() once it is, whether or not it is a member of the department.
+    private final Map<Department, Staff> pendingHeads = new ConcurrentHashMap<>();
+
+    // Optional search index, kept up to date with new staff and courses and their changed fields.
+    private volatile SearchIndex searchIndex;
+
+    // Optional change feed: registrations are recorded here, other changes through DomainEvents.
+    private volatile ChangeFeed changeFeed;
+
+    // --- Registration ---
+
+    /**
+     * Adds a department to the registry.
+     * @param department The Department object to register.
+     * @throws IllegalArgumentException if another department already uses the same code.
+     */
+    public void registerDepartment(Department department) {
+        Department existing = departmentsByCode.putIfAbsent(department.getDepartmentCode(), department);
+        if (existing != null) {
+            if (existing != department) {
+                throw new IllegalArgumentException("Duplicate department code: " + department.getDepartmentCode());
+            }
+            return; // Already registered
+        }
+        department.registry = this;
+        created(ChangeFeed.EntityType.DEPARTMENT, department.getDepartmentCode());
+        UniversityJournal j = journal;
+        if (j != null) {
+            j.newDepartment(department);
+            // Links made before registration are journaled once both ends are registered.
+            for (Course course : department.getCoursesOffered()) {
+                if (course.registry == this) {
+                    j.record(UniversityJournal.DEPARTMENT_COURSE, department.getDepartmentCode(), course.getCourseCode());
+                    if (course.getOfferingDepartment() == department) {
+                        j.record(UniversityJournal.SET_OFFERING_DEPARTMENT, course.getCourseCode(), department.getDepartmentCode());
+                    }
+                }
+            }
+            for (Staff staffMember : department.getStaffMembers()) {
+                if (staffMember.registry == this) {
+                    j.record(UniversityJournal.LINK_STAFF_DEPARTMENT, staffMember.getStaffId(), department.getDepartmentCode());
+                }
+            }
+            AssociationLocks.lock(department);
+            try {
+                headChanged(department, department.getHeadOfDepartment());
+            } finally {
+                AssociationLocks.unlock(department);
+            }
+        }
+    }
+
+    /**
+     * Adds a staff member (Lecturer or AdministrativeStaff) to the registry and its secondary indexes.
+     * @param staffMember The Staff object to register.
+     * @throws IllegalArgumentException if another staff member already uses the same staff ID.
+     */
+    public void registerStaff(Staff staffMember) {
+        Staff existing = staffById.putIfAbsent(staffMember.getStaffId(), staffMember);
+        if (existing != null) {
+            if (existing != staffMember) {
+                throw new IllegalArgumentException("Duplicate staff ID: " + staffMember.getStaffId());
+            }
+            return; // Already registered
+        }
+        staffMember.registry = this;
+        addToIndex(staffByEmailDomain, emailDomain(staffMember.getEmail()), staffMember);
+        if (staffMember instanceof Lecturer) {
+            Lecturer lecturer = (Lecturer) staffMember;
+            addToIndex(lecturersBySpecialization, lecturer.getSpecialization(), lecturer);
+        } else if (staffMember instanceof AdministrativeStaff) {
+            AdministrativeStaff admin = (AdministrativeStaff) staffMember;
+            addToIndex(adminStaffByRole, admin.getRole(), admin);
+        }
+        SearchIndex s = searchIndex;
+        if (s != null) {
+            s.add(staffMember);
+        }
+        created(ChangeFeed.EntityType.STAFF, staffMember.getStaffId());
+        UniversityJournal j = journal;
+        if (j != null) {
+            j.newStaff(staffMember);
+            for (Department department : staffMember.getAssignedDepartments()) {
+                if (department.registry == this) {
+                    j.record(UniversityJournal.LINK_STAFF_DEPARTMENT, staffMember.getStaffId(), department.getDepartmentCode());
+                }
+            }
+            for (Map.Entry<Department, Staff> pending : pendingHeads.entrySet()) {
+                if (pending.getValue() == staffMember) {
+                    Department department = pending.getKey();
+                    AssociationLocks.lock(department);
+                    try {
+                        if (pendingHeads.remove(department, staffMember) && department.getHeadOfDepartment() == staffMember) {
+                            headChanged(department, staffMember);
+                        }
+                    } finally {
+                        AssociationLocks.unlock(department);
+                    }
+                }
+            }
+            if (staffMember instanceof Lecturer) {
+                for (Course course : ((Lecturer) staffMember).getCoursesTeaching()) {
+                    if (course.registry == this) {
+                        j.record(UniversityJournal.LINK_LECTURER_COURSE, staffMember.getStaffId(), course.getCourseCode());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a course to the registry and the credits index.
+     * @param course The Course object to register.
+     * @throws IllegalArgumentException if another course already uses the same course code.
+     */
+    public void registerCourse(Course course) {
+        Course existing = coursesByCode.putIfAbsent(course.getCourseCode(), course);
+        if (existing != null) {
+            if (existing != course) {
+                throw new IllegalArgumentException("Duplicate course code: " + course.getCourseCode());
+            }
+            return; // Already registered
+        }
+        course.registry = this;
+        addToIndex(coursesByCredits, course.getCredits(), course);
+        SearchIndex s = searchIndex;
+        if (s != null) {
+            s.add(course);
+        }
+        created(ChangeFeed.EntityType.COURSE, course.getCourseCode());
+        UniversityJournal j = journal;
+        if (j != null) {
+            Department offering = course.getOfferingDepartment();
+            j.newCourse(course, offering != null && offering.registry == this ? offering : null);
+            // Other departments that listed the course through addCourse before it was registered.
+            for (Department department : new ArrayList<>(course.getListingDepartments())) {
+                if (department.registry == this && department != offering) {
+                    j.record(UniversityJournal.DEPARTMENT_COURSE, department.getDepartmentCode(), course.getCourseCode());
+                }
+            }
+            for (Lecturer lecturer : course.getLecturers()) {
+                if (lecturer.registry == this) {
+                    j.record(UniversityJournal.LINK_LECTURER_COURSE, lecturer.getStaffId(), course.getCourseCode());
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a student to the registry. Students are not journaled or saved in snapshots yet.
+     * @param student The Student object to register.
+     * @throws IllegalArgumentException if another student already uses the same student ID.
+     */
+    public void registerStudent(Student student) {
+        Student existing = studentsById.putIfAbsent(student.getStudentId(), student);
+        if (existing != null) {
+            if (existing != student) {
+                throw new IllegalArgumentException("Duplicate student ID: " + student.getStudentId());
+            }
+            return; // Already registered
+        }
+        created(ChangeFeed.EntityType.STUDENT, student.getStudentId());
+    }
+
+    // --- Primary key lookups (constant time) ---
+
+    public Department getDepartment(String departmentCode) {
+        return departmentsByCode.get(departmentCode);
+    }
+
+    public Staff getStaff(String staffId) {
+        return staffById.get(staffId);
+    }
+
+    /**
+     * Looks up a lecturer by staff ID.
+     * @return The Lecturer, or null if the ID is unknown or belongs to a non-lecturer.
+     */
+    public Lecturer getLecturer(String staffId) {
+        Staff staff = staffById.get(staffId);
+        return staff instanceof Lecturer ? (Lecturer) staff : null;
+    }
+
+    /**
+     * Looks up an administrative staff member by staff ID.
+     * @return The AdministrativeStaff, or null if the ID is unknown or belongs to a lecturer.
+     */
+    public AdministrativeStaff getAdministrativeStaff(String staffId) {
+        Staff staff = staffById.get(staffId);
+        return staff instanceof AdministrativeStaff ? (AdministrativeStaff) staff : null;
+    }
+
+    public Course getCourse(String courseCode) {
+        return coursesByCode.get(courseCode);
+    }
+
+    public Student getStudent(String studentId) {
+        return studentsById.get(studentId);
+    }
+
+    // --- Secondary index lookups (return read-only views, empty if nothing matches) ---
+
+    public Set<Lecturer> getLecturersBySpecialization(String specialization) {
+        return view(lecturersBySpecialization, specialization);
+    }
+
+    public Set<AdministrativeStaff> getAdministrativeStaffByRole(String role) {
+        return view(adminStaffByRole, role);
+    }
+
+    public Set<Course> getCoursesByCredits(int credits) {
+        return view(coursesByCredits, credits);
+    }
+
+    /**
+     * Finds every staff member whose email is at the given domain (e.g. "uni.edu").
+     * The domain comparison is case-insensitive.
+     */
+    public Set<Staff> getStaffByEmailDomain(String domain) {
+        return view(staffByEmailDomain, domain == null ? "" : domain.toLowerCase(Locale.ROOT));
+    }
+
+    // --- Full listings ---
+
+    public Collection<Department> getAllDepartments() {
+        return Collections.unmodifiableCollection(departmentsByCode.values());
+    }
+
+    public Collection<Staff> getAllStaff() {
+        return Collections.unmodifiableCollection(staffById.values());
+    }
+
+    public Collection<Course> getAllCourses() {
+        return Collections.unmodifiableCollection(coursesByCode.values());
+    }
+
+    public Collection<Student> getAllStudents() {
+        return Collections.unmodifiableCollection(studentsById.values());
+    }
+
+    // --- Journal ---
+
+    /**
+     * Starts journaling every registration and every change to registered entities.
+     * Replay any existing journal into this registry before attaching it.
+     * @param journal The open journal to append to.
+     */
+    public void attachJournal(UniversityJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Stops journaling. The journal itself is left open.
+     * @return The journal that was attached, or null.
+     */
+    public UniversityJournal detachJournal() {
+        UniversityJournal j = journal;
+        journal = null;
+        return j;
+    }
+
+    public UniversityJournal getJournal() {
+        return journal;
+    }
+
+    // --- Search index ---
+
+    /**
+     * Starts keeping a search index up to date, and indexes every staff member and course
+     * registered so far.
+     * @param index The index to maintain.
+     */
+    public void attachSearchIndex(SearchIndex index) {
+        this.searchIndex = index;
+        // Set first, then fill: an entity registered meanwhile may be indexed twice, which is harmless.
+        index.addAll(staffById.values());
+        index.addAll(coursesByCode.values());
+    }
+
+    /**
+     * Stops updating the search index. The index keeps what it has.
+     * @return The index that was attached, or null.
+     */
+    public SearchIndex detachSearchIndex() {
+        SearchIndex s = searchIndex;
+        searchIndex = null;
+        return s;
+    }
+
+    public SearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    // --- Change feed ---
+
+    /**
+     * Starts recording changes to this registry's entities in a change feed: new registrations,
+     * and every change the model publishes as a DomainEvent (the feed subscribes to DomainEvents).
+     * Entities registered before are not recorded; consumers start from a full download.
+     * @param feed The feed to record into.
+     */
+    public void attachChangeFeed(ChangeFeed feed) {
+        feed.registry = this;
+        ChangeFeed previous = changeFeed;
+        changeFeed = feed;
+        if (previous != null) {
+            DomainEvents.unsubscribe(previous);
+        }
+        DomainEvents.subscribe(feed);
+    }
+
+    /**
+     * Stops recording changes. The feed keeps what it has.
+     * @return The feed that was attached, or null.
+     */
+    public ChangeFeed detachChangeFeed() {
+        ChangeFeed f = changeFeed;
+        changeFeed = null;
+        if (f != null) {
+            DomainEvents.unsubscribe(f);
+        }
+        return f;
+    }
+
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    private void created(ChangeFeed.EntityType type, String id) {
+        ChangeFeed f = changeFeed;
+        if (f != null) {
+            f.created(type, id);
+        }
+    }
+
+    // --- Index maintenance and journal callbacks, called by the entity mutators ---
+
+    void specializationChanged(Lecturer lecturer, String oldSpecialization) {
+        reindexSpecialization(lecturer, oldSpecialization);
+        UniversityJournal j = journal;
+        if (j != null) {
+            j.record(UniversityJournal.SET_SPECIALIZATION, lecturer.getStaffId(), lecturer.getSpecialization());
+        }
+    }
+
+    void roleChanged(AdministrativeStaff admin, String oldRole) {
+        reindexRole(admin, oldRole);
+        UniversityJournal j = journal;
+        if (j != null) {
+            j.record(UniversityJournal.SET_ROLE, admin.getStaffId(), admin.getRole());
+        }
+    }
+
+    void emailChanged(Staff staffMember, String oldEmail) {
+        reindexEmail(staffMember, oldEmail);
+        UniversityJournal j = journal;
+        if (j != null) {
+            j.record(UniversityJournal.SET_EMAIL, staffMember.getStaffId(), staffMember.getEmail());
+        }
+    }
+
+    void creditsChanged(Course course, int oldCredits) {
+        reindexCredits(course, oldCredits);
+        UniversityJournal j = journal;
+        if (j != null) {
+            j.record(UniversityJournal.SET_CREDITS, course.getCourseCode(), course.getCredits());
+        }
+    }
+
+    // Index maintenance only, shared by the callbacks above and by journal replay (which must not
+    // journal the change again).
+
+    void reindexSpecialization(Lecturer lecturer, String oldSpecialization) {
+        removeFromIndex(lecturersBySpecialization, oldSpecialization, lecturer);
+        addToIndex(lecturersBySpecialization, lecturer.getSpecialization(), lecturer);
+        SearchIndex s = searchIndex;
+        if (s != null) {
+            s.update(lecturer);
+        }
+    }
+
+    void reindexRole(AdministrativeStaff admin, String oldRole) {
+        removeFromIndex(adminStaffByRole, oldRole, admin);
+        addToIndex(adminStaffByRole, admin.getRole(), admin);
+    }
+
+    void reindexEmail(Staff staffMember, String oldEmail) {
+        removeFromIndex(staffByEmailDomain, emailDomain(oldEmail), staffMember);
+        addToIndex(staffByEmailDomain, emailDomain(staffMember.getEmail()), staffMember);
+        SearchIndex s = searchIndex;
+        if (s != null) {
+            s.update(staffMember);
+        }
+    }
+
+    void reindexCredits(Course course, int oldCredits) {
+        removeFromIndex(coursesByCredits, oldCredits, course);
+        addToIndex(coursesByCredits, course.getCredits(), course);
+    }
+
+    // The link and unlink callbacks are journaled only when both ends belong to this registry;
+    // otherwise the link is journaled later, when the second end is registered.
+
+    void staffDepartmentLinked(Staff staffMember, Department department) {
+        UniversityJournal j = journal;
+        if (j != null && department.registry == this) {
+            j.record(UniversityJournal.LINK_STAFF_DEPARTMENT, staffMember.getStaffId(), department.getDepartmentCode());
+        }
+    }
+
+    void lecturerCourseLinked(Lecturer lecturer, Course course) {
+        UniversityJournal j = journal;
+        if (j != null && course.registry == this) {
+            j.record(UniversityJournal.LINK_LECTURER_COURSE, lecturer.getStaffId(), course.getCourseCode());
+        }
+    }
+
+    void departmentCourseLinked(Department department, Course course) {
+        UniversityJournal j = journal;
+        if (j != null && course.registry == this) {
+            j.record(UniversityJournal.DEPARTMENT_COURSE, department.getDepartmentCode(), course.getCourseCode());
+        }
+    }
+
+    void staffDepartmentUnlinked(Staff staffMember, Department department) {
+        UniversityJournal j = journal;
+        if (j != null && department.registry == this) {
+            j.record(UniversityJournal.UNLINK_STAFF_DEPARTMENT, staffMember.getStaffId(), department.getDepartmentCode());
+        }
+    }
+
+    void lecturerCourseUnlinked(Lecturer lecturer, Course course) {
+        UniversityJournal j = journal;
+        if (j != null && course.registry == this) {
+            j.record(UniversityJournal.UNLINK_LECTURER_COURSE, lecturer.getStaffId(), course.getCourseCode());
+        }
+    }
+
+    void departmentCourseRemoved(Department department, Course course) {
+        UniversityJournal j = journal;
+        if (j != null && course.registry == this) {
+            j.record(UniversityJournal.REMOVE_DEPARTMENT_COURSE, department.getDepartmentCode(), course.getCourseCode());
+        }
+    }
+
+    // Called before the course's offering department is changed to the given one (write-ahead).
+    void offeringDepartmentChanged(Course course, Department offering) {
+        UniversityJournal j = journal;
+        if (j != null && (offering == null || offering.registry == this)) {
+            j.record(UniversityJournal.SET_OFFERING_DEPARTMENT, course.getCourseCode(),
+                    offering == null ? null : offering.getDepartmentCode());
+        }
+    }
+
+    // Called under the department's stripe before its head is changed to the given one
+    // (write-ahead). A head that is not registered yet is journaled when it is.
+    void headChanged(Department department, Staff head) {
+        UniversityJournal j = journal;
+        if (j == null) {
+            return;
+        }
+        if (head == null || head.registry == this) {
+            pendingHeads.remove(department);
+            j.record(UniversityJournal.SET_HEAD_OF_DEPARTMENT, department.getDepartmentCode(),
+                    head == null ? null : head.getStaffId());
+        } else {
+            pendingHeads.put(department, head);
+        }
+    }
+
+    // Called under the department's stripe before its office's room is changed (write-ahead).
+    void officeRoomChanged(Department department, String roomNumber) {
+        UniversityJournal j = journal;
+        if (j != null) {
+            j.record(UniversityJournal.SET_OFFICE_ROOM, department.getDepartmentCode(), roomNumber);
+        }
+    }
+
+    // Called under the department's stripe before its office's extension is changed (write-ahead).
+    void officeExtensionChanged(Department department, String phoneExtension) {
+        UniversityJournal j = journal;
+        if (j != null) {
+            j.record(UniversityJournal.SET_OFFICE_EXTENSION, department.getDepartmentCode(), phoneExtension);
+        }
+    }
+
+    // --- Helpers ---
+
+    /**
+     * Extracts the lower-cased domain part of an email address ("" if there is none).
+     */
+    static String emailDomain(String email) {
+        if (email == null) {
+            return "";
+        }
+        int at = email.lastIndexOf('@');
+        return at < 0 ? "" : email.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static <K, V> void addToIndex(Map<K, Set<V>> index, K key, V value) {
+        if (key != null) {
+            index.compute(key, (k, set) -> {
+                if (set == null) {
+                    set = ConcurrentHashMap.newKeySet();
+                }
+                set.add(value);
+                return set;
+            });
+        }
+    }
+
+    private static <K, V> void removeFromIndex(Map<K, Set<V>> index, K key, V value) {
+        if (key != null) {
+            index.computeIfPresent(key, (k, set) -> {
+                set.remove(value);
+                return set.isEmpty() ? null : set; // Drop empty buckets so the index does not grow forever
+            });
+        }
+    }
+
+    private static <K, V> Set<V> view(Map<K, Set<V>> index, K key) {
+        Set<V> set = key == null ? null : index.get(key);
+        return set == null ? Collections.emptySet() : Collections.unmodifiableSet(set);
+    }
+}
@@ -0,0 +1,393 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// UniversitySnapshot.java
+// Compact binary snapshot of everything in a UniversityRegistry, for a fast warm start.
+//
+// File layout (all numbers are big-endian ints unless noted):
+//   header      MAGIC, VERSION, journal offset (long; version 2+)
+//   strings     count, then for each: byte length, UTF-8 bytes   (every distinct String stored once)
+//   departments count, then for each: name, code, room, extension                  (string IDs)
+//   staff       count, then for each: kind (1 byte), staffId, name, email, specialization/role
+//   courses     count, then for each: courseCode, title, credits, offering department (-1 = none)
+//   links       for each department: head (-1 = none), course count + course IDs, staff count + staff IDs
+//               for each staff member: department count + department IDs,
+//                                      and for lecturers: course count + course IDs
+//               for each course: lecturer count + staff IDs
+// Cross-references are the position of the entity in its section, so loading never has to
+// look anything up by key. Both sides of every link are stored in their own order, so the
+// lists come back exactly as they were saved.
+//
+// Loading memory-maps the file and rebuilds the graph through the one-sided attach methods,
+// so it skips the per-link checks, locks and console output of the public add methods.
+public final class UniversitySnapshot {
+    private static final int MAGIC = 0x43554D53; // "CUMS"
+    private static final int VERSION = 2; // Version 2 added the journal offset to the header
+    private static final byte KIND_LECTURER = 0;
+    private static final byte KIND_ADMINISTRATIVE = 1;
+
+    private UniversitySnapshot() {
+        // Static helpers only
+    }
+
+    /**
+     * Writes every entity and link in the registry to a snapshot file.
+     * The file is written to a temporary sibling first and then moved into place,
+     * so a crash never leaves a half-written snapshot behind.
+     * Other threads may go on changing the registry meanwhile: each entity's fields are copied
+     * once, under its lock stripe, so the write never fails over a change. It is not a
+     * point-in-time image, though: an entity changed during the write may be saved before or
+     * after that change. For an exact image, write while nobody is changing the registry.
+     * @param registry The registry to save.
+     * @param file The snapshot file to create or replace.
+     * @throws IOException if the file cannot be written.
+     * @throws IllegalStateException if an entity links to something that is not registered.
+     */
+    public static void write(UniversityRegistry registry, Path file) throws IOException {
+        write(registry, file, 0L);
+    }
+
+    /**
+     * Writes a snapshot that covers the first journalOffset bytes of the registry's journal.
+     * Get the offset from UniversityJournal.sync() while no other thread is changing the registry;
+     * on restart, replay the journal from journalOffset(file) on top of the loaded snapshot.
+     * Concurrent changes do not make the write fail (see write(registry, file)), but the offset is
+     * only exact if nobody changes the registry between sync() and the end of the write.
+     * @param registry The registry to save.
+     * @param file The snapshot file to create or replace.
+     * @param journalOffset The journal length already reflected in the registry.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(UniversityRegistry registry, Path file, long journalOffset) throws IOException {
+        List<Department> departments = new ArrayList<>(registry.getAllDepartments());
+        List<Staff> staff = new ArrayList<>(registry.getAllStaff());
+        List<Course> courses = new ArrayList<>(registry.getAllCourses());
+        Map<Department, Integer> departmentIds = positions(departments);
+        Map<Staff, Integer> staffIds = positions(staff);
+        Map<Course, Integer> courseIds = positions(courses);
+
+        // First pass: copy every entity's own fields once, and build the string table from the
+        // copies. The second pass writes the same copies, so a field changed in between cannot
+        // be missing from the table.
+        String[][] departmentFields = new String[departments.size()][];
+        String[][] staffFields = new String[staff.size()][];
+        String[][] courseFields = new String[courses.size()][];
+        int[] credits = new int[courses.size()];
+        Department[] offering = new Department[courses.size()];
+        StringTable strings = new StringTable();
+        for (int i = 0; i < departments.size(); i++) {
+            Department d = departments.get(i);
+            AssociationLocks.lock(d);
+            try {
+                departmentFields[i] = new String[] {d.getName(), d.getDepartmentCode(),
+                        d.getOffice().getRoomNumber(), d.getOffice().getPhoneExtension()};
+            } finally {
+                AssociationLocks.unlock(d);
+            }
+            strings.addAll(departmentFields[i]);
+        }
+        for (int i = 0; i < staff.size(); i++) {
+            Staff s = staff.get(i);
+            AssociationLocks.lock(s);
+            try {
+                staffFields[i] = new String[] {s.getStaffId(), s.getName(), s.getEmail(), extraField(s)};
+            } finally {
+                AssociationLocks.unlock(s);
+            }
+            strings.addAll(staffFields[i]);
+        }
+        for (int i = 0; i < courses.size(); i++) {
+            Course c = courses.get(i);
+            AssociationLocks.lock(c);
+            try {
+                courseFields[i] = new String[] {c.getCourseCode(), c.getTitle()};
+                credits[i] = c.getCredits();
+                offering[i] = c.getOfferingDepartment();
+            } finally {
+                AssociationLocks.unlock(c);
+            }
+            strings.addAll(courseFields[i]);
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(journalOffset);
+
+            out.writeInt(strings.values.size());
+            for (String value : strings.values) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            // Second pass: entities, with every String replaced by its ID in the table.
+            out.writeInt(departments.size());
+            for (String[] fields : departmentFields) {
+                strings.writeIds(out, fields);
+            }
+            out.writeInt(staff.size());
+            for (int i = 0; i < staff.size(); i++) {
+                out.writeByte(staff.get(i) instanceof Lecturer ? KIND_LECTURER : KIND_ADMINISTRATIVE);
+                strings.writeIds(out, staffFields[i]);
+            }
+            out.writeInt(courses.size());
+            for (int i = 0; i < courses.size(); i++) {
+                strings.writeIds(out, courseFields[i]);
+                out.writeInt(credits[i]);
+                out.writeInt(offering[i] == null ? -1 : id(departmentIds, offering[i], "department"));
+            }
+
+            // Links, each side in its own order.
+            for (Department d : departments) {
+                out.writeInt(d.getHeadOfDepartment() == null
+                        ? -1 : id(staffIds, d.getHeadOfDepartment(), "staff member"));
+                writeIds(out, d.getCoursesOffered(), courseIds, "course");
+                writeIds(out, d.getStaffMembers(), staffIds, "staff member");
+            }
+            for (Staff s : staff) {
+                writeIds(out, s.getAssignedDepartments(), departmentIds, "department");
+                if (s instanceof Lecturer) {
+                    writeIds(out, ((Lecturer) s).getCoursesTeaching(), courseIds, "course");
+                }
+            }
+            for (Course c : courses) {
+                writeIds(out, c.getLecturers(), staffIds, "lecturer");
+            }
+            // The data must be on disk before the rename makes it visible, otherwise a crash
+            // can leave a complete-looking file name pointing at missing contents.
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(file.toAbsolutePath().getParent());
+    }
+
+    // Syncs the directory entry so the rename itself survives a crash. Not every platform can
+    // open a directory as a channel (Windows cannot), and there the rename is already durable.
+    private static void forceDirectory(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            // Best effort; the snapshot file itself is already synced.
+        }
+    }
+
+    /**
+     * Loads a snapshot file into a new, fully linked registry.
+     * @param file The snapshot file written by write().
+     * @return A registry holding every saved department, staff member and course.
+     * @throws IOException if the file cannot be read or is not a valid snapshot.
+     */
+    public static UniversityRegistry load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + size + " bytes");
+            }
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return read(buf);
+        } catch (RuntimeException e) {
+            // BufferUnderflowException, IndexOutOfBoundsException, ... all mean a damaged file.
+            throw new IOException("Corrupt snapshot: " + file, e);
+        }
+    }
+
+    /**
+     * Reads the journal offset stored in a snapshot's header (0 for snapshots without one).
+     * @param file The snapshot file.
+     * @return The offset to resume journal replay from.
+     * @throws IOException if the file cannot be read or is not a valid snapshot.
+     */
+    public static long journalOffset(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 16))) {
+            return readHeader(in.readInt(), in.readInt(), in::readLong);
+        } catch (EOFException e) {
+            throw new IOException("Corrupt snapshot: " + file, e);
+        }
+    }
+
+    private interface LongSource {
+        long next() throws IOException;
+    }
+
+    /**
+     * Checks the magic number and version, and returns the journal offset.
+     */
+    private static long readHeader(int magic, int version, LongSource journalOffset) throws IOException {
+        if (magic != MAGIC) {
+            throw new IOException("Not a university snapshot");
+        }
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        return version >= 2 ? journalOffset.next() : 0L;
+    }
+
+    private static UniversityRegistry read(MappedByteBuffer buf) throws IOException {
+        readHeader(buf.getInt(), buf.getInt(), buf::getLong);
+
+        String[] strings = new String[buf.getInt()];
+        byte[] scratch = new byte[256];
+        for (int i = 0; i < strings.length; i++) {
+            int length = buf.getInt();
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buf.get(scratch, 0, length);
+            strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        Department[] departments = new Department[buf.getInt()];
+        for (int i = 0; i < departments.length; i++) {
+            departments[i] = new Department(str(strings, buf.getInt()), str(strings, buf.getInt()),
+                    str(strings, buf.getInt()), str(strings, buf.getInt()));
+        }
+        Staff[] staff = new Staff[buf.getInt()];
+        for (int i = 0; i < staff.length; i++) {
+            byte kind = buf.get();
+            String staffId = str(strings, buf.getInt());
+            String name = str(strings, buf.getInt());
+            String email = str(strings, buf.getInt());
+            String extra = str(strings, buf.getInt());
+            staff[i] = kind == KIND_LECTURER
+                    ? new Lecturer(staffId, name, email, extra)
+                    : new AdministrativeStaff(staffId, name, email, extra);
+        }
+        Course[] courses = new Course[buf.getInt()];
+        for (int i = 0; i < courses.length; i++) {
+            // Created without a department so the constructor does not call addCourse;
+            // the department side is restored from its own saved order below.
+            Course course = new Course(str(strings, buf.getInt()), str(strings, buf.getInt()), buf.getInt(), null);
+            int offering = buf.getInt();
+            if (offering >= 0) {
+                course.attachOfferingDepartment(departments[offering]);
+            }
+            courses[i] = course;
+        }
+
+        for (Department d : departments) {
+            int head = buf.getInt();
+            if (head >= 0) {
+                d.attachHeadOfDepartment(staff[head]);
+            }
+            for (int n = buf.getInt(); n > 0; n--) {
+                d.attachCourse(courses[buf.getInt()]);
+            }
+            for (int n = buf.getInt(); n > 0; n--) {
+                d.attachStaffMember(staff[buf.getInt()]);
+            }
+        }
+        for (Staff s : staff) {
+            for (int n = buf.getInt(); n > 0; n--) {
+                s.attachDepartment(departments[buf.getInt()]);
+            }
+            if (s instanceof Lecturer) {
+                Lecturer lecturer = (Lecturer) s;
+                for (int n = buf.getInt(); n > 0; n--) {
+                    lecturer.attachCourse(courses[buf.getInt()]);
+                }
+            }
+        }
+        for (Course c : courses) {
+            for (int n = buf.getInt(); n > 0; n--) {
+                c.attachLecturer((Lecturer) staff[buf.getInt()]);
+            }
+        }
+
+        UniversityRegistry registry = new UniversityRegistry();
+        for (Department d : departments) {
+            registry.registerDepartment(d);
+        }
+        for (Staff s : staff) {
+            registry.registerStaff(s);
+        }
+        for (Course c : courses) {
+            registry.registerCourse(c);
+        }
+        return registry;
+    }
+
+    // --- Helpers ---
+
+    private static String extraField(Staff s) {
+        if (s instanceof Lecturer) {
+            return ((Lecturer) s).getSpecialization();
+        }
+        return ((AdministrativeStaff) s).getRole();
+    }
+
+    private static <T> Map<T, Integer> positions(List<T> items) {
+        Map<T, Integer> ids = new HashMap<>(items.size() * 2);
+        for (int i = 0; i < items.size(); i++) {
+            ids.put(items.get(i), i);
+        }
+        return ids;
+    }
+
+    private static <T> int id(Map<T, Integer> ids, T item, String what) {
+        Integer id = ids.get(item);
+        if (id == null) {
+            throw new IllegalStateException("Linked " + what + " is not in the registry: " + item);
+        }
+        return id;
+    }
+
+    private static <T> void writeIds(DataOutputStream out, List<? extends T> items, Map<T, Integer> ids,
+                                     String what) throws IOException {
+        out.writeInt(items.size());
+        for (T item : items) {
+            out.writeInt(id(ids, item, what));
+        }
+    }
+
+    private static String str(String[] strings, int id) {
+        return id < 0 ? null : strings[id];
+    }
+
+    /**
+     * Assigns each distinct String a small integer ID (-1 for null).
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        void addAll(String[] fields) {
+            for (String value : fields) {
+                if (value != null && !ids.containsKey(value)) {
+                    ids.put(value, values.size());
+                    values.add(value);
+                }
+            }
+        }
+
+        void writeIds(DataOutputStream out, String[] fields) throws IOException {
+            for (String value : fields) {
+                out.writeInt(value == null ? -1 : ids.get(value));
+            }
+        }
+    }
+}